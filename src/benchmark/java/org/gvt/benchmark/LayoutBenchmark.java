@@ -0,0 +1,72 @@
+package org.gvt.benchmark;
+
+import org.gvt.LayoutManager;
+import org.gvt.layout.MultilevelLayout;
+import org.gvt.model.basicsif.BasicSIFGraph;
+import org.ivis.layout.Layout;
+import org.ivis.layout.cose.CoSELayout;
+import org.openjdk.jmh.annotations.*;
+import org.patika.mada.benchmark.SyntheticGraph;
+
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running times of CoSE and the multilevel layout on the same SIF graphs. Each run lays out a
+ * fresh detached topology of the graph, whose creation is not measured.
+ *
+ * @author Ozgun Babur
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LayoutBenchmark
+{
+	@Param({"500", "2000", "10000"})
+	public int nodes;
+
+	@Param({"2"})
+	public int edgesPerNode;
+
+	@Param({"cose", "multilevel"})
+	public String layout;
+
+	private BasicSIFGraph graph;
+
+	private LayoutManager manager;
+
+	@Setup(Level.Trial)
+	public void generate() throws UnsupportedEncodingException
+	{
+		byte[] sif = SyntheticGraph.generate(nodes, edgesPerNode, 1).toSIF().getBytes("UTF-8");
+		graph = new BasicSIFGraph(new ByteArrayInputStream(sif), MEDIATOR_COLUMN);
+	}
+
+	@Setup(Level.Invocation)
+	public void createTopology()
+	{
+		manager = new LayoutManager();
+		manager.setLayout(createLayout());
+		manager.setRoot(graph);
+		manager.createDetachedTopology();
+	}
+
+	@Benchmark
+	public Object runLayout()
+	{
+		manager.runLayout();
+		return manager;
+	}
+
+	private Layout createLayout()
+	{
+		if (layout.equals("multilevel")) return new MultilevelLayout();
+		return new CoSELayout();
+	}
+
+	private static final int MEDIATOR_COLUMN = 3;
+}
@@ -0,0 +1,78 @@
+package org.gvt.benchmark;
+
+import org.gvt.LayoutManager;
+import org.gvt.model.basicsif.BasicSIFGraph;
+import org.ivis.layout.cose.CoSELayout;
+import org.openjdk.jmh.annotations.*;
+import org.patika.mada.benchmark.SyntheticGraph;
+
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running time of creating the layout topology of large SIF views, which precedes each layout.
+ * Some of the node pairs are connected with more than one edge, as in SIF views where the same
+ * pair has relations of different types.
+ *
+ * @author Ozgun Babur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LayoutTopologyBenchmark
+{
+	@Param({"2000", "10000"})
+	public int nodes;
+
+	@Param({"2"})
+	public int edgesPerNode;
+
+	/**
+	 * Ratio of the relations that are repeated with another type.
+	 */
+	@Param({"0.1"})
+	public double multiEdgeRatio;
+
+	private BasicSIFGraph graph;
+
+	@Setup
+	public void setup() throws UnsupportedEncodingException
+	{
+		String sif = SyntheticGraph.generate(nodes, edgesPerNode, 1).toSIF();
+
+		Random r = new Random(2);
+		StringBuilder sb = new StringBuilder(sif);
+
+		for (String line : sif.split("\n"))
+		{
+			String[] t = line.split("\t");
+			if (t.length < 3 || r.nextDouble() >= multiEdgeRatio) continue;
+
+			// The same pair, in reverse direction, with another relation type
+			sb.append(t[2]).append("\t").append(REPEAT_TYPE).append("\t").append(t[0])
+				.append("\n");
+		}
+
+		graph = new BasicSIFGraph(new ByteArrayInputStream(sb.toString().getBytes("UTF-8")),
+			MEDIATOR_COLUMN);
+	}
+
+	@Benchmark
+	public Object createTopology()
+	{
+		LayoutManager manager = new LayoutManager();
+		manager.setLayout(new CoSELayout());
+		manager.setRoot(graph);
+		manager.createTopology();
+		return manager;
+	}
+
+	private static final String REPEAT_TYPE = "controls-expression-of";
+
+	private static final int MEDIATOR_COLUMN = 3;
+}
@@ -0,0 +1,47 @@
+package org.patika.mada.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.patika.mada.algorithm.AlgoRunner;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running time of the causative path search, including the distance marking that precedes it.
+ * The search covers the whole graph, hence the networks are smaller than in QueryBenchmark.
+ *
+ * @author Ozgun Babur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CausalityBenchmark
+{
+	@Param({"500", "2000"})
+	public int nodes;
+
+	@Param({"2"})
+	public int edgesPerNode;
+
+	@Param({"3"})
+	public int limit;
+
+	@Param({"1"})
+	public int k;
+
+	private SyntheticGraph graph;
+
+	@Setup
+	public void setup()
+	{
+		graph = SyntheticGraph.generate(nodes, edgesPerNode, 1);
+	}
+
+	@Benchmark
+	public Object searchCauses()
+	{
+		return AlgoRunner.searchCausativePaths(graph, null, limit, 0, k);
+	}
+}
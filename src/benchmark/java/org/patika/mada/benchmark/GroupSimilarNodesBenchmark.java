@@ -0,0 +1,54 @@
+package org.patika.mada.benchmark;
+
+import org.gvt.model.basicsif.BasicSIFGraph;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running time of grouping the similar nodes of a SIF graph. Grouping changes the graph, so each
+ * run gets a freshly read graph, which is not measured.
+ *
+ * @author Ozgun Babur
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class GroupSimilarNodesBenchmark
+{
+	@Param({"1000", "10000"})
+	public int nodes;
+
+	@Param({"2"})
+	public int edgesPerNode;
+
+	private byte[] sif;
+
+	private BasicSIFGraph graph;
+
+	@Setup(Level.Trial)
+	public void generate() throws UnsupportedEncodingException
+	{
+		sif = SyntheticGraph.generate(nodes, edgesPerNode, 1).toSIF().getBytes("UTF-8");
+	}
+
+	@Setup(Level.Invocation)
+	public void read()
+	{
+		graph = new BasicSIFGraph(new ByteArrayInputStream(sif), MEDIATOR_COLUMN);
+	}
+
+	@Benchmark
+	public Object groupSimilarNodes()
+	{
+		graph.groupSimilarNodes();
+		return graph;
+	}
+
+	private static final int MEDIATOR_COLUMN = 3;
+}
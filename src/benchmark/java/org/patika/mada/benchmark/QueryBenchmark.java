@@ -0,0 +1,111 @@
+package org.patika.mada.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.patika.mada.algorithm.AlgoRunner;
+import org.patika.mada.algorithm.BFS;
+import org.patika.mada.algorithm.LocalCommonStreamQuery;
+import org.patika.mada.graph.CompactGraph;
+import org.patika.mada.graph.Node;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running times of the pathway queries on synthetic scale-free networks. Queries that take a
+ * snapshot of the graph take it in each run, as they do in the application, except the ones with
+ * "Compact" in their names, which run on a snapshot taken in setup.
+ *
+ * @author Ozgun Babur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark
+{
+	@Param({"1000", "10000", "50000"})
+	public int nodes;
+
+	@Param({"2"})
+	public int edgesPerNode;
+
+	@Param({"20"})
+	public int seedSize;
+
+	@Param({"3"})
+	public int limit;
+
+	private SyntheticGraph graph;
+	private CompactGraph compact;
+	private Set<Node> seed;
+	private int[] seedIds;
+
+	@Setup
+	public void setup()
+	{
+		graph = SyntheticGraph.generate(nodes, edgesPerNode, 1);
+		seed = graph.pickNodes(seedSize, new Random(2));
+		compact = new CompactGraph(graph);
+		seedIds = compact.getNodeIds(seed);
+	}
+
+	@Benchmark
+	public Object snapshot()
+	{
+		return new CompactGraph(graph);
+	}
+
+	@Benchmark
+	public Object bfsCompact()
+	{
+		BFS bfs = new BFS(seed, null, true, limit);
+		bfs.setGraph(compact);
+		bfs.search(seedIds, null);
+		return bfs;
+	}
+
+	@Benchmark
+	public Object pathsBetweenDirected()
+	{
+		return AlgoRunner.searchPathsBetweenSIF(seed, limit, true, -1, true);
+	}
+
+	@Benchmark
+	public Object pathsBetweenUndirected()
+	{
+		return AlgoRunner.searchPathsBetweenSIF(seed, limit, false, -1, true);
+	}
+
+	@Benchmark
+	public Object pathsBetweenShortestPlusK()
+	{
+		return AlgoRunner.searchPathsBetweenSIF(seed, limit, true, 1, true);
+	}
+
+	@Benchmark
+	public Object pathsBetweenCompact()
+	{
+		return AlgoRunner.searchPathsBetweenSIF(compact, seedIds, limit, true, -1, true, null);
+	}
+
+	@Benchmark
+	public Object pathsBetweenWithLinkers()
+	{
+		return AlgoRunner.searchPathsBetweenSIFWithLinkers(seed);
+	}
+
+	@Benchmark
+	public Object neighborhood()
+	{
+		return AlgoRunner.searchNeighborhood(seed, limit, true, true);
+	}
+
+	@Benchmark
+	public Object commonStream()
+	{
+		return new LocalCommonStreamQuery(seed, true, limit).run();
+	}
+}
@@ -0,0 +1,467 @@
+package org.patika.mada.benchmark;
+
+import org.patika.mada.graph.Edge;
+import org.patika.mada.graph.GraphObject;
+import org.patika.mada.graph.Graph;
+import org.patika.mada.graph.Node;
+import org.patika.mada.util.ExperimentData;
+import org.patika.mada.util.ExpressionData;
+import org.patika.mada.util.Representable;
+import org.patika.mada.util.XRef;
+
+import java.util.*;
+
+/**
+ * A scale-free graph for the benchmarks, generated with preferential attachment. Nodes and edges
+ * implement the graph interfaces of the query algorithms directly, so that the queries can be
+ * measured without the editor models. Some of the edges are signed and some of the nodes have
+ * expression data, for the causality search.
+ *
+ * @author Ozgun Babur
+ */
+public class SyntheticGraph implements Graph
+{
+	private List<SNode> nodes;
+	private List<SEdge> edges;
+
+	private SyntheticGraph()
+	{
+		nodes = new ArrayList<SNode>();
+		edges = new ArrayList<SEdge>();
+	}
+
+	/**
+	 * Generates a graph where each new node is connected to the given number of existing nodes,
+	 * chosen with probability proportional to their degree.
+	 * @param nodeCount number of nodes
+	 * @param edgesPerNode number of edges added with each node
+	 * @param seed seed of the random generator, the same seed gives the same graph
+	 */
+	public static SyntheticGraph generate(int nodeCount, int edgesPerNode, long seed)
+	{
+		Random r = new Random(seed);
+		SyntheticGraph graph = new SyntheticGraph();
+
+		// Each node appears here once per incident edge, a uniform pick from this list is a pick
+		// proportional to degree
+		int[] ends = new int[2 * nodeCount * edgesPerNode];
+		int endCount = 0;
+
+		for (int i = 0; i < nodeCount; i++)
+		{
+			SNode node = new SNode(graph, i, "G" + i);
+			graph.nodes.add(node);
+
+			if (r.nextDouble() < DATA_RATIO)
+			{
+				node.setExperimentData(new ExpressionData(r.nextBoolean() ? 1 : -1));
+			}
+
+			Set<Integer> neighbors = new HashSet<Integer>();
+
+			for (int j = 0; j < Math.min(edgesPerNode, i); j++)
+			{
+				int other = endCount == 0 ? r.nextInt(i) : ends[r.nextInt(endCount)];
+				if (other == i || !neighbors.add(other)) continue;
+
+				int kind = r.nextInt(KINDS.length);
+				boolean forward = r.nextBoolean();
+
+				SNode source = forward ? node : graph.nodes.get(other);
+				SNode target = forward ? graph.nodes.get(other) : node;
+
+				graph.edges.add(new SEdge(graph.edges.size(), source, target, KINDS[kind],
+					SIGNS[kind], DIRECTED[kind]));
+
+				ends[endCount++] = i;
+				ends[endCount++] = other;
+			}
+		}
+		return graph;
+	}
+
+	/**
+	 * Picks distinct random nodes.
+	 */
+	public Set<Node> pickNodes(int count, Random r)
+	{
+		Set<Node> set = new HashSet<Node>();
+		count = Math.min(count, nodes.size());
+
+		while (set.size() < count)
+		{
+			set.add(nodes.get(r.nextInt(nodes.size())));
+		}
+		return set;
+	}
+
+	/**
+	 * Gets the graph in SIF format, for reading it into the editor models.
+	 */
+	public String toSIF()
+	{
+		StringBuilder sb = new StringBuilder();
+
+		for (SEdge edge : edges)
+		{
+			sb.append(edge.source.name).append("\t").append(edge.tag).append("\t")
+				.append(edge.target.name).append("\n");
+		}
+		for (SNode node : nodes)
+		{
+			if (node.upstream.isEmpty() && node.downstream.isEmpty())
+			{
+				sb.append(node.name).append("\n");
+			}
+		}
+		return sb.toString();
+	}
+
+	public Collection<? extends Node> getNodes()
+	{
+		return nodes;
+	}
+
+	public Collection<? extends Edge> getEdges()
+	{
+		return edges;
+	}
+
+	public void removeLabels(Collection labels)
+	{
+		for (SNode node : nodes)
+		{
+			node.labels.keySet().removeAll(labels);
+		}
+		for (SEdge edge : edges)
+		{
+			edge.labels.keySet().removeAll(labels);
+		}
+	}
+
+	/**
+	 * Copies the given nodes, and the given edges between them, to a new graph. Experiment data
+	 * of the nodes is copied, other labels are not.
+	 */
+	public Graph excise(Collection<GraphObject> objects)
+	{
+		Set<GraphObject> set = new HashSet<GraphObject>(objects);
+		SyntheticGraph graph = new SyntheticGraph();
+		Map<SNode, SNode> copies = new HashMap<SNode, SNode>();
+
+		for (SNode node : nodes)
+		{
+			if (!set.contains(node)) continue;
+
+			SNode copy = new SNode(graph, node.id, node.name);
+			for (Object value : node.labels.values())
+			{
+				if (value instanceof ExperimentData) copy.setExperimentData((ExperimentData) value);
+			}
+			graph.nodes.add(copy);
+			copies.put(node, copy);
+		}
+
+		for (SEdge edge : edges)
+		{
+			SNode source = copies.get(edge.source);
+			SNode target = copies.get(edge.target);
+
+			if (set.contains(edge) && source != null && target != null)
+			{
+				graph.edges.add(new SEdge(edge.id, source, target, edge.tag, edge.sign,
+					edge.directed));
+			}
+		}
+		return graph;
+	}
+
+	public void removeHighlights()
+	{
+		for (SNode node : nodes)
+		{
+			node.highlight = false;
+		}
+		for (SEdge edge : edges)
+		{
+			edge.highlight = false;
+		}
+	}
+
+	/**
+	 * Label and highlight support for the nodes and edges.
+	 */
+	private static abstract class SObject implements GraphObject
+	{
+		int id;
+		Map<Object, Object> labels = new HashMap<Object, Object>();
+		boolean highlight;
+
+		SObject(int id)
+		{
+			this.id = id;
+		}
+
+		public int getId()
+		{
+			return id;
+		}
+
+		public void putLabel(Object label)
+		{
+			labels.put(label, null);
+		}
+
+		public void putLabel(Object label, Object value)
+		{
+			labels.put(label, value);
+		}
+
+		public boolean hasLabel(Object label)
+		{
+			return labels.containsKey(label);
+		}
+
+		public boolean hasLabel(Object label, Object value)
+		{
+			return labels.containsKey(label) && labels.get(label).equals(value);
+		}
+
+		public Object getLabel(Object label)
+		{
+			return labels.get(label);
+		}
+
+		public void removeLabel(Object label)
+		{
+			labels.remove(label);
+		}
+
+		public void setHighlight(boolean highlight)
+		{
+			this.highlight = highlight;
+		}
+
+		public boolean isHighlighted()
+		{
+			return highlight;
+		}
+
+		public Set<GraphObject> getRequisites()
+		{
+			return new HashSet<GraphObject>();
+		}
+
+		public List<String[]> getInspectable()
+		{
+			return new ArrayList<String[]>();
+		}
+	}
+
+	private static class SNode extends SObject implements Node
+	{
+		Graph graph;
+		String name;
+		List<SEdge> upstream = new ArrayList<SEdge>(2);
+		List<SEdge> downstream = new ArrayList<SEdge>(2);
+
+		SNode(Graph graph, int id, String name)
+		{
+			super(id);
+			this.graph = graph;
+			this.name = name;
+		}
+
+		public boolean isEvent()
+		{
+			return false;
+		}
+
+		public boolean isComplexMember()
+		{
+			return false;
+		}
+
+		public boolean isTranscriptionEvent()
+		{
+			return false;
+		}
+
+		public boolean hasExperimentData(Object key)
+		{
+			return labels.containsKey(key);
+		}
+
+		public Representable getRepresentableData(Object key)
+		{
+			return (Representable) labels.get(key);
+		}
+
+		public ExperimentData getExperimentData(String type)
+		{
+			return (ExperimentData) labels.get(type);
+		}
+
+		public void setExperimentData(ExperimentData data)
+		{
+			labels.put(data.getKey(), data);
+		}
+
+		public List<XRef> getReferences()
+		{
+			return Collections.emptyList();
+		}
+
+		public List<XRef> getSecondaryReferences()
+		{
+			return Collections.emptyList();
+		}
+
+		public Collection<? extends Node> getChildren()
+		{
+			return Collections.emptyList();
+		}
+
+		public Collection<? extends Node> getParents()
+		{
+			return Collections.emptyList();
+		}
+
+		public Graph getGraph()
+		{
+			return graph;
+		}
+
+		public Collection<? extends Edge> getUpstream()
+		{
+			return upstream;
+		}
+
+		public Collection<? extends Edge> getDownstream()
+		{
+			return downstream;
+		}
+
+		public boolean hasSignificantExperimentalChange(String type)
+		{
+			return hasExperimentData(type) && getExperimentData(type).isSignificant();
+		}
+
+		public int getExperimentDataSign(String type)
+		{
+			return getExperimentData(type).getSign();
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+
+		public boolean sameEntity(Node n)
+		{
+			return n == this;
+		}
+
+		public boolean isBreadthNode()
+		{
+			return true;
+		}
+
+		public Set<Node> getTabuNodes()
+		{
+			return new HashSet<Node>();
+		}
+	}
+
+	private static class SEdge extends SObject implements Edge
+	{
+		SNode source;
+		SNode target;
+		String tag;
+		int sign;
+		boolean directed;
+
+		SEdge(int id, SNode source, SNode target, String tag, int sign, boolean directed)
+		{
+			super(id);
+			this.source = source;
+			this.target = target;
+			this.tag = tag;
+			this.sign = sign;
+			this.directed = directed;
+
+			source.downstream.add(this);
+			target.upstream.add(this);
+		}
+
+		public Node getSourceNode()
+		{
+			return source;
+		}
+
+		public Node getTargetNode()
+		{
+			return target;
+		}
+
+		public boolean isPositive()
+		{
+			return sign > 0;
+		}
+
+		public boolean isNegative()
+		{
+			return sign < 0;
+		}
+
+		public int getSign()
+		{
+			return sign;
+		}
+
+		public boolean isTranscription()
+		{
+			return false;
+		}
+
+		public boolean isPTM()
+		{
+			return false;
+		}
+
+		public boolean isDirected()
+		{
+			return directed;
+		}
+
+		public boolean isCausative()
+		{
+			return directed && sign != 0;
+		}
+
+		public boolean isBreadthEdge()
+		{
+			return true;
+		}
+
+		public boolean isEquivalenceEdge()
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * SIF types of the generated edges, with their signs and directions.
+	 */
+	private static final String[] KINDS =
+		{"controls-state-change-of", "controls-expression-of", "in-complex-with"};
+
+	private static final int[] SIGNS = {1, -1, 0};
+
+	private static final boolean[] DIRECTED = {true, true, false};
+
+	/**
+	 * Ratio of the nodes with expression data.
+	 */
+	private static final double DATA_RATIO = 0.2;
+}
@@ -0,0 +1,127 @@
+package org.gvt;
+
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.patika.mada.util.CancelledException;
+import org.patika.mada.util.ProgressMonitor;
+
+/**
+ * A time consuming operation that runs in a worker thread of the JobManager, so that the user
+ * interface stays responsive. The work method runs in the worker thread, and should not touch
+ * widgets or the models that are displayed. Anything the work needs from them is read in the
+ * prepare method, and the outcome is handed to the UI thread with one of the done, cancelled or
+ * failed methods.
+ *
+ * The job is also the progress monitor of the algorithms it runs. Cancelling a job only sets a
+ * flag, and the work stops at the next check of the flag.
+ *
+ * @author Ozgun Babur
+ */
+public abstract class BackgroundJob implements ProgressMonitor
+{
+	protected ChisioMain main;
+
+	private String name;
+
+	private volatile boolean cancelled;
+
+	private volatile String message;
+	private volatile int worked;
+	private volatile int total;
+
+	private JobManager manager;
+
+	public BackgroundJob(ChisioMain main, String name)
+	{
+		this.main = main;
+		this.name = name;
+		this.message = name;
+	}
+
+	/**
+	 * Reads what the work needs from the displayed models. Runs in the UI thread when the job is
+	 * scheduled.
+	 */
+	protected void prepare()
+	{
+	}
+
+	/**
+	 * Does the work. Runs in a worker thread.
+	 */
+	protected abstract void work() throws Exception;
+
+	/**
+	 * Uses the results of the work. Runs in the UI thread, only if the work completes.
+	 */
+	protected void done()
+	{
+	}
+
+	/**
+	 * Runs in the UI thread if the job is cancelled.
+	 */
+	protected void cancelled()
+	{
+	}
+
+	/**
+	 * Runs in the UI thread if the work throws an exception. Shows the error by default.
+	 */
+	protected void failed(Throwable t)
+	{
+		t.printStackTrace();
+		MessageDialog.openError(main.getShell(), "Error",
+			"An error occurred during " + name + ":\n" + t.getMessage());
+	}
+
+	/**
+	 * Requests the job to stop.
+	 */
+	public void cancel()
+	{
+		cancelled = true;
+	}
+
+	public boolean isCancelled()
+	{
+		return cancelled;
+	}
+
+	/**
+	 * Throws a CancelledException if the job is cancelled. Work methods call this between their
+	 * steps.
+	 */
+	protected void checkCancelled()
+	{
+		CancelledException.check(this);
+	}
+
+	public void setProgress(String message, int worked, int total)
+	{
+		this.message = message;
+		this.worked = worked;
+		this.total = total;
+
+		if (manager != null) manager.progressChanged();
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Gets the current step and its progress as a single line.
+	 */
+	public String getProgressText()
+	{
+		String s = message;
+		if (total > 0) s += " (" + (worked * 100L / total) + "%)";
+		return s;
+	}
+
+	void setManager(JobManager manager)
+	{
+		this.manager = manager;
+	}
+}
@@ -22,6 +22,7 @@ import org.eclipse.gef.ui.parts.ScrollingGraphicalViewer;
 import org.eclipse.jface.action.IMenuListener;
 import org.eclipse.jface.action.IMenuManager;
 import org.eclipse.jface.action.MenuManager;
+import org.eclipse.jface.action.StatusLineManager;
 import org.eclipse.jface.action.ToolBarManager;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.viewers.IStructuredSelection;
@@ -113,18 +114,25 @@ public class ChisioMain extends ApplicationWindow
     // Used for fetching data from cBio Portal
     public static CBioPortalAccessor cBioPortalAccessor;
 
+	/**
+	 * Runs the time consuming operations in background.
+	 */
+	private JobManager jobManager;
+
     public ChisioMain()
 	{
 		super(null);
 //		createChangeModeAction();
 		this.dataManagerMap = new HashMap<String, ExperimentDataManager>();
 		this.isClusterBoundShown = false;
+		this.jobManager = new JobManager(this, MAX_WORKERS);
 	}
 
 	protected void handleShellCloseEvent()
 	{
 		if (LoadBioPaxModelAction.saveChangesBeforeDiscard(this))
 		{
+			jobManager.shutdown();
 			super.handleShellCloseEvent();
 			Shell[] inspectors = Display.getDefault().getShells();
 			int size = inspectors.length;
@@ -150,6 +158,7 @@ public class ChisioMain extends ApplicationWindow
 		window.setBlockOnOpen(true);
 		window.addMenuBar();
 		window.addToolBar(SWT.FLAT  | SWT.RIGHT);
+		window.addStatusLine();
 
 		if (args.length > 0)
 		{
@@ -604,6 +613,28 @@ public class ChisioMain extends ApplicationWindow
 		}
 	}
 
+	public JobManager getJobManager()
+	{
+		return jobManager;
+	}
+
+	/**
+	 * Runs the job in background. Its progress is shown on the status line, and the application
+	 * can be used while it runs.
+	 */
+	public void schedule(BackgroundJob job)
+	{
+		jobManager.schedule(job);
+	}
+
+	/**
+	 * Runs the job right away, locking the application until it is finished.
+	 */
+	public void runInForeground(BackgroundJob job)
+	{
+		jobManager.runInForeground(job);
+	}
+
 	public boolean isLevel2()
 	{
 		return getBioPAXModel() != null && getBioPAXModel().getLevel() == BioPAXLevel.L2;
@@ -624,6 +655,15 @@ public class ChisioMain extends ApplicationWindow
 		return new ToolbarManager(style, this);
 	}
 
+	protected StatusLineManager createStatusLineManager()
+	{
+		StatusLineManager manager = super.createStatusLineManager();
+		CancelJobsAction cancel = new CancelJobsAction(this);
+		manager.add(cancel);
+		jobManager.setCancelAction(cancel);
+		return manager;
+	}
+
 	public void mouseDoubleClick(MouseEvent e)
 	{
 		InspectorAction inspectorAction = new InspectorAction(this, false);
@@ -931,16 +971,14 @@ public class ChisioMain extends ApplicationWindow
 		ExperimentDataManager man = new ExperimentDataManager(data, fileLocation);
 		dataManagerMap.put(type, man);
 
-		for (ScrollingGraphicalViewer viewer : tabToViewerMap.values())
+		List<BioPAXGraph> graphs = getAllPathwayGraphs();
+
+		for (BioPAXGraph graph : graphs)
 		{
-			Object model = viewer.getContents().getModel();
-			if (model instanceof BioPAXGraph)
-			{
-				BioPAXGraph graph = (BioPAXGraph) model;
-				man.clearExperimentData(graph);
-				man.associateExperimentData(graph);
-			}
+			man.clearExperimentData(graph);
 		}
+
+		man.associateExperimentData(graphs);
 	}
 
 	public Set<String> getLoadedExperimentTypes()
@@ -990,6 +1028,11 @@ public class ChisioMain extends ApplicationWindow
 
 	public final static String TOOL_NAME = "Chisio BioPAX Editor";
 
+	/**
+	 * Maximum number of background jobs that run at the same time.
+	 */
+	public final static int MAX_WORKERS = 4;
+
 	/**
 	 * Used for preventing antialiasing and transparent colors in non-windows 
 	 * systems. During packaging this variable should be manually set.
@@ -0,0 +1,253 @@
+package org.gvt;
+
+import org.eclipse.jface.action.IAction;
+import org.eclipse.jface.action.IStatusLineManager;
+import org.eclipse.swt.widgets.Display;
+import org.patika.mada.util.CancelledException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs background jobs on a bounded pool of worker threads, and shows their progress on the status
+ * line of the main window. Jobs that are scheduled while all workers are busy wait in a queue.
+ *
+ * @author Ozgun Babur
+ */
+public class JobManager
+{
+	private ChisioMain main;
+
+	private Display display;
+
+	private ThreadPoolExecutor executor;
+
+	/**
+	 * Jobs that are scheduled and not finished yet, in the order of scheduling.
+	 */
+	private final List<BackgroundJob> jobs;
+
+	/**
+	 * Action that cancels the jobs. It is enabled only while there are jobs.
+	 */
+	private IAction cancelAction;
+
+	/**
+	 * True while a status line update is waiting for the UI thread, so that frequent progress
+	 * reports do not flood the event queue.
+	 */
+	private AtomicBoolean updatePending;
+
+	public JobManager(ChisioMain main, int threads)
+	{
+		this.main = main;
+		this.display = Display.getDefault();
+		this.jobs = new ArrayList<BackgroundJob>();
+		this.updatePending = new AtomicBoolean(false);
+
+		final AtomicInteger threadNo = new AtomicInteger(1);
+
+		executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+		{
+			public Thread newThread(Runnable r)
+			{
+				Thread t = new Thread(r, "ChiBE worker " + threadNo.getAndIncrement());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	public void setCancelAction(IAction cancelAction)
+	{
+		this.cancelAction = cancelAction;
+		if (cancelAction != null) cancelAction.setEnabled(false);
+	}
+
+	/**
+	 * Queues the job to run in a worker thread. Should be called from the UI thread.
+	 */
+	public void schedule(final BackgroundJob job)
+	{
+		job.setManager(this);
+		job.prepare();
+
+		synchronized (jobs)
+		{
+			jobs.add(job);
+		}
+		updateStatus();
+
+		executor.execute(new Runnable()
+		{
+			public void run()
+			{
+				Throwable error = null;
+
+				try
+				{
+					if (!job.isCancelled()) job.work();
+				}
+				catch (CancelledException e)
+				{
+					// The job will be reported as cancelled below
+				}
+				catch (Throwable t)
+				{
+					error = t;
+				}
+
+				finish(job, error);
+			}
+		});
+	}
+
+	/**
+	 * Runs the job in the UI thread, locking the window until the work is finished. This is for
+	 * the callers that need the results before they continue.
+	 */
+	public void runInForeground(BackgroundJob job)
+	{
+		job.setManager(this);
+		Throwable error = null;
+
+		try
+		{
+			job.prepare();
+			main.lockWithMessage(job.getName() + " ...");
+			job.work();
+		}
+		catch (CancelledException e)
+		{
+			// Reported as cancelled below
+		}
+		catch (Throwable t)
+		{
+			error = t;
+		}
+		finally
+		{
+			main.unlock();
+		}
+
+		if (job.isCancelled()) job.cancelled();
+		else if (error != null) job.failed(error);
+		else job.done();
+	}
+
+	/**
+	 * Hands the outcome of the job to the UI thread.
+	 */
+	private void finish(final BackgroundJob job, final Throwable error)
+	{
+		if (display.isDisposed()) return;
+
+		display.asyncExec(new Runnable()
+		{
+			public void run()
+			{
+				synchronized (jobs)
+				{
+					jobs.remove(job);
+				}
+				updateStatus();
+
+				if (job.isCancelled()) job.cancelled();
+				else if (error != null) job.failed(error);
+				else job.done();
+			}
+		});
+	}
+
+	/**
+	 * Requests all scheduled jobs to stop.
+	 */
+	public void cancelAll()
+	{
+		for (BackgroundJob job : getJobs())
+		{
+			job.cancel();
+		}
+		updateStatus();
+	}
+
+	/**
+	 * Gets the jobs that are not finished yet.
+	 */
+	public List<BackgroundJob> getJobs()
+	{
+		synchronized (jobs)
+		{
+			return new ArrayList<BackgroundJob>(jobs);
+		}
+	}
+
+	public boolean hasJobs()
+	{
+		synchronized (jobs)
+		{
+			return !jobs.isEmpty();
+		}
+	}
+
+	/**
+	 * Called by the jobs when they report progress. May be called from any thread.
+	 */
+	void progressChanged()
+	{
+		if (updatePending.compareAndSet(false, true) && !display.isDisposed())
+		{
+			display.asyncExec(new Runnable()
+			{
+				public void run()
+				{
+					updatePending.set(false);
+					updateStatus();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Shows the progress of the first running job, and the number of jobs, on the status line.
+	 * Runs in the UI thread.
+	 */
+	private void updateStatus()
+	{
+		List<BackgroundJob> list = getJobs();
+
+		if (cancelAction != null) cancelAction.setEnabled(!list.isEmpty());
+
+		IStatusLineManager status = main.getStatusLineManager();
+		if (status == null) return;
+
+		if (list.isEmpty())
+		{
+			status.setMessage(null);
+			return;
+		}
+
+		BackgroundJob job = list.get(0);
+		String msg = job.isCancelled() ? job.getName() + " (cancelling)" : job.getProgressText();
+
+		if (list.size() > 1) msg += "   [" + list.size() + " jobs]";
+
+		status.setMessage(msg);
+	}
+
+	/**
+	 * Cancels the jobs and stops the workers.
+	 */
+	public void shutdown()
+	{
+		cancelAll();
+		executor.shutdownNow();
+	}
+
+	private static final int KEEP_ALIVE_SECONDS = 30;
+}
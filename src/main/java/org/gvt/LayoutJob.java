@@ -0,0 +1,164 @@
+package org.gvt;
+
+import org.eclipse.draw2d.geometry.Point;
+import org.gvt.model.CompoundModel;
+import org.gvt.model.GraphObject;
+import org.gvt.model.NodeModel;
+import org.ivis.layout.Layout;
+import org.ivis.layout.LayoutOptionsPack;
+import org.ivis.layout.LGraphObject;
+import org.ivis.layout.Updatable;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a layout in background. The topology is created from the models when the job is
+ * scheduled, the layout runs on it in a worker thread, and the new positions are transferred to
+ * the models when it is done.
+ *
+ * The layout updates the root of the detached topology at its animation steps, whether animation
+ * during layout is selected or not. There the intermediate positions are shown at a fixed frame
+ * rate while the layout converges, and the layout stops if the job is cancelled. A cancelled
+ * layout leaves the models at the last shown positions.
+ *
+ * @author Ozgun Babur
+ */
+public class LayoutJob extends BackgroundJob
+{
+	private CompoundModel root;
+	private LayoutManager manager;
+
+	/**
+	 * Time of the last frame, in the thread of the layout.
+	 */
+	private long lastFrameTime;
+
+	/**
+	 * True while a frame is waiting for the UI thread, so that a slow display does not queue up
+	 * frames.
+	 */
+	private AtomicBoolean framePending;
+
+	/**
+	 * Whether any frame is shown. Used in the UI thread.
+	 */
+	private boolean frameShown;
+
+	public LayoutJob(ChisioMain main, CompoundModel root, Layout layout)
+	{
+		super(main, "Performing layout");
+		this.root = root;
+		this.framePending = new AtomicBoolean(false);
+
+		// A separate manager, since other layouts may be running at the same time
+		this.manager = new LayoutManager();
+		this.manager.setLayout(layout);
+		this.manager.setRoot(root);
+		this.manager.setMain(main);
+	}
+
+	@Override
+	protected void prepare()
+	{
+		setProgress("Performing layout (" + root.getNodes().size() + " nodes, " +
+			root.getEdges().size() + " edges)", 0, 0);
+
+		manager.createDetachedTopology(new FramePublisher());
+	}
+
+	@Override
+	protected void work() throws Exception
+	{
+		manager.runLayout();
+	}
+
+	@Override
+	protected void done()
+	{
+		manager.transferPositions();
+		manager.postRun();
+	}
+
+	/**
+	 * Tells if any intermediate positions are shown, which are kept if the layout is cancelled.
+	 */
+	public boolean isFrameShown()
+	{
+		return frameShown;
+	}
+
+	/**
+	 * Records the positions in the thread of the layout and shows them in the UI thread.
+	 */
+	private void publishFrame()
+	{
+		long time = System.currentTimeMillis();
+
+		if (time - lastFrameTime < FRAME_PERIOD || !framePending.compareAndSet(false, true))
+		{
+			return;
+		}
+
+		lastFrameTime = time;
+		final Map<NodeModel, Point> positions = manager.capturePositions();
+
+		if (main.getShell().getDisplay().isDisposed()) return;
+
+		// Frames are queued before the outcome of the job, hence they cannot override the final
+		// positions
+		main.getShell().getDisplay().asyncExec(new Runnable()
+		{
+			public void run()
+			{
+				showFrame(positions);
+				framePending.set(false);
+			}
+		});
+	}
+
+	/**
+	 * Moves the models to the given intermediate positions. Runs in the UI thread.
+	 */
+	private void showFrame(Map<NodeModel, Point> positions)
+	{
+		GraphObject.startBatch();
+		try
+		{
+			manager.applyPositions(positions);
+		}
+		finally
+		{
+			GraphObject.endBatch();
+		}
+
+		frameShown = true;
+
+		if (LayoutOptionsPack.getInstance().getGeneral().animationOnLayout &&
+			manager.getViewer() != null)
+		{
+			GraphAnimation.run(manager.getViewer());
+		}
+	}
+
+	/**
+	 * Stands for the root model in the detached topology. The layout updates it at its animation
+	 * steps, which are not turned off by the options, see LayoutManager.updateDetachedRoot.
+	 */
+	private class FramePublisher implements Updatable
+	{
+		public void update(LGraphObject lGraphObj)
+		{
+			// Stops the layout, the positions of the last frame stay
+			checkCancelled();
+
+			publishFrame();
+		}
+	}
+
+	/**
+	 * Minimum time between two frames, in milliseconds. It is longer than the animation between
+	 * two frames, so that the window stays usable.
+	 */
+	private static final long FRAME_PERIOD = 1000;
+}
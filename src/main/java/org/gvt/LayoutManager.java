@@ -1,5 +1,7 @@
 package org.gvt;
 
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.gef.ui.parts.ScrollingGraphicalViewer;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Cursor;
 import org.gvt.action.ZoomAction;
@@ -30,6 +32,8 @@ public class LayoutManager
 	private ChisioMain main;
 	private HashMap<NodeModel, LNode> gvtToLayout;
 	private HashMap<LNode, NodeModel> layoutToGvt;
+	private HashMap<LEdge, EdgeModel> edgeToGvt;
+	private LGraph lroot;
 
 // -----------------------------------------------------------------------------
 // Section: Constructors and initialization
@@ -43,6 +47,7 @@ public class LayoutManager
 		super();
 		this.gvtToLayout = new HashMap<NodeModel, LNode>();
 		this.layoutToGvt = new HashMap<LNode, NodeModel>();
+		this.edgeToGvt = new HashMap<LEdge, EdgeModel>();
 	}
 
 // -----------------------------------------------------------------------------
@@ -76,91 +81,267 @@ public class LayoutManager
 		// create initial topology: a graph manager associated with the layout,
 		// containing an empty root graph as its only graph
 
+		this.gvtToLayout.clear();
+		this.layoutToGvt.clear();
+		this.edgeToGvt.clear();
+
 		LGraphManager graphMgr = this.layout.getGraphManager();
-		LGraph lroot = graphMgr.addRoot();
+		lroot = graphMgr.addRoot();
 		lroot.vGraphObject = this.root;
 
 		// for each NodeModel in the root model create an LNode
 
+		Point rootLocation = this.root.getLocationAbs();
+
 		for (Object o : root.getChildren())
 		{
-			createNode((NodeModel) o, null, this.layout);
+			createNode((NodeModel) o, null, rootLocation, this.layout);
 		}
 
-		Map<EdgeModel, Integer> multiEdges = findMultiEdges(root.getEdges());
+		// the edge set is collected by traversing the model, so it is collected once
+
+		Set<EdgeModel> edges = root.getEdges();
+		Map<EdgeModel, Integer> multiEdges = findMultiEdges(edges);
 
 		// for each EdgeModel in the edge set create an LEdge
 
-		for (Object o : root.getEdges())
+		for (EdgeModel edge : edges)
 		{
-			EdgeModel edge = (EdgeModel) o;
 			createEdge(edge, multiEdges.get(edge));
 		}
 
 		graphMgr.updateBounds();
 	}
 
-	private Map<EdgeModel, Integer> findMultiEdges(Set<EdgeModel> edges)
+	/**
+	 * Creates the topology, but leaves the l-level objects unassociated with the v-level objects,
+	 * so that the layout does not update the models when it finishes. Such a layout can run in a
+	 * worker thread, and its result is applied to the models with transferPositions, in the UI
+	 * thread.
+	 */
+	public void createDetachedTopology()
+	{
+		createTopology();
+
+		for (LNode lNode : this.layoutToGvt.keySet())
+		{
+			lNode.vGraphObject = null;
+		}
+		for (LEdge lEdge : this.edgeToGvt.keySet())
+		{
+			lEdge.vGraphObject = null;
+		}
+		lroot.vGraphObject = null;
+	}
+
+	/**
+	 * Creates a detached topology, where the given object stands for the root model. The layout
+	 * updates the root object at each animation step, in the thread of the layout, which lets a
+	 * background layout show its progress.
+	 */
+	public void createDetachedTopology(Updatable rootObject)
 	{
-		Map<EdgeModel, Set<EdgeModel>> map = new HashMap<EdgeModel, Set<EdgeModel>>();
+		createDetachedTopology();
+		lroot.vGraphObject = rootObject;
+	}
 
-		for (EdgeModel edge1 : edges)
+	/**
+	 * Makes a layout that runs on a detached topology with a root object update the root at its
+	 * animation steps, also when animation during layout is off. The job of the layout checks
+	 * cancellation and shows frames there. Layouts call this after initializing their parameters
+	 * from the options, which would otherwise turn the updates off.
+	 */
+	public static void updateDetachedRoot(Layout layout)
+	{
+		Object root = layout.getGraphManager().getRoot().vGraphObject;
+
+		if (root != null && !(root instanceof CompoundModel))
 		{
-			for (EdgeModel edge2 : edges)
+			layout.animationDuringLayout = true;
+		}
+	}
+
+	/**
+	 * Gets the viewer that shows the root model, which may not be the viewer of the selected tab
+	 * if the layout runs in background.
+	 */
+	public ScrollingGraphicalViewer getViewer()
+	{
+		for (ScrollingGraphicalViewer viewer : this.main.getTabToViewerMap().values())
+		{
+			if (viewer.getContents() != null && viewer.getContents().getModel() == this.root)
 			{
-				if (edge1 == edge2) continue;
-				if (edge1.hashCode() < edge2.hashCode()) continue;
+				return viewer;
+			}
+		}
+		return this.main.getViewer();
+	}
 
-				if ((edge1.getSource() == edge2.getSource() && edge1.getTarget() == edge2.getTarget()) ||
-					(edge1.getSource() == edge2.getTarget() && edge1.getTarget() == edge2.getSource()))
-				{
+	/**
+	 * Records the current positions in the detached topology, in the order the layout would
+	 * update the models. Compound nodes whose members are laid out are mapped to null, since they
+	 * are fitted to their members. Should be called in the thread of the layout.
+	 */
+	public Map<NodeModel, Point> capturePositions()
+	{
+		Map<NodeModel, Point> positions = new LinkedHashMap<NodeModel, Point>();
 
-					Set<EdgeModel> set = map.get(edge1);
-					if (set == null) set = map.get(edge2);
-					if (set == null) set = new HashSet<EdgeModel>();
+		for (Object o : lroot.getNodes())
+		{
+			capturePosition((LNode) o, positions);
+		}
+		return positions;
+	}
 
-					if (!map.containsKey(edge1)) map.put(edge1, set);
-					if (!map.containsKey(edge2)) map.put(edge2, set);
+	private void capturePosition(LNode lNode, Map<NodeModel, Point> positions)
+	{
+		NodeModel node = this.layoutToGvt.get(lNode);
 
-					set.add(edge1);
-					set.add(edge2);
-				}
+		if (lNode.getChild() != null && !lNode.getChild().getNodes().isEmpty())
+		{
+			for (Object o : lNode.getChild().getNodes())
+			{
+				capturePosition((LNode) o, positions);
 			}
+			positions.put(node, null);
+		}
+		else
+		{
+			positions.put(node, new Point(lNode.getRect().x, lNode.getRect().y));
 		}
+	}
 
-		Map<EdgeModel, Integer> multi = new HashMap<EdgeModel, Integer>();
+	/**
+	 * Moves the models to the positions recorded with capturePositions. A compound node that is
+	 * moved as a whole carries its members along.
+	 */
+	public void applyPositions(Map<NodeModel, Point> positions)
+	{
+		for (NodeModel node : positions.keySet())
+		{
+			Point location = positions.get(node);
+
+			if (location == null) ((CompoundModel) node).calculateSizeUp();
+			else node.setLocationAbs(location.getCopy());
+		}
 
-		for (Set<EdgeModel> edgeSet : map.values())
+		this.root.calculateSizeUp();
+	}
+
+	/**
+	 * Updates the models with the result of a layout that ran on a detached topology, in the
+	 * order the layout would update them.
+	 */
+	public void transferPositions()
+	{
+		for (LEdge lEdge : this.edgeToGvt.keySet())
+		{
+			this.edgeToGvt.get(lEdge).update(lEdge);
+		}
+
+		for (Object o : lroot.getNodes())
+		{
+			transferPosition((LNode) o);
+		}
+
+		this.root.calculateSizeUp();
+	}
+
+	private void transferPosition(LNode lNode)
+	{
+		if (lNode.getChild() != null)
 		{
-			int i = 0;
-			NodeModel ref = null;
-			for (EdgeModel edge : edgeSet)
+			for (Object o : lNode.getChild().getNodes())
 			{
-				int index = i++;
+				transferPosition((LNode) o);
+			}
+		}
 
-				if (ref == null) ref = edge.getSource();
-				else if (edge.getTarget() == ref) index *= -1;
+		this.layoutToGvt.get(lNode).update(lNode);
+	}
 
-				multi.put(edge, index);
+	/**
+	 * Finds the edges that have the same end nodes with another edge, and gives each of them an
+	 * index in its group. The index is negative if the edge is in the reverse direction of the
+	 * first edge of its group. Edges are grouped with their unordered end node pairs in a single
+	 * pass.
+	 */
+	private Map<EdgeModel, Integer> findMultiEdges(Set<EdgeModel> edges)
+	{
+		Map<EndPair, List<EdgeModel>> groups = new HashMap<EndPair, List<EdgeModel>>();
+
+		for (EdgeModel edge : edges)
+		{
+			EndPair key = new EndPair(edge.getSource(), edge.getTarget());
+			List<EdgeModel> group = groups.get(key);
+
+			if (group == null)
+			{
+				group = new ArrayList<EdgeModel>(1);
+				groups.put(key, group);
+			}
+			group.add(edge);
+		}
+
+		Map<EdgeModel, Integer> multi = new HashMap<EdgeModel, Integer>();
+
+		for (List<EdgeModel> group : groups.values())
+		{
+			if (group.size() < 2) continue;
+
+			NodeModel ref = group.get(0).getSource();
+
+			for (int i = 0; i < group.size(); i++)
+			{
+				EdgeModel edge = group.get(i);
+				multi.put(edge, edge.getTarget() == ref ? -i : i);
 			}
 		}
 
 		return multi;
 	}
 
+	/**
+	 * Unordered pair of end nodes of an edge. Nodes are compared by identity.
+	 */
+	private static class EndPair
+	{
+		private NodeModel node1;
+		private NodeModel node2;
+
+		EndPair(NodeModel node1, NodeModel node2)
+		{
+			this.node1 = node1;
+			this.node2 = node2;
+		}
+
+		public int hashCode()
+		{
+			return System.identityHashCode(node1) + System.identityHashCode(node2);
+		}
+
+		public boolean equals(Object o)
+		{
+			EndPair p = (EndPair) o;
+			return (node1 == p.node1 && node2 == p.node2) ||
+				(node1 == p.node2 && node2 == p.node1);
+		}
+	}
+
 	/**
 	 * Creates an LNode for the given NodeModel object.
 	 * 
 	 * @param node		NodeModel object representing the node
 	 * @param parent	parent node of the given node
+	 * @param parentLocation	absolute location of the parent model
 	 * @param layout	layout of the graph
 	 */
 	private void createNode(NodeModel node,
 		NodeModel parent,
+		Point parentLocation,
 		Layout layout)
 	{
 		LNode lNode = layout.newNode(node);
-		LGraph rootGraph = layout.getGraphManager().getRoot(); 
 		
 		this.gvtToLayout.put(node, lNode);
 		this.layoutToGvt.put(lNode, node);
@@ -183,17 +364,19 @@ public class LayoutManager
 			assert parentLNode.getChild() != null : 
 				"Parent node doesn't have child graph.";
 			parentLNode.getChild().add(lNode);
-			lNode.label = new String(node.getText());
 		}
 		else
 		{
-			rootGraph.add(lNode);
-			lNode.label = new String(node.getText());
+			lroot.add(lNode);
 		}
-		
-		// copy geometry
 
-		lNode.setLocation(node.getLocationAbs().x, node.getLocationAbs().y);
+		lNode.label = node.getText();
+
+		// copy geometry, the absolute location is found from the location of the parent, instead
+		// of walking up the ancestors for each node
+
+		Point location = node.getLocation().translate(parentLocation);
+		lNode.setLocation(location.x, location.y);
 
 		// copy cluster IDs (zero means unclustered)
 		
@@ -223,6 +406,7 @@ public class LayoutManager
 			{
 				this.createNode((NodeModel)nodeIter.next(),
 					compoundNode,
+					location,
 					layout);
 			}
 
@@ -248,6 +432,7 @@ public class LayoutManager
 		LNode targetLNode = this.gvtToLayout.get(edge.getTarget());
 		
 		this.layout.getGraphManager().add(lEdge, sourceLNode, targetLNode);
+		this.edgeToGvt.put(lEdge, edge);
 		
 		if (bendpointIndex != null) lEdge.getBendpoints().add(
 			new PointD(bendpointIndex, bendpointIndex));
@@ -336,7 +521,7 @@ public class LayoutManager
 		public void run()
 		{
 			new ZoomAction(main, 0, null).run();
-			GraphAnimation.run(this.main.getViewer());
+			GraphAnimation.run(getViewer());
 		}
 	}
 	
@@ -357,7 +542,7 @@ public class LayoutManager
 		{
 			if (LayoutOptionsPack.getInstance().getGeneral().animationOnLayout)
 			{
-				GraphAnimation.run(this.main.getViewer());
+				GraphAnimation.run(getViewer());
 			}
 			
 			// zoom to the final layout
@@ -145,6 +145,7 @@ public class TopMenuBar
 		// LAYOUT
 		menuBar.add(layoutMenu);
 		layoutMenu.add(new CoSELayoutAction(chisio));
+		layoutMenu.add(new MultilevelLayoutAction(chisio));
 		layoutMenu.add(new SpringLayoutAction(chisio));
 		layoutMenu.add(new Separator());
 		layoutMenu.add(new LayoutInspectorAction(chisio));
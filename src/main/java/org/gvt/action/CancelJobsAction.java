@@ -0,0 +1,28 @@
+package org.gvt.action;
+
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.gvt.ChisioMain;
+
+/**
+ * Cancels the background jobs, such as queries and layouts, that are running or waiting.
+ *
+ * @author Ozgun Babur
+ */
+public class CancelJobsAction extends Action
+{
+	ChisioMain main;
+
+	public CancelJobsAction(ChisioMain main)
+	{
+		super("Cancel Running Jobs");
+		setToolTipText(getText());
+		setImageDescriptor(ImageDescriptor.createFromFile(ChisioMain.class, "icon/delete.gif"));
+		this.main = main;
+	}
+
+	public void run()
+	{
+		main.getJobManager().cancelAll();
+	}
+}
@@ -3,7 +3,9 @@ package org.gvt.action;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.gef.ui.parts.ScrollingGraphicalViewer;
+import org.eclipse.swt.widgets.Event;
 import org.gvt.ChisioMain;
+import org.gvt.LayoutJob;
 import org.gvt.command.LayoutCommand;
 import org.gvt.editpart.ChsRootEditPart;
 import org.gvt.layout.BiPaLayout;
@@ -75,4 +77,53 @@ public class CoSELayoutAction extends Action
 			main.unlock();
 		}
 	}
+
+	/**
+	 * Layouts that are started from the menu or toolbar run in background.
+	 */
+	public void runWithEvent(Event event)
+	{
+		runInBackground();
+	}
+
+	/**
+	 * Performs the layout in background, so that the application can be used meanwhile.
+	 */
+	public void runInBackground()
+	{
+		if (viewer == null) viewer = main.getViewer();
+		if (viewer == null) return;
+
+		final CompoundModel root = (CompoundModel)((ChsRootEditPart) viewer.
+			getRootEditPart().getChildren().get(0)).getModel();
+
+		viewer = null;
+
+		main.schedule(new LayoutJob(main, root, new BiPaLayout())
+		{
+			@Override
+			protected void done()
+			{
+				super.done();
+
+				LayoutCommand command = new LayoutCommand(main, root, new EdgeFixLayout());
+				command.execute();
+
+				main.makeDirty();
+			}
+
+			@Override
+			protected void cancelled()
+			{
+				// Keep the positions that the layout reached
+				if (isFrameShown())
+				{
+					LayoutCommand command = new LayoutCommand(main, root, new EdgeFixLayout());
+					command.execute();
+
+					main.makeDirty();
+				}
+			}
+		});
+	}
 }
\ No newline at end of file
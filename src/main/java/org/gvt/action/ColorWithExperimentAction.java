@@ -7,6 +7,7 @@ import org.gvt.ChisioMain;
 import org.gvt.gui.ItemSelectionDialog;
 import org.gvt.gui.ItemSelectionRunnable;
 import org.gvt.model.BioPAXGraph;
+import org.gvt.model.GraphObject;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -123,7 +124,17 @@ public class ColorWithExperimentAction extends Action
 				}
 			}
 
-			graph.representDataOnActors(type);
+			GraphObject.startBatch();
+
+			try
+			{
+				graph.representDataOnActors(type);
+			}
+			finally
+			{
+				GraphObject.endBatch();
+			}
+
 			graph.setLastAppliedColoring(type);
 		}
 	}
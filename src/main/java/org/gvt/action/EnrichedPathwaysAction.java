@@ -1,19 +1,16 @@
 package org.gvt.action;
 
 import org.cbio.causality.util.Download;
-import org.cbio.causality.util.FDR;
-import org.cbio.causality.util.FishersExactTest;
 import org.cbio.causality.util.FormatUtil;
 import org.gvt.ChisioMain;
 import org.gvt.gui.GeneSetSelectionDialog;
 import org.gvt.gui.ItemSelectionDialog;
 import org.gvt.util.Conf;
+import org.gvt.util.GeneSetEnrichment;
+import org.gvt.util.GeneSetFileCache;
 import org.patika.mada.util.XRef;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
 import java.util.*;
 
 /**
@@ -36,32 +33,21 @@ public class EnrichedPathwaysAction extends LoadTCGASpecificSIFAction
 
 		if (query == null || query.isEmpty()) return;
 
-		Map<String, Pathway> pathwayMap = getPathways(query);
+		GeneSetEnrichment enrichment = getPathways();
 
-		// assign p-values
+		if (enrichment == null) return;
 
-		Set<String> allSymbols = new HashSet<String>();
-		for (Pathway pathway : pathwayMap.values())
-		{
-			allSymbols.addAll(pathway.genes);
-		}
-		int allSize = allSymbols.size();
-		int querySize = query.size();
-		Map<String, Double> pvals = new HashMap<String, Double>();
-		for (Pathway pathway : pathwayMap.values())
-		{
-			pathway.assignPval(allSize, querySize);
-			pvals.put(pathway.id, pathway.pval);
-		}
+		// assign p-values and q-values
 
-		Map<String, Double> qVals = FDR.getQVals(pvals, null);
+		GeneSetEnrichment.Result result = enrichment.query(query);
 
-		for (String key : qVals.keySet())
+		List<Pathway> pathwayList = new ArrayList<Pathway>();
+		for (int i : result.getHitSets())
 		{
-			pathwayMap.get(key).qval = FormatUtil.roundToSignificantDigits(qVals.get(key), 1);
+			pathwayList.add(new Pathway(enrichment.getSetId(i), enrichment.getSetName(i),
+				result.getHitGenes(i), result.getPval(i),
+				FormatUtil.roundToSignificantDigits(result.getQval(i), 1)));
 		}
-
-		List<Pathway> pathwayList = new ArrayList<Pathway>(pathwayMap.values());
 		Collections.sort(pathwayList);
 
 		// add representing pathways to selection list
@@ -118,7 +104,11 @@ public class EnrichedPathwaysAction extends LoadTCGASpecificSIFAction
 
 	//--------------------- Getting Reactions--- --------------------------------------------------|
 
-	private Map<String, Pathway> getPathways(Collection<String> query)
+	/**
+	 * Gets the pathways in the pathway-to-gene file. The parsed file is kept for the next queries
+	 * until the file changes.
+	 */
+	private static GeneSetEnrichment getPathways()
 	{
 		File rFile = new File(getPathwayFileLocation());
 
@@ -127,30 +117,10 @@ public class EnrichedPathwaysAction extends LoadTCGASpecificSIFAction
 			downloadPathwayFile(rFile.getPath());
 		}
 
-		try
-		{
-			Map<String, Pathway> pathways = new HashMap<String, Pathway>();
-			BufferedReader reader = new BufferedReader(new FileReader(rFile));
-
-			for (String line = reader.readLine(); line != null; line = reader.readLine())
-			{
-				String[] token = line.split("\t");
-				Pathway p = new Pathway(token[0], token[1], Arrays.asList(token).subList(2, token.length),
-					query);
-
-				if (p.genes.size() > 1) pathways.put(p.id, p);
-			}
-			reader.close();
-			return pathways;
-		}
-		catch (IOException e)
-		{
-			e.printStackTrace();
-			return null;
-		}
+		return GeneSetFileCache.get(rFile, true, 2);
 	}
 
-	private String getPathwayFileLocation()
+	private static String getPathwayFileLocation()
 	{
 		String s = Conf.get(Conf.PATHWAY_2_GENE_FILE);
 		if (s.equals(Conf.DEFAULT))
@@ -163,7 +133,7 @@ public class EnrichedPathwaysAction extends LoadTCGASpecificSIFAction
 		}
 	}
 
-	private boolean downloadPathwayFile(String saveLoc)
+	private static boolean downloadPathwayFile(String saveLoc)
 	{
 		String url = Conf.get(Conf.PATHWAY_2_GENE_FILE_URL);
 		return Download.downlaodTextFile(url, saveLoc);
@@ -175,19 +145,17 @@ public class EnrichedPathwaysAction extends LoadTCGASpecificSIFAction
 		String id;
 		String name;
 
-		List<String> genes;
 		List<String> hit;
 		double pval;
 		double qval;
 
-		Pathway(String id, String name, List<String> genes, Collection<String> query)
+		Pathway(String id, String name, List<String> hit, double pval, double qval)
 		{
 			this.id = id;
 			this.name = name;
-			this.genes = genes;
-			hit = new ArrayList<String>(genes);
-			hit.retainAll(query);
-			Collections.sort(hit);
+			this.hit = hit;
+			this.pval = pval;
+			this.qval = qval;
 		}
 
 		String getHitGenes()
@@ -208,12 +176,6 @@ public class EnrichedPathwaysAction extends LoadTCGASpecificSIFAction
 			if (!(o instanceof Pathway)) return 0;
 			return new Double(qval).compareTo(((Pathway) o).qval);
 		}
-
-		public void assignPval(int totalSymbolSize, int querySize)
-		{
-			this.pval = FishersExactTest.calcEnrichmentPval(totalSymbolSize, querySize,
-				genes.size(), hit.size());
-		}
 	}
 
 	class SelectionItem implements Comparable
@@ -1,19 +1,16 @@
 package org.gvt.action;
 
 import org.cbio.causality.util.Download;
-import org.cbio.causality.util.FDR;
-import org.cbio.causality.util.FishersExactTest;
 import org.cbio.causality.util.FormatUtil;
 import org.gvt.ChisioMain;
 import org.gvt.gui.GeneSetSelectionDialog;
 import org.gvt.gui.ItemSelectionDialog;
 import org.gvt.util.Conf;
+import org.gvt.util.GeneSetEnrichment;
+import org.gvt.util.GeneSetFileCache;
 import org.patika.mada.util.XRef;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
 import java.util.*;
 
 /**
@@ -36,35 +33,25 @@ public class EnrichedReactionsAction extends LoadTCGASpecificSIFAction
 
 		if (query == null || query.isEmpty()) return;
 
-		Map<String, Reaction> reactions = getReactions(query);
+		GeneSetEnrichment enrichment = getReactions();
 
-		// assign p-values
+		if (enrichment == null) return;
 
-		Set<String> allSymbols = new HashSet<String>();
-		for (Reaction reaction : reactions.values())
-		{
-			allSymbols.addAll(reaction.genes);
-		}
-		int allSize = allSymbols.size();
-		int querySize = query.size();
-		Map<String, Double> pvals = new HashMap<String, Double>();
-		for (Reaction reaction : reactions.values())
-		{
-			reaction.assignPval(allSize, querySize);
-			pvals.put(reaction.id, reaction.pval);
-		}
+		// assign p-values and q-values
 
-		Map<String, Double> qVals = FDR.getQVals(pvals, null);
+		GeneSetEnrichment.Result result = enrichment.query(query);
 
-		for (String key : qVals.keySet())
+		List<Reaction> reactions = new ArrayList<Reaction>();
+		for (int i : result.getHitSets())
 		{
-			reactions.get(key).qval = FormatUtil.roundToSignificantDigits(qVals.get(key), 1);
+			reactions.add(new Reaction(enrichment.getSetId(i), result.getHitGenes(i),
+				result.getPval(i), FormatUtil.roundToSignificantDigits(result.getQval(i), 1)));
 		}
 
 		// group reactions
 
 		Map<String, List<Reaction>> groups = new HashMap<String, List<Reaction>>();
-		for (Reaction reac : reactions.values())
+		for (Reaction reac : reactions)
 		{
 			if (reac.hit.isEmpty()) continue;
 
@@ -133,7 +120,11 @@ public class EnrichedReactionsAction extends LoadTCGASpecificSIFAction
 
 	//--------------------- Getting Reactions--- --------------------------------------------------|
 
-	private Map<String, Reaction> getReactions(Collection<String> query)
+	/**
+	 * Gets the reactions in the reaction-to-gene file. The parsed file is kept for the next queries
+	 * until the file changes.
+	 */
+	private static GeneSetEnrichment getReactions()
 	{
 		File rFile = new File(getReactionFileLocation());
 
@@ -142,31 +133,10 @@ public class EnrichedReactionsAction extends LoadTCGASpecificSIFAction
 			downloadReactionFile(rFile.getPath());
 		}
 
-		try
-		{
-			Map<String, Reaction> reactions = new HashMap<String, Reaction>();
-			BufferedReader reader = new BufferedReader(new FileReader(rFile));
-
-			for (String line = reader.readLine(); line != null; line = reader.readLine())
-			{
-				String[] token = line.split("\t");
-				Reaction r = new Reaction(token[0], Arrays.asList(token).subList(1, token.length),
-					query);
-
-				reactions.put(r.id, r);
-
-			}
-			reader.close();
-			return reactions;
-		}
-		catch (IOException e)
-		{
-			e.printStackTrace();
-			return null;
-		}
+		return GeneSetFileCache.get(rFile, false, 0);
 	}
 
-	private String getReactionFileLocation()
+	private static String getReactionFileLocation()
 	{
 		String s = Conf.get(Conf.REACTION_2_GENE_FILE);
 		if (s.equals(Conf.DEFAULT))
@@ -179,7 +149,7 @@ public class EnrichedReactionsAction extends LoadTCGASpecificSIFAction
 		}
 	}
 
-	private boolean downloadReactionFile(String saveLoc)
+	private static boolean downloadReactionFile(String saveLoc)
 	{
 		String url = Conf.get(Conf.REACTION_2_GENE_FILE_URL);
 		return Download.downlaodTextFile(url, saveLoc);
@@ -193,19 +163,17 @@ public class EnrichedReactionsAction extends LoadTCGASpecificSIFAction
 		// with controls
 		String[] ids;
 
-		List<String> genes;
 		List<String> hit;
 		double pval;
 		double qval;
 
-		Reaction(String id, List<String> genes, Collection<String> query)
+		Reaction(String id, List<String> hit, double pval, double qval)
 		{
 			this.ids = id.split(" ");
 			this.id = ids[0];
-			this.genes = genes;
-			hit = new ArrayList<String>(genes);
-			hit.retainAll(query);
-			Collections.sort(hit);
+			this.hit = hit;
+			this.pval = pval;
+			this.qval = qval;
 		}
 
 		String getKey()
@@ -226,12 +194,6 @@ public class EnrichedReactionsAction extends LoadTCGASpecificSIFAction
 			if (!(o instanceof Reaction)) return 0;
 			return new Double(qval).compareTo(((Reaction) o).qval);
 		}
-
-		public void assignPval(int totalSymbolSize, int querySize)
-		{
-			this.pval = FishersExactTest.calcEnrichmentPval(totalSymbolSize, querySize,
-				genes.size(), hit.size());
-		}
 	}
 
 	class SelectionItem implements Comparable
@@ -14,6 +14,8 @@ import org.eclipse.jface.action.Action;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.swt.custom.CTabItem;
+import org.eclipse.swt.widgets.Event;
+import org.gvt.BackgroundJob;
 import org.gvt.ChisioMain;
 import org.gvt.gui.FetchFromCBioPortalDialog;
 import org.gvt.model.BioPAXGraph;
@@ -52,7 +54,29 @@ public class FetchFromCBioPortalAction extends Action
 		if (study != null) this.study = study;
    	}
 
-    public void run() {
+    public void run()
+    {
+        start(false);
+    }
+
+	/**
+	 * Data that is fetched from the menu is loaded in background.
+	 */
+	public void runWithEvent(Event event)
+	{
+		start(true);
+	}
+
+	/**
+	 * Loads the data in background, so that the application can be used meanwhile.
+	 */
+	public void runInBackground()
+	{
+		start(true);
+	}
+
+	private void start(boolean background)
+	{
         // First things first
         if(main.getBioPAXModel() == null && getBasicSIFGraphs() == null) {
              MessageDialog.openError(main.getShell(), "Error!",
@@ -73,195 +97,298 @@ public class FetchFromCBioPortalAction extends Action
 				"There is no current cBioPortal study loaded.");
 			return;
 		}
-		else
+
+		// Configuring the accessor for a study downloads its metadata, so it is left to the job
+		FetchJob job = new FetchJob(study == null || study.equals(CURRENT_STUDY) ? null : study);
+
+		if (background) main.schedule(job);
+		else main.runInForeground(job);
+	}
+
+	/**
+	 * Gets the alterations of the genes in the loaded models from the portal, and shows them on
+	 * the graphs. The job uses its own accessor, so that other jobs and the dialog can configure
+	 * theirs meanwhile.
+	 */
+	private class FetchJob extends BackgroundJob
+	{
+		private String studyToPrepare;
+
+		private CBioPortalAccessor acc;
+
+		/**
+		 * Choices in the shared accessor, copied to the accessor of the job when no study is to be
+		 * prepared.
+		 */
+		private String studyID;
+		private CaseList caseList;
+		private List<GeneticProfile> profiles;
+
+		private List<String> geneNames;
+		private HashMap<String, String> geneNameToXrefStr;
+
+		private ChisioExperimentData experimentData;
+		private String fileNameSuggestion;
+		private int caseCount;
+
+		/**
+		 * False if there is nothing to load.
+		 */
+		private boolean loaded;
+
+		FetchJob(String studyToPrepare)
+		{
+			super(FetchFromCBioPortalAction.this.main, "Fetching from cBioPortal");
+			this.studyToPrepare = studyToPrepare;
+		}
+
+		/**
+		 * Extracts gene names from the current models.
+		 */
+		@Override
+		protected void prepare()
 		{
-			if (!study.equals(CURRENT_STUDY))
+			if (studyToPrepare == null)
 			{
-				if (!prepareAccessorForStudy(study)) return;
+				CBioPortalAccessor shared = ChisioMain.cBioPortalAccessor;
+				profiles = new ArrayList<GeneticProfile>(shared.getCurrentGeneticProfiles());
+
+				if (!profiles.isEmpty())
+				{
+					studyID = shared.getCurrentCancerStudy().getStudyId();
+					caseList = shared.getCurrentCaseList();
+				}
 			}
-		}
 
-        CBioPortalAccessor acc = ChisioMain.cBioPortalAccessor;
+			geneNames = new ArrayList<String>();
+			geneNameToXrefStr = new HashMap<String, String>();
+			Model model = main.getBioPAXModel();
+			if (model != null)
+			{
+				for (RelationshipXref xref : model.getObjects(RelationshipXref.class)) {
+					if (xref.getDb() != null && xref.getDb().equals("HGNC SYMBOL"))
+					{
+						String geneName = HGNC.getSymbol(xref.getId());
 
-        // If user clicks on the 'Load' button, this list should not be empty
-        // Otherwise, just quit
-        List<GeneticProfile> currentGeneticProfiles = acc.getCurrentGeneticProfiles();
-        if(currentGeneticProfiles.isEmpty()) {
-            return;
-        }
+						if (geneName != null && !geneNames.contains(geneName))
+						{
+							geneNames.add(geneName);
+							geneNameToXrefStr.put(geneName, xref.getId());
+						}
+					}
+				}
+			}
 
-        // Extract gene names from the current BioPAX model
-        List<String> geneNames = new ArrayList<String>();
-        HashMap<String, String> geneNameToXrefStr = new HashMap<String, String>();
-        Model model = main.getBioPAXModel();
-		if (model != null)
-		{
-			for (RelationshipXref xref : model.getObjects(RelationshipXref.class)) {
-				if (xref.getDb() != null && xref.getDb().equals("HGNC SYMBOL"))
+			for (BasicSIFGraph bsgraph : getBasicSIFGraphs())
+			{
+				if (bsgraph != null)
 				{
-					String geneName = HGNC.getSymbol(xref.getId());
-
-					if (geneName != null && !geneNames.contains(geneName))
+					for (Object o : bsgraph.getNodes())
 					{
-						geneNames.add(geneName);
-						geneNameToXrefStr.put(geneName, xref.getId());
+						NodeModel node = ((NodeModel) o);
+						String text = node.getText();
+						String symbol = HGNC.getSymbol(text);
+
+						if (symbol != null)
+						{
+							geneNames.add(symbol);
+							geneNameToXrefStr.put(text, symbol);
+						}
 					}
 				}
 			}
 		}
 
-		for (BasicSIFGraph bsgraph : getBasicSIFGraphs())
+		@Override
+		protected void work() throws Exception
 		{
-			if (bsgraph != null)
+			// Nothing is selected in the dialog
+			if (studyToPrepare == null && profiles.isEmpty()) return;
+
+			acc = createPortalAccessor();
+
+			if (studyToPrepare != null)
 			{
-				for (Object o : bsgraph.getNodes())
-				{
-					NodeModel node = ((NodeModel) o);
-					String text = node.getText();
-					String symbol = HGNC.getSymbol(text);
+				if (!acc.configureForStudy(studyToPrepare)) return;
+			}
+			else configureAsShared();
 
-					if (symbol != null)
-					{
-						geneNames.add(symbol);
-						geneNameToXrefStr.put(text, symbol);
+			// If user clicks on the 'Load' button, this list should not be empty
+			// Otherwise, just quit
+			List<GeneticProfile> currentGeneticProfiles = acc.getCurrentGeneticProfiles();
+			if(currentGeneticProfiles.isEmpty()) {
+				return;
+			}
+
+			// Decide on a few things
+			String dataName, dataDesc;
+			if(currentGeneticProfiles.size() > 1) {
+				dataName = "multiple data types";
+				fileNameSuggestion = acc.getCurrentCancerStudy().getStudyId() + "_multi.ced";
+				dataDesc = "";
+				for (GeneticProfile currentGeneticProfile : currentGeneticProfiles) {
+					dataDesc += currentGeneticProfile.getName() + " | " + currentGeneticProfile.getDescription() + "\n";
+				}
+			} else {
+				GeneticProfile geneticProfile = currentGeneticProfiles.iterator().next();
+				dataName = geneticProfile.getName();
+				fileNameSuggestion = geneticProfile.getId() + ".ced";
+				dataDesc = geneticProfile.getDescription();
+			}
+
+			ObjectFactory expFactory = new ObjectFactory();
+
+			CancerStudy cancerStudy = acc.getCurrentCancerStudy();
+			CaseList caseList = acc.getCurrentCaseList();
+			caseCount = caseList.getCases().length;
+
+			// Now load data
+			setProgress("Loading " + dataName, 0, geneNames.size());
+
+			try {
+				experimentData = expFactory.createRootExperimentData();
+			} catch (JAXBException e) {
+				throw new IllegalStateException("Could not create experiment.", e);
+			}
+
+			experimentData.setExperimentType(ExperimentData.CBIOPORTAL_ALTERATION_DATA);
+			String experimentInfo = cancerStudy.getName() + " | "
+					+ caseList.getDescription() + " (" + caseList.getCases().length + " cases) \n"
+					+ dataName + "\n"
+					+ dataDesc;
+			experimentData.setExperimentSetInfo(experimentInfo);
+
+			int count = 0;
+			 // Create sub-experiments for each sample
+			 for (String caseId : caseList.getCases()) {
+				 try {
+					 Experiment experiment = expFactory.createExperiment();
+					 experiment.setNo(count++);
+					 experiment.setExperimentName(caseId);
+					 experiment.setExperimentInfo("Cancer Study: " + cancerStudy.getName() + "\nCase: " + caseId);
+
+					 experimentData.getExperiment().add(experiment);
+				 } catch (JAXBException e) {
+					 throw new IllegalStateException("Could not create experiment.", e);
+				 }
+			 }
+
+			// Iterate over genes
+			// TODO: optimize this and grab all results with single request.
+			int done = 0;
+			for (String gene : geneNames) {
+				checkCancelled();
+				setProgress("Loading " + dataName, done++, geneNames.size());
+
+				AlterationPack alterations = acc.getAlterations(gene);
+
+				if (alterations == null) continue;
+
+				if (alterations.get(Alteration.ANY) == null) alterations.complete(Alteration.ANY);
+
+				try {
+					Row row = expFactory.createRow();
+					Reference ref = expFactory.createReference();
+					ref.setDb("HGNC SYMBOL");
+					ref.setValue(geneNameToXrefStr.get(gene));
+					row.getRef().add(ref);
+
+					count = 0;
+					for (Change change : alterations.get(Alteration.ANY)) {
+						// TODO: Special value for NO_DATA?
+						double expValue =
+								(change.isAbsent() || !change.isAltered())
+										? CBioPortalAlterationData.VALUES.NOT_ALTERED.toDouble()
+										: CBioPortalAlterationData.VALUES.ALTERED.toDouble();
+
+						ValueTuple tuple = expFactory.createValueTuple();
+						tuple.setNo(count++);
+						tuple.setValue(expValue);
+						row.getValue().add(tuple);
 					}
+
+					experimentData.getRow().add(row);
+				} catch (JAXBException e) {
+					throw new IllegalStateException("Could not process experiment.", e);
 				}
 			}
-		}
 
-        // Decide on a few things
-        String dataName, dataDesc, fileNameSuggestion;
-        if(currentGeneticProfiles.size() > 1) {
-            dataName = "multiple data types";
-            fileNameSuggestion = acc.getCurrentCancerStudy().getStudyId() + "_multi.ced";
-            dataDesc = "";
-            for (GeneticProfile currentGeneticProfile : currentGeneticProfiles) {
-                dataDesc += currentGeneticProfile.getName() + " | " + currentGeneticProfile.getDescription() + "\n";
-            }
-        } else {
-            GeneticProfile geneticProfile = currentGeneticProfiles.iterator().next();
-            dataName = geneticProfile.getName();
-            fileNameSuggestion = geneticProfile.getId() + ".ced";
-            dataDesc = geneticProfile.getDescription();
-        }
+			// Advanced setting in order to save some memory for huge graphs
+			if(!Conf.getBoolean(Conf.CBIOPORTAL_USE_CACHE))
+				acc.clearAlterationCache();
+
+			loaded = true;
+		}
 
-        ObjectFactory expFactory = new ObjectFactory();
+		/**
+		 * Selects the study, case list and profiles that were selected in the shared accessor.
+		 */
+		private void configureAsShared() throws IOException
+		{
+			for (CancerStudy cancerStudy : acc.getCancerStudies())
+			{
+				if (cancerStudy.getStudyId().equals(studyID))
+				{
+					acc.setCurrentCancerStudy(cancerStudy);
+					break;
+				}
+			}
 
-        CancerStudy cancerStudy = acc.getCurrentCancerStudy();
-        CaseList caseList = acc.getCurrentCaseList();
+			acc.setCurrentCaseList(caseList);
+			acc.getCurrentGeneticProfiles().clear();
+			acc.getCurrentGeneticProfiles().addAll(profiles);
+		}
 
-        // Now load data
-        main.lockWithMessage("Loading " + dataName + "...");
+		@Override
+		protected void failed(Throwable t)
+		{
+			t.printStackTrace();
+			MessageDialog.openError(main.getShell(), "Error!", t.getMessage());
+		}
 
-        ChisioExperimentData experimentData;
-        try {
-            experimentData = expFactory.createRootExperimentData();
-        } catch (JAXBException e) {
-            MessageDialog.openError(main.getShell(), "Error!",
-                    "Could not create experiment.");
-            return;
-        }
+		@Override
+		protected void done()
+		{
+			if (!loaded) return;
 
-        String alterationDataType = ExperimentData.CBIOPORTAL_ALTERATION_DATA;
-
-        experimentData.setExperimentType(alterationDataType);
-        String experimentInfo = cancerStudy.getName() + " | "
-                + caseList.getDescription() + " (" + caseList.getCases().length + " cases) \n"
-                + dataName + "\n"
-                + dataDesc;
-        experimentData.setExperimentSetInfo(experimentInfo);
-
-        int count = 0;
-         // Create sub-experiments for each sample
-         for (String caseId : caseList.getCases()) {
-             try {
-                 Experiment experiment = expFactory.createExperiment();
-                 experiment.setNo(count++);
-                 experiment.setExperimentName(caseId);
-                 experiment.setExperimentInfo("Cancer Study: " + cancerStudy.getName() + "\nCase: " + caseId);
-
-                 experimentData.getExperiment().add(experiment);
-             } catch (JAXBException e) {
-                 MessageDialog.openError(main.getShell(), "Error!",
-                         "Could not create experiment.");
-                 return;
-             }
-         }
-
-        // Iterate over genes
-        // TODO: optimize this and grab all results with single request.
-        for (String gene : geneNames) {
-            AlterationPack alterations = acc.getAlterations(gene);
-
-			if (alterations == null) continue;
-
-			if (alterations.get(Alteration.ANY) == null) alterations.complete(Alteration.ANY);
-
-            try {
-                Row row = expFactory.createRow();
-                Reference ref = expFactory.createReference();
-                ref.setDb("HGNC SYMBOL");
-                ref.setValue(geneNameToXrefStr.get(gene));
-                row.getRef().add(ref);
-
-                count = 0;
-                for (Change change : alterations.get(Alteration.ANY)) {
-                    // TODO: Special value for NO_DATA?
-                    double expValue =
-                            (change.isAbsent() || !change.isAltered())
-                                    ? CBioPortalAlterationData.VALUES.NOT_ALTERED.toDouble()
-                                    : CBioPortalAlterationData.VALUES.ALTERED.toDouble();
-
-                    ValueTuple tuple = expFactory.createValueTuple();
-                    tuple.setNo(count++);
-                    tuple.setValue(expValue);
-                    row.getValue().add(tuple);
-                }
-
-                experimentData.getRow().add(row);
-            } catch (JAXBException e) {
-                MessageDialog.openError(main.getShell(), "Error!",
-                        "Could not process experiment.");
-                return;
-            }
-        }
+			// The prepared study becomes the current study, as the popups show its alterations
+			if (studyToPrepare != null) ChisioMain.cBioPortalAccessor = acc;
 
-        // Advanced setting in order to save some memory for huge graphs
-        if(!Conf.getBoolean(Conf.CBIOPORTAL_USE_CACHE))
-            acc.clearAlterationCache();
+			String alterationDataType = ExperimentData.CBIOPORTAL_ALTERATION_DATA;
 
-        // Let's try to adjust the settings
-        main.setExperimentData(experimentData, fileNameSuggestion);
-        ExperimentDataManager dataManager = main.getExperimentDataManager(alterationDataType);
-        dataManager.setData(experimentData);
-        dataManager.getSecondExpIndices().clear();
-        dataManager.getFirstExpIndices().clear();
+			// Let's try to adjust the settings
+			main.setExperimentData(experimentData, fileNameSuggestion);
+			ExperimentDataManager dataManager = main.getExperimentDataManager(alterationDataType);
+			dataManager.setData(experimentData);
+			dataManager.getSecondExpIndices().clear();
+			dataManager.getFirstExpIndices().clear();
 
-		for(int i=0; i < caseList.getCases().length; i++)
-            dataManager.getFirstExpIndices().add(i);
+			for(int i=0; i < caseCount; i++)
+				dataManager.getFirstExpIndices().add(i);
 
-		dataManager.setAveraging(ExperimentDataManager.MEAN);
+			dataManager.setAveraging(ExperimentDataManager.MEAN);
 
-        // And apply the coloring
-        List<BioPAXGraph> graphs = main.getAllPathwayGraphs();
+			// And apply the coloring
+			List<BioPAXGraph> graphs = main.getAllPathwayGraphs();
 
-        for (BioPAXGraph graph : graphs) {
-            dataManager.clearExperimentData(graph);
-            dataManager.associateExperimentData(graph);
-            if (graph.getLastAppliedColoring() != null) {
-                graph.setLastAppliedColoring(null);
-                new ColorWithExperimentAction(main, graph, dataManager.getType()).run();
-            }
-        }
-        BioPAXGraph currentGraph = main.getPathwayGraph();
-        if (currentGraph != null && currentGraph.getLastAppliedColoring() == null) {
-            new ColorWithExperimentAction(main, currentGraph, dataManager.getType()).run();
-        }
+			for (BioPAXGraph graph : graphs) {
+				dataManager.clearExperimentData(graph);
+			}
 
-        // All done, let's quit
+			dataManager.associateExperimentData(graphs);
 
-        main.unlock();
-    }
+			for (BioPAXGraph graph : graphs) {
+				if (graph.getLastAppliedColoring() != null) {
+					graph.setLastAppliedColoring(null);
+					new ColorWithExperimentAction(main, graph, dataManager.getType()).run();
+				}
+			}
+			BioPAXGraph currentGraph = main.getPathwayGraph();
+			if (currentGraph != null && currentGraph.getLastAppliedColoring() == null) {
+				new ColorWithExperimentAction(main, currentGraph, dataManager.getType()).run();
+			}
+		}
+	}
 
 	private List<BasicSIFGraph> getBasicSIFGraphs()
 	{
@@ -302,9 +429,14 @@ public class FetchFromCBioPortalAction extends Action
 		else return true;
 	}
 
-	private boolean prepareAccessorForStudy(String study)
+	/**
+	 * Creates an accessor for a background job. Jobs do not configure the shared accessor, as it
+	 * is used in the UI thread meanwhile.
+	 */
+	static CBioPortalAccessor createPortalAccessor() throws IOException
 	{
-		CBioPortalAccessor acc = ChisioMain.cBioPortalAccessor;
-		return acc.configureForStudy(study);
+		CBioPortalAccessor.setPortalURL(Conf.get(Conf.CBIOPORTAL_URL));
+		CBioPortalAccessor.setCacheDir(Conf.getPortalCacheDir());
+		return new CBioPortalAccessor();
 	}
 }
\ No newline at end of file
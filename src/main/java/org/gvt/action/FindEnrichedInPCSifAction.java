@@ -2,7 +2,6 @@ package org.gvt.action;
 
 import org.biopax.paxtools.pattern.miner.SIFType;
 import org.cbio.causality.analysis.Graph;
-import org.cbio.causality.network.PathwayCommons;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.gvt.ChisioMain;
@@ -10,6 +9,7 @@ import org.gvt.gui.EnrichmentInSIFParameterDialog;
 import org.gvt.model.basicsif.BasicSIFGraph;
 import org.gvt.model.basicsif.BasicSIFNode;
 import org.gvt.model.sifl3.SIFGraph;
+import org.gvt.util.PCSifCache;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -66,7 +66,7 @@ public class FindEnrichedInPCSifAction extends Action
 			genesfile = dialog.getGenefile();
 			fdr = dialog.getFdr();
 
-			Graph g = PathwayCommons.getGraph(
+			Graph g = PCSifCache.getGraph(
 				selectedRuleTypes.toArray(new SIFType[selectedRuleTypes.size()]));
 
 			Set<String> bg = null;
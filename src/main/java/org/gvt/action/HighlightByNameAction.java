@@ -6,6 +6,7 @@ import org.gvt.ChisioMain;
 import org.gvt.gui.StringInputDialog;
 import org.gvt.editpart.ChsRootEditPart;
 import org.gvt.model.CompoundModel;
+import org.gvt.model.GraphObject;
 import org.gvt.model.NodeModel;
 
 import java.util.Iterator;
@@ -83,24 +84,34 @@ public class HighlightByNameAction extends Action
 
 		boolean highlighted = false;
 
-		while (nodeIter.hasNext())
-		{
-			NodeModel node = nodeIter.next();
+		GraphObject.startBatch();
 
-			for (String name : names)
+		try
+		{
+			while (nodeIter.hasNext())
 			{
-				if (name.length() < 2) continue;
+				NodeModel node = nodeIter.next();
 
-				if (node.getText().toLowerCase().contains(name) ||
-					(node.getTooltipText() != null &&
-						node.getTooltipText().toLowerCase().contains(name)))
+				for (String name : names)
 				{
-					node.setHighlightColor(ChisioMain.higlightColor);
-					node.setHighlight(true);
-					highlighted = true;
+					if (name.length() < 2) continue;
+
+					if (node.getText().toLowerCase().contains(name) ||
+						(node.getTooltipText() != null &&
+							node.getTooltipText().toLowerCase().contains(name)))
+					{
+						node.setHighlightColor(ChisioMain.higlightColor);
+						node.setHighlight(true);
+						highlighted = true;
+					}
 				}
 			}
 		}
+		finally
+		{
+			GraphObject.endBatch();
+		}
+
 		return highlighted;
 	}
 }
\ No newline at end of file
@@ -8,11 +8,13 @@ import org.gvt.ChisioMain;
 import org.gvt.gui.ItemSelectionDialog;
 import org.gvt.gui.ItemSelectionRunnable;
 import org.gvt.model.BioPAXGraph;
+import org.gvt.model.GraphObject;
 import org.gvt.model.NodeModel;
 import org.gvt.model.basicsif.BasicSIFGraph;
 import org.gvt.model.biopaxl3.BioPAXNode;
 import org.gvt.model.sifl3.SIFGraph;
 import org.gvt.util.CancerGenes;
+import org.gvt.util.GeneSet;
 
 import java.util.*;
 
@@ -30,6 +32,8 @@ public class HighlightCancerGenesActions extends Action
 	 */
 	ChisioMain main;
 
+	private static final Color CANCER_GENE_BG = new Color(null, 255, 255, 155);
+
 	/**
 	 * Constructor
 	 */
@@ -51,27 +55,37 @@ public class HighlightCancerGenesActions extends Action
 			return;
 		}
 
-		// Remove existing node colors. Make everything white.
-		new RemoveColorsAction(main).run();
-
+		GeneSet cancerGenes = CancerGenes.getGenes();
 		int cnt = 0;
-		for (Object o : graph.getNodes())
-		{
-			if (o instanceof NodeModel)
-			{
-				NodeModel node = (NodeModel) o;
 
-				String name = node.getText();
+		GraphObject.startBatch();
+
+		try
+		{
+			// Remove existing node colors. Make everything white.
+			new RemoveColorsAction(main).run();
 
-				if (CancerGenes.isCancerGene(name))
+			for (Object o : graph.getNodes())
+			{
+				if (o instanceof NodeModel)
 				{
-//					node.setHighlightColor(ChisioMain.higlightColor);
-//					node.setHighlight(true);
-					node.setColor(new Color(null, 255, 255, 155));
-					cnt++;
+					NodeModel node = (NodeModel) o;
+
+					if (cancerGenes.contains(node.getText()))
+					{
+//						node.setHighlightColor(ChisioMain.higlightColor);
+//						node.setHighlight(true);
+						node.setColor(CANCER_GENE_BG);
+						cnt++;
+					}
 				}
 			}
 		}
+		finally
+		{
+			GraphObject.endBatch();
+		}
+
 		System.out.println("highlighted = " + cnt);
 	}
 }
\ No newline at end of file
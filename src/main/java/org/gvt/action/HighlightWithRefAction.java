@@ -3,6 +3,7 @@ package org.gvt.action;
 import org.eclipse.jface.action.Action;
 import org.gvt.ChisioMain;
 import org.gvt.model.BioPAXGraph;
+import org.gvt.model.GraphObject;
 import org.patika.mada.graph.Node;
 import org.patika.mada.util.XRef;
 
@@ -30,24 +31,33 @@ public class HighlightWithRefAction extends Action
 
 	public void run()
 	{
-		for (Object o : pgraph.getNodes())
+		GraphObject.startBatch();
+
+		try
 		{
-			if (o instanceof Node)
+			for (Object o : pgraph.getNodes())
 			{
-				Node node = (Node) o;
-
-				for (XRef ref : refs)
+				if (o instanceof Node)
 				{
-					if (node.getReferences().contains(ref))
-					{
-						node.setHighlight(true);
-					}
-					else if (node.getSecondaryReferences().contains(ref))
+					Node node = (Node) o;
+
+					for (XRef ref : refs)
 					{
-						node.setHighlight(true);
+						if (node.getReferences().contains(ref))
+						{
+							node.setHighlight(true);
+						}
+						else if (node.getSecondaryReferences().contains(ref))
+						{
+							node.setHighlight(true);
+						}
 					}
 				}
 			}
 		}
+		finally
+		{
+			GraphObject.endBatch();
+		}
 	}
 }
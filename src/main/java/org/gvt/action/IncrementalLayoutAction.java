@@ -0,0 +1,125 @@
+package org.gvt.action;
+
+import org.eclipse.gef.ui.parts.ScrollingGraphicalViewer;
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.gvt.ChisioMain;
+import org.gvt.LayoutJob;
+import org.gvt.command.LayoutCommand;
+import org.gvt.editpart.ChsRootEditPart;
+import org.gvt.layout.EdgeFixLayout;
+import org.gvt.layout.IncrementalLayout;
+import org.gvt.model.CompoundModel;
+import org.gvt.model.NodeModel;
+
+import java.util.Collection;
+
+/**
+ * Action for the incremental layout, which places the nodes that are newly added to a view, and
+ * keeps the rest of the drawing.
+ *
+ * @author Ozgun Babur
+ *
+ * Copyright: Bilkent Center for Bioinformatics, 2007 - present
+ */
+public class IncrementalLayoutAction extends Action
+{
+	ChisioMain main = null;
+	ScrollingGraphicalViewer viewer;
+
+	/**
+	 * Nodes to place.
+	 */
+	Collection<NodeModel> newNodes;
+
+	/**
+	 * Constructor
+	 */
+	public IncrementalLayoutAction(ChisioMain main, Collection<NodeModel> newNodes)
+	{
+		this(main, null, newNodes);
+	}
+
+	public IncrementalLayoutAction(ChisioMain main, ScrollingGraphicalViewer viewer,
+		Collection<NodeModel> newNodes)
+	{
+		super("Incremental Layout");
+		setToolTipText(getText());
+		setImageDescriptor(ImageDescriptor.createFromFile(
+			ChisioMain.class, "icon/layout-cose.gif"));
+		this.main = main;
+		this.viewer = viewer;
+		this.newNodes = newNodes;
+	}
+
+	public void run()
+	{
+		if (viewer == null) viewer = main.getViewer();
+		if (viewer == null) return;
+
+		try
+		{
+			main.lockWithMessage("Performing layout ...");
+
+			CompoundModel root = (CompoundModel)((ChsRootEditPart) viewer.
+				getRootEditPart().getChildren().get(0)).getModel();
+
+			LayoutCommand command = new LayoutCommand(main, root, new IncrementalLayout(newNodes));
+			command.execute();
+			command = new LayoutCommand(main, root, new EdgeFixLayout());
+			command.execute();
+
+			main.makeDirty();
+			viewer = null;
+		}
+		catch (Exception e)
+		{
+			e.printStackTrace();
+		}
+		finally
+		{
+			main.unlock();
+		}
+	}
+
+	/**
+	 * Performs the layout in background, so that the application can be used meanwhile.
+	 */
+	public void runInBackground()
+	{
+		if (viewer == null) viewer = main.getViewer();
+		if (viewer == null) return;
+
+		final CompoundModel root = (CompoundModel)((ChsRootEditPart) viewer.
+			getRootEditPart().getChildren().get(0)).getModel();
+
+		viewer = null;
+
+		main.schedule(new LayoutJob(main, root, new IncrementalLayout(newNodes))
+		{
+			@Override
+			protected void done()
+			{
+				super.done();
+
+				LayoutCommand command = new LayoutCommand(main, root, new EdgeFixLayout());
+				command.execute();
+
+				main.makeDirty();
+			}
+
+			@Override
+			protected void cancelled()
+			{
+				// Keep the positions that the layout reached
+				if (isFrameShown())
+				{
+					LayoutCommand command = new LayoutCommand(main, root, new EdgeFixLayout());
+					command.execute();
+
+					main.makeDirty();
+				}
+			}
+		});
+	}
+}
@@ -2,26 +2,33 @@ package org.gvt.action;
 
 import org.apache.commons.io.IOUtils;
 import org.biopax.paxtools.pattern.miner.SIFEnum;
+import org.biopax.paxtools.pattern.miner.SIFType;
 import org.cbio.causality.analysis.Graph;
 import org.cbio.causality.data.portal.BroadAccessor;
 import org.cbio.causality.data.portal.CBioPortalAccessor;
 import org.cbio.causality.data.portal.CancerStudy;
 import org.cbio.causality.data.portal.GeneticProfile;
 import org.cbio.causality.model.AlterationPack;
-import org.cbio.causality.network.PathwayCommons;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.widgets.Event;
+import org.gvt.BackgroundJob;
 import org.gvt.ChisioMain;
+import org.gvt.editpart.ChsRootEditPart;
 import org.gvt.editpart.ChsScalableRootEditPart;
 import org.gvt.figure.HighlightLayer;
 import org.gvt.gui.ItemSelectionDialog;
+import org.gvt.model.CompoundModel;
 import org.gvt.model.NodeModel;
 import org.gvt.model.basicsif.BasicSIFGraph;
+import org.gvt.model.basicsif.CompactSIFGraph;
+import org.gvt.util.CaseAlterationStore;
 import org.gvt.util.Conf;
+import org.gvt.util.MappedSIFNetwork;
+import org.gvt.util.PCSifCache;
 import org.patika.mada.algorithm.AlgoRunner;
-import org.patika.mada.graph.Edge;
-import org.patika.mada.graph.GraphObject;
-import org.patika.mada.graph.Node;
+import org.patika.mada.algorithm.PathsBetweenSIF;
+import org.patika.mada.graph.CompactGraph;
 
 import java.io.IOException;
 import java.net.URL;
@@ -38,6 +45,11 @@ public class LoadTCGASpecificSIFAction extends TCGASIFAction
 	protected String study;
 	protected boolean newView;
 
+	/**
+	 * True while the action is run from the menu.
+	 */
+	private boolean background;
+
 	public LoadTCGASpecificSIFAction(ChisioMain main)
 	{
 		this("Load TCGA Specific SIF ...", main);
@@ -64,6 +76,22 @@ public class LoadTCGASpecificSIFAction extends TCGASIFAction
 		this.newView = newView;
 	}
 
+	/**
+	 * The SIF is loaded in background when the action is run from the menu.
+	 */
+	public void runWithEvent(Event event)
+	{
+		background = true;
+		try
+		{
+			run();
+		}
+		finally
+		{
+			background = false;
+		}
+	}
+
 	public void run()
 	{
 		try
@@ -80,56 +108,134 @@ public class LoadTCGASpecificSIFAction extends TCGASIFAction
 
 			if (study == null) return;
 
+			LoadJob job = new LoadJob(study, caseID, newView, background);
+
+			if (background) main.schedule(job);
+			else main.runInForeground(job);
+		}
+		catch (Exception e)
+		{
+			e.printStackTrace();
+		}
+		finally
+		{
+			study = null;
+		}
+	}
+
+	/**
+	 * Finds the genes of interest for the study, and loads the network between them.
+	 */
+	private class LoadJob extends BackgroundJob
+	{
+		private String study;
+		private String caseID;
+		private boolean newView;
+		private boolean background;
+
+		private BasicSIFGraph goi;
+		private Set<String> caseGenes;
+		private Set<String> caseOnly;
+
+		/**
+		 * Nodes of the loaded graph that were not in the updated view.
+		 */
+		private Collection<NodeModel> newNodes;
+
+		/**
+		 * Reason of an empty result, to be shown to the user.
+		 */
+		private String noResultMessage;
+
+		/**
+		 * Number of the cases that could not be fetched when the study is prefetched.
+		 */
+		private int prefetchFailed;
+
+		LoadJob(String study, String caseID, boolean newView, boolean background)
+		{
+			super(LoadTCGASpecificSIFAction.this.main, "Loading TCGA specific SIF");
+			this.study = study;
+			this.caseID = caseID;
+			this.newView = newView;
+			this.background = background;
+		}
+
+		@Override
+		protected void work() throws Exception
+		{
+			setProgress("Getting genes of interest for " + study, 0, 0);
+
 			Set<String> genes = BroadAccessor.getMutsigGenes(study, 0.05, true);
 			genes.addAll(BroadAccessor.getExpressionVerifiedGistic(study, 0.05));
 
 			if (genes.isEmpty())
 			{
-				MessageDialog.openInformation(main.getShell(), "No genes of interest",
-					"Cannot find any genes of interest for the current study.");
+				noResultMessage = "Cannot find any genes of interest for the current study.";
 				return;
 			}
 
-			Graph graph = PathwayCommons.getGraph(
-				SIFEnum.CONTROLS_STATE_CHANGE_OF,
-				SIFEnum.CONTROLS_EXPRESSION_OF);
+			checkCancelled();
+			setProgress("Loading Pathway Commons network", 0, 0);
+
+			SIFType[] types = {SIFEnum.CONTROLS_STATE_CHANGE_OF, SIFEnum.CONTROLS_EXPRESSION_OF};
+			Graph graph = PCSifCache.getGraph(types);
 
 			genes.addAll(graph.getEnrichedGenes(genes, null, 0.05, Graph.NeighborType.BOTHSTREAM, 1));
 
-			BasicSIFGraph pcGraph = new BasicSIFGraph(graph);
+			checkCancelled();
+
+			// The query runs on a compact graph, and only the result is turned into a model. The
+			// mapped network is used when it is available, which keeps the mediators in the file.
 
-			Set<Node> seed = QueryPCAction.getSeed(pcGraph, genes);
+			MappedSIFNetwork network = PCSifCache.getNetwork();
+			CompactSIFGraph pcGraph = network != null ?
+				new CompactSIFGraph(network, Arrays.asList(types)) : new CompactSIFGraph(graph);
+
+			int[] seed = pcGraph.getNodeIds(genes);
 
-			Set<String> caseGenes = null;
-			Set<String> caseOnly = null;
 			if (caseID != null)
 			{
-				caseGenes = getAlteredGenesForTheCase(caseID);
-				caseGenes = getNeighborsOfFirstAlsoInTheSecondSet(genes, caseGenes, seed);
+				setProgress("Getting alterations of " + caseID, 0, 0);
+
+				caseGenes = getAlteredGenesForTheCase(study.toLowerCase() + "_tcga", caseID,
+					this);
+				caseGenes = getNeighborsOfFirstAlsoInTheSecondSet(caseGenes, seed,
+					pcGraph.getGraph());
 				caseOnly = new HashSet<String>(caseGenes);
 				caseOnly.removeAll(genes);
 				genes.addAll(caseOnly);
-				seed = QueryPCAction.getSeed(pcGraph, genes);
+				seed = pcGraph.getNodeIds(genes);
 
 				System.out.println("caseOnly.size() = " + caseOnly.size());
 				System.out.println("caseGenes = " + caseGenes.size());
 			}
 
-			if (seed.isEmpty())
+			if (seed.length == 0)
 			{
-				MessageDialog.openInformation(main.getShell(), "No genes of interest",
-					"Loaded genes of interest do not intersect with genes in SIF data.");
+				noResultMessage = "Loaded genes of interest do not intersect with genes in SIF data.";
 				return;
 			}
 
-			Collection<GraphObject> graphObjects =
-				AlgoRunner.searchPathsBetweenSIF(seed, 1, true, -1, true);
+			PathsBetweenSIF query = AlgoRunner.searchPathsBetweenSIF(pcGraph.getGraph(), seed, 1,
+				true, -1, true, this);
 
-			BasicSIFGraph goi = (BasicSIFGraph) pcGraph.excise(graphObjects, true);
+			goi = pcGraph.toBasicSIFGraph(query.getNodeSelection(), query.getEdgeSelection());
 			goi.setName(study);
 			goi.setAsRoot();
 			System.out.println("GOI has " + goi.getNodes().size() + " nodes and " +
 				goi.getEdges().size() + " edges.");
+		}
+
+		@Override
+		protected void done()
+		{
+			if (goi == null)
+			{
+				MessageDialog.openInformation(main.getShell(), "No genes of interest",
+					noResultMessage);
+				return;
+			}
 
 			if (newView) main.createNewTab(goi);
 			else
@@ -144,12 +250,32 @@ public class LoadTCGASpecificSIFAction extends TCGASIFAction
 
 				main.getViewer().deselectAll();
 
+				CompoundModel old = (CompoundModel) ((ChsRootEditPart) main.getViewer().
+					getRootEditPart().getChildren().get(0)).getModel();
+
+				newNodes = copyLocations(old, goi);
+
 				main.getViewer().setContents(goi);
 			}
 
-			new CoSELayoutAction(main).run();
+			FetchFromCBioPortalAction fetch =
+				new FetchFromCBioPortalAction(main, study.toLowerCase() + "_tcga");
 
-			new FetchFromCBioPortalAction(main, study.toLowerCase() + "_tcga").run();
+			// Only the new genes are placed when the view is updated, if it had some of them
+			boolean incremental = newNodes != null && newNodes.size() < goi.getNodes().size();
+
+			if (background)
+			{
+				if (incremental) new IncrementalLayoutAction(main, newNodes).runInBackground();
+				else new CoSELayoutAction(main).runInBackground();
+				fetch.runInBackground();
+			}
+			else
+			{
+				if (incremental) new IncrementalLayoutAction(main, newNodes).run();
+				else new CoSELayoutAction(main).run();
+				fetch.run();
+			}
 
 			// Highlight case specific alterations
 
@@ -168,34 +294,63 @@ public class LoadTCGASpecificSIFAction extends TCGASIFAction
 					}
 				}
 			}
+
+			if (prefetchFailed > 0)
+			{
+				MessageDialog.openWarning(main.getShell(), "Missing alterations",
+					"Alterations of " + prefetchFailed + " cases of the study could not be " +
+					"fetched. They will be fetched again when those cases are loaded.");
+			}
 		}
-		catch (Exception e)
-		{
-			e.printStackTrace();
-		}
-		finally
+
+		/**
+		 * Moves the nodes of the new graph to the locations of the nodes with the same names in
+		 * the old graph.
+		 * @return nodes of the new graph that are not in the old graph
+		 */
+		private Collection<NodeModel> copyLocations(CompoundModel old, CompoundModel graph)
 		{
-			study = null;
+			Map<String, NodeModel> oldNodes = new HashMap<String, NodeModel>();
+
+			for (Object o : old.getNodes())
+			{
+				NodeModel node = (NodeModel) o;
+				if (!(node instanceof CompoundModel)) oldNodes.put(node.getText(), node);
+			}
+
+			List<NodeModel> added = new ArrayList<NodeModel>();
+
+			for (Object o : graph.getNodes())
+			{
+				NodeModel node = (NodeModel) o;
+				NodeModel oldNode = node instanceof CompoundModel ? null :
+					oldNodes.get(node.getText());
+
+				if (oldNode != null) node.setLocationAbs(oldNode.getLocationAbs());
+				else added.add(node);
+			}
+			return added;
 		}
 	}
 
 	//--------------------- Graph operations ------------------------------------------------------|
 
-	private Set<String> getNeighborsOfFirstAlsoInTheSecondSet(Set<String> first, Set<String> second,
-		Set<Node> nodes)
+	/**
+	 * Gets the names in the given set that are neighbors of the given nodes.
+	 */
+	private Set<String> getNeighborsOfFirstAlsoInTheSecondSet(Set<String> second, int[] nodes,
+		CompactGraph graph)
 	{
 		Set<String> neigh = new HashSet<String>();
-		for (Node node : nodes)
+		for (int node : nodes)
 		{
-			for (Edge e : node.getUpstream())
+			for (int i = graph.getInOffsets()[node]; i < graph.getInOffsets()[node + 1]; i++)
 			{
-				Node n = e.getSourceNode();
-				neigh.add(n.getName());
+				neigh.add(graph.getName(graph.getSource(graph.getInEdges()[i])));
 			}
-			for (Edge e : node.getDownstream())
+			for (int i = graph.getOutOffsets()[node]; i < graph.getOutOffsets()[node + 1]; i++)
 			{
-				Node n = e.getTargetNode();
-				neigh.add(n.getName());
+				neigh.add(graph.getName(graph.getTarget(graph.getOutEdges()[i])));
 			}
 		}
 		neigh.retainAll(second);
@@ -205,9 +360,9 @@ public class LoadTCGASpecificSIFAction extends TCGASIFAction
 	//--------------------- Portal operations -----------------------------------------------------|
 
 	private void keepOverValue(String study, Set<String> gistic, Set<String> dontTouchThis,
-		double altThr)
+		double altThr) throws IOException
 	{
-		CBioPortalAccessor acc = getPortalAccessor();
+		CBioPortalAccessor acc = FetchFromCBioPortalAction.createPortalAccessor();
 		acc.configureForStudy(study.toLowerCase() + "_tcga");
 		Set<String> keep = new HashSet<String>(dontTouchThis);
 
@@ -220,74 +375,76 @@ public class LoadTCGASpecificSIFAction extends TCGASIFAction
 		gistic.retainAll(keep);
 	}
 
-	private CBioPortalAccessor getPortalAccessor()
+	/**
+	 * Gets the altered genes of the case from the case alteration store of the study. If the
+	 * alterations of the study are not prefetched yet, all cases are fetched in one pass first.
+	 * @param job job that loads the case, gets the progress and the number of failed cases
+	 */
+	private Set<String> getAlteredGenesForTheCase(String studyID, String caseID, LoadJob job)
+		throws IOException
 	{
-		if (ChisioMain.cBioPortalAccessor == null)
+		CaseAlterationStore store = CaseAlterationStore.get(studyID);
+
+		Set<String> set = store.getAlteredGenes(caseID);
+		if (set != null) return set;
+
+		// The job has its own accessor, as configuring the shared one would change the study
+		// that the UI shows alterations of
+		CBioPortalAccessor acc = FetchFromCBioPortalAction.createPortalAccessor();
+		acc.configureForStudy(studyID);
+		PortalFetcher fetcher = new PortalFetcher(acc);
+
+		if (!store.isPrefetched())
 		{
-			try
-			{
-				CBioPortalAccessor.setCacheDir(Conf.getPortalCacheDir());
-				ChisioMain.cBioPortalAccessor = new CBioPortalAccessor();
-			}
-			catch (IOException e)
-			{
-				e.printStackTrace();
-			}
+			job.prefetchFailed = store.prefetch(Arrays.asList(acc.getCurrentCaseList().getCases()),
+				fetcher, job);
+
+			set = store.getAlteredGenes(caseID);
+			if (set != null) return set;
 		}
-		return ChisioMain.cBioPortalAccessor;
+
+		// The case is new, or could not be fetched during prefetch
+
+		set = fetcher.fetch(caseID);
+		store.add(caseID, set);
+		return set;
 	}
 
-	private Set<String> getAlteredGenesForTheCase(String caseID)
+	/**
+	 * Gets the mutated and copy number altered genes of a case from the portal.
+	 */
+	private static class PortalFetcher implements CaseAlterationStore.Fetcher
 	{
-		CBioPortalAccessor acc = getPortalAccessor();
-		String mutID = null;
-		String cnaID = null;
-		for (GeneticProfile gp : acc.getCurrentGeneticProfiles())
+		private String mutID;
+		private String cnaID;
+
+		PortalFetcher(CBioPortalAccessor acc)
 		{
-			if (gp.getId().contains("gistic")) cnaID = gp.getId();
-			else if (gp.getId().contains("mutation")) mutID = gp.getId();
+			for (GeneticProfile gp : acc.getCurrentGeneticProfiles())
+			{
+				if (gp.getId().contains("gistic")) cnaID = gp.getId();
+				else if (gp.getId().contains("mutation")) mutID = gp.getId();
+			}
 		}
 
-		Set<String> set = new HashSet<String>();
+		public Set<String> fetch(String caseID) throws IOException
+		{
+			Set<String> set = new HashSet<String>();
 
 			if (mutID != null)
 			{
-				String url = "http://www.cbioportal.org/public-portal/mutations.json?case_id=" +
-					caseID + "&mutation_profile=" + mutID;
-
-				harvestAlteredCaseJSON(url, set);
+				set.addAll(CaseAlterationStore.parseGeneList(IOUtils.toString(new URL(
+					PORTAL_URL + "mutations.json?case_id=" + caseID + "&mutation_profile=" +
+						mutID), "UTF-8")));
 			}
-			if (mutID != null)
+			if (cnaID != null)
 			{
-				String url = "http://www.cbioportal.org/public-portal/cna.json?case_id=" +
-					caseID + "&cna_profile=" + cnaID;
-
-				harvestAlteredCaseJSON(url, set);
+				set.addAll(CaseAlterationStore.parseGeneList(IOUtils.toString(new URL(
+					PORTAL_URL + "cna.json?case_id=" + caseID + "&cna_profile=" + cnaID),
+					"UTF-8")));
 			}
 
-		return set;
-	}
-
-	private void harvestAlteredCaseJSON(String url, Set<String> set)
-	{
-		try
-		{
-
-			String content = IOUtils.toString(new URL(url), "UTF-8");
-			int start = content.indexOf("\"gene\":[\"") + 9;
-			int end = content.indexOf("\"]", start);
-			content = content.substring(start, end);
-			String[] token = content.split("\",\"");
-			set.addAll(Arrays.asList(token));
-//			for (String gene : token)
-//			{
-//				String symbol = HGNC.getSymbol(gene);
-//				if (symbol != null) set.add(symbol);
-//			}
-		}
-		catch (IOException e)
-		{
-			e.printStackTrace();
+			return set;
 		}
 	}
 
@@ -318,6 +475,8 @@ public class LoadTCGASpecificSIFAction extends TCGASIFAction
 		return list;
 	}
 
+	private static final String PORTAL_URL = "http://www.cbioportal.org/public-portal/";
+
 	static
 	{
 		CBioPortalAccessor.setCacheDir(Conf.getPortalCacheDir());
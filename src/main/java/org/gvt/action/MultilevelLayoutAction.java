@@ -0,0 +1,123 @@
+package org.gvt.action;
+
+import org.eclipse.gef.ui.parts.ScrollingGraphicalViewer;
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.swt.widgets.Event;
+import org.gvt.ChisioMain;
+import org.gvt.LayoutJob;
+import org.gvt.command.LayoutCommand;
+import org.gvt.editpart.ChsRootEditPart;
+import org.gvt.layout.EdgeFixLayout;
+import org.gvt.layout.MultilevelLayout;
+import org.gvt.model.CompoundModel;
+
+/**
+ * Action for the multilevel layout, which is for views that are too large for CoSE.
+ *
+ * @author Ozgun Babur
+ *
+ * Copyright: Bilkent Center for Bioinformatics, 2007 - present
+ */
+public class MultilevelLayoutAction extends Action
+{
+	ChisioMain main = null;
+	ScrollingGraphicalViewer viewer;
+
+	/**
+	 * Constructor
+	 */
+	public MultilevelLayoutAction(ChisioMain main)
+	{
+		this(main, null);
+	}
+
+	public MultilevelLayoutAction(ChisioMain main, ScrollingGraphicalViewer viewer)
+	{
+		super("Multilevel Layout (for large graphs)");
+		setToolTipText(getText());
+		setImageDescriptor(ImageDescriptor.createFromFile(
+			ChisioMain.class, "icon/layout-cose.gif"));
+		this.main = main;
+		this.viewer = viewer;
+	}
+
+	public void run()
+	{
+		if (viewer == null) viewer = main.getViewer();
+		if (viewer == null) return;
+
+		try
+		{
+			main.lockWithMessage("Performing layout ...");
+
+			CompoundModel root = (CompoundModel)((ChsRootEditPart) viewer.
+				getRootEditPart().getChildren().get(0)).getModel();
+
+			LayoutCommand command = new LayoutCommand(main, root, new MultilevelLayout());
+			command.execute();
+			command = new LayoutCommand(main, root, new EdgeFixLayout());
+			command.execute();
+
+			main.makeDirty();
+			viewer = null;
+		}
+		catch (Exception e)
+		{
+			e.printStackTrace();
+		}
+		finally
+		{
+			main.unlock();
+		}
+	}
+
+	/**
+	 * Layouts that are started from the menu or toolbar run in background.
+	 */
+	public void runWithEvent(Event event)
+	{
+		runInBackground();
+	}
+
+	/**
+	 * Performs the layout in background, so that the application can be used meanwhile.
+	 */
+	public void runInBackground()
+	{
+		if (viewer == null) viewer = main.getViewer();
+		if (viewer == null) return;
+
+		final CompoundModel root = (CompoundModel)((ChsRootEditPart) viewer.
+			getRootEditPart().getChildren().get(0)).getModel();
+
+		viewer = null;
+
+		main.schedule(new LayoutJob(main, root, new MultilevelLayout())
+		{
+			@Override
+			protected void done()
+			{
+				super.done();
+
+				LayoutCommand command = new LayoutCommand(main, root, new EdgeFixLayout());
+				command.execute();
+
+				main.makeDirty();
+			}
+
+			@Override
+			protected void cancelled()
+			{
+				// Keep the positions that the layout reached
+				if (isFrameShown())
+				{
+					LayoutCommand command = new LayoutCommand(main, root, new EdgeFixLayout());
+					command.execute();
+
+					main.makeDirty();
+				}
+			}
+		});
+	}
+}
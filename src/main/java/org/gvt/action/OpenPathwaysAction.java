@@ -188,7 +188,15 @@ public class OpenPathwaysAction extends Action
 
 		if (!layedout)
 		{
-			new CoSELayoutAction(main).run();
+			// Only the new nodes are placed if the others have their recorded locations
+			if (graph.isLayoutPartial())
+			{
+				new IncrementalLayoutAction(main, graph.getUnplacedNodes()).run();
+			}
+			else
+			{
+				new CoSELayoutAction(main).run();
+			}
 		}
 	}
 
@@ -8,19 +8,19 @@ import cpath.query.CPathSearchQuery;
 import org.biopax.paxtools.controller.Cloner;
 import org.biopax.paxtools.controller.Completer;
 import org.biopax.paxtools.controller.SimpleEditorMap;
-import org.biopax.paxtools.io.SimpleIOHandler;
 import org.biopax.paxtools.model.BioPAXElement;
 import org.biopax.paxtools.model.BioPAXLevel;
 import org.biopax.paxtools.model.Model;
 import org.biopax.paxtools.model.level3.Interaction;
 import org.biopax.paxtools.model.level3.Pathway;
-import org.biopax.paxtools.model.level3.RelationshipXref;
 import org.biopax.paxtools.pattern.miner.SIFType;
 import org.cbio.causality.network.PathwayCommons;
 import org.eclipse.gef.EditPart;
 import org.eclipse.gef.ui.parts.ScrollingGraphicalViewer;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.swt.widgets.Event;
+import org.gvt.BackgroundJob;
 import org.gvt.ChisioMain;
 import org.gvt.gui.AbstractQueryParamDialog;
 import org.gvt.model.EntityAssociated;
@@ -33,13 +33,14 @@ import org.gvt.model.basicsif.BasicSIFNode;
 import org.gvt.model.sifl3.SIFEdge;
 import org.gvt.model.sifl3.SIFGroup;
 import org.gvt.util.Conf;
+import org.gvt.util.BioPAXModelStore;
 import org.gvt.util.QueryOptionsPack;
 import org.patika.mada.graph.Graph;
 import org.patika.mada.graph.Node;
+import org.patika.mada.util.ProgressMonitor;
 import org.patika.mada.util.XRef;
 
 import java.io.BufferedReader;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URL;
@@ -79,6 +80,18 @@ public abstract class QueryPCAction extends ChiBEAction
 
 	protected boolean createNewPathwayForView;
 
+	/**
+	 * Monitor of the running query, to be passed to the algorithms. The action is disabled while
+	 * its query runs, since the query uses the options of the action.
+	 */
+	protected ProgressMonitor monitor;
+
+	/**
+	 * Whether the current run is started by the user, from a menu. Such queries run in
+	 * background. Queries that are run by other actions finish before returning.
+	 */
+	private boolean background;
+
 	public QueryPCAction(ChisioMain main, String text, boolean useSelected, QueryLocation qLoc)
 	{
 		super(text, "icon/query-neighbors.png", main);
@@ -122,6 +135,20 @@ public abstract class QueryPCAction extends ChiBEAction
 		this.ignoreIDsOfSelectedNodes = ignoreIDsOfSelectedNodes;
 	}
 
+	public void runWithEvent(Event event)
+	{
+		background = true;
+
+		try
+		{
+			run();
+		}
+		finally
+		{
+			background = false;
+		}
+	}
+
 	public void execute()
 	{
 		if (queryLoc.isFile() && localFilename == null)
@@ -130,6 +157,8 @@ public abstract class QueryPCAction extends ChiBEAction
 			if (localFilename == null) return;
 		}
 
+		boolean started = false;
+
         if(main.getBioPAXModel() == null || main.getBioPAXModel().getLevel().equals(BioPAXLevel.L3))
         {
             try
@@ -139,32 +168,26 @@ public abstract class QueryPCAction extends ChiBEAction
 
                 if (!canQuery()) return;
 
-                main.lockWithMessage("Querying Pathway Commons ...");
+				QueryJob job = new QueryJob(background);
+				monitor = job;
+				started = true;
 
-				if (queryLoc.isSIF())
+				if (background)
 				{
-					doSIFQuery();
+					setEnabled(false);
+					main.schedule(job);
 				}
-				else doMechanisticQuery();
+				else main.runInForeground(job);
             }
             catch (Exception e)
             {
-                if (e instanceof CPathException ||
-                    e.getCause() instanceof CPathException)
-                {
-                    alertNoResults();
-                }
-                else
-                {
-                    e.printStackTrace();
-                    MessageDialog.openError(main.getShell(), "Error",
-                        "An error occurred during querying:\n" + e.getMessage());
-                }
+				e.printStackTrace();
+				MessageDialog.openError(main.getShell(), "Error",
+					"An error occurred during querying:\n" + e.getMessage());
             }
             finally
             {
-                main.unlock();
-				localFilename = null;
+				if (!started) queryFinished();
             }
         }
         else
@@ -174,7 +197,82 @@ public abstract class QueryPCAction extends ChiBEAction
         }
 	}
 
-	private void doSIFQuery() throws CPathException
+	/**
+	 * Called in the UI thread when the query is finished, cancelled, or not started. Prepares the
+	 * action for the next run.
+	 */
+	protected void queryFinished()
+	{
+		localFilename = null;
+		monitor = null;
+		setEnabled(true);
+	}
+
+	/**
+	 * Runs the query, and shows the result when it is ready.
+	 */
+	private class QueryJob extends BackgroundJob
+	{
+		private boolean background;
+		private BasicSIFGraph goi;
+		private Model model;
+
+		QueryJob(boolean background)
+		{
+			super(QueryPCAction.this.main, "Querying Pathway Commons");
+			this.background = background;
+		}
+
+		@Override
+		protected void work() throws Exception
+		{
+			if (queryLoc.isSIF()) goi = doSIFQuery();
+			else model = doMechanisticQuery();
+		}
+
+		@Override
+		protected void done()
+		{
+			try
+			{
+				if (queryLoc.isSIF()) showSIFResult(goi, background);
+				else showMechanisticResult(model);
+			}
+			finally
+			{
+				queryFinished();
+			}
+		}
+
+		@Override
+		protected void cancelled()
+		{
+			queryFinished();
+		}
+
+		@Override
+		protected void failed(Throwable t)
+		{
+			try
+			{
+				if (t instanceof CPathException || t.getCause() instanceof CPathException)
+				{
+					alertNoResults();
+				}
+				else super.failed(t);
+			}
+			finally
+			{
+				queryFinished();
+			}
+		}
+	}
+
+	/**
+	 * Gets the SIF graph of the result. Runs in a worker thread.
+	 * @return the result graph, or null if the result is empty
+	 */
+	private BasicSIFGraph doSIFQuery() throws CPathException
 	{
 		BasicSIFGraph goi = null;
 
@@ -184,11 +282,7 @@ public abstract class QueryPCAction extends ChiBEAction
 			BasicSIFGraph graph = new BasicSIFGraph(g);
 			Collection<org.patika.mada.graph.GraphObject> gos = doSIFQuery(graph);
 
-			if (gos.isEmpty())
-			{
-				alertNoResults();
-				return;
-			}
+			if (gos.isEmpty()) return null;
 
 			goi = (BasicSIFGraph) graph.excise(gos, true);
 		}
@@ -239,10 +333,24 @@ public abstract class QueryPCAction extends ChiBEAction
 		goi.replaceChEBIIDsWithNames();
 		goi.setName(getNewPathwayName());
 		goi.setAsRoot();
+		return goi;
+	}
+
+	/**
+	 * Opens the SIF result in a new view. Runs in the UI thread.
+	 */
+	private void showSIFResult(BasicSIFGraph goi, boolean background)
+	{
+		if (goi == null)
+		{
+			alertNoResults();
+			return;
+		}
 
 		main.createNewTab(goi);
 
-		new CoSELayoutAction(main).run();
+		if (background) new CoSELayoutAction(main).runInBackground();
+		else new CoSELayoutAction(main).run();
 
 		if (highlightSeed())
 		{
@@ -267,7 +375,10 @@ public abstract class QueryPCAction extends ChiBEAction
 		return options.getLengthLimit() > 1;
 	}
 
-	private void doMechanisticQuery() throws CPathException
+	/**
+	 * Gets the BioPAX model of the result. Runs in a worker thread.
+	 */
+	private Model doMechanisticQuery() throws CPathException
 	{
 		Model model;
 		if (queryLoc == QueryLocation.FILE_MECH)
@@ -285,8 +396,14 @@ public abstract class QueryPCAction extends ChiBEAction
 			model = doQuery();
 		}
 
-		main.unlock();
+		return model;
+	}
 
+	/**
+	 * Loads the BioPAX result and highlights the query seed. Runs in the UI thread.
+	 */
+	private void showMechanisticResult(Model model)
+	{
 		if (model != null)
 		{
 			if (containsOnlyAnEmptyPathway(model))
@@ -569,14 +686,7 @@ public abstract class QueryPCAction extends ChiBEAction
 
 	protected Set<BioPAXElement> findRelatedReferences(Model model, Collection<String> symbols)
 	{
-		Set<BioPAXElement> set = new HashSet<BioPAXElement>();
-
-		for (RelationshipXref xref : model.getObjects(RelationshipXref.class))
-		{
-			if (symbols.contains(xref.getId())) set.add(xref);
-		}
-
-		return set;
+		return BioPAXModelStore.findRelationshipXrefs(model, symbols);
 	}
 
 	protected Model excise(Model model, Set<BioPAXElement> result)
@@ -594,8 +704,8 @@ public abstract class QueryPCAction extends ChiBEAction
 	{
 		try
 		{
-			SimpleIOHandler handler = new SimpleIOHandler();
-			Model model = handler.convertFromOWL(new FileInputStream(filename));
+			// The parsed model is reused by the following queries on the same file
+			Model model = BioPAXModelStore.getModel(filename);
 			Set<BioPAXElement> results = doFileQuery(model);
 			return excise(model, results);
 		}
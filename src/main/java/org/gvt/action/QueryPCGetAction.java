@@ -59,7 +59,6 @@ public class QueryPCGetAction extends QueryPCAction
             }
 
             execute();
-            ids = null;
         }
         else
         {
@@ -73,6 +72,13 @@ public class QueryPCGetAction extends QueryPCAction
 		this.ids = ids;
 	}
 
+	@Override
+	protected void queryFinished()
+	{
+		super.queryFinished();
+		ids = null;
+	}
+
 	@Override
 	protected String getSIFQueryType()
 	{
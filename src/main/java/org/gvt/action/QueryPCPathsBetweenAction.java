@@ -76,7 +76,8 @@ public class QueryPCPathsBetweenAction extends QueryPCAction
 	{
 		return AlgoRunner.searchPathsBetweenSIF(getSeed(graph, options.getConvertedSourceList()),
 			options.getLengthLimit(), !options.undirectedSIFTypeSelected(),
-			options.getLimitType() ? -1 : options.getShortestPlusKLimit(), options.isStrict());
+			options.getLimitType() ? -1 : options.getShortestPlusKLimit(), options.isStrict(),
+			monitor);
 	}
 
 	@Override
@@ -78,7 +78,8 @@ public class QueryPCPathsFromToAction extends QueryPCAction
 		return AlgoRunner.searchPathsFromTo(getSeed(graph, options.getConvertedSourceList()),
 			getSeed(graph, options.getConvertedTargetList()), options.getLengthLimit(),
 			!options.undirectedSIFTypeSelected(),
-			options.getLimitType() ? -1 : options.getShortestPlusKLimit(), options.isStrict());
+			options.getLimitType() ? -1 : options.getShortestPlusKLimit(), options.isStrict(),
+			monitor);
 	}
 
 	@Override
@@ -4,6 +4,7 @@ import org.eclipse.jface.action.Action;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.gvt.ChisioMain;
 import org.gvt.model.BioPAXGraph;
+import org.gvt.model.GraphObject;
 
 /**
  * @author Ozgun Babur
@@ -41,7 +42,17 @@ public class RemoveExperimentColorAction extends Action
 			return;
 		}
 
-		graph.removeRepresentations();
+		GraphObject.startBatch();
+
+		try
+		{
+			graph.removeRepresentations();
+		}
+		finally
+		{
+			GraphObject.endBatch();
+		}
+
 		graph.setLastAppliedColoring(null);
 
 		// Forget the graph
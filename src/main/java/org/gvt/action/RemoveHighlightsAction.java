@@ -6,6 +6,7 @@ import org.gvt.ChisioMain;
 import org.gvt.editpart.ChsRootEditPart;
 import org.gvt.model.CompoundModel;
 import org.gvt.model.EdgeModel;
+import org.gvt.model.GraphObject;
 import org.gvt.model.NodeModel;
 
 import java.util.Iterator;
@@ -42,17 +43,26 @@ public class RemoveHighlightsAction extends Action
 
 		Iterator<NodeModel> nodeIter = root.getNodes().iterator();
 
-		while (nodeIter.hasNext())
+		GraphObject.startBatch();
+
+		try
 		{
-			NodeModel node = nodeIter.next();
-			node.setHighlight(false);
+			while (nodeIter.hasNext())
+			{
+				NodeModel node = nodeIter.next();
+				node.setHighlight(false);
 
-			List<EdgeModel> edges = node.getSourceConnections();
+				List<EdgeModel> edges = node.getSourceConnections();
 
-			for (int i = 0; i < edges.size(); i++)
-			{
-				edges.get(i).setHighlight(false);
+				for (int i = 0; i < edges.size(); i++)
+				{
+					edges.get(i).setHighlight(false);
+				}
 			}
 		}
+		finally
+		{
+			GraphObject.endBatch();
+		}
 	}
 }
@@ -8,7 +8,9 @@ import org.gvt.model.CompoundModel;
 import org.gvt.util.GraphMLWriter;
 
 import java.io.BufferedWriter;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
 /**
  * Action for saving the graph as an GraphML.
@@ -42,11 +44,16 @@ public class SaveAsGraphMLAction extends ChiBEAction
 				((ChsRootEditPart) main.getViewer().getRootEditPart().
 					getChildren().get(0)).getModel();
 
-			BufferedWriter xmlFile =
-				new BufferedWriter(new FileWriter(fileName));
-			GraphMLWriter writer = new GraphMLWriter();
-			xmlFile.write(writer.writeXMLFile(root).toString());
-			xmlFile.close();
+			Writer xmlFile = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(fileName), "UTF-8"));
+			try
+			{
+				new GraphMLWriter().write(root, xmlFile);
+			}
+			finally
+			{
+				xmlFile.close();
+			}
 
 			// mark save location in commandstack
 			main.getEditDomain().getCommandStack().markSaveLocation();
@@ -1,7 +1,5 @@
 package org.gvt.action;
 
-import org.apache.batik.svggen.SVGGeneratorContext;
-import org.apache.batik.svggen.SVGGraphics2D;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.swt.SWT;
@@ -14,12 +12,17 @@ import org.gvt.ChisioMain;
 import org.gvt.model.CompoundModel;
 import org.gvt.editpart.ChsRootEditPart;
 import org.gvt.editpart.ChsScalableRootEditPart;
+import org.gvt.util.Conf;
+import org.gvt.util.SVGStreamGraphics2D;
+import org.gvt.util.TiledPNGExporter;
 import org.gvt.util.onotoa.GraphicsToGraphics2DAdaptor;
-import org.w3c.dom.Document;
 
-import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
 /**
  * Action for saving the graph or view as an image.
@@ -96,41 +99,81 @@ public class SaveAsImageAction extends ChiBEAction
 			bounds = getBounds(main.getViewer(), rootFigure, scale);
 		}
 
+		if (filename.endsWith(".png"))
+		{
+			exportPng(rootFigure, bounds, filename);
+			return;
+		}
+		else if (filename.endsWith(".svg"))
+		{
+			exportSvg(bounds, rootFigure, new File(filename));
+			return;
+		}
+
 		final Image image = new Image(shell.getDisplay(), bounds);
 
-		if (filename.endsWith(".svg"))
+		GC gc = new GC(image);
+		gc.setAntialias(SWT.ON);
+		gc.setTextAntialias(SWT.ON);
+
+		Graphics graphics = new SWTGraphics(gc);
+
+		rootFigure.paint(graphics);
+		graphics.drawText(main.getPathwayGraph().getName(), 3, 3);
+
+		graphics.dispose();
+
+		ImageLoader loader = new ImageLoader();
+		loader.data = new ImageData[]{image.getImageData()};
+
+		if (filename.endsWith(".bmp"))
 		{
-			exportSvg(image, rootFigure, new File(filename));
+			loader.save(filename, SWT.IMAGE_BMP);
 		}
-		else
+		else if (filename.endsWith(".jpg"))
 		{
-			GC gc = new GC(image);
-			gc.setAntialias(SWT.ON);
-			gc.setTextAntialias(SWT.ON);
-
-			Graphics graphics = new SWTGraphics(gc);
+			loader.save(filename, SWT.IMAGE_JPEG);
+		}
 
-			rootFigure.paint(graphics);
-			graphics.drawText(main.getPathwayGraph().getName(), 3, 3);
+		image.dispose();
+	}
 
-			graphics.dispose();
+	/**
+	 * Saves the figure as a PNG image in tiles, so that large graphs do not need an image of their
+	 * whole size. The image is scaled with the IMAGE_EXPORT_SCALE configuration.
+	 */
+	private void exportPng(Figure rootFigure, Rectangle bounds, String filename)
+	{
+		TiledPNGExporter exporter = new TiledPNGExporter(rootFigure, bounds.width, bounds.height,
+			getExportScale());
 
-			ImageLoader loader = new ImageLoader();
-			loader.data = new ImageData[]{image.getImageData()};
+		if (main.getPathwayGraph() != null) exporter.setTitle(main.getPathwayGraph().getName());
 
-			if (filename.endsWith(".bmp"))
-			{
-				loader.save(filename, SWT.IMAGE_BMP);
-			}
-			else if (filename.endsWith(".jpg"))
-			{
-				loader.save(filename, SWT.IMAGE_JPEG);
-			}
-			else if (filename.endsWith(".png"))
-			{
-				loader.save(filename, SWT.IMAGE_PNG);
-			}
+		main.lockWithMessage("Saving image ...");
+		try
+		{
+			exporter.export(main.getShell().getDisplay(), filename);
 		}
+		catch (IOException e)
+		{
+			MessageDialog.openError(main.getShell(), "Error",
+				"Cannot save the image.\n" + e.getMessage());
+		}
+		finally
+		{
+			main.unlock();
+		}
+	}
+
+	/**
+	 * Gets the configured scale factor of exported images, 1 if it is not configured.
+	 */
+	private static double getExportScale()
+	{
+		if (Conf.get(Conf.IMAGE_EXPORT_SCALE).length() == 0) return 1;
+
+		double scale = Conf.getNumber(Conf.IMAGE_EXPORT_SCALE);
+		return scale > 0 ? scale : 1;
 	}
 
 	public static Rectangle getBounds(ScrollingGraphicalViewer viewer, Figure f, double zoom)
@@ -161,37 +204,53 @@ public class SaveAsImageAction extends ChiBEAction
 			bounds.height);
 	}
 
-	public void exportSvg(Image image, IFigure fig, File file) {
+	/**
+	 * Writes the figure to the file in SVG format. Elements are written to the file as the figure
+	 * is painted, without creating the document in memory.
+	 */
+	public void exportSvg(Rectangle bounds, IFigure fig, File file)
+	{
 		Graphics g = null;
-		try {
-			String svgNS = "http://www.w3.org/2000/svg";
+		Writer writer = null;
 
-			Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().getDOMImplementation().createDocument(
-				svgNS, "svg", null);
+		try
+		{
+			writer = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
 
-			SVGGeneratorContext ctx = SVGGeneratorContext.createDefault(doc);
-			ctx.setComment("Generated by Onotoa with Batik SVG Generator");
-			ctx.setEmbeddedFontsOn(true);
-			ctx.setPrecision(3);
-			SVGGraphics2D svgGraphics2d = new SVGGraphics2D(ctx, true);
-			g = new GraphicsToGraphics2DAdaptor(svgGraphics2d, image.getBounds());
+			SVGStreamGraphics2D svg = new SVGStreamGraphics2D(writer, bounds.width, bounds.height);
+			g = new GraphicsToGraphics2DAdaptor(svg, bounds);
 
 			g.translate(fig.getBounds().getLocation().getCopy().scale(-1.));
 			fig.paint(g);
 
-			FileWriter writer = new FileWriter(file);
-			svgGraphics2d.stream(writer);
-			writer.flush();
+			g.dispose();
+			g = null;
 
-		} catch (Exception e) {
+			svg.close();
+		}
+		catch (IOException e)
+		{
 			throw new RuntimeException(e);
-		} finally {
-			if (g != null) {
+		}
+		finally
+		{
+			if (g != null)
+			{
 				g.dispose();
 			}
-			if (image!=null)
-				image.dispose();
+			if (writer != null)
+			{
+				// The writer is already closed if the document is completed
+				try
+				{
+					writer.close();
+				}
+				catch (IOException e)
+				{
+					e.printStackTrace();
+				}
+			}
 		}
 	}
-
 }
@@ -2,6 +2,8 @@ package org.gvt.action;
 
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.swt.widgets.Event;
+import org.gvt.BackgroundJob;
 import org.gvt.ChisioMain;
 import org.gvt.gui.ItemSelectionRunnable;
 import org.gvt.util.EntityHolder;
@@ -40,6 +42,11 @@ public class SearchCausativePathsAction extends Action
 	 */
 	private Map<String, CausativePath> idMap;
 
+	/**
+	 * True while the action is run from the menu.
+	 */
+	private boolean background;
+
 	/**
 	 * Constructor
 	 * @param main main application
@@ -59,6 +66,22 @@ public class SearchCausativePathsAction extends Action
 		this.targets = targets;
 	}
 
+	/**
+	 * Global searches run in background when the action is run from the menu.
+	 */
+	public void runWithEvent(Event event)
+	{
+		background = true;
+		try
+		{
+			run();
+		}
+		finally
+		{
+			background = false;
+		}
+	}
+
 	public void run()
 	{
 		if (globalSearch && main.getBioPAXModel() == null) return;
@@ -135,9 +158,61 @@ public class SearchCausativePathsAction extends Action
 
 		if (targets.isEmpty()) targets = null;
 
-		Map<Node, Map<Integer, List<CausativePath>>> allMap =
-			AlgoRunner.searchCausativePaths(graph, targets, limit, t, k);
+		// A global search works on its own graph, so it can run in background. A local search
+		// reads the nodes, edges and data of the displayed graph, which the user could edit
+		// meanwhile, hence the window is locked until it ends.
+
+		SearchJob job = new SearchJob(graph, targets, limit, t, k, background && globalSearch);
+
+		if (background && globalSearch) main.schedule(job);
+		else main.runInForeground(job);
 
+		targets = null;
+	}
+
+	/**
+	 * The data comparison is read by the algorithm, so it is supposed to stay as it is until the
+	 * search ends.
+	 */
+	private class SearchJob extends BackgroundJob
+	{
+		private BioPAXGraph graph;
+		private Set<Node> targets;
+		private int limit;
+		private int t;
+		private int k;
+		private boolean background;
+
+		private Map<Node, Map<Integer, List<CausativePath>>> allMap;
+
+		SearchJob(BioPAXGraph graph, Set<Node> targets, int limit, int t, int k,
+			boolean background)
+		{
+			super(SearchCausativePathsAction.this.main, "Searching causative paths");
+			this.graph = graph;
+			this.targets = targets;
+			this.limit = limit;
+			this.t = t;
+			this.k = k;
+			this.background = background;
+		}
+
+		@Override
+		protected void work() throws Exception
+		{
+			allMap = AlgoRunner.searchCausativePaths(graph, targets, limit, t, k, this);
+		}
+
+		@Override
+		protected void done()
+		{
+			showResult(graph, allMap, limit, background);
+		}
+	}
+
+	private void showResult(BioPAXGraph graph, Map<Node, Map<Integer, List<CausativePath>>> allMap,
+		int limit, boolean background)
+	{
 		// Search the paths map for each target and
 		// prepare the result paths to visualize
 
@@ -164,7 +239,9 @@ public class SearchCausativePathsAction extends Action
 			pathwayGraph = graph.excise(paths, false, true);
 			pathwayGraph.setName("Causative Paths");
 			main.createNewTab(pathwayGraph);
-			new CoSELayoutAction(main).run();
+
+			if (background) new CoSELayoutAction(main).runInBackground();
+			else new CoSELayoutAction(main).run();
 			
 			new ColorWithExperimentAction(main, pathwayGraph, ExperimentData.EXPRESSION_DATA).run();
 
@@ -242,7 +319,6 @@ public class SearchCausativePathsAction extends Action
 				"No causative paths found.");
 		}
 
-		targets = null;
 		pathwayGraph = null;
 	}
 
@@ -4,14 +4,14 @@ import org.cbio.causality.data.portal.BroadAccessor;
 import org.cbio.causality.model.Alteration;
 import org.cbio.causality.model.AlterationPack;
 import org.cbio.causality.model.Change;
-import org.cbio.causality.util.Overlap;
-import org.cbio.causality.util.Summary;
 import org.eclipse.swt.custom.CTabItem;
 import org.gvt.ChisioMain;
 import org.gvt.gui.ItemSelectionDialog;
 import org.gvt.gui.ItemSelectionRunnable;
 import org.gvt.model.CompoundModel;
 import org.gvt.model.biopaxl3.BioPAXL3Graph;
+import org.gvt.util.GeneSet;
+import org.patika.mada.algorithm.MutexSearcher;
 import org.patika.mada.graph.Edge;
 import org.patika.mada.graph.Graph;
 import org.patika.mada.graph.GraphObject;
@@ -43,15 +43,14 @@ public class ShowMutexGroupsAction extends TCGASIFAction
 
 		// Prepare data
 
-		List<Set<String>> gisticSets = BroadAccessor.getGisticGeneSets(graph.getName(), 1);
-		Set<String> genes = getNodeNames(graph);
-		Set<Set<String>> empty = new HashSet<Set<String>>();
-		for (Set<String> set : gisticSets)
+		// GISTIC regions are restricted to the genes in the graph
+		GeneSet genes = new GeneSet(getNodeNames(graph));
+		List<Set<String>> gisticSets = new ArrayList<Set<String>>();
+		for (Set<String> set : BroadAccessor.getGisticGeneSets(graph.getName(), 1))
 		{
-			set.retainAll(genes);
-			if (set.isEmpty()) empty.add(set);
+			GeneSet gistic = new GeneSet(set);
+			if (gistic.intersects(genes)) gisticSets.add(gistic.and(genes).getSymbols());
 		}
-		gisticSets.removeAll(empty);
 
 		// Find mutex groups
 
@@ -122,8 +121,6 @@ public class ShowMutexGroupsAction extends TCGASIFAction
 
 	private List<NodeGroup> getMutexGroups(Graph graph, List<Set<String>> gisticSets, double pvalThr)
 	{
-		List<NodeGroup> groups = new ArrayList<NodeGroup>();
-
 		List<Node> nodes = new ArrayList<Node>(graph.getNodes());
 
 		Iterator<Node> iter = nodes.iterator();
@@ -149,177 +146,61 @@ public class ShowMutexGroupsAction extends TCGASIFAction
 			}
 		});
 
-		for (Node node : nodes)
+		// Index the alterations and the GISTIC regions of the genes
+
+		Change[][] genomic = new Change[nodes.size()][];
+		Change[][] mutation = new Change[nodes.size()][];
+		int[][] regions = new int[nodes.size()][];
+		int[] seeds = new int[nodes.size()];
+
+		for (int i = 0; i < seeds.length; i++)
 		{
-			NodeGroup group = new NodeGroup(node, gisticSets);
+			Node node = nodes.get(i);
+			AlterationPack pack = getAltPack(node);
+			genomic[i] = pack.get(Alteration.GENOMIC);
+			mutation[i] = pack.get(Alteration.MUTATION);
 
-			for (int i = 0; i < 5; i++)
+			List<Integer> ids = new ArrayList<Integer>();
+			for (int j = 0; j < gisticSets.size(); j++)
 			{
-				addNextBestGene(group, nodes);
+				if (gisticSets.get(j).contains(node.getName())) ids.add(j);
 			}
-
-			while (group.size() > 1 && group.getWorstMutexPVal() > pvalThr)
+			regions[i] = new int[ids.size()];
+			for (int j = 0; j < regions[i].length; j++)
 			{
-				group.removeLast();
+				regions[i][j] = ids.get(j);
 			}
 
-			if (group.size() > 1 && !groups.contains(group)) groups.add(group);
+			seeds[i] = i;
 		}
 
-		return groups;
-	}
+		MutexSearcher searcher = new MutexSearcher(genomic, mutation, regions);
 
-	private void addNextBestGene(NodeGroup group, List<Node> nodes)
-	{
-		Node best = null;
-		double bestPval = 1;
+		List<NodeGroup> groups = new ArrayList<NodeGroup>();
 
-		for (Node node : nodes)
+		for (MutexSearcher.Group group : searcher.search(seeds, pvalThr))
 		{
-			if (!group.contains(node) && getAltPack(node) != null)
+			List<Node> members = new ArrayList<Node>();
+			for (int member : group.getMembers())
 			{
-				group.addNode(node);
-
-				double pval = group.getMeanMutexPVal();
-
-				if (pval < bestPval)
-				{
-					bestPval = pval;
-					best = node;
-				}
-
-				group.removeLast();
+				members.add(nodes.get(member));
 			}
+			groups.add(new NodeGroup(members, group.getMeanPval()));
 		}
 
-		group.addNode(best);
+		return groups;
 	}
 
 	class NodeGroup implements Comparable
 	{
-		List<Set<String>> closeGenes;
-		LinkedList<Node> nodes;
-		LinkedList<Change[]> alts;
+		List<Node> nodes;
 		List<Edge> edges;
-		Set<String> nodeNames;
-
-		NodeGroup(Node node, List<Set<String>> closeGenes)
-		{
-			this.closeGenes = closeGenes;
-			nodes = new LinkedList<Node>();
-			nodes.add(node);
-			nodeNames = new HashSet<String>();
-			nodeNames.add(node.getName());
-			alts = new LinkedList<Change[]>();
-			alts.add(getAltPack(node).get(Alteration.GENOMIC));
-		}
-
-		void addNode(Node node)
-		{
-			assert edges == null;
-			assert !nodes.contains(node);
-
-			if (hasDNAProximity(nodeNames, node.getName()))
-			{
-				alts.add(getAltPack(node).get(Alteration.MUTATION));
-			}
-			else
-			{
-				alts.add(getAltPack(node).get(Alteration.GENOMIC));
-			}
-
-			nodes.add(node);
-			nodeNames.add(node.getName());
-
-		}
-
-		private boolean hasDNAProximity(Set<String> current, String query)
-		{
-			for (Set<String> set : closeGenes)
-			{
-				if (set.contains(query))
-				{
-					for (String s : current)
-					{
-						if (set.contains(s)) return true;
-					}
-				}
-			}
-			return false;
-		}
-
-		void removeLast()
-		{
-			assert edges == null;
-
-			Node node = nodes.removeLast();
-			nodeNames.remove(node.getName());
-			alts.removeLast();
-		}
+		double meanPval;
 
-		double[] getMutexPvals()
+		NodeGroup(List<Node> nodes, double meanPval)
 		{
-			double[] pval = new double[nodes.size()];
-
-			Iterator<Node> nodeIter = nodes.iterator();
-			Iterator<Change[]> altIter = alts.iterator();
-
-			int i = 0;
-			while(nodeIter.hasNext())
-			{
-				Node node = nodeIter.next();
-				Change[] alt = altIter.next();
-				Change[] others = uniteAltExcluding(node);
-
-				pval[i++] = Overlap.calcMutexPval(alt, others);
-			}
-			return pval;
-		}
-
-		double getMeanMutexPVal()
-		{
-			return Summary.geometricMean(getMutexPvals());
-		}
-
-		double getWorstMutexPVal()
-		{
-			return Summary.max(getMutexPvals());
-		}
-
-		Change[] uniteAltExcluding(Node node)
-		{
-			assert size() > 1;
-
-			if (size() == 2)
-			{
-				if (nodes.getFirst() == node) return alts.getLast();
-				else return alts.getFirst();
-			}
-
-			Change[] ch = new Change[alts.getFirst().length];
-
-			for (int i = 0; i < ch.length; i++)
-			{
-				ch[i] = Change.NO_CHANGE;
-
-				Iterator<Node> nodeIter = nodes.iterator();
-				Iterator<Change[]> altIter = alts.iterator();
-
-				while(nodeIter.hasNext())
-				{
-					Node n = nodeIter.next();
-					Change[] alt = altIter.next();
-
-					if (n == node) continue;
-
-					if (alt[i].isAltered())
-					{
-						ch[i] = Change.UNKNOWN_CHANGE;
-						break;
-					}
-				}
-			}
-			return ch;
+			this.nodes = nodes;
+			this.meanPval = meanPval;
 		}
 
 		int size()
@@ -327,11 +208,6 @@ public class ShowMutexGroupsAction extends TCGASIFAction
 			return nodes.size();
 		}
 
-		boolean contains(Node node)
-		{
-			return nodes.contains(node);
-		}
-
 		@Override
 		public String toString()
 		{
@@ -385,7 +261,7 @@ public class ShowMutexGroupsAction extends TCGASIFAction
 			if (o instanceof NodeGroup)
 			{
 				NodeGroup g = (NodeGroup) o;
-				return new Double(getMeanMutexPVal()).compareTo(g.getMeanMutexPVal());
+				return new Double(meanPval).compareTo(g.meanPval);
 			}
 			return 0;
 		}
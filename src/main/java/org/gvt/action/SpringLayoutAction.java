@@ -2,7 +2,10 @@ package org.gvt.action;
 
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.swt.widgets.Event;
 import org.gvt.ChisioMain;
+import org.gvt.LayoutJob;
+import org.gvt.LayoutManager;
 import org.gvt.command.LayoutCommand;
 import org.gvt.editpart.ChsRootEditPart;
 import org.gvt.model.CompoundModel;
@@ -52,4 +55,26 @@ public class SpringLayoutAction extends Action
 			main.unlock();
 		}
 	}
+
+	/**
+	 * Layouts that are started from the menu or toolbar run in background.
+	 */
+	public void runWithEvent(Event event)
+	{
+		if (main.getViewer() == null) return;
+
+		CompoundModel root = (CompoundModel)((ChsRootEditPart) main.getViewer().
+			getRootEditPart().getChildren().get(0)).getModel();
+
+		// The job checks cancellation when the layout updates the root, also if animation is off
+		main.schedule(new LayoutJob(main, root, new SpringLayout()
+		{
+			@Override
+			public void initParameters()
+			{
+				super.initParameters();
+				LayoutManager.updateDetachedRoot(this);
+			}
+		}));
+	}
 }
\ No newline at end of file
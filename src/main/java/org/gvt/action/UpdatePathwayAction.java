@@ -143,7 +143,15 @@ public class UpdatePathwayAction extends Action
 
 		if (!layedout)
 		{
-			new CoSELayoutAction(main).run();
+			// Only the new nodes are placed if the others have their recorded locations
+			if (newGraph.isLayoutPartial())
+			{
+				new IncrementalLayoutAction(main, newGraph.getUnplacedNodes()).run();
+			}
+			else
+			{
+				new CoSELayoutAction(main).run();
+			}
 		}
 
 		viewer.deselectAll();
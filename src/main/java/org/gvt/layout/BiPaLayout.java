@@ -1,5 +1,6 @@
 package org.gvt.layout;
 
+import org.gvt.LayoutManager;
 import org.gvt.model.NodeModel;
 import org.gvt.model.biopaxl2.Actor;
 import org.ivis.layout.LEdge;
@@ -35,6 +36,13 @@ public class BiPaLayout extends org.ivis.layout.cose.CoSELayout
 		return new BiPaNode(this.graphManager, vNode);
 	}
 
+	@Override
+	public void initParameters()
+	{
+		super.initParameters();
+		LayoutManager.updateDetachedRoot(this);
+	}
+
 	public LNode newNode(LGraphManager gm, Point loc, Dimension size, Object vNode)
 	{
 		return new BiPaNode(gm, loc, size, vNode);
@@ -0,0 +1,132 @@
+package org.gvt.layout;
+
+import org.ivis.layout.LEdge;
+import org.ivis.layout.LGraph;
+import org.ivis.layout.LNode;
+
+import java.util.*;
+
+/**
+ * Layout for views that get new elements, which places only the new nodes with IncrementalPlacer
+ * and leaves the rest of the drawing as it is, except small moves of the neighbors of new nodes.
+ * Leaf nodes and complexes are placed as units, and complex members move with their complex.
+ * Compartments and other compound nodes are not placed themselves, but follow their members.
+ *
+ * @author Ozgun Babur
+ */
+public class IncrementalLayout extends org.ivis.layout.cose.CoSELayout
+{
+	/**
+	 * Models of the new nodes.
+	 */
+	private Set<Object> newModels;
+
+	/**
+	 * Layout nodes of the new nodes.
+	 */
+	private Set<LNode> newNodes;
+
+	public IncrementalLayout(Collection<?> newModels)
+	{
+		this.newModels = new HashSet<Object>(newModels);
+		this.newNodes = new HashSet<LNode>();
+	}
+
+	@Override
+	public LNode newNode(Object vNode)
+	{
+		LNode node = new BiPaNode(this.graphManager, vNode);
+		if (newModels.contains(vNode)) newNodes.add(node);
+		return node;
+	}
+
+	public boolean layout()
+	{
+		List<LNode> units = new ArrayList<LNode>();
+
+		// Index of the unit that each node is in
+		Map<LNode, Integer> index = new HashMap<LNode, Integer>();
+
+		collectUnits(getGraphManager().getRoot(), units, index);
+
+		if (units.isEmpty()) return true;
+
+		IncrementalPlacer placer = new IncrementalPlacer(units.size(), LayoutUtil.SEED);
+		placer.setEdgeLength(LayoutUtil.getEdgeLength());
+
+		for (int i = 0; i < units.size(); i++)
+		{
+			LNode unit = units.get(i);
+
+			placer.setNode(i, unit.getLeft() + unit.getWidth() / 2,
+				unit.getTop() + unit.getHeight() / 2, unit.getWidth(), unit.getHeight(),
+				isNew(unit));
+		}
+
+		for (LNode node : index.keySet())
+		{
+			for (Object o : node.getEdges())
+			{
+				LEdge edge = (LEdge) o;
+				if (edge.getSource() != node) continue;
+
+				Integer source = index.get(edge.getSource());
+				Integer target = index.get(edge.getTarget());
+
+				if (source != null && target != null) placer.addEdge(source, target);
+			}
+		}
+
+		placer.place();
+
+		for (int i = 0; i < units.size(); i++)
+		{
+			LNode unit = units.get(i);
+
+			double dx = placer.getX(i) - unit.getWidth() / 2 - unit.getLeft();
+			double dy = placer.getY(i) - unit.getHeight() / 2 - unit.getTop();
+
+			LayoutUtil.move(unit, dx, dy);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Finds the nodes that are placed as a whole, going into the compound nodes that are not
+	 * complexes.
+	 */
+	private void collectUnits(LGraph graph, List<LNode> units, Map<LNode, Integer> index)
+	{
+		for (Object o : graph.getNodes())
+		{
+			LNode node = (LNode) o;
+
+			if (node.getChild() != null && !node.getChild().getNodes().isEmpty() &&
+				!((BiPaNode) node).isComplex())
+			{
+				collectUnits(node.getChild(), units, index);
+			}
+			else
+			{
+				LayoutUtil.mapMembers(node, units.size(), index);
+				units.add(node);
+			}
+		}
+	}
+
+	/**
+	 * A node is new if it is among the new nodes, or if all its members are new.
+	 */
+	private boolean isNew(LNode node)
+	{
+		if (newNodes.contains(node)) return true;
+		if (node.getChild() == null || node.getChild().getNodes().isEmpty()) return false;
+
+		for (Object o : node.getChild().getNodes())
+		{
+			if (!isNew((LNode) o)) return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,535 @@
+package org.gvt.layout;
+
+import java.util.*;
+
+/**
+ * Places the new nodes of a graph whose other nodes already have positions. Existing nodes stay
+ * where they are, except the neighbors of new nodes, which may move a little. New nodes start
+ * next to their placed neighbors, new parts that are not connected to the existing graph start
+ * at the side of the drawing, and then only the new nodes and their neighbors are refined with
+ * spring and repulsion forces. Repulsion is computed between nodes in neighboring cells of a
+ * grid, so the refinement takes time proportional to the number of moving nodes and the nodes
+ * around them.
+ *
+ * Nodes are identified with their indexes, and their positions are of their centers.
+ *
+ * @author Ozgun Babur
+ */
+public class IncrementalPlacer
+{
+	private int nodeCount;
+
+	private double[] x;
+	private double[] y;
+	private double[] sizes;
+	private boolean[] isNew;
+
+	private int[] sources;
+	private int[] targets;
+	private int edgeCount;
+
+	private double edgeLength;
+
+	private Random random;
+
+	public IncrementalPlacer(int nodeCount, long seed)
+	{
+		this.nodeCount = nodeCount;
+		this.x = new double[nodeCount];
+		this.y = new double[nodeCount];
+		this.sizes = new double[nodeCount];
+		this.isNew = new boolean[nodeCount];
+		this.sources = new int[16];
+		this.targets = new int[16];
+		this.edgeLength = LayoutUtil.DEFAULT_EDGE_LENGTH;
+		this.random = new Random(seed);
+	}
+
+	/**
+	 * Sets the current position and the size of a node. Positions of new nodes are ignored.
+	 */
+	public void setNode(int node, double x, double y, double width, double height, boolean isNew)
+	{
+		this.x[node] = x;
+		this.y[node] = y;
+		this.sizes[node] = (width + height) / 2;
+		this.isNew[node] = isNew;
+	}
+
+	/**
+	 * Sets the desired length of edges, between the borders of average sized nodes.
+	 */
+	public void setEdgeLength(double edgeLength)
+	{
+		this.edgeLength = edgeLength;
+	}
+
+	/**
+	 * Adds an edge. Directions and loops are ignored.
+	 */
+	public void addEdge(int source, int target)
+	{
+		if (source == target) return;
+
+		if (edgeCount == sources.length)
+		{
+			sources = Arrays.copyOf(sources, edgeCount * 2);
+			targets = Arrays.copyOf(targets, edgeCount * 2);
+		}
+		sources[edgeCount] = source;
+		targets[edgeCount] = target;
+		edgeCount++;
+	}
+
+	public double getX(int node)
+	{
+		return x[node];
+	}
+
+	public double getY(int node)
+	{
+		return y[node];
+	}
+
+	/**
+	 * Computes the positions of the new nodes and adjusts their neighbors.
+	 */
+	public void place()
+	{
+		int[] adjStart = new int[nodeCount + 1];
+		int[] adj = LayoutUtil.getAdjacency(nodeCount, sources, targets, edgeCount, adjStart);
+
+		double meanSize = 0;
+		for (double size : sizes)
+		{
+			meanSize += size / nodeCount;
+		}
+		if (meanSize <= 0) meanSize = LayoutUtil.DEFAULT_NODE_SIZE;
+
+		double k = edgeLength + meanSize;
+
+		placeInitially(adjStart, adj, k);
+
+		// New nodes and their existing neighbors move, the rest is fixed
+
+		boolean[] moves = new boolean[nodeCount];
+		List<Integer> movers = new ArrayList<Integer>();
+
+		for (int v = 0; v < nodeCount; v++)
+		{
+			if (!isNew[v]) continue;
+
+			if (!moves[v])
+			{
+				moves[v] = true;
+				movers.add(v);
+			}
+
+			for (int i = adjStart[v]; i < adjStart[v + 1]; i++)
+			{
+				int u = adj[i];
+				if (!moves[u])
+				{
+					moves[u] = true;
+					movers.add(u);
+				}
+			}
+		}
+
+		if (movers.isEmpty()) return;
+
+		// Existing neighbors are held close to where they were
+		Map<Integer, double[]> anchors = new HashMap<Integer, double[]>();
+
+		for (int v : movers)
+		{
+			if (!isNew[v]) anchors.put(v, new double[]{x[v], y[v]});
+		}
+
+		double cell = REPULSION_RANGE * k;
+		List<Integer> fixed = new ArrayList<Integer>();
+		for (int v = 0; v < nodeCount; v++)
+		{
+			if (!moves[v]) fixed.add(v);
+		}
+
+		Map<Long, List<Integer>> fixedGrid = createGrid(fixed, cell);
+
+		refine(movers, moves, anchors, fixedGrid, adjStart, adj, k, cell);
+		removeOverlaps(movers, moves, anchors, fixedGrid, k, cell);
+	}
+
+	/**
+	 * Places each new node next to its placed neighbors, in breadth first order starting from the
+	 * existing nodes. Parts of the graph that have only new nodes are placed in a column at the
+	 * right side of the existing drawing.
+	 */
+	private void placeInitially(int[] adjStart, int[] adj, double k)
+	{
+		boolean[] placed = new boolean[nodeCount];
+		boolean[] queued = new boolean[nodeCount];
+		LinkedList<Integer> queue = new LinkedList<Integer>();
+
+		double maxX = -Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+
+		for (int v = 0; v < nodeCount; v++)
+		{
+			if (isNew[v]) continue;
+
+			placed[v] = true;
+			maxX = Math.max(maxX, x[v] + sizes[v] / 2);
+			minY = Math.min(minY, y[v] - sizes[v] / 2);
+		}
+
+		if (maxX == -Double.MAX_VALUE)
+		{
+			maxX = 0;
+			minY = 0;
+		}
+
+		for (int v = 0; v < nodeCount; v++)
+		{
+			if (isNew[v] && hasPlacedNeighbor(v, placed, adjStart, adj))
+			{
+				queue.add(v);
+				queued[v] = true;
+			}
+		}
+
+		placeInBreadth(queue, queued, placed, adjStart, adj, k);
+
+		// New parts of the graph
+
+		double columnX = maxX + 2 * k;
+		double columnY = minY;
+
+		for (int v = 0; v < nodeCount; v++)
+		{
+			if (placed[v]) continue;
+
+			int size = countComponent(v, adjStart, adj);
+			double side = Math.sqrt(size) * k;
+
+			x[v] = columnX + side / 2;
+			y[v] = columnY + side / 2;
+			placed[v] = true;
+			columnY += side + k;
+
+			for (int i = adjStart[v]; i < adjStart[v + 1]; i++)
+			{
+				int u = adj[i];
+				if (!placed[u] && !queued[u])
+				{
+					queue.add(u);
+					queued[u] = true;
+				}
+			}
+
+			placeInBreadth(queue, queued, placed, adjStart, adj, k);
+		}
+	}
+
+	private void placeInBreadth(LinkedList<Integer> queue, boolean[] queued, boolean[] placed,
+		int[] adjStart, int[] adj, double k)
+	{
+		while (!queue.isEmpty())
+		{
+			int v = queue.poll();
+
+			double sx = 0;
+			double sy = 0;
+			int count = 0;
+
+			for (int i = adjStart[v]; i < adjStart[v + 1]; i++)
+			{
+				int u = adj[i];
+
+				if (placed[u])
+				{
+					sx += x[u];
+					sy += y[u];
+					count++;
+				}
+				else if (!queued[u])
+				{
+					queue.add(u);
+					queued[u] = true;
+				}
+			}
+
+			// At an ideal distance from the center of the placed neighbors, in a random direction
+			double angle = random.nextDouble() * 2 * Math.PI;
+			x[v] = sx / count + Math.cos(angle) * k;
+			y[v] = sy / count + Math.sin(angle) * k;
+			placed[v] = true;
+		}
+	}
+
+	private boolean hasPlacedNeighbor(int v, boolean[] placed, int[] adjStart, int[] adj)
+	{
+		for (int i = adjStart[v]; i < adjStart[v + 1]; i++)
+		{
+			if (placed[adj[i]]) return true;
+		}
+		return false;
+	}
+
+	private int countComponent(int v, int[] adjStart, int[] adj)
+	{
+		Set<Integer> visited = new HashSet<Integer>();
+		LinkedList<Integer> queue = new LinkedList<Integer>();
+		visited.add(v);
+		queue.add(v);
+
+		while (!queue.isEmpty())
+		{
+			int w = queue.poll();
+
+			for (int i = adjStart[w]; i < adjStart[w + 1]; i++)
+			{
+				if (visited.add(adj[i])) queue.add(adj[i]);
+			}
+		}
+		return visited.size();
+	}
+
+	/**
+	 * Moves the moving nodes with spring attraction along their edges, and repulsion from the
+	 * nodes around them, limiting the displacements with a cooling temperature.
+	 */
+	private void refine(List<Integer> movers, boolean[] moves, Map<Integer, double[]> anchors,
+		Map<Long, List<Integer>> fixedGrid, int[] adjStart, int[] adj, double k, double cell)
+	{
+		int m = movers.size();
+		double[] dx = new double[m];
+		double[] dy = new double[m];
+
+		double temperature = k;
+		double cooling = Math.pow(FINAL_TEMPERATURE_RATIO, 1D / ITERATIONS);
+		double k2 = k * k;
+		double range2 = cell * cell;
+
+		for (int it = 0; it < ITERATIONS; it++)
+		{
+			Map<Long, List<Integer>> moverGrid = createGrid(movers, cell);
+
+			for (int j = 0; j < m; j++)
+			{
+				int v = movers.get(j);
+				double fx = 0;
+				double fy = 0;
+
+				// Repulsion of the nodes in the neighboring cells
+
+				long cx = (long) Math.floor(x[v] / cell);
+				long cy = (long) Math.floor(y[v] / cell);
+
+				for (long i = cx - 1; i <= cx + 1; i++)
+				{
+					for (long l = cy - 1; l <= cy + 1; l++)
+					{
+						for (int g = 0; g < 2; g++)
+						{
+							List<Integer> list = (g == 0 ? fixedGrid : moverGrid).get(key(i, l));
+							if (list == null) continue;
+
+							for (int u : list)
+							{
+								if (u == v) continue;
+
+								double ex = x[v] - x[u];
+								double ey = y[v] - y[u];
+								double d2 = ex * ex + ey * ey;
+
+								if (d2 >= range2) continue;
+
+								if (d2 == 0)
+								{
+									ex = (random.nextDouble() - 0.5) * k * JITTER;
+									ey = (random.nextDouble() - 0.5) * k * JITTER;
+									d2 = ex * ex + ey * ey;
+								}
+
+								fx += ex * k2 / d2;
+								fy += ey * k2 / d2;
+							}
+						}
+					}
+				}
+
+				// Attraction along the edges, which is d^2 / k
+
+				for (int i = adjStart[v]; i < adjStart[v + 1]; i++)
+				{
+					int u = adj[i];
+					double ex = x[u] - x[v];
+					double ey = y[u] - y[v];
+					double f = Math.sqrt(ex * ex + ey * ey) / k;
+
+					fx += ex * f;
+					fy += ey * f;
+				}
+
+				dx[j] = fx;
+				dy[j] = fy;
+			}
+
+			for (int j = 0; j < m; j++)
+			{
+				int v = movers.get(j);
+				double d = Math.sqrt(dx[j] * dx[j] + dy[j] * dy[j]);
+				if (d == 0) continue;
+
+				double r = Math.min(d, temperature) / d;
+				x[v] += dx[j] * r;
+				y[v] += dy[j] * r;
+
+				holdToAnchor(v, anchors, k);
+			}
+
+			temperature *= cooling;
+		}
+	}
+
+	/**
+	 * Pushes the moving nodes away from the nodes that they overlap.
+	 */
+	private void removeOverlaps(List<Integer> movers, boolean[] moves,
+		Map<Integer, double[]> anchors, Map<Long, List<Integer>> fixedGrid, double k, double cell)
+	{
+		for (int it = 0; it < OVERLAP_ITERATIONS; it++)
+		{
+			Map<Long, List<Integer>> moverGrid = createGrid(movers, cell);
+			boolean moved = false;
+
+			for (int v : movers)
+			{
+				long cx = (long) Math.floor(x[v] / cell);
+				long cy = (long) Math.floor(y[v] / cell);
+
+				for (long i = cx - 1; i <= cx + 1; i++)
+				{
+					for (long l = cy - 1; l <= cy + 1; l++)
+					{
+						for (int g = 0; g < 2; g++)
+						{
+							List<Integer> list = (g == 0 ? fixedGrid : moverGrid).get(key(i, l));
+							if (list == null) continue;
+
+							for (int u : list)
+							{
+								if (u == v || (moves[u] && u < v)) continue;
+
+								double min = (sizes[u] + sizes[v]) / 2 + LayoutUtil.OVERLAP_GAP;
+								double ex = x[v] - x[u];
+								double ey = y[v] - y[u];
+								double d2 = ex * ex + ey * ey;
+
+								if (d2 >= min * min) continue;
+
+								if (d2 == 0)
+								{
+									ex = random.nextDouble() - 0.5;
+									ey = random.nextDouble() - 0.5;
+									d2 = ex * ex + ey * ey;
+								}
+
+								// Fixed nodes do not move, moving nodes share the distance
+								double d = Math.sqrt(d2);
+								double r = (min - d) / d;
+
+								if (moves[u])
+								{
+									r /= 2;
+									x[u] -= ex * r;
+									y[u] -= ey * r;
+									holdToAnchor(u, anchors, k);
+								}
+
+								x[v] += ex * r;
+								y[v] += ey * r;
+								holdToAnchor(v, anchors, k);
+								moved = true;
+							}
+						}
+					}
+				}
+			}
+
+			if (!moved) break;
+		}
+	}
+
+	/**
+	 * Keeps an existing node within a small distance of its original position.
+	 */
+	private void holdToAnchor(int v, Map<Integer, double[]> anchors, double k)
+	{
+		double[] anchor = anchors.get(v);
+		if (anchor == null) return;
+
+		double ex = x[v] - anchor[0];
+		double ey = y[v] - anchor[1];
+		double d = Math.sqrt(ex * ex + ey * ey);
+		double max = MAX_ADJUSTMENT * k;
+
+		if (d > max)
+		{
+			x[v] = anchor[0] + ex * max / d;
+			y[v] = anchor[1] + ey * max / d;
+		}
+	}
+
+	/**
+	 * Puts the given nodes into the cells of a grid.
+	 */
+	private Map<Long, List<Integer>> createGrid(List<Integer> nodes, double cell)
+	{
+		Map<Long, List<Integer>> grid = new HashMap<Long, List<Integer>>();
+
+		for (int v : nodes)
+		{
+			Long key = key((long) Math.floor(x[v] / cell), (long) Math.floor(y[v] / cell));
+			List<Integer> list = grid.get(key);
+
+			if (list == null)
+			{
+				list = new ArrayList<Integer>(4);
+				grid.put(key, list);
+			}
+			list.add(v);
+		}
+		return grid;
+	}
+
+	private static long key(long cx, long cy)
+	{
+		return (cx << 32) ^ (cy & 0xFFFFFFFFL);
+	}
+
+	private static final int ITERATIONS = 60;
+
+	private static final int OVERLAP_ITERATIONS = 30;
+
+	/**
+	 * Temperature at the last iteration, as a ratio of the initial temperature.
+	 */
+	private static final double FINAL_TEMPERATURE_RATIO = 0.01;
+
+	/**
+	 * Distance of repulsion, as a ratio of the ideal distance.
+	 */
+	private static final double REPULSION_RANGE = 2;
+
+	/**
+	 * Maximum distance that an existing node can move, as a ratio of the ideal distance.
+	 */
+	private static final double MAX_ADJUSTMENT = 0.5;
+
+	/**
+	 * Size of the random push of the nodes at the same position, as a ratio of the ideal
+	 * distance.
+	 */
+	private static final double JITTER = 0.2;
+}
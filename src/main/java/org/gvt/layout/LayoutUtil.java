@@ -0,0 +1,100 @@
+package org.gvt.layout;
+
+import org.ivis.layout.LNode;
+import org.ivis.layout.LayoutOptionsPack;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Methods and constants that are shared by the multilevel and incremental layouts, and by their
+ * embedder and placer.
+ *
+ * @author Ozgun Babur
+ */
+class LayoutUtil
+{
+	/**
+	 * Gets the ideal edge length that is set in the CoSE layout options.
+	 */
+	static double getEdgeLength()
+	{
+		return LayoutOptionsPack.getInstance().getCoSE().idealEdgeLength;
+	}
+
+	/**
+	 * Maps the node and all its members to the given index.
+	 */
+	static void mapMembers(LNode node, int i, Map<LNode, Integer> index)
+	{
+		index.put(node, i);
+
+		if (node.getChild() != null)
+		{
+			for (Object o : node.getChild().getNodes())
+			{
+				mapMembers((LNode) o, i, index);
+			}
+		}
+	}
+
+	/**
+	 * Moves the node together with all its members.
+	 */
+	static void move(LNode node, double dx, double dy)
+	{
+		node.setLocation(node.getLeft() + dx, node.getTop() + dy);
+
+		if (node.getChild() != null)
+		{
+			for (Object o : node.getChild().getNodes())
+			{
+				move((LNode) o, dx, dy);
+			}
+		}
+	}
+
+	/**
+	 * Gets the neighbors of all nodes in one array, the neighbors of node v are between the
+	 * indexes start[v] and start[v + 1].
+	 *
+	 * @param start array of size nodeCount + 1, filled by this method
+	 */
+	static int[] getAdjacency(int nodeCount, int[] sources, int[] targets, int edgeCount,
+		int[] start)
+	{
+		for (int e = 0; e < edgeCount; e++)
+		{
+			start[sources[e] + 1]++;
+			start[targets[e] + 1]++;
+		}
+		for (int v = 0; v < nodeCount; v++)
+		{
+			start[v + 1] += start[v];
+		}
+
+		int[] adj = new int[edgeCount * 2];
+		int[] fill = Arrays.copyOf(start, nodeCount);
+
+		for (int e = 0; e < edgeCount; e++)
+		{
+			adj[fill[sources[e]]++] = targets[e];
+			adj[fill[targets[e]]++] = sources[e];
+		}
+		return adj;
+	}
+
+	/**
+	 * The same view gets the same layout.
+	 */
+	static final long SEED = 1;
+
+	/**
+	 * Minimum space between the borders of nodes, after overlaps are removed.
+	 */
+	static final double OVERLAP_GAP = 10;
+
+	static final double DEFAULT_EDGE_LENGTH = 40;
+
+	static final double DEFAULT_NODE_SIZE = 40;
+}
@@ -0,0 +1,869 @@
+package org.gvt.layout;
+
+import java.util.*;
+
+/**
+ * Multilevel force directed placement, for graphs that are too large for a single level layout.
+ * The graph is coarsened by matching each node with its lightest unmatched neighbor, and by
+ * merging the remaining leaves into their neighbors, until it is small. The coarsest graph is
+ * laid out from random positions, then each finer level starts from the positions of the coarser
+ * level and is refined. Repulsion of distant nodes is approximated with a quadtree
+ * (Barnes-Hut), so an iteration takes O(n log n) time.
+ *
+ * Nodes are identified with their indexes, and their positions are of their centers.
+ *
+ * @author Ozgun Babur
+ */
+public class MultilevelEmbedder
+{
+	private int nodeCount;
+
+	private double[] sizes;
+
+	private int[] sources;
+	private int[] targets;
+	private int edgeCount;
+
+	private double edgeLength;
+
+	private Random random;
+
+	/**
+	 * Positions of the nodes, after embedding.
+	 */
+	private double[] x;
+	private double[] y;
+
+	public MultilevelEmbedder(int nodeCount, long seed)
+	{
+		this.nodeCount = nodeCount;
+		this.sizes = new double[nodeCount];
+		this.sources = new int[16];
+		this.targets = new int[16];
+		this.edgeLength = LayoutUtil.DEFAULT_EDGE_LENGTH;
+		this.random = new Random(seed);
+	}
+
+	/**
+	 * Sizes of nodes determine the ideal distance between neighbors, together with the edge
+	 * length.
+	 */
+	public void setSize(int node, double width, double height)
+	{
+		sizes[node] = (width + height) / 2;
+	}
+
+	/**
+	 * Sets the desired length of edges, between the borders of average sized nodes.
+	 */
+	public void setEdgeLength(double edgeLength)
+	{
+		this.edgeLength = edgeLength;
+	}
+
+	/**
+	 * Adds an edge. Directions, loops and multiple edges are ignored.
+	 */
+	public void addEdge(int source, int target)
+	{
+		if (edgeCount == sources.length)
+		{
+			sources = Arrays.copyOf(sources, edgeCount * 2);
+			targets = Arrays.copyOf(targets, edgeCount * 2);
+		}
+		sources[edgeCount] = source;
+		targets[edgeCount] = target;
+		edgeCount++;
+	}
+
+	public double getX(int node)
+	{
+		return x[node];
+	}
+
+	public double getY(int node)
+	{
+		return y[node];
+	}
+
+	/**
+	 * Called after each level is refined, starting from the coarsest level. The positions of the
+	 * nodes are available at each call, nodes that are merged at the current level share a
+	 * position.
+	 *
+	 * @param level the refined level, 0 is the graph itself
+	 */
+	protected void levelDone(int level)
+	{
+	}
+
+	/**
+	 * Computes the positions.
+	 */
+	public void embed()
+	{
+		x = new double[nodeCount];
+		y = new double[nodeCount];
+
+		if (nodeCount == 0) return;
+
+		List<Level> levels = new ArrayList<Level>();
+		levels.add(createGraphLevel());
+
+		Level level = levels.get(0);
+
+		while (level.n > COARSEST_SIZE && levels.size() < MAX_LEVELS)
+		{
+			Level coarser = coarsen(level);
+
+			// Stop when matching does not shrink the graph any more
+			if (coarser.n > level.n * MAX_COARSENING_RATIO) break;
+
+			levels.add(coarser);
+			level = coarser;
+		}
+
+		double meanSize = 0;
+		for (double size : sizes)
+		{
+			meanSize += size / nodeCount;
+		}
+		if (meanSize <= 0) meanSize = LayoutUtil.DEFAULT_NODE_SIZE;
+
+		// The ideal distance shrinks at each finer level
+		double k = (edgeLength + meanSize) * Math.pow(LEVEL_DISTANCE_RATIO, levels.size() - 1);
+
+		// Lay out the coarsest level from random positions
+
+		double side = Math.sqrt(level.n) * k;
+
+		for (int i = 0; i < level.n; i++)
+		{
+			level.x[i] = random.nextDouble() * side;
+			level.y[i] = random.nextDouble() * side;
+		}
+
+		refine(level, k, COARSEST_ITERATIONS, Math.max(k, side * COARSEST_TEMPERATURE));
+		finishLevel(levels, levels.size() - 1, k);
+
+		// Place each level at the positions of the coarser level and refine
+
+		for (int l = levels.size() - 2; l >= 0; l--)
+		{
+			Level fine = levels.get(l);
+			Level coarse = levels.get(l + 1);
+			k /= LEVEL_DISTANCE_RATIO;
+
+			for (int i = 0; i < fine.n; i++)
+			{
+				int p = fine.parent[i];
+				fine.x[i] = coarse.x[p] + (random.nextDouble() - 0.5) * k * PLACEMENT_JITTER;
+				fine.y[i] = coarse.y[p] + (random.nextDouble() - 0.5) * k * PLACEMENT_JITTER;
+			}
+
+			refine(fine, k, REFINEMENT_ITERATIONS, k * REFINEMENT_TEMPERATURE);
+			finishLevel(levels, l, k);
+		}
+	}
+
+	/**
+	 * Publishes the positions of a refined level. The last level is scaled and its overlaps are
+	 * removed.
+	 */
+	private void finishLevel(List<Level> levels, int index, double k)
+	{
+		if (index == 0)
+		{
+			scale(levels.get(0), k);
+			removeOverlaps(levels.get(0));
+		}
+
+		project(levels, index);
+		levelDone(index);
+	}
+
+	/**
+	 * Creates the finest level from the added edges.
+	 */
+	private Level createGraphLevel()
+	{
+		Level level = new Level(nodeCount);
+		Arrays.fill(level.mass, 1);
+		level.setEdges(sources, targets, edgeCount);
+		return level;
+	}
+
+	/**
+	 * Creates the next coarser level of the given level.
+	 */
+	private Level coarsen(Level fine)
+	{
+		int n = fine.n;
+		int[] adjStart = new int[n + 1];
+		int[] adj = LayoutUtil.getAdjacency(n, fine.source, fine.target, fine.source.length,
+			adjStart);
+
+		int[] group = new int[n];
+		Arrays.fill(group, -1);
+
+		int[] order = shuffle(n);
+		int count = 0;
+		int isolated = -1;
+
+		for (int v : order)
+		{
+			if (group[v] != -1) continue;
+
+			int degree = adjStart[v + 1] - adjStart[v];
+
+			// Isolated nodes are merged in pairs
+			if (degree == 0)
+			{
+				if (isolated == -1)
+				{
+					group[v] = count++;
+					isolated = v;
+				}
+				else
+				{
+					group[v] = group[isolated];
+					isolated = -1;
+				}
+				continue;
+			}
+
+			int match = -1;
+
+			for (int i = adjStart[v]; i < adjStart[v + 1]; i++)
+			{
+				int u = adj[i];
+				if (group[u] == -1 && (match == -1 || fine.mass[u] < fine.mass[match])) match = u;
+			}
+
+			if (match != -1)
+			{
+				group[v] = count;
+				group[match] = count;
+				count++;
+			}
+			else if (degree > 1)
+			{
+				group[v] = count++;
+			}
+		}
+
+		// Leaves that could not be matched join their neighbors
+
+		for (int v = 0; v < n; v++)
+		{
+			if (group[v] == -1) group[v] = group[adj[adjStart[v]]];
+		}
+
+		Level coarse = new Level(count);
+
+		for (int v = 0; v < n; v++)
+		{
+			coarse.mass[group[v]] += fine.mass[v];
+		}
+
+		int[] s = new int[fine.source.length];
+		int[] t = new int[fine.source.length];
+
+		for (int i = 0; i < s.length; i++)
+		{
+			s[i] = group[fine.source[i]];
+			t[i] = group[fine.target[i]];
+		}
+
+		coarse.setEdges(s, t, s.length);
+		fine.parent = group;
+		return coarse;
+	}
+
+	/**
+	 * Moves the nodes of the level with spring attraction along edges and repulsion between
+	 * nearby nodes, limiting the displacements with a cooling temperature.
+	 */
+	private void refine(Level level, double k, int iterations, double temperature)
+	{
+		int n = level.n;
+		double[] dx = new double[n];
+		double[] dy = new double[n];
+
+		double cooling = Math.pow(FINAL_TEMPERATURE_RATIO, 1D / iterations);
+
+		for (int it = 0; it < iterations; it++)
+		{
+			Arrays.fill(dx, 0);
+			Arrays.fill(dy, 0);
+
+			repulse(level, k, dx, dy);
+			attractToCenter(level, dx, dy);
+
+			for (int e = 0; e < level.source.length; e++)
+			{
+				int a = level.source[e];
+				int b = level.target[e];
+
+				double ex = level.x[b] - level.x[a];
+				double ey = level.y[b] - level.y[a];
+
+				// Attraction is d^2 / k, along the edge
+				double f = Math.sqrt(ex * ex + ey * ey) / k;
+
+				dx[a] += ex * f;
+				dy[a] += ey * f;
+				dx[b] -= ex * f;
+				dy[b] -= ey * f;
+			}
+
+			for (int v = 0; v < n; v++)
+			{
+				double d = Math.sqrt(dx[v] * dx[v] + dy[v] * dy[v]);
+				if (d == 0) continue;
+
+				double m = Math.min(d, temperature) / d;
+				level.x[v] += dx[v] * m;
+				level.y[v] += dy[v] * m;
+			}
+
+			temperature *= cooling;
+		}
+	}
+
+	/**
+	 * Adds a pull towards the center of mass, proportional to the distance, so that disconnected
+	 * parts of the graph stay close.
+	 */
+	private void attractToCenter(Level level, double[] dx, double[] dy)
+	{
+		double cx = 0;
+		double cy = 0;
+		double total = 0;
+
+		for (int v = 0; v < level.n; v++)
+		{
+			cx += level.x[v] * level.mass[v];
+			cy += level.y[v] * level.mass[v];
+			total += level.mass[v];
+		}
+
+		cx /= total;
+		cy /= total;
+
+		for (int v = 0; v < level.n; v++)
+		{
+			dx[v] += (cx - level.x[v]) * GRAVITY;
+			dy[v] += (cy - level.y[v]) * GRAVITY;
+		}
+	}
+
+	/**
+	 * Adds the repulsion of the other nodes, which is k^2 / d weighted with the mass of the
+	 * repelling node. Distant groups of nodes repel as a single node at their center of mass.
+	 */
+	private void repulse(Level level, double k, double[] dx, double[] dy)
+	{
+		QuadTree tree = new QuadTree(level);
+		double[] f = new double[2];
+
+		for (int v = 0; v < level.n; v++)
+		{
+			f[0] = 0;
+			f[1] = 0;
+			tree.addRepulsion(v, k * k, f);
+			dx[v] += f[0];
+			dy[v] += f[1];
+		}
+	}
+
+	/**
+	 * Scales the drawing so that there is an area of about k^2 per node. Forces leave sparse
+	 * graphs too spread and graphs with hubs too crowded, while the shape of the drawing does not
+	 * depend on its scale. The area is estimated from the median distance to the center, so that
+	 * a few distant nodes do not affect it.
+	 */
+	private void scale(Level level, double k)
+	{
+		int n = level.n;
+		if (n < 2) return;
+
+		double cx = 0;
+		double cy = 0;
+
+		for (int v = 0; v < n; v++)
+		{
+			cx += level.x[v] / n;
+			cy += level.y[v] / n;
+		}
+
+		double[] dist = new double[n];
+		for (int v = 0; v < n; v++)
+		{
+			dist[v] = Math.hypot(level.x[v] - cx, level.y[v] - cy);
+		}
+		Arrays.sort(dist);
+
+		// Half of the nodes of a uniform disk of radius r are within r / sqrt(2)
+		double area = 2 * Math.PI * dist[n / 2] * dist[n / 2];
+		if (area == 0) return;
+
+		double ratio = Math.sqrt(n * k * k / area);
+
+		for (int v = 0; v < n; v++)
+		{
+			level.x[v] = cx + (level.x[v] - cx) * ratio;
+			level.y[v] = cy + (level.y[v] - cy) * ratio;
+		}
+	}
+
+	/**
+	 * Pushes apart the nodes of the graph that are closer than the sum of their radii and a gap.
+	 * Spring and repulsion forces leave the leaves of a hub crowded around it, which this spreads.
+	 * Close pairs are found in neighboring cells of a grid.
+	 */
+	private void removeOverlaps(Level level)
+	{
+		int n = level.n;
+		double[] px = level.x;
+		double[] py = level.y;
+
+		double maxSize = 0;
+		for (double size : sizes)
+		{
+			maxSize = Math.max(maxSize, size);
+		}
+
+		// Nodes without sizes are points
+		if (maxSize == 0) return;
+
+		for (int it = 0; it < OVERLAP_ITERATIONS; it++)
+		{
+			double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+			double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+
+			for (int v = 0; v < n; v++)
+			{
+				minX = Math.min(minX, px[v]);
+				minY = Math.min(minY, py[v]);
+				maxX = Math.max(maxX, px[v]);
+				maxY = Math.max(maxY, py[v]);
+			}
+
+			// Cells are enlarged if the drawing is too sparse for a grid of this many cells
+			double cell = maxSize + LayoutUtil.OVERLAP_GAP;
+			int cols, rows;
+
+			while (true)
+			{
+				cols = (int) ((maxX - minX) / cell) + 1;
+				rows = (int) ((maxY - minY) / cell) + 1;
+				if ((long) cols * rows <= 4L * n + 16) break;
+				cell *= 2;
+			}
+
+			// Sort the nodes into the cells
+
+			int[] cellOf = new int[n];
+			int[] start = new int[cols * rows + 1];
+
+			for (int v = 0; v < n; v++)
+			{
+				cellOf[v] = (int) ((px[v] - minX) / cell) * rows + (int) ((py[v] - minY) / cell);
+				start[cellOf[v] + 1]++;
+			}
+			for (int c = 0; c < cols * rows; c++)
+			{
+				start[c + 1] += start[c];
+			}
+
+			int[] members = new int[n];
+			int[] fill = Arrays.copyOf(start, start.length - 1);
+
+			for (int v = 0; v < n; v++)
+			{
+				members[fill[cellOf[v]]++] = v;
+			}
+
+			boolean moved = false;
+
+			for (int v = 0; v < n; v++)
+			{
+				int cx = cellOf[v] / rows;
+				int cy = cellOf[v] % rows;
+
+				for (int i = Math.max(0, cx - 1); i <= Math.min(cols - 1, cx + 1); i++)
+				{
+					for (int j = Math.max(0, cy - 1); j <= Math.min(rows - 1, cy + 1); j++)
+					{
+						int c = i * rows + j;
+
+						for (int p = start[c]; p < start[c + 1]; p++)
+						{
+							int u = members[p];
+							if (u <= v) continue;
+
+							double min = (sizes[u] + sizes[v]) / 2 + LayoutUtil.OVERLAP_GAP;
+							double ex = px[v] - px[u];
+							double ey = py[v] - py[u];
+							double d2 = ex * ex + ey * ey;
+
+							if (d2 >= min * min) continue;
+
+							if (d2 == 0)
+							{
+								ex = random.nextDouble() - 0.5;
+								ey = random.nextDouble() - 0.5;
+								d2 = ex * ex + ey * ey;
+							}
+
+							// Each node moves half of the overlap
+							double d = Math.sqrt(d2);
+							double m = (min - d) / (2 * d);
+
+							px[v] += ex * m;
+							py[v] += ey * m;
+							px[u] -= ex * m;
+							py[u] -= ey * m;
+							moved = true;
+						}
+					}
+				}
+			}
+
+			if (!moved) break;
+		}
+	}
+
+	/**
+	 * Copies the positions of the given level to the nodes of the graph.
+	 */
+	private void project(List<Level> levels, int index)
+	{
+		Level level = levels.get(index);
+
+		for (int v = 0; v < nodeCount; v++)
+		{
+			int c = v;
+			for (int l = 0; l < index; l++)
+			{
+				c = levels.get(l).parent[c];
+			}
+			x[v] = level.x[c];
+			y[v] = level.y[c];
+		}
+	}
+
+	private int[] shuffle(int n)
+	{
+		int[] order = new int[n];
+		for (int i = 0; i < n; i++)
+		{
+			order[i] = i;
+		}
+		for (int i = n - 1; i > 0; i--)
+		{
+			int j = random.nextInt(i + 1);
+			int tmp = order[i];
+			order[i] = order[j];
+			order[j] = tmp;
+		}
+		return order;
+	}
+
+	/**
+	 * Quadtree of the nodes of a level, for the Barnes-Hut approximation of repulsion. Each cell
+	 * keeps the total mass of its nodes and the sum of their mass weighted positions.
+	 */
+	private class QuadTree
+	{
+		private Level level;
+
+		private double[] centerX;
+		private double[] centerY;
+		private double[] half;
+		private double[] mass;
+		private double[] sumX;
+		private double[] sumY;
+
+		/**
+		 * First of the four children of each cell, -1 for leaf cells.
+		 */
+		private int[] child;
+
+		/**
+		 * The node in each leaf cell, -1 if the cell is empty or holds several nodes at its
+		 * maximum depth.
+		 */
+		private int[] body;
+
+		private int cellCount;
+
+		private int[] stack;
+
+		QuadTree(Level level)
+		{
+			this.level = level;
+
+			int capacity = 4 * level.n + 4;
+			centerX = new double[capacity];
+			centerY = new double[capacity];
+			half = new double[capacity];
+			mass = new double[capacity];
+			sumX = new double[capacity];
+			sumY = new double[capacity];
+			child = new int[capacity];
+			body = new int[capacity];
+			stack = new int[3 * MAX_TREE_DEPTH + 4];
+
+			double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+			double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+
+			for (int v = 0; v < level.n; v++)
+			{
+				minX = Math.min(minX, level.x[v]);
+				minY = Math.min(minY, level.y[v]);
+				maxX = Math.max(maxX, level.x[v]);
+				maxY = Math.max(maxY, level.y[v]);
+			}
+
+			newCell((minX + maxX) / 2, (minY + maxY) / 2,
+				Math.max(Math.max(maxX - minX, maxY - minY) / 2, 1));
+
+			for (int v = 0; v < level.n; v++)
+			{
+				insert(0, v, 0);
+			}
+		}
+
+		private int newCell(double x, double y, double h)
+		{
+			if (cellCount == child.length)
+			{
+				int capacity = cellCount * 2;
+				centerX = Arrays.copyOf(centerX, capacity);
+				centerY = Arrays.copyOf(centerY, capacity);
+				half = Arrays.copyOf(half, capacity);
+				mass = Arrays.copyOf(mass, capacity);
+				sumX = Arrays.copyOf(sumX, capacity);
+				sumY = Arrays.copyOf(sumY, capacity);
+				child = Arrays.copyOf(child, capacity);
+				body = Arrays.copyOf(body, capacity);
+			}
+
+			int c = cellCount++;
+			centerX[c] = x;
+			centerY[c] = y;
+			half[c] = h;
+			mass[c] = 0;
+			sumX[c] = 0;
+			sumY[c] = 0;
+			child[c] = -1;
+			body[c] = -1;
+			return c;
+		}
+
+		private void insert(int c, int v, int depth)
+		{
+			if (child[c] == -1)
+			{
+				if (mass[c] == 0 || depth == MAX_TREE_DEPTH)
+				{
+					body[c] = mass[c] == 0 ? v : -1;
+					addMass(c, v);
+					return;
+				}
+
+				// Split the cell and move its node to a child
+				int old = body[c];
+				double h = half[c] / 2;
+				child[c] = newCell(centerX[c] - h, centerY[c] - h, h);
+				newCell(centerX[c] + h, centerY[c] - h, h);
+				newCell(centerX[c] - h, centerY[c] + h, h);
+				newCell(centerX[c] + h, centerY[c] + h, h);
+				body[c] = -1;
+
+				insert(child[c] + quadrant(c, old), old, depth + 1);
+			}
+
+			addMass(c, v);
+			insert(child[c] + quadrant(c, v), v, depth + 1);
+		}
+
+		private int quadrant(int c, int v)
+		{
+			return (level.x[v] < centerX[c] ? 0 : 1) + (level.y[v] < centerY[c] ? 0 : 2);
+		}
+
+		private void addMass(int c, int v)
+		{
+			double m = level.mass[v];
+			mass[c] += m;
+			sumX[c] += level.x[v] * m;
+			sumY[c] += level.y[v] * m;
+		}
+
+		/**
+		 * Adds the repulsion on the given node to the force vector.
+		 */
+		void addRepulsion(int v, double k2, double[] force)
+		{
+			double x = level.x[v];
+			double y = level.y[v];
+
+			int top = 0;
+			stack[top++] = 0;
+
+			while (top > 0)
+			{
+				int c = stack[--top];
+
+				if (mass[c] == 0 || body[c] == v) continue;
+
+				double ex = x - sumX[c] / mass[c];
+				double ey = y - sumY[c] / mass[c];
+				double d2 = ex * ex + ey * ey;
+				double size = 2 * half[c];
+
+				if (child[c] != -1 && size * size >= THETA * THETA * d2)
+				{
+					for (int i = 0; i < 4; i++)
+					{
+						stack[top++] = child[c] + i;
+					}
+					continue;
+				}
+
+				// Nodes at the same position are pushed in a random direction
+				if (d2 == 0)
+				{
+					ex = (random.nextDouble() - 0.5) * PLACEMENT_JITTER;
+					ey = (random.nextDouble() - 0.5) * PLACEMENT_JITTER;
+					d2 = ex * ex + ey * ey;
+				}
+
+				double f = mass[c] * k2 / d2;
+				force[0] += ex * f;
+				force[1] += ey * f;
+			}
+		}
+	}
+
+	/**
+	 * A level of the coarsening.
+	 */
+	private static class Level
+	{
+		int n;
+
+		/**
+		 * Number of the graph nodes that are merged into each node.
+		 */
+		double[] mass;
+
+		/**
+		 * Distinct undirected edges, without loops.
+		 */
+		int[] source;
+		int[] target;
+
+		/**
+		 * Node of the coarser level that each node is merged into.
+		 */
+		int[] parent;
+
+		double[] x;
+		double[] y;
+
+		Level(int n)
+		{
+			this.n = n;
+			this.mass = new double[n];
+			this.x = new double[n];
+			this.y = new double[n];
+		}
+
+		void setEdges(int[] s, int[] t, int count)
+		{
+			Set<Long> seen = new HashSet<Long>();
+			int[] src = new int[count];
+			int[] tgt = new int[count];
+			int m = 0;
+
+			for (int i = 0; i < count; i++)
+			{
+				int a = Math.min(s[i], t[i]);
+				int b = Math.max(s[i], t[i]);
+
+				if (a == b || !seen.add((long) a * n + b)) continue;
+
+				src[m] = a;
+				tgt[m] = b;
+				m++;
+			}
+
+			source = Arrays.copyOf(src, m);
+			target = Arrays.copyOf(tgt, m);
+		}
+	}
+
+	/**
+	 * Graphs that are this small are not coarsened further.
+	 */
+	private static final int COARSEST_SIZE = 30;
+
+	private static final int MAX_LEVELS = 30;
+
+	/**
+	 * Coarsening stops if a level has more than this ratio of the nodes of the finer level.
+	 */
+	private static final double MAX_COARSENING_RATIO = 0.8;
+
+	/**
+	 * Ratio of the ideal distances of a level and its finer level.
+	 */
+	private static final double LEVEL_DISTANCE_RATIO = Math.sqrt(7D / 4D);
+
+	private static final int COARSEST_ITERATIONS = 200;
+
+	private static final int REFINEMENT_ITERATIONS = 40;
+
+	/**
+	 * Initial temperature of the coarsest level, as a ratio of the side of the drawing.
+	 */
+	private static final double COARSEST_TEMPERATURE = 0.1;
+
+	/**
+	 * Initial temperature of the finer levels, as a ratio of the ideal distance.
+	 */
+	private static final double REFINEMENT_TEMPERATURE = 1;
+
+	/**
+	 * Temperature at the last iteration of a level, as a ratio of the initial temperature.
+	 */
+	private static final double FINAL_TEMPERATURE_RATIO = 0.01;
+
+	/**
+	 * Coefficient of the pull towards the center.
+	 */
+	private static final double GRAVITY = 0.5;
+
+	/**
+	 * A group of nodes repels as a single node if its cell is smaller than this ratio of its
+	 * distance.
+	 */
+	private static final double THETA = 1;
+
+	/**
+	 * Depth of the quadtree is limited, nodes at nearly the same position share a cell.
+	 */
+	private static final int MAX_TREE_DEPTH = 40;
+
+	/**
+	 * Maximum distance between the nodes that were merged, when they are placed at a finer
+	 * level, as a ratio of the ideal distance.
+	 */
+	private static final double PLACEMENT_JITTER = 0.2;
+
+	private static final int OVERLAP_ITERATIONS = 100;
+}
@@ -0,0 +1,100 @@
+package org.gvt.layout;
+
+import org.gvt.LayoutManager;
+import org.ivis.layout.LEdge;
+import org.ivis.layout.LNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Layout for very large views, which places the nodes of the root graph with MultilevelEmbedder
+ * instead of the single level spring embedder of CoSE. Compound nodes are placed as a whole, and
+ * their members move with them. Edges of members are treated as edges of their top level
+ * compounds.
+ *
+ * @author Ozgun Babur
+ */
+public class MultilevelLayout extends org.ivis.layout.cose.CoSELayout
+{
+	@Override
+	public void initParameters()
+	{
+		super.initParameters();
+		LayoutManager.updateDetachedRoot(this);
+	}
+
+	public boolean layout()
+	{
+		final List<LNode> nodes = new ArrayList<LNode>();
+
+		// Index of the top level node that each node is in
+		Map<LNode, Integer> index = new HashMap<LNode, Integer>();
+
+		for (Object o : getGraphManager().getRoot().getNodes())
+		{
+			LNode node = (LNode) o;
+			LayoutUtil.mapMembers(node, nodes.size(), index);
+			nodes.add(node);
+		}
+
+		MultilevelEmbedder embedder = new MultilevelEmbedder(nodes.size(), LayoutUtil.SEED)
+		{
+			@Override
+			protected void levelDone(int level)
+			{
+				// Show the intermediate levels at the animation steps, like CoSE does. A job turns
+				// them on to check cancellation.
+				if (level > 0 && animationDuringLayout)
+				{
+					place(nodes, this);
+					update();
+				}
+			}
+		};
+
+		embedder.setEdgeLength(LayoutUtil.getEdgeLength());
+
+		for (int i = 0; i < nodes.size(); i++)
+		{
+			embedder.setSize(i, nodes.get(i).getWidth(), nodes.get(i).getHeight());
+		}
+
+		for (LNode node : index.keySet())
+		{
+			for (Object o : node.getEdges())
+			{
+				LEdge edge = (LEdge) o;
+				if (edge.getSource() != node) continue;
+
+				Integer source = index.get(edge.getSource());
+				Integer target = index.get(edge.getTarget());
+
+				if (source != null && target != null) embedder.addEdge(source, target);
+			}
+		}
+
+		embedder.embed();
+		place(nodes, embedder);
+
+		return true;
+	}
+
+	/**
+	 * Moves the top level nodes to the positions of the embedder.
+	 */
+	private void place(List<LNode> nodes, MultilevelEmbedder embedder)
+	{
+		for (int i = 0; i < nodes.size(); i++)
+		{
+			LNode node = nodes.get(i);
+
+			double dx = embedder.getX(i) - node.getWidth() / 2 - node.getLeft();
+			double dy = embedder.getY(i) - node.getHeight() / 2 - node.getTop();
+
+			LayoutUtil.move(node, dx, dy);
+		}
+	}
+}
@@ -51,6 +51,11 @@ public abstract class BioPAXGraph extends CompoundModel implements Graph
 	 */
 	protected String lastAppliedColoring;
 
+	/**
+	 * Nodes that did not have a recorded location at the last fetch of the layout.
+	 */
+	protected Set<NodeModel> unplacedNodes;
+
 	public boolean isMechanistic()
 	{
 		return this.graphType.equals(PROCESS_DIAGRAM);
@@ -265,6 +270,33 @@ public abstract class BioPAXGraph extends CompoundModel implements Graph
 
 	public abstract boolean fetchLayout(String pathwayRDFID);
 
+	/**
+	 * Gets the nodes that did not have a recorded location at the last fetch of the layout, or
+	 * null if the layout is not fetched.
+	 */
+	public Set<NodeModel> getUnplacedNodes()
+	{
+		return unplacedNodes;
+	}
+
+	/**
+	 * Tells if the last fetch of the layout found locations for some of the nodes, but not all.
+	 */
+	public boolean isLayoutPartial()
+	{
+		if (unplacedNodes == null || unplacedNodes.isEmpty()) return false;
+
+		for (Object o : getNodes())
+		{
+			if ((!(o instanceof CompoundModel) || ((CompoundModel) o).getChildren().isEmpty()) &&
+				!unplacedNodes.contains(o))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
 	public abstract void recordLayout();
 
 	public abstract void forgetLayout();
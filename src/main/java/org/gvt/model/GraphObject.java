@@ -6,6 +6,7 @@ import org.eclipse.swt.graphics.Font;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -136,10 +137,29 @@ public abstract class GraphObject
 		listeners.addPropertyChangeListener(l);
 	}
 
+	/**
+	 * Notifies the listeners. If a batch is started in this thread, the change is recorded and
+	 * delivered when the batch ends.
+	 */
 	public void firePropertyChange(String propName, Object oldValue,
 			Object newValue)
 	{
-		listeners.firePropertyChange(propName, oldValue, newValue);
+		Batch batch = BATCH.get();
+
+		// Changes carrying an old value (like adding or removing a child) cannot be merged
+		// with others, they are delivered immediately.
+
+		if (batch != null && oldValue == null)
+		{
+			if (listeners.hasListeners(propName))
+			{
+				batch.record(this, propName, newValue);
+			}
+		}
+		else
+		{
+			listeners.firePropertyChange(propName, oldValue, newValue);
+		}
 	}
 
 	public void removePropertyChangeListener(PropertyChangeListener l)
@@ -147,6 +167,91 @@ public abstract class GraphObject
 		listeners.removePropertyChangeListener(l);
 	}
 
+	//----------------------------------------------------------------------------------------------
+	// Section: Batch notification
+	//----------------------------------------------------------------------------------------------
+
+	/**
+	 * Starts holding back the property changes fired from the current thread. Repeated changes
+	 * of the same property of an object are merged, and the listeners are notified once per
+	 * changed property when the batch ends. This way, an operation that updates many objects
+	 * refreshes each edit part once, instead of once per setter call. Batches can be nested,
+	 * changes are delivered when the outermost one ends. Each call should be paired with an
+	 * endBatch() call in a finally block.
+	 */
+	public static void startBatch()
+	{
+		Batch batch = BATCH.get();
+
+		if (batch == null)
+		{
+			batch = new Batch();
+			BATCH.set(batch);
+		}
+
+		batch.depth++;
+	}
+
+	/**
+	 * Ends the batch started with startBatch(). If this is the outermost batch, the collected
+	 * changes are delivered to the listeners.
+	 */
+	public static void endBatch()
+	{
+		Batch batch = BATCH.get();
+
+		if (batch == null)
+		{
+			throw new IllegalStateException("No batch is started");
+		}
+
+		if (--batch.depth == 0)
+		{
+			BATCH.remove();
+			batch.flush();
+		}
+	}
+
+	/**
+	 * Property changes collected during a batch, in the order objects are first changed.
+	 */
+	private static class Batch
+	{
+		int depth;
+
+		Map<GraphObject, Map<String, Object>> changes =
+			new LinkedHashMap<GraphObject, Map<String, Object>>();
+
+		void record(GraphObject go, String propName, Object newValue)
+		{
+			Map<String, Object> props = changes.get(go);
+
+			if (props == null)
+			{
+				props = new LinkedHashMap<String, Object>(4);
+				changes.put(go, props);
+			}
+
+			// The latest value replaces the earlier one, but keeps its order
+			props.put(propName, newValue);
+		}
+
+		void flush()
+		{
+			for (GraphObject go : changes.keySet())
+			{
+				Map<String, Object> props = changes.get(go);
+
+				for (String propName : props.keySet())
+				{
+					go.listeners.firePropertyChange(propName, null, props.get(propName));
+				}
+			}
+		}
+	}
+
+	private static final ThreadLocal<Batch> BATCH = new ThreadLocal<Batch>();
+
 
 	//----------------------------------------------------------------------------------------------
 	// Section: User data related operations.
@@ -14,6 +14,7 @@ import org.gvt.model.NodeModel;
 import org.gvt.model.biopaxl3.BioPAXL3Graph;
 import org.gvt.util.ChEBI;
 import org.gvt.util.Conf;
+import org.gvt.util.SIFParser;
 import org.patika.mada.graph.GraphObject;
 
 import java.io.*;
@@ -53,64 +54,57 @@ public class BasicSIFGraph extends BioPAXL3Graph
 
 	public BasicSIFGraph(InputStream is, int mediatorColNum)
 	{
-		this();
+		this(is, mediatorColNum, null);
+	}
 
-		Map<String, BasicSIFNode> nodeMap = new HashMap<String, BasicSIFNode>();
-		Set<String> memory = new HashSet<String>();
+	/**
+	 * Reads the SIF network from the stream.
+	 * @param is stream to read, closed at the end
+	 * @param mediatorColNum index of the column that holds mediators
+	 * @param listener progress listener, may be null
+	 */
+	public BasicSIFGraph(InputStream is, final int mediatorColNum,
+		SIFParser.ProgressListener listener)
+	{
+		this();
 
-		BufferedReader reader = new BufferedReader(new InputStreamReader(is));
+		final List<BasicSIFNode> nodes = new ArrayList<BasicSIFNode>();
 
-		try
+		SIFParser parser = new SIFParser(new SIFParser.Handler()
 		{
-			String line = reader.readLine();
-
-			while (line != null)
+			public void node(int id, String name)
 			{
-				String[] token = line.split("\t");
-
-				if (token.length == 1)
-				{
-					if (!nodeMap.containsKey(token[0]))
-					{
-						nodeMap.put(token[0], new BasicSIFNode(this, token[0], token[0]));
-					}
-				}
-				else if (token.length >= 3)
-				{
-					if (Conf.getBoolean(Conf.CONVERT_INTERACTS_WITH_TO_IN_COMPLEX_WITH) && token[1].equals("interacts-with"))
-					{
-						token[1] = "in-complex-with";
-					}
+				nodes.add(new BasicSIFNode(BasicSIFGraph.this, name, name));
+			}
 
-					SIFEnum type = SIFEnum.typeOf(token[1]);
+			public void edge(int source, int target, String relation, String[] token)
+			{
+				new BasicSIFEdge(nodes.get(source), nodes.get(target), relation,
+					token.length > mediatorColNum ? token[mediatorColNum] : null);
+			}
 
-					if (type != null)
-					{
-						if (!nodeMap.containsKey(token[0]))
-						{
-							nodeMap.put(token[0], new BasicSIFNode(this, token[0], token[0]));
-						}
-						if (!nodeMap.containsKey(token[2]))
-						{
-							nodeMap.put(token[2], new BasicSIFNode(this, token[2], token[2]));
-						}
+			public void group(String[] tokens)
+			{
+				// Groups are not expected in this input
+			}
+		});
 
-						String key = token[0] + token[1] + token[2];
-						String rev = token[2] + token[1] + token[0];
+		for (SIFEnum type : SIFEnum.values())
+		{
+			parser.addRelation(type.getTag(), type.isDirected());
+		}
 
-						if (!memory.contains(key) && (type.isDirected() || !memory.contains(rev)))
-						{
-							new BasicSIFEdge(nodeMap.get(token[0]), nodeMap.get(token[2]), type.getTag(),
-								token.length > mediatorColNum ? token[mediatorColNum] : null);
+		if (Conf.getBoolean(Conf.CONVERT_INTERACTS_WITH_TO_IN_COMPLEX_WITH))
+		{
+			parser.addAlias("interacts-with", "in-complex-with");
+		}
 
-							memory.add(key);
-						}
-					}
-				}
-				line = reader.readLine();
-			}
+		parser.setProgressListener(listener);
 
-			reader.close();
+		try
+		{
+			parser.parse(is, -1);
+			is.close();
 		}
 		catch (IOException e)
 		{
@@ -325,35 +319,45 @@ public class BasicSIFGraph extends BioPAXL3Graph
 
 	public void groupSimilarNodes()
 	{
-		Map<NodeModel, Set<String>> incomingMap = new HashMap<NodeModel, Set<String>>();
-		Map<NodeModel, Set<String>> outgoingMap = new HashMap<NodeModel, Set<String>>();
+		List<NodeModel> nodes = new ArrayList<NodeModel>(getNodes());
+		Map<NodeModel, Integer> ids = new HashMap<NodeModel, Integer>();
+		String[] names = new String[nodes.size()];
 
-		for (Object o : getNodes())
+		for (int i = 0; i < names.length; i++)
 		{
-			NodeModel node = (NodeModel) o;
+			ids.put(nodes.get(i), i);
+			names[i] = nodes.get(i).getText();
+		}
 
-			if (!incomingMap.containsKey(node)) incomingMap.put(node, new HashSet<String>());
-			if (!outgoingMap.containsKey(node)) outgoingMap.put(node, new HashSet<String>());
+		SimilarNodeGrouper grouper = new SimilarNodeGrouper(names);
 
-			for (Object oo : node.getTargetConnections())
+		for (int i = 0; i < names.length; i++)
+		{
+			for (Object o : nodes.get(i).getSourceConnections())
 			{
-				BasicSIFEdge edge = (BasicSIFEdge) oo;
-				assert edge.getTarget() == node;
-				String key = edge.getTag() + " " + edge.getSource().getText();
-				incomingMap.get(node).add(key);
-				if (!edge.isDirected()) outgoingMap.get(node).add(key);
+				BasicSIFEdge edge = (BasicSIFEdge) o;
+				assert edge.getSource() == nodes.get(i);
+				Integer target = ids.get(edge.getTarget());
+
+				if (target != null) grouper.addRelation(i, target, edge.getTag(), edge.isDirected());
 			}
-			for (Object oo : node.getSourceConnections())
+		}
+
+		// Groups are kept in a hash set as before, so that the groups sharing members are created in
+		// the same order
+
+		Set<Set<NodeModel>> groups = new HashSet<Set<NodeModel>>();
+		for (int[] group : grouper.findGroups())
+		{
+			Set<NodeModel> members = new HashSet<NodeModel>();
+			for (int member : group)
 			{
-				BasicSIFEdge edge = (BasicSIFEdge) oo;
-				assert edge.getSource() == node;
-				String key = edge.getTag() + " " + edge.getTarget().getText();
-				outgoingMap.get(node).add(key);
-				if (!edge.isDirected()) incomingMap.get(node).add(key);
+				members.add(nodes.get(member));
 			}
+			groups.add(members);
 		}
 
-		for (Set<NodeModel> group : findGroups((Set<NodeModel>) getNodes(), incomingMap, outgoingMap))
+		for (Set<NodeModel> group : groups)
 		{
 			HashSet<BasicSIFNode> members = new HashSet<BasicSIFNode>();
 			for (NodeModel m : group)
@@ -396,142 +400,6 @@ public class BasicSIFGraph extends BioPAXL3Graph
 		}
 	}
 
-	private Set<Set<NodeModel>> findGroups(Collection<NodeModel> nodes,
-		Map<NodeModel, Set<String>> incomingMap, Map<NodeModel, Set<String>> outgoingMap)
-	{
-		Set<Set<NodeModel>> groups = new HashSet<Set<NodeModel>>();
-
-		for (NodeModel node : nodes)
-		{
-			Set<NodeModel> group = getSimilarNodes(node, nodes, incomingMap, outgoingMap);
-			if (!group.isEmpty() && !betterToSkipGrouping(group, incomingMap, outgoingMap) && !contains(groups, group))
-			{
-				groups.add(group);
-			}
-		}
-		return groups;
-	}
-
-	/**
-	 * Disconnected groups of 2 and 3 are better not grouped for a better visualization.
-	 */
-	private boolean betterToSkipGrouping(Set<NodeModel> group, Map<NodeModel, Set<String>> incomingMap,
-		Map<NodeModel, Set<String>> outgoingMap)
-	{
-		if (group.size() > 3) return false;
-
-		Set<String> names = new HashSet<String>();
-		for (NodeModel node : group) names.add(node.getText());
-
-		NodeModel node = group.iterator().next();
-		Set<String> conn = new HashSet<String>();
-		for (String s : incomingMap.get(node))
-		{
-			conn.add(s.substring(s.indexOf(" ") + 1));
-		}
-		for (String s : outgoingMap.get(node))
-		{
-			conn.add(s.substring(s.indexOf(" ") + 1));
-		}
-		conn.removeAll(names);
-		return conn.isEmpty();
-	}
-
-	private boolean contains(Set<Set<NodeModel>> groups, Set<NodeModel> group)
-	{
-		for (Set<NodeModel> g : groups)
-		{
-			if (g.size() == group.size() && g.containsAll(group)) return true;
-		}
-		return false;
-	}
-
-	private Set<NodeModel> getSimilarNodes(NodeModel node, Collection<NodeModel> nodes,
-		Map<NodeModel, Set<String>> incomingMap, Map<NodeModel, Set<String>> outgoingMap)
-	{
-//		if (incomingMap.get(node).isEmpty() && outgoingMap.get(node).isEmpty())
-//			return Collections.emptySet();
-
-		Set<NodeModel> sim = new HashSet<NodeModel>();
-
-		for (NodeModel n : nodes)
-		{
-			if (similar(n, node, incomingMap, outgoingMap)) sim.add(n);
-		}
-		if (sim.size() > 1) return sim;
-		else return Collections.<NodeModel>emptySet();
-	}
-
-	private boolean similar(NodeModel n1, NodeModel n2, Map<NodeModel, Set<String>> incomingMap,
-		Map<NodeModel, Set<String>> outgoingMap)
-	{
-		if (incomingMap.get(n1).size() != incomingMap.get(n2).size() ||
-			outgoingMap.get(n1).size() != outgoingMap.get(n2).size())
-		{
-			return false;
-		}
-		if (incomingMap.get(n1).containsAll(incomingMap.get(n2)) &&
-			outgoingMap.get(n1).containsAll(outgoingMap.get(n2)))
-		{
-			return true;
-		}
-
-		Set<String> n1_in = new HashSet<String>(incomingMap.get(n1));
-		Set<String> n2_in = new HashSet<String>(incomingMap.get(n2));
-		Set<String> n1_out = new HashSet<String>(outgoingMap.get(n1));
-		Set<String> n2_out = new HashSet<String>(outgoingMap.get(n2));
-
-		removeCommon(n1_in, n2_in);
-		removeCommon(n1_out, n2_out);
-
-		return containssOnlyInterEdges(n1.getText(), n2.getText(), getParsed(n1_in), getParsed(n2_in)) &&
-			containssOnlyInterEdges(n1.getText(), n2.getText(), getParsed(n1_out), getParsed(n2_out));
-	}
-
-	private void removeCommon(Set<String> set1, Set<String> set2)
-	{
-		Set<String> temp = new HashSet<String>(set1);
-		set1.removeAll(set2);
-		set2.removeAll(temp);
-	}
-
-	private boolean containssOnlyInterEdges(String name1, String name2,
-		Map<String, Set<String>> edges1, Map<String, Set<String>> edges2)
-	{
-		for (String type : edges1.keySet())
-		{
-			if (!edges2.containsKey(type)) return false;
-
-			assert !edges1.get(type).isEmpty();
-
-			if (edges1.get(type).size() != 1 || !edges1.get(type).iterator().next().equals(name2))
-				return false;
-		}
-		for (String type : edges2.keySet())
-		{
-			if (!edges1.containsKey(type)) return false;
-
-			assert !edges2.get(type).isEmpty();
-
-			if (edges2.get(type).size() != 1 || !edges2.get(type).iterator().next().equals(name1))
-				return false;
-		}
-		return true;
-	}
-
-	private Map<String, Set<String>> getParsed(Set<String> edges)
-	{
-		Map<String, Set<String>> parsed = new HashMap<String, Set<String>>();
-
-		for (String edge : edges)
-		{
-			String[] tok = edge.split(" ");
-			if (!parsed.containsKey(tok[0])) parsed.put(tok[0], new HashSet<String>());
-			parsed.get(tok[0]).add(tok[1]);
-		}
-		return parsed;
-	}
-
 	//--- Section: Formatting ---------------------------------------------------------------------|
 
 	public void format(List<String> lines)
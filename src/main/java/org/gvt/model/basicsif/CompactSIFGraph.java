@@ -0,0 +1,270 @@
+package org.gvt.model.basicsif;
+
+import org.biopax.paxtools.pattern.miner.SIFType;
+import org.cbio.causality.analysis.Graph;
+import org.cbio.causality.analysis.GraphList;
+import org.gvt.model.sifl3.SIFEdge;
+import org.gvt.util.Conf;
+import org.gvt.util.MappedSIFNetwork;
+import org.patika.mada.graph.CompactGraph;
+
+import java.util.*;
+
+/**
+ * A SIF network as a headless CompactGraph, for running queries on large networks without
+ * creating a node and edge model for each element. Edges keep their relation type and a
+ * reference to their mediators, so that only the result of a query is converted to a
+ * BasicSIFGraph.
+ *
+ * Edges are created in the same order that BasicSIFGraph creates them from the same network,
+ * hence queries visit the edges in the same order.
+ *
+ * @author Ozgun Babur
+ */
+public class CompactSIFGraph
+{
+	private CompactGraph graph;
+
+	/**
+	 * Relation types. Edges refer to them with their index.
+	 */
+	private List<String> tags;
+	private int[] edgeTag;
+
+	/**
+	 * Where the mediators of each edge are read from. This is the edge index in the mapped network
+	 * type, or the index of the causality graph that the edge comes from.
+	 */
+	private int[] edgeRef;
+
+	private MappedSIFNetwork network;
+	private List<Graph> graphs;
+
+	/**
+	 * Loads the given causality graph, or the graphs in it if it is a GraphList.
+	 */
+	public CompactSIFGraph(Graph graph)
+	{
+		graphs = new ArrayList<Graph>();
+
+		if (graph instanceof GraphList) graphs.addAll(((GraphList) graph).getGraphs());
+		else graphs.add(graph);
+
+		tags = new ArrayList<String>();
+		Map<String, Integer> ids = new HashMap<String, Integer>();
+		List<String> names = new ArrayList<String>();
+		EdgeList edges = new EdgeList();
+
+		for (int g = 0; g < graphs.size(); g++)
+		{
+			Graph gr = graphs.get(g);
+			boolean directed = gr.isDirected();
+			int tag = indexTag(gr.getEdgeType());
+			Set<String> memory = new HashSet<String>();
+
+			for (String gene : gr.getSymbols())
+			{
+				int source = indexName(gene, ids, names);
+
+				for (String neigh : directed ? gr.getDownstream(gene) : gr.getNeighbors(gene))
+				{
+					int target = indexName(neigh, ids, names);
+
+					String key = gene + "\t" + neigh;
+					String rev = neigh + "\t" + gene;
+
+					if (memory.contains(key) || (!directed && memory.contains(rev))) continue;
+
+					edges.add(source, target, tag, g);
+					memory.add(key);
+				}
+			}
+		}
+
+		build(names.toArray(new String[names.size()]), edges);
+	}
+
+	/**
+	 * Loads the relations of the given types from the mapped network. Node ids are the ids in the
+	 * network.
+	 */
+	public CompactSIFGraph(MappedSIFNetwork network, Collection<? extends SIFType> types)
+	{
+		this.network = network;
+		this.tags = new ArrayList<String>();
+
+		EdgeList edges = new EdgeList();
+
+		for (SIFType type : types)
+		{
+			int t = network.getType(type.getTag());
+			if (t < 0) continue;
+
+			int tag = indexTag(type.getTag());
+
+			for (int e = 0; e < network.getEdgeCount(t); e++)
+			{
+				edges.add(network.getSource(t, e), network.getTarget(t, e), tag, e);
+			}
+		}
+
+		String[] names = new String[network.getNodeCount()];
+		for (int i = 0; i < names.length; i++)
+		{
+			names[i] = network.getSymbol(i);
+		}
+
+		build(names, edges);
+	}
+
+	private int indexTag(String tag)
+	{
+		int i = tags.indexOf(tag);
+		if (i < 0)
+		{
+			i = tags.size();
+			tags.add(tag);
+		}
+		return i;
+	}
+
+	private int indexName(String name, Map<String, Integer> ids, List<String> names)
+	{
+		Integer id = ids.get(name);
+		if (id == null)
+		{
+			id = names.size();
+			ids.put(name, id);
+			names.add(name);
+		}
+		return id;
+	}
+
+	private void build(String[] names, EdgeList edges)
+	{
+		int m = edges.size;
+		int[] sources = Arrays.copyOf(edges.sources, m);
+		int[] targets = Arrays.copyOf(edges.targets, m);
+		edgeTag = Arrays.copyOf(edges.tags, m);
+		edgeRef = Arrays.copyOf(edges.refs, m);
+
+		// Flags are the same with the ones CompactGraph reads from a BasicSIFEdge
+
+		byte[] flags = new byte[m];
+		byte[] tagFlags = new byte[tags.size()];
+		for (int i = 0; i < tagFlags.length; i++)
+		{
+			tagFlags[i] = CompactGraph.BREADTH;
+			if (SIFEdge.isDirected(tags.get(i))) tagFlags[i] |= CompactGraph.DIRECTED;
+		}
+		for (int e = 0; e < m; e++)
+		{
+			flags[e] = tagFlags[edgeTag[e]];
+		}
+
+		graph = new CompactGraph(names, sources, targets, flags);
+	}
+
+	public CompactGraph getGraph()
+	{
+		return graph;
+	}
+
+	/**
+	 * Gets ids of the nodes with the given names. Unknown names are skipped.
+	 */
+	public int[] getNodeIds(Collection<String> symbols)
+	{
+		Set<Integer> set = new LinkedHashSet<Integer>();
+		for (String symbol : symbols)
+		{
+			int id = graph.getNodeId(symbol);
+			if (id >= 0) set.add(id);
+		}
+
+		int[] ids = new int[set.size()];
+		int i = 0;
+		for (Integer id : set)
+		{
+			ids[i++] = id;
+		}
+		return ids;
+	}
+
+	public String getTag(int edge)
+	{
+		return tags.get(edgeTag[edge]);
+	}
+
+	public String getMediators(int edge)
+	{
+		if (network != null)
+		{
+			return network.getMediators(network.getType(getTag(edge)), edgeRef[edge]);
+		}
+
+		return graphs.get(edgeRef[edge]).getMediatorsInString(
+			graph.getName(graph.getSource(edge)), graph.getName(graph.getTarget(edge)));
+	}
+
+	/**
+	 * Creates the graph model of the selected nodes and edges. Ends of the selected edges should
+	 * also be selected.
+	 */
+	public BasicSIFGraph toBasicSIFGraph(boolean[] nodeSelected, boolean[] edgeSelected)
+	{
+		BasicSIFGraph result = new BasicSIFGraph();
+
+		BasicSIFNode[] nodes = new BasicSIFNode[graph.getNodeCount()];
+
+		for (int i = 0; i < nodes.length; i++)
+		{
+			if (nodeSelected[i])
+			{
+				String name = graph.getName(i);
+				nodes[i] = new BasicSIFNode(result, name, name);
+			}
+		}
+
+		for (int e = 0; e < edgeSelected.length; e++)
+		{
+			if (edgeSelected[e])
+			{
+				new BasicSIFEdge(nodes[graph.getSource(e)], nodes[graph.getTarget(e)], getTag(e),
+					getMediators(e));
+			}
+		}
+
+		if (Conf.getBoolean(Conf.USE_SIF_GROUPING)) result.groupSimilarNodes();
+
+		return result;
+	}
+
+	/**
+	 * Growing arrays of edges, used while loading.
+	 */
+	private static class EdgeList
+	{
+		int[] sources = new int[16];
+		int[] targets = new int[16];
+		int[] tags = new int[16];
+		int[] refs = new int[16];
+		int size;
+
+		void add(int source, int target, int tag, int ref)
+		{
+			if (size == sources.length)
+			{
+				int cap = size * 2;
+				sources = Arrays.copyOf(sources, cap);
+				targets = Arrays.copyOf(targets, cap);
+				tags = Arrays.copyOf(tags, cap);
+				refs = Arrays.copyOf(refs, cap);
+			}
+			sources[size] = source;
+			targets[size] = target;
+			tags[size] = tag;
+			refs[size++] = ref;
+		}
+	}
+}
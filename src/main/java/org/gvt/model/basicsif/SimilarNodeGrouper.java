@@ -0,0 +1,402 @@
+package org.gvt.model.basicsif;
+
+import java.util.*;
+
+/**
+ * Finds groups of similar nodes in a SIF graph. Two nodes are similar if they have the same
+ * relations with the same neighbors, or if the only difference between their relations is that
+ * they are related to each other with the same relation types.
+ *
+ * Relations of each node are kept as sorted arrays of (relation type, neighbor name) pairs that
+ * are packed into longs. Nodes are bucketed with a 64-bit fingerprint of these arrays, hence the
+ * nodes with identical relations are found without comparing all node pairs. Nodes that differ
+ * only by their relations to each other are neighbors, so they are searched only among the
+ * neighbors.
+ *
+ * @author Ozgun Babur
+ */
+public class SimilarNodeGrouper
+{
+	/**
+	 * Id of the name of each node. Nodes with the same name have the same id.
+	 */
+	private int[] nameIds;
+
+	private Map<String, Integer> tagIds;
+
+	/**
+	 * Added relations as (source, target, tag id) triples.
+	 */
+	private int[] relations;
+	private int relationCount;
+	private boolean[] relationDirected;
+
+	/**
+	 * Sorted (type, neighbor name) pairs of the incoming and outgoing relations of each node.
+	 * Undirected relations are both incoming and outgoing.
+	 */
+	private long[][] incoming;
+	private long[][] outgoing;
+
+	/**
+	 * @param names names of the nodes, in the order of node ids
+	 */
+	public SimilarNodeGrouper(String[] names)
+	{
+		Map<String, Integer> ids = new HashMap<String, Integer>();
+		nameIds = new int[names.length];
+
+		for (int i = 0; i < names.length; i++)
+		{
+			Integer id = ids.get(names[i]);
+			if (id == null)
+			{
+				id = ids.size();
+				ids.put(names[i], id);
+			}
+			nameIds[i] = id;
+		}
+
+		tagIds = new HashMap<String, Integer>();
+		relations = new int[48];
+		relationDirected = new boolean[16];
+	}
+
+	/**
+	 * Adds a relation between two nodes. Repeated relations are ignored.
+	 */
+	public void addRelation(int source, int target, String tag, boolean directed)
+	{
+		Integer tagId = tagIds.get(tag);
+		if (tagId == null)
+		{
+			tagId = tagIds.size();
+			tagIds.put(tag, tagId);
+		}
+
+		if (relationCount == relationDirected.length)
+		{
+			relations = Arrays.copyOf(relations, relationCount * 6);
+			relationDirected = Arrays.copyOf(relationDirected, relationCount * 2);
+		}
+
+		relations[relationCount * 3] = source;
+		relations[relationCount * 3 + 1] = target;
+		relations[relationCount * 3 + 2] = tagId;
+		relationDirected[relationCount++] = directed;
+	}
+
+	/**
+	 * Finds the groups of similar nodes. Each node is grouped with all the nodes similar to it, so
+	 * the groups may overlap. Groups of two or three nodes that are not related to any other node
+	 * are skipped.
+	 *
+	 * @return member ids of each group in ascending order, in the order that the groups are found
+	 */
+	public List<int[]> findGroups()
+	{
+		int n = nameIds.length;
+		prepareRelations(n);
+
+		// Bucket the nodes by the fingerprint of their relations, and separate the nodes in the
+		// same bucket that only have the same fingerprint.
+
+		int[] classOf = new int[n];
+		int classCount = 0;
+		Map<Long, List<Integer>> representatives = new HashMap<Long, List<Integer>>();
+
+		for (int v = 0; v < n; v++)
+		{
+			long fingerprint = fingerprint(incoming[v], outgoing[v]);
+
+			List<Integer> reps = representatives.get(fingerprint);
+			if (reps == null)
+			{
+				reps = new ArrayList<Integer>(1);
+				representatives.put(fingerprint, reps);
+			}
+
+			classOf[v] = -1;
+			for (int r : reps)
+			{
+				if (Arrays.equals(incoming[r], incoming[v]) && Arrays.equals(outgoing[r], outgoing[v]))
+				{
+					classOf[v] = classOf[r];
+					break;
+				}
+			}
+			if (classOf[v] < 0)
+			{
+				classOf[v] = classCount++;
+				reps.add(v);
+			}
+		}
+
+		int[] classOffsets = new int[classCount + 1];
+		int[] classMembers = collect(classOf, classCount, classOffsets);
+
+		int nameCount = 0;
+		for (int id : nameIds) nameCount = Math.max(nameCount, id + 1);
+		int[] nameOffsets = new int[nameCount + 1];
+		int[] nameNodes = collect(nameIds, nameCount, nameOffsets);
+
+		// Find the group of each node
+
+		List<int[]> groups = new ArrayList<int[]>();
+		Map<Long, List<int[]>> found = new HashMap<Long, List<int[]>>();
+		boolean[] classVisited = new boolean[classCount];
+
+		int[] partners = new int[16];
+		int[] stamp = new int[n];
+		Arrays.fill(stamp, -1);
+
+		for (int v = 0; v < n; v++)
+		{
+			int c = classOf[v];
+			int partnerCount = 0;
+
+			for (int k = 0; k < 2; k++)
+			{
+				for (long pair : k == 0 ? incoming[v] : outgoing[v])
+				{
+					int name = (int) pair;
+
+					for (int i = nameOffsets[name]; i < nameOffsets[name + 1]; i++)
+					{
+						int u = nameNodes[i];
+						if (stamp[u] == v || classOf[u] == c) continue;
+						stamp[u] = v;
+
+						if (similarByMutualRelations(v, u))
+						{
+							if (partnerCount == partners.length)
+							{
+								partners = Arrays.copyOf(partners, partnerCount << 1);
+							}
+							partners[partnerCount++] = u;
+						}
+					}
+				}
+			}
+
+			int[] group;
+
+			if (partnerCount == 0)
+			{
+				// The group is the class of the node, which is same for all nodes in the class
+				if (classVisited[c]) continue;
+				classVisited[c] = true;
+				group = Arrays.copyOfRange(classMembers, classOffsets[c], classOffsets[c + 1]);
+			}
+			else
+			{
+				int size = classOffsets[c + 1] - classOffsets[c];
+				group = new int[size + partnerCount];
+				System.arraycopy(classMembers, classOffsets[c], group, 0, size);
+				System.arraycopy(partners, 0, group, size, partnerCount);
+				Arrays.sort(group);
+			}
+
+			if (group.length > 1 && !betterToSkipGrouping(group) && add(found, group))
+			{
+				groups.add(group);
+			}
+		}
+		return groups;
+	}
+
+	/**
+	 * Converts the added relations to sorted and distinct relation pairs of each node.
+	 */
+	private void prepareRelations(int n)
+	{
+		int[] inCount = new int[n];
+		int[] outCount = new int[n];
+
+		for (int r = 0; r < relationCount; r++)
+		{
+			int s = relations[r * 3];
+			int t = relations[r * 3 + 1];
+			inCount[t]++;
+			outCount[s]++;
+			if (!relationDirected[r])
+			{
+				outCount[t]++;
+				inCount[s]++;
+			}
+		}
+
+		incoming = new long[n][];
+		outgoing = new long[n][];
+		for (int v = 0; v < n; v++)
+		{
+			incoming[v] = new long[inCount[v]];
+			outgoing[v] = new long[outCount[v]];
+		}
+
+		Arrays.fill(inCount, 0);
+		Arrays.fill(outCount, 0);
+
+		for (int r = 0; r < relationCount; r++)
+		{
+			int s = relations[r * 3];
+			int t = relations[r * 3 + 1];
+			long type = (long) relations[r * 3 + 2] << 32;
+
+			incoming[t][inCount[t]++] = type | nameIds[s];
+			outgoing[s][outCount[s]++] = type | nameIds[t];
+			if (!relationDirected[r])
+			{
+				outgoing[t][outCount[t]++] = type | nameIds[s];
+				incoming[s][inCount[s]++] = type | nameIds[t];
+			}
+		}
+
+		for (int v = 0; v < n; v++)
+		{
+			incoming[v] = sortDistinct(incoming[v]);
+			outgoing[v] = sortDistinct(outgoing[v]);
+		}
+	}
+
+	private static long[] sortDistinct(long[] pairs)
+	{
+		if (pairs.length < 2) return pairs;
+
+		Arrays.sort(pairs);
+		int size = 1;
+		for (int i = 1; i < pairs.length; i++)
+		{
+			if (pairs[i] != pairs[size - 1]) pairs[size++] = pairs[i];
+		}
+		return size == pairs.length ? pairs : Arrays.copyOf(pairs, size);
+	}
+
+	/**
+	 * Lists the ids of each key in ascending order, in compressed rows.
+	 */
+	private static int[] collect(int[] keys, int keyCount, int[] offsets)
+	{
+		for (int key : keys) offsets[key + 1]++;
+		for (int i = 0; i < keyCount; i++) offsets[i + 1] += offsets[i];
+
+		int[] fill = Arrays.copyOf(offsets, keyCount);
+		int[] items = new int[keys.length];
+		for (int i = 0; i < keys.length; i++) items[fill[keys[i]]++] = i;
+		return items;
+	}
+
+	/**
+	 * Checks if the two nodes are similar although their relations are not the same. This is the
+	 * case when the relations that are not common are with each other, with the same types.
+	 */
+	private boolean similarByMutualRelations(int v, int u)
+	{
+		return incoming[v].length == incoming[u].length &&
+			outgoing[v].length == outgoing[u].length &&
+			differOnlyByMutual(incoming[v], incoming[u], nameIds[v], nameIds[u]) &&
+			differOnlyByMutual(outgoing[v], outgoing[u], nameIds[v], nameIds[u]);
+	}
+
+	/**
+	 * Checks if the pairs that are only in the first array are relations with the second node, and
+	 * the pairs only in the second array are relations with the first node, having the same types.
+	 */
+	private static boolean differOnlyByMutual(long[] pairs1, long[] pairs2, int name1, int name2)
+	{
+		int[] types1 = new int[pairs1.length];
+		int[] types2 = new int[pairs2.length];
+		int size1 = 0;
+		int size2 = 0;
+
+		int i = 0;
+		int j = 0;
+		while (i < pairs1.length || j < pairs2.length)
+		{
+			if (j == pairs2.length || (i < pairs1.length && pairs1[i] < pairs2[j]))
+			{
+				if ((int) pairs1[i] != name2) return false;
+				types1[size1++] = (int) (pairs1[i++] >>> 32);
+			}
+			else if (i == pairs1.length || pairs2[j] < pairs1[i])
+			{
+				if ((int) pairs2[j] != name1) return false;
+				types2[size2++] = (int) (pairs2[j++] >>> 32);
+			}
+			else
+			{
+				i++;
+				j++;
+			}
+		}
+
+		if (size1 != size2) return false;
+		for (int k = 0; k < size1; k++)
+		{
+			if (types1[k] != types2[k]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Disconnected groups of 2 and 3 are better not grouped for a better visualization.
+	 */
+	private boolean betterToSkipGrouping(int[] group)
+	{
+		if (group.length > 3) return false;
+
+		for (int k = 0; k < 2; k++)
+		{
+			for (long pair : k == 0 ? incoming[group[0]] : outgoing[group[0]])
+			{
+				boolean inside = false;
+				for (int member : group)
+				{
+					if (nameIds[member] == (int) pair) inside = true;
+				}
+				if (!inside) return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the group to the found groups if an equal group is not found before.
+	 */
+	private static boolean add(Map<Long, List<int[]>> found, int[] group)
+	{
+		long fingerprint = 1;
+		for (int member : group) fingerprint = mix(fingerprint, member);
+
+		List<int[]> list = found.get(fingerprint);
+		if (list == null)
+		{
+			list = new ArrayList<int[]>(1);
+			found.put(fingerprint, list);
+		}
+		else
+		{
+			for (int[] g : list)
+			{
+				if (Arrays.equals(g, group)) return false;
+			}
+		}
+		list.add(group);
+		return true;
+	}
+
+	private static long fingerprint(long[] in, long[] out)
+	{
+		long h = in.length;
+		for (long pair : in) h = mix(h, pair);
+		h = mix(h, out.length);
+		for (long pair : out) h = mix(h, pair);
+		return h;
+	}
+
+	private static long mix(long h, long value)
+	{
+		h = (h ^ value) * 0x9E3779B97F4A7C15L;
+		return h ^ (h >>> 29);
+	}
+}
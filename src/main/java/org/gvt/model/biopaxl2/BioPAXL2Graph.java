@@ -199,20 +199,20 @@ public class BioPAXL2Graph extends BioPAXGraph
 	{
 		assert biopaxModel != null;
 
-		boolean allLayedOut = true;
+		unplacedNodes = new HashSet<NodeModel>();
 
 		for (Object o : getNodes())
 		{
 			if (o instanceof BioPAXNode)
 			{
 				BioPAXNode node = (BioPAXNode) o;
-				allLayedOut = node.fetchLocation(pathwayRDFID) && allLayedOut;
+				if (!node.fetchLocation(pathwayRDFID)) unplacedNodes.add(node);
 			}
 			else if (o instanceof BioPAXCompoundNode &&
 				((BioPAXCompoundNode) o).getChildren().isEmpty())
 			{
 				BioPAXCompoundNode node = (BioPAXCompoundNode) o;
-				allLayedOut = node.fetchLocation(pathwayRDFID) && allLayedOut;
+				if (!node.fetchLocation(pathwayRDFID)) unplacedNodes.add(node);
 			}
 		}
 		for (Object o : getNodes())
@@ -222,7 +222,7 @@ public class BioPAXL2Graph extends BioPAXGraph
 				((CompoundModel) o).calculateSizeUp();
 			}
 		}
-		return allLayedOut;
+		return unplacedNodes.isEmpty();
 	}
 
 	public void recordLayout()
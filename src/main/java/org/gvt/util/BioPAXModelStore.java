@@ -0,0 +1,143 @@
+package org.gvt.util;
+
+import org.biopax.paxtools.io.SimpleIOHandler;
+import org.biopax.paxtools.model.BioPAXElement;
+import org.biopax.paxtools.model.Model;
+import org.biopax.paxtools.model.level3.RelationshipXref;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Keeps the BioPAX models of the local files that are queried, so that a file is parsed only
+ * once for consecutive queries. A model is read again when its file is modified. Relationship
+ * xrefs of each model are indexed by their ids, which is how the query actions find their seeds.
+ *
+ * Only a few models are kept, the least recently used one is dropped first. The models are shared
+ * by the queries, hence they should not be modified.
+ *
+ * @author Ozgun Babur
+ */
+public class BioPAXModelStore
+{
+	private static final Map<String, Entry> entries =
+		new LinkedHashMap<String, Entry>(4, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest)
+			{
+				return size() > MAX_MODELS;
+			}
+		};
+
+	/**
+	 * Gets the model in the given OWL file, parsing the file if it is not parsed before or modified
+	 * since then.
+	 */
+	public static synchronized Model getModel(String filename) throws IOException
+	{
+		File file = new File(filename).getCanonicalFile();
+		String key = file.getPath();
+
+		Entry entry = entries.get(key);
+
+		if (entry == null || !entry.isParsedFrom(file))
+		{
+			entries.remove(key);
+			entry = new Entry(file);
+			entries.put(key, entry);
+		}
+
+		return entry.model;
+	}
+
+	/**
+	 * Finds the relationship xrefs with the given ids in the model. Uses the index if the model is
+	 * in the store, scans the xrefs otherwise.
+	 */
+	public static Set<BioPAXElement> findRelationshipXrefs(Model model, Collection<String> ids)
+	{
+		Set<BioPAXElement> set = new HashSet<BioPAXElement>();
+
+		Map<String, List<RelationshipXref>> index = getIndex(model);
+
+		if (index != null)
+		{
+			for (String id : ids)
+			{
+				List<RelationshipXref> xrefs = index.get(id);
+				if (xrefs != null) set.addAll(xrefs);
+			}
+		}
+		else
+		{
+			for (RelationshipXref xref : model.getObjects(RelationshipXref.class))
+			{
+				if (ids.contains(xref.getId())) set.add(xref);
+			}
+		}
+
+		return set;
+	}
+
+	private static synchronized Map<String, List<RelationshipXref>> getIndex(Model model)
+	{
+		for (Entry entry : entries.values())
+		{
+			if (entry.model == model) return entry.xrefIndex;
+		}
+		return null;
+	}
+
+	/**
+	 * Model of a file, with the time stamp and size of the file when it is parsed.
+	 */
+	private static class Entry
+	{
+		long lastModified;
+		long length;
+		Model model;
+		Map<String, List<RelationshipXref>> xrefIndex;
+
+		Entry(File file) throws IOException
+		{
+			lastModified = file.lastModified();
+			length = file.length();
+
+			InputStream is = new BufferedInputStream(new FileInputStream(file));
+			try
+			{
+				model = new SimpleIOHandler().convertFromOWL(is);
+			}
+			finally
+			{
+				is.close();
+			}
+
+			xrefIndex = new HashMap<String, List<RelationshipXref>>();
+
+			for (RelationshipXref xref : model.getObjects(RelationshipXref.class))
+			{
+				if (xref.getId() == null) continue;
+
+				List<RelationshipXref> list = xrefIndex.get(xref.getId());
+				if (list == null)
+				{
+					list = new ArrayList<RelationshipXref>(1);
+					xrefIndex.put(xref.getId(), list);
+				}
+				list.add(xref);
+			}
+		}
+
+		boolean isParsedFrom(File file)
+		{
+			return file.lastModified() == lastModified && file.length() == length;
+		}
+	}
+
+	/**
+	 * Number of models to keep.
+	 */
+	private static final int MAX_MODELS = 2;
+}
@@ -0,0 +1,342 @@
+package org.gvt.util;
+
+import org.patika.mada.util.CancelledException;
+import org.patika.mada.util.ProgressMonitor;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Keeps the altered genes of each case of a study in a file under the portal cache directory.
+ * Alterations of all cases are fetched in one prefetch pass, then switching between the cases
+ * only needs a lookup, and works offline. Cases that are missing in the file can be added one by
+ * one.
+ *
+ * Each line of the file is a case, with tab delimited columns. The first column is the case ID,
+ * and the rest of the columns are the altered genes. Lines starting with # are comments, a
+ * prefetched file has a comment line that marks it.
+ *
+ * @author Ozgun Babur
+ */
+public class CaseAlterationStore
+{
+	private static final Map<String, CaseAlterationStore> stores =
+		new HashMap<String, CaseAlterationStore>();
+
+	private File file;
+
+	/**
+	 * Altered genes of the cases, in the order of the file. Null until the file is read.
+	 */
+	private Map<String, String[]> cases;
+
+	/**
+	 * Modification time of the file when it was read.
+	 */
+	private long lastModified;
+
+	/**
+	 * Tells if the read file was written by a prefetch.
+	 */
+	private boolean prefetched;
+
+	/**
+	 * Gets the store of the given study in the portal cache directory.
+	 * @param studyID cBioPortal ID of the study
+	 */
+	public static synchronized CaseAlterationStore get(String studyID)
+	{
+		CaseAlterationStore store = stores.get(studyID);
+
+		if (store == null)
+		{
+			store = new CaseAlterationStore(
+				new File(Conf.getPortalCacheDir() + studyID + FILE_SUFFIX));
+
+			stores.put(studyID, store);
+		}
+		return store;
+	}
+
+	/**
+	 * @param file the file to read and write, does not need to exist
+	 */
+	public CaseAlterationStore(File file)
+	{
+		this.file = file;
+	}
+
+	/**
+	 * Tells if the alterations are prefetched. A file that only has cases added one by one is not
+	 * prefetched.
+	 */
+	public synchronized boolean isPrefetched()
+	{
+		getCases();
+		return prefetched;
+	}
+
+	/**
+	 * Gets the altered genes of the case.
+	 * @return the altered genes, or null if the case is not in the store
+	 */
+	public synchronized Set<String> getAlteredGenes(String caseID)
+	{
+		String[] genes = getCases().get(caseID);
+		if (genes == null) return null;
+		return new HashSet<String>(Arrays.asList(genes));
+	}
+
+	/**
+	 * Gets the IDs of the cases in the store, in the order they are stored.
+	 */
+	public synchronized List<String> getCaseIDs()
+	{
+		return new ArrayList<String>(getCases().keySet());
+	}
+
+	private Map<String, String[]> getCases()
+	{
+		if (cases == null || lastModified != file.lastModified())
+		{
+			try
+			{
+				lastModified = file.lastModified();
+				prefetched = false;
+				cases = file.exists() ? read() : new LinkedHashMap<String, String[]>();
+			}
+			catch (IOException e)
+			{
+				e.printStackTrace();
+				prefetched = false;
+				cases = new LinkedHashMap<String, String[]>();
+			}
+		}
+		return cases;
+	}
+
+	/**
+	 * Adds the alterations of a single case to the store.
+	 */
+	public synchronized void add(String caseID, Set<String> genes) throws IOException
+	{
+		Map<String, String[]> map = getCases();
+		boolean header = !file.exists();
+
+		Writer writer = new BufferedWriter(new OutputStreamWriter(
+			new FileOutputStream(file, true), "UTF-8"));
+
+		try
+		{
+			if (header) writer.write(HEADER);
+			writeCase(writer, caseID, genes);
+		}
+		finally
+		{
+			writer.close();
+		}
+
+		map.put(caseID, genes.toArray(new String[genes.size()]));
+		lastModified = file.lastModified();
+	}
+
+	/**
+	 * Fetches the alterations of all the given cases, and replaces the file with them. Cases are
+	 * fetched concurrently. Cases that cannot be fetched are left out, so that they can be added
+	 * later. If too many cases cannot be fetched, the file is not changed and the study stays not
+	 * prefetched.
+	 * @param caseIDs cases of the study
+	 * @param fetcher gets the altered genes of a case, usually from the portal
+	 * @param monitor receives the progress, may be null
+	 * @return number of cases that could not be fetched
+	 * @throws IOException if more than the allowed ratio of the cases cannot be fetched
+	 */
+	public int prefetch(List<String> caseIDs, final Fetcher fetcher, ProgressMonitor monitor)
+		throws IOException
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(PREFETCH_THREADS);
+		Map<String, Future<Set<String>>> futures =
+			new LinkedHashMap<String, Future<Set<String>>>();
+
+		for (final String caseID : caseIDs)
+		{
+			futures.put(caseID, executor.submit(new Callable<Set<String>>()
+			{
+				public Set<String> call() throws Exception
+				{
+					return fetcher.fetch(caseID);
+				}
+			}));
+		}
+		executor.shutdown();
+
+		Map<String, Set<String>> fetched = new LinkedHashMap<String, Set<String>>();
+		int failed = 0;
+		Throwable cause = null;
+
+		try
+		{
+			for (String caseID : futures.keySet())
+			{
+				CancelledException.check(monitor);
+
+				if (monitor != null)
+				{
+					monitor.setProgress("Prefetching alterations of " + caseIDs.size() +
+						" cases", fetched.size() + failed, caseIDs.size());
+				}
+
+				try
+				{
+					fetched.put(caseID, futures.get(caseID).get());
+				}
+				catch (ExecutionException e)
+				{
+					if (cause == null) cause = e.getCause();
+					failed++;
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			throw new CancelledException();
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		if (failed > 0 && failed >= caseIDs.size() * MAX_FAILED_RATIO)
+		{
+			throw new IOException("Cannot fetch alterations of " + failed + " of " +
+				caseIDs.size() + " cases: " + cause, cause);
+		}
+
+		write(fetched);
+		return failed;
+	}
+
+	/**
+	 * Writes to a temporary file first, so that a failure does not leave a partial file.
+	 */
+	private synchronized void write(Map<String, Set<String>> fetched) throws IOException
+	{
+		File temp = File.createTempFile("alterations", ".tmp", file.getAbsoluteFile().
+			getParentFile());
+
+		Writer writer = new BufferedWriter(new OutputStreamWriter(
+			new FileOutputStream(temp), "UTF-8"));
+
+		try
+		{
+			writer.write(HEADER);
+			writer.write(PREFETCHED);
+			for (String caseID : fetched.keySet())
+			{
+				writeCase(writer, caseID, fetched.get(caseID));
+			}
+		}
+		finally
+		{
+			writer.close();
+		}
+
+		if ((file.exists() && !file.delete()) || !temp.renameTo(file))
+		{
+			temp.delete();
+			throw new IOException("Cannot replace " + file);
+		}
+
+		cases = null;
+	}
+
+	private static void writeCase(Writer writer, String caseID, Set<String> genes)
+		throws IOException
+	{
+		writer.write(caseID);
+		for (String gene : genes)
+		{
+			writer.write("\t");
+			writer.write(gene);
+		}
+		writer.write("\n");
+	}
+
+	private Map<String, String[]> read() throws IOException
+	{
+		Map<String, String[]> map = new LinkedHashMap<String, String[]>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+			new FileInputStream(file), "UTF-8"));
+
+		try
+		{
+			for (String line = reader.readLine(); line != null; line = reader.readLine())
+			{
+				if (line.equals(PREFETCHED.trim())) prefetched = true;
+				if (line.isEmpty() || line.startsWith("#")) continue;
+
+				String[] token = line.split("\t");
+				map.put(token[0], Arrays.copyOfRange(token, 1, token.length));
+			}
+		}
+		finally
+		{
+			reader.close();
+		}
+		return map;
+	}
+
+	/**
+	 * Gets the genes in the "gene" array of the JSON reply of the portal for the alterations of
+	 * a case.
+	 */
+	public static Set<String> parseGeneList(String json)
+	{
+		Set<String> genes = new HashSet<String>();
+
+		int i = json.indexOf("\"gene\"");
+		if (i < 0) return genes;
+
+		i = json.indexOf('[', i);
+		int end = json.indexOf(']', i);
+		if (i < 0 || end < 0) return genes;
+
+		while (true)
+		{
+			int start = json.indexOf('"', i + 1);
+			if (start < 0 || start > end) break;
+
+			i = json.indexOf('"', start + 1);
+			if (i < 0) break;
+
+			genes.add(json.substring(start + 1, i));
+		}
+		return genes;
+	}
+
+	/**
+	 * Gets the altered genes of a case.
+	 */
+	public interface Fetcher
+	{
+		Set<String> fetch(String caseID) throws IOException;
+	}
+
+	private static final String FILE_SUFFIX = ".case-alterations.txt";
+
+	private static final String HEADER = "# Case ID and its altered genes, tab delimited\n";
+
+	private static final String PREFETCHED = "# Prefetched\n";
+
+	/**
+	 * Prefetch is not kept if at least this ratio of the cases cannot be fetched, as the portal is
+	 * probably not reachable then.
+	 */
+	private static final double MAX_FAILED_RATIO = 0.5;
+
+	/**
+	 * Number of cases fetched at the same time.
+	 */
+	private static final int PREFETCH_THREADS = 4;
+}
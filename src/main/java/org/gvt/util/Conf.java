@@ -46,6 +46,8 @@ public enum Conf
 
 	public static final String CONVERT_INTERACTS_WITH_TO_IN_COMPLEX_WITH = "CONVERT_INTERACTS_WITH_TO_IN_COMPLEX_WITH";
 
+	public static final String IMAGE_EXPORT_SCALE = "IMAGE_EXPORT_SCALE";
+
 	public static final String CONF_FILENAME = "chibe-conf.txt";
 
 	private static String[] pathCandidate;
@@ -112,6 +114,7 @@ public enum Conf
 		s += SPREAD_DOUBLE_EDGES + " = true\n";
 
 		s += CONVERT_INTERACTS_WITH_TO_IN_COMPLEX_WITH + " = true\n";
+		s += IMAGE_EXPORT_SCALE + " = 1\n";
 		return s.trim();
 	}
 
@@ -0,0 +1,144 @@
+package org.gvt.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A set of genes, kept as a bitset over the ids of GeneSymbols. Membership is a bit test, and
+ * set operations work on whole words instead of hashing the symbols one by one.
+ *
+ * @author Ozgun Babur
+ */
+public class GeneSet
+{
+	private BitSet bits;
+
+	public GeneSet()
+	{
+		bits = new BitSet();
+	}
+
+	public GeneSet(Collection<String> symbols)
+	{
+		this();
+		for (String symbol : symbols)
+		{
+			add(symbol);
+		}
+	}
+
+	private GeneSet(BitSet bits)
+	{
+		this.bits = bits;
+	}
+
+	public void add(String symbol)
+	{
+		bits.set(GeneSymbols.getId(symbol));
+	}
+
+	public boolean contains(String symbol)
+	{
+		// Unknown symbols are not interned, they cannot be in any set
+		int id = GeneSymbols.findId(symbol);
+		return id >= 0 && bits.get(id);
+	}
+
+	public boolean contains(int id)
+	{
+		return bits.get(id);
+	}
+
+	public int size()
+	{
+		return bits.cardinality();
+	}
+
+	public boolean isEmpty()
+	{
+		return bits.isEmpty();
+	}
+
+	/**
+	 * Gets the genes that are in both sets.
+	 */
+	public GeneSet and(GeneSet other)
+	{
+		BitSet b = (BitSet) bits.clone();
+		b.and(other.bits);
+		return new GeneSet(b);
+	}
+
+	public boolean intersects(GeneSet other)
+	{
+		return bits.intersects(other.bits);
+	}
+
+	/**
+	 * Gets the symbols of the genes in the set.
+	 */
+	public Set<String> getSymbols()
+	{
+		Set<String> set = new HashSet<String>();
+		for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1))
+		{
+			set.add(GeneSymbols.getSymbol(id));
+		}
+		return set;
+	}
+
+	/**
+	 * Reads a gene set with one symbol per line. Empty lines and lines starting with # are
+	 * skipped. The stream is closed.
+	 */
+	public static GeneSet read(InputStream is) throws IOException
+	{
+		GeneSet set = new GeneSet();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(is, "UTF-8"));
+
+		try
+		{
+			for (String line = reader.readLine(); line != null; line = reader.readLine())
+			{
+				line = line.trim();
+				if (!line.isEmpty() && !line.startsWith("#")) set.add(line);
+			}
+		}
+		finally
+		{
+			reader.close();
+		}
+		return set;
+	}
+
+	/**
+	 * Reads a gene set from a resource file next to this class.
+	 * @return the set, or an empty set if the resource cannot be read
+	 */
+	public static GeneSet readResource(String name)
+	{
+		InputStream is = GeneSet.class.getResourceAsStream(name);
+
+		if (is == null)
+		{
+			System.err.println("Gene set resource not found: " + name);
+			return new GeneSet();
+		}
+
+		try
+		{
+			return read(is);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+			return new GeneSet();
+		}
+	}
+}
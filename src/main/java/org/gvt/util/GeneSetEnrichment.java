@@ -0,0 +1,350 @@
+package org.gvt.util;
+
+import java.util.*;
+
+/**
+ * Enrichment of a query gene list in a collection of gene sets, such as pathways or reactions.
+ *
+ * Genes of the sets are indexed, and each set is kept as an int bitset over the gene index. An
+ * inverted index from genes to sets is used to count the hits of a query, so that only the sets
+ * that share a gene with the query are scored. Other sets have a p-value of 1. Hypergeometric
+ * p-values are calculated with a table of log-factorials that is sized to the background, which
+ * is the union of all sets. The object is meant to be kept and queried with new gene lists.
+ *
+ * @author Ozgun Babur
+ */
+public class GeneSetEnrichment
+{
+	private Map<String, Integer> geneIndex;
+	private List<String> genes;
+
+	private List<String> setIds;
+	private List<String> setNames;
+	private List<int[]> setGenes;
+
+	/**
+	 * Bitsets of the sets, created at the first query.
+	 */
+	private int[][] bitsets;
+	private int[] setSizes;
+
+	/**
+	 * Sets of each gene, in compressed rows.
+	 */
+	private int[] geneSetOffsets;
+	private int[] geneSets;
+
+	/**
+	 * logFactorial[i] = ln(i!)
+	 */
+	private volatile double[] logFactorial;
+
+	public GeneSetEnrichment()
+	{
+		geneIndex = new HashMap<String, Integer>();
+		genes = new ArrayList<String>();
+		setIds = new ArrayList<String>();
+		setNames = new ArrayList<String>();
+		setGenes = new ArrayList<int[]>();
+	}
+
+	/**
+	 * Adds a gene set. Sets cannot be added after the first query.
+	 * @param id id of the set
+	 * @param name name of the set, may be null
+	 * @param members genes of the set
+	 * @return index of the set
+	 */
+	public int addSet(String id, String name, Collection<String> members)
+	{
+		if (bitsets != null) throw new IllegalStateException("Cannot add sets after querying.");
+
+		int[] ids = new int[members.size()];
+		int i = 0;
+		for (String gene : members)
+		{
+			Integer index = geneIndex.get(gene);
+			if (index == null)
+			{
+				index = genes.size();
+				geneIndex.put(gene, index);
+				genes.add(gene);
+			}
+			ids[i++] = index;
+		}
+
+		setIds.add(id);
+		setNames.add(name);
+		setGenes.add(ids);
+		return setIds.size() - 1;
+	}
+
+	public String getSetId(int set)
+	{
+		return setIds.get(set);
+	}
+
+	public String getSetName(int set)
+	{
+		return setNames.get(set);
+	}
+
+	/**
+	 * Creates the bitsets, the inverted index and the log-factorial table.
+	 */
+	private synchronized void prepare()
+	{
+		if (bitsets != null) return;
+
+		int words = (genes.size() + 31) >>> 5;
+		int[][] sets = new int[setGenes.size()][];
+		setSizes = new int[sets.length];
+
+		for (int s = 0; s < sets.length; s++)
+		{
+			sets[s] = new int[words];
+			for (int gene : setGenes.get(s))
+			{
+				sets[s][gene >>> 5] |= 1 << gene;
+			}
+			setSizes[s] = count(sets[s]);
+		}
+
+		// Inverted index
+
+		geneSetOffsets = new int[genes.size() + 1];
+		for (int[] set : sets)
+		{
+			for (int w = 0; w < set.length; w++)
+			{
+				for (int bits = set[w]; bits != 0; bits &= bits - 1)
+				{
+					geneSetOffsets[(w << 5) + Integer.numberOfTrailingZeros(bits) + 1]++;
+				}
+			}
+		}
+		for (int i = 0; i < genes.size(); i++)
+		{
+			geneSetOffsets[i + 1] += geneSetOffsets[i];
+		}
+
+		geneSets = new int[geneSetOffsets[genes.size()]];
+		int[] fill = Arrays.copyOf(geneSetOffsets, genes.size());
+		for (int s = 0; s < sets.length; s++)
+		{
+			for (int w = 0; w < words; w++)
+			{
+				for (int bits = sets[s][w]; bits != 0; bits &= bits - 1)
+				{
+					geneSets[fill[(w << 5) + Integer.numberOfTrailingZeros(bits)]++] = s;
+				}
+			}
+		}
+
+		setGenes = null;
+		ensureLogFactorial(genes.size());
+		bitsets = sets;
+	}
+
+	private synchronized void ensureLogFactorial(int n)
+	{
+		if (logFactorial != null && logFactorial.length > n) return;
+
+		double[] table = new double[n + 1];
+		for (int i = 2; i <= n; i++)
+		{
+			table[i] = table[i - 1] + Math.log(i);
+		}
+		logFactorial = table;
+	}
+
+	private static int count(int[] bits)
+	{
+		int c = 0;
+		for (int w : bits) c += Integer.bitCount(w);
+		return c;
+	}
+
+	/**
+	 * Calculates the enrichment of the query genes in each set.
+	 * @param query query genes
+	 */
+	public Result query(Collection<String> query)
+	{
+		prepare();
+
+		int[] queryBits = new int[(genes.size() + 31) >>> 5];
+		int[] hits = new int[bitsets.length];
+		int[] tested = new int[bitsets.length];
+		int testedCount = 0;
+
+		for (String gene : query)
+		{
+			Integer index = geneIndex.get(gene);
+			if (index == null || (queryBits[index >>> 5] & (1 << index)) != 0) continue;
+
+			queryBits[index >>> 5] |= 1 << index;
+
+			for (int i = geneSetOffsets[index]; i < geneSetOffsets[index + 1]; i++)
+			{
+				if (hits[geneSets[i]]++ == 0) tested[testedCount++] = geneSets[i];
+			}
+		}
+
+		// Query genes that are not in any set are counted in the query size, as they are sampled
+		// from the background as well
+		int querySize = query.size();
+
+		double[] pvals = new double[bitsets.length];
+		Arrays.fill(pvals, 1);
+
+		for (int i = 0; i < testedCount; i++)
+		{
+			int s = tested[i];
+			pvals[s] = calcEnrichmentPval(genes.size(), querySize, setSizes[s], hits[s]);
+		}
+
+		int[] hitSets = Arrays.copyOf(tested, testedCount);
+		Arrays.sort(hitSets);
+
+		return new Result(queryBits, hits, hitSets, pvals, getQVals(pvals, tested, testedCount));
+	}
+
+	/**
+	 * Calculates Benjamini-Hochberg q-values when only some of the p-values are less than 1.
+	 * @param pvals all p-values
+	 * @param tested indexes of the p-values that can be less than 1
+	 * @param testedCount number of the used elements in the tested array
+	 */
+	private static double[] getQVals(double[] pvals, int[] tested, int testedCount)
+	{
+		int n = pvals.length;
+
+		double[] sorted = new double[testedCount];
+		for (int i = 0; i < testedCount; i++)
+		{
+			sorted[i] = pvals[tested[i]];
+		}
+		Arrays.sort(sorted);
+
+		// The p-values of 1 come last in the sorted order, and they have the q-value 1
+
+		double[] sortedQ = new double[testedCount];
+		double min = 1;
+
+		for (int rank = testedCount; rank > 0; rank--)
+		{
+			min = Math.min(min, sorted[rank - 1] * n / rank);
+			sortedQ[rank - 1] = min;
+		}
+
+		double[] qvals = new double[n];
+		Arrays.fill(qvals, 1);
+		for (int i = 0; i < testedCount; i++)
+		{
+			qvals[tested[i]] = sortedQ[Arrays.binarySearch(sorted, pvals[tested[i]])];
+		}
+		return qvals;
+	}
+
+	/**
+	 * Calculates the probability of seeing the given overlap or a larger one by chance, when the
+	 * query and the set are drawn randomly from the background.
+	 * @param size size of the background
+	 * @param querySize number of query genes
+	 * @param setSize number of genes in the set
+	 * @param overlap number of query genes in the set
+	 */
+	public double calcEnrichmentPval(int size, int querySize, int setSize, int overlap)
+	{
+		if (overlap == 0) return 1;
+
+		// A query that is larger than the background covers it
+		querySize = Math.min(querySize, size);
+		ensureLogFactorial(size);
+
+		double total = logChoose(size, querySize);
+		double pval = 0;
+
+		for (int k = overlap; k <= Math.min(setSize, querySize); k++)
+		{
+			if (querySize - k > size - setSize) continue;
+			pval += Math.exp(logChoose(setSize, k) +
+				logChoose(size - setSize, querySize - k) - total);
+		}
+		return Math.min(pval, 1);
+	}
+
+	private double logChoose(int n, int k)
+	{
+		return logFactorial[n] - logFactorial[k] - logFactorial[n - k];
+	}
+
+	/**
+	 * Enrichment of a query.
+	 */
+	public class Result
+	{
+		private int[] queryBits;
+		private int[] hits;
+		private int[] hitSets;
+		private double[] pvals;
+		private double[] qvals;
+
+		Result(int[] queryBits, int[] hits, int[] hitSets, double[] pvals, double[] qvals)
+		{
+			this.queryBits = queryBits;
+			this.hits = hits;
+			this.hitSets = hitSets;
+			this.pvals = pvals;
+			this.qvals = qvals;
+		}
+
+		/**
+		 * Gets the number of query genes in the set.
+		 */
+		public int getHitCount(int set)
+		{
+			return hits[set];
+		}
+
+		/**
+		 * Gets the indexes of the sets that have at least one query gene, in ascending order.
+		 */
+		public int[] getHitSets()
+		{
+			return hitSets;
+		}
+
+		/**
+		 * Gets the query genes in the set, sorted.
+		 */
+		public List<String> getHitGenes(int set)
+		{
+			List<String> list = new ArrayList<String>(hits[set]);
+			int[] bits = bitsets[set];
+
+			for (int w = 0; w < bits.length; w++)
+			{
+				int hit = bits[w] & queryBits[w];
+				while (hit != 0)
+				{
+					list.add(genes.get((w << 5) + Integer.numberOfTrailingZeros(hit)));
+					hit &= hit - 1;
+				}
+			}
+			Collections.sort(list);
+			return list;
+		}
+
+		public double getPval(int set)
+		{
+			return pvals[set];
+		}
+
+		public double getQval(int set)
+		{
+			return qvals[set];
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package org.gvt.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Keeps the parsed gene set files, such as the pathway-to-gene and reaction-to-gene files, loaded
+ * across the invocations of the enrichment actions. A file is parsed again only when its
+ * modification time or size changes.
+ *
+ * Each line of a gene set file is a set, with tab delimited columns. The first column is the id
+ * of the set, optionally followed by a name column, and the rest of the columns are the genes.
+ * If there are multiple lines with the same id, the last one is used.
+ *
+ * @author Ozgun Babur
+ */
+public class GeneSetFileCache
+{
+	private static final Map<String, Entry> cache = new HashMap<String, Entry>();
+
+	/**
+	 * Gets the parsed gene sets in the file.
+	 * @param file the gene set file
+	 * @param hasNameColumn whether the second column is the name of the set
+	 * @param minSize minimum number of genes for a set to be used
+	 * @return gene sets, or null if the file cannot be read
+	 */
+	public static synchronized GeneSetEnrichment get(File file, boolean hasNameColumn, int minSize)
+	{
+		String key = file.getAbsolutePath() + "\t" + hasNameColumn + "\t" + minSize;
+
+		Entry entry = cache.get(key);
+
+		if (entry != null && entry.lastModified == file.lastModified() &&
+			entry.length == file.length())
+		{
+			return entry.sets;
+		}
+
+		cache.remove(key);
+
+		try
+		{
+			entry = new Entry();
+			entry.lastModified = file.lastModified();
+			entry.length = file.length();
+			entry.sets = read(file, hasNameColumn, minSize);
+			cache.put(key, entry);
+			return entry.sets;
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	private static GeneSetEnrichment read(File file, boolean hasNameColumn, int minSize)
+		throws IOException
+	{
+		int firstGene = hasNameColumn ? 2 : 1;
+
+		// Later lines replace the earlier ones with the same id
+		Map<String, String[]> lines = new LinkedHashMap<String, String[]>();
+		BufferedReader reader = new BufferedReader(new FileReader(file));
+
+		try
+		{
+			for (String line = reader.readLine(); line != null; line = reader.readLine())
+			{
+				String[] token = line.split("\t");
+				if (token.length - firstGene >= minSize) lines.put(token[0].split(" ")[0], token);
+			}
+		}
+		finally
+		{
+			reader.close();
+		}
+
+		GeneSetEnrichment sets = new GeneSetEnrichment();
+		for (String[] token : lines.values())
+		{
+			sets.addSet(token[0], hasNameColumn ? token[1] : null,
+				Arrays.asList(token).subList(firstGene, token.length));
+		}
+		return sets;
+	}
+
+	private static class Entry
+	{
+		long lastModified;
+		long length;
+		GeneSetEnrichment sets;
+	}
+}
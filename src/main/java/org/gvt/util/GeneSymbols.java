@@ -0,0 +1,68 @@
+package org.gvt.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary of gene symbols, shared by the whole application. Each symbol is given a dense int
+ * id when it is first seen, so that gene sets can be kept as bitsets over the ids, and compared
+ * without hashing strings. Ids are not persistent, they are valid only in the current session.
+ *
+ * @author Ozgun Babur
+ */
+public class GeneSymbols
+{
+	private static final Map<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+
+	/**
+	 * Symbols in the order of their ids. Guarded by the class lock.
+	 */
+	private static final List<String> symbols = new ArrayList<String>();
+
+	/**
+	 * Gets the id of the symbol, assigning a new id if the symbol is not seen before.
+	 */
+	public static int getId(String symbol)
+	{
+		Integer id = ids.get(symbol);
+		return id != null ? id : intern(symbol);
+	}
+
+	private static synchronized int intern(String symbol)
+	{
+		Integer id = ids.get(symbol);
+
+		if (id == null)
+		{
+			id = symbols.size();
+			symbols.add(symbol);
+			ids.put(symbol, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Gets the id of the symbol without assigning a new one.
+	 * @return the id, or -1 if the symbol is not seen before
+	 */
+	public static int findId(String symbol)
+	{
+		Integer id = ids.get(symbol);
+		return id != null ? id : -1;
+	}
+
+	public static synchronized String getSymbol(int id)
+	{
+		return symbols.get(id);
+	}
+
+	/**
+	 * Gets the number of symbols, which is also the upper bound of the ids.
+	 */
+	public static synchronized int size()
+	{
+		return symbols.size();
+	}
+}
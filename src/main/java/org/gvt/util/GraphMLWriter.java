@@ -1,19 +1,23 @@
 package org.gvt.util;
 
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.Iterator;
 
-import org.apache.xmlbeans.XmlString;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.RGB;
-import org.graphdrawing.graphml.xmlns.*;
 import org.gvt.model.*;
 import org.gvt.model.biopaxl2.Complex;
 import org.gvt.model.biopaxl3.ChbComplex;
 
 /**
- * GraphML writer class for saving graphml files
+ * GraphML writer class for saving graphml files. Nodes and edges are written to the stream while
+ * the model is traversed, without creating the document in memory.
  *
  * @author Cihan Kucukkececi
  *
@@ -23,175 +27,75 @@ public class GraphMLWriter
 {
 	HashMap hashMap = new HashMap();
 
-	GraphmlType newGraphml;
-
-	KeyType xKey;
-
-	KeyType yKey;
-
-	KeyType heightKey;
-
-	KeyType widthKey;
-
-	KeyType colorKey;
-
-	KeyType borderColorKey;
-
-	KeyType textKey;
-
-	KeyType textFontKey;
-
-	KeyType textColorKey;
-
-	KeyType shapeKey;
-
-	KeyType clusterIDKey;
-
-	KeyType marginKey;
-
-	KeyType arrowKey;
+	XMLStreamWriter xml;
 
-	KeyType styleKey;
-
-	KeyType bendpointKey;
-
-	KeyType highlightColorKey;
+	/**
+	 * Depth of the current element, for indentation.
+	 */
+	int depth;
 
 	// margin of the graph
 	int marginSize = -1;
 
 	boolean writeComplexMembers = false;
 
-	public Object writeXMLFile(CompoundModel root)
+	/**
+	 * Writes the graph in GraphML format. The writer is not closed.
+	 *
+	 * @param root root of the graph to write
+	 * @param out where to write
+	 */
+	public void write(CompoundModel root, Writer out) throws XMLStreamException
 	{
-		// create a new graphml file
-		GraphmlDocument newGraphmlDoc = GraphmlDocument.Factory.newInstance();
-		newGraphml = newGraphmlDoc.addNewGraphml();
+		xml = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+
+		xml.writeStartDocument("UTF-8", "1.0");
+		startElement("graphml");
+		xml.writeDefaultNamespace(NAMESPACE);
 
 		// define the keys that will be used in xml file
-		xKey = newGraphml.addNewKey();
-		xKey.setId("x");
-		xKey.setFor(KeyForType.NODE);
-		xKey.setAttrName("x");
-		xKey.setAttrType(KeyTypeType.INT);
-
-		yKey = newGraphml.addNewKey();
-		yKey.setId("y");
-		yKey.setFor(KeyForType.NODE);
-		yKey.setAttrName("y");
-		yKey.setAttrType(KeyTypeType.INT);
-
-		heightKey = newGraphml.addNewKey();
-		heightKey.setId("height");
-		heightKey.setFor(KeyForType.NODE);
-		heightKey.setAttrName("height");
-		heightKey.setAttrType(KeyTypeType.INT);
-
-		widthKey = newGraphml.addNewKey();
-		widthKey.setId("width");
-		widthKey.setFor(KeyForType.NODE);
-		widthKey.setAttrName("width");
-		widthKey.setAttrType(KeyTypeType.INT);
-
-		shapeKey = newGraphml.addNewKey();
-		shapeKey.setId("shape");
-		shapeKey.setFor(KeyForType.NODE);
-		shapeKey.setAttrName("shape");
-		shapeKey.setAttrType(KeyTypeType.STRING);
-
-		clusterIDKey = newGraphml.addNewKey();
-		clusterIDKey.setId("clusterID");
-		clusterIDKey.setFor(KeyForType.NODE);
-		clusterIDKey.setAttrName("clusterID");
-		clusterIDKey.setAttrType(KeyTypeType.STRING);
-
-		marginKey = newGraphml.addNewKey();
-		marginKey.setId("margin");
-		marginKey.setFor(KeyForType.GRAPH);
-		marginKey.setAttrName("margin");
-		marginKey.setAttrType(KeyTypeType.INT);
-
-		styleKey = newGraphml.addNewKey();
-		styleKey.setId("style");
-		styleKey.setFor(KeyForType.EDGE);
-		styleKey.setAttrName("style");
-		styleKey.setAttrType(KeyTypeType.STRING);
-
-		arrowKey = newGraphml.addNewKey();
-		arrowKey.setId("arrow");
-		arrowKey.setFor(KeyForType.EDGE);
-		arrowKey.setAttrName("arrow");
-		arrowKey.setAttrType(KeyTypeType.STRING);
-
-		bendpointKey = newGraphml.addNewKey();
-		bendpointKey.setId("bendpoint");
-		bendpointKey.setFor(KeyForType.EDGE);
-		bendpointKey.setAttrName("bendpoint");
-		bendpointKey.setAttrType(KeyTypeType.STRING);
-
-		colorKey = newGraphml.addNewKey();
-		colorKey.setId("color");
-		colorKey.setFor(KeyForType.ALL);
-		colorKey.setAttrName("color");
-		colorKey.setAttrType(KeyTypeType.STRING);
-
-		borderColorKey = newGraphml.addNewKey();
-		borderColorKey.setId("borderColor");
-		borderColorKey.setFor(KeyForType.ALL);
-		borderColorKey.setAttrName("borderColor");
-		borderColorKey.setAttrType(KeyTypeType.STRING);
-
-		textKey = newGraphml.addNewKey();
-		textKey.setId("text");
-		textKey.setFor(KeyForType.ALL);
-		textKey.setAttrName("text");
-		textKey.setAttrType(KeyTypeType.STRING);
-
-		textFontKey = newGraphml.addNewKey();
-		textFontKey.setId("textFont");
-		textFontKey.setFor(KeyForType.ALL);
-		textFontKey.setAttrName("textFont");
-		textFontKey.setAttrType(KeyTypeType.STRING);
-
-		textColorKey = newGraphml.addNewKey();
-		textColorKey.setId("textColor");
-		textColorKey.setFor(KeyForType.ALL);
-		textColorKey.setAttrName("textColor");
-		textColorKey.setAttrType(KeyTypeType.STRING);
-
-		highlightColorKey = newGraphml.addNewKey();
-		highlightColorKey.setId("highlightColor");
-		highlightColorKey.setFor(KeyForType.ALL);
-		highlightColorKey.setAttrName("highlightColor");
-		highlightColorKey.setAttrType(KeyTypeType.STRING);
-
-		// create a new graph with our root node recursively
-		GraphType newGraph = newGraphml.addNewGraph();
-		createTree(newGraph, root, "");
-
-		return newGraphmlDoc;
+		writeKey(X_KEY, "node", "int");
+		writeKey(Y_KEY, "node", "int");
+		writeKey(HEIGHT_KEY, "node", "int");
+		writeKey(WIDTH_KEY, "node", "int");
+		writeKey(SHAPE_KEY, "node", "string");
+		writeKey(CLUSTER_ID_KEY, "node", "string");
+		writeKey(MARGIN_KEY, "graph", "int");
+		writeKey(STYLE_KEY, "edge", "string");
+		writeKey(ARROW_KEY, "edge", "string");
+		writeKey(BENDPOINT_KEY, "edge", "string");
+		writeKey(COLOR_KEY, "all", "string");
+		writeKey(BORDER_COLOR_KEY, "all", "string");
+		writeKey(TEXT_KEY, "all", "string");
+		writeKey(TEXT_FONT_KEY, "all", "string");
+		writeKey(TEXT_COLOR_KEY, "all", "string");
+		writeKey(HIGHLIGHT_COLOR_KEY, "all", "string");
+
+		// write the graph with our root node recursively
+		writeTree(root, "");
+
+		endElement();
+		xml.writeCharacters("\n");
+		xml.writeEndDocument();
+		xml.flush();
 	}
 
 	/**
-	 * create the graphml structure from chisio model recursively
+	 * write the graphml structure from chisio model recursively
 	 *
-	 * @param rootGraph
 	 * @param root
 	 * @param graphId
 	 */
-	public void createTree(
-		GraphType rootGraph,
-		CompoundModel root,
-		String graphId
-	)
+	public void writeTree(CompoundModel root, String graphId) throws XMLStreamException
 	{
-		// set root graph properties
-		rootGraph.setId(graphId);
-		rootGraph.setEdgedefault(GraphEdgedefaultType.UNDIRECTED);
+		// write root graph properties
+		startElement("graph");
+		xml.writeAttribute("id", graphId);
+		xml.writeAttribute("edgedefault", "undirected");
 
 		if (!isReducedComplex(root))
 		{
-			// create child nodes for this graph
+			// write child nodes for this graph
 			Iterator iter = root.getChildren().iterator();
 			int i = 0;
 
@@ -201,11 +105,11 @@ public class GraphMLWriter
 				String id = graphId + "n" + i;
 				hashMap.put(model, id);
 
-				// create the node in graphml file
-				NodeType newNode = rootGraph.addNewNode();
-				newNode.setId(id);
+				// write the node in graphml file
+				startElement("node");
+				xml.writeAttribute("id", id);
 
-				if (createNode(newNode, model))
+				if (writeNode(model))
 				{
 					// if node is a compound node than margin property must be added
 					if (marginSize < 0)
@@ -213,15 +117,16 @@ public class GraphMLWriter
 						marginSize = CompoundModel.MARGIN_SIZE;
 					}
 
-					DataType marginData = rootGraph.addNewData();
-					marginData.setKey(marginKey.getId());
-					marginData.set(XmlString.Factory.newValue("" + marginSize));
+					// Also the subgraph of this compound node must be written
+					writeTree((CompoundModel) model, id + ":");
+
+					endElement();
 
-					// Also the subgraph of this compound node must be created
-					GraphType newGraph = newNode.addNewGraph();
-					createTree(newGraph,
-						(CompoundModel) model,
-						newNode.getId() + ":");
+					writeData(MARGIN_KEY, "" + marginSize);
+				}
+				else
+				{
+					endElement();
 				}
 
 				i++;
@@ -230,7 +135,7 @@ public class GraphMLWriter
 
 		if (graphId.equals(""))
 		{
-			// create edges in graphml file
+			// write edges in graphml file
 			int i = 0;
 			Iterator edgeIter =
 				root.getEdgeIterator(CompoundModel.ALL_EDGES, true, false);
@@ -240,88 +145,52 @@ public class GraphMLWriter
 				EdgeModel model = (EdgeModel) edgeIter.next();
 				String id = graphId + "e" + i;
 
-				// create an edge
-				EdgeType newEdge = rootGraph.addNewEdge();
-				newEdge.setId(id);
-				newEdge.setSource((String) hashMap.get(model.getSource()));
-				newEdge.setTarget((String) hashMap.get(model.getTarget()));
+				// write an edge
+				startElement("edge");
+				xml.writeAttribute("id", id);
+				xml.writeAttribute("source", (String) hashMap.get(model.getSource()));
+				xml.writeAttribute("target", (String) hashMap.get(model.getTarget()));
+
+				writeEdge(model);
 
-				createEdge(newEdge, model);
+				endElement();
 
 				i++;
 			}
 		}
 
 		// also add margin property for this graph at the end
-		DataType marginData = rootGraph.addNewData();
-		marginData.setKey(marginKey.getId());
-		marginData.set(XmlString.Factory.newValue("" + marginSize));
+		writeData(MARGIN_KEY, "" + marginSize);
+
+		endElement();
 	}
 
-	public boolean createNode(NodeType newNode, NodeModel model)
+	/**
+	 * Writes the properties of the node.
+	 * @return true if the node is written as a compound node, whose subgraph should be written
+	 */
+	public boolean writeNode(NodeModel model) throws XMLStreamException
 	{
 		// write properties of this node into graphml file
-		DataType xData = newNode.addNewData();
-		xData.setKey(xKey.getId());
-		xData.set(XmlString.Factory.newValue(
-			"" + ((NodeModel) model).getConstraint().x));
-
-		DataType yData = newNode.addNewData();
-		yData.setKey(yKey.getId());
-		yData.set(XmlString.Factory.newValue(
-			"" + ((NodeModel) model).getConstraint().y));
-
-		DataType heightData = newNode.addNewData();
-		heightData.setKey(heightKey.getId());
-		heightData.set(XmlString.Factory.newValue(
-			"" + ((NodeModel) model).getConstraint().height));
-
-		DataType widthData = newNode.addNewData();
-		widthData.setKey(widthKey.getId());
-		widthData.set(XmlString.Factory.newValue(
-			"" + ((NodeModel) model).getConstraint().width));
-
-		DataType colorData = newNode.addNewData();
-		colorData.setKey(colorKey.getId());
-		RGB rgb = model.getColor().getRGB();
-		colorData.set(XmlString.Factory.newValue(rgb.red + " " +
-			rgb.green + " " + rgb.blue));
-
-		DataType borderColorData = newNode.addNewData();
-		borderColorData.setKey(borderColorKey.getId());
-		rgb = ((NodeModel) model).getBorderColor().getRGB();
-		borderColorData.set(XmlString.Factory.newValue(rgb.red + " " +
-			rgb.green + " " + rgb.blue));
-
-		DataType textData = newNode.addNewData();
-		textData.setKey(textKey.getId());
-		textData.set(XmlString.Factory.newValue(model.getText()));
-
-		DataType textFontData = newNode.addNewData();
-		textFontData.setKey(textFontKey.getId());
-		Font f = model.getTextFont();
-		textFontData.set(XmlString.Factory.newValue(
-			f.getFontData()[0].toString()));
+		writeData(X_KEY, "" + model.getConstraint().x);
+		writeData(Y_KEY, "" + model.getConstraint().y);
+		writeData(HEIGHT_KEY, "" + model.getConstraint().height);
+		writeData(WIDTH_KEY, "" + model.getConstraint().width);
+		writeData(COLOR_KEY, toString(model.getColor().getRGB()));
+		writeData(BORDER_COLOR_KEY, toString(model.getBorderColor().getRGB()));
+		writeData(TEXT_KEY, model.getText());
 
-		DataType textColorData = newNode.addNewData();
-		textColorData.setKey(textColorKey.getId());
-		rgb = model.getTextColor().getRGB();
-		textColorData.set(XmlString.Factory.newValue(rgb.red + " " +
-			rgb.green + " " + rgb.blue));
+		Font f = model.getTextFont();
+		writeData(TEXT_FONT_KEY, f.getFontData()[0].toString());
 
-		DataType clusterIDData = newNode.addNewData();
-		clusterIDData.setKey(clusterIDKey.getId());
-		clusterIDData.set(XmlString.Factory.newValue(
-			"" + ((NodeModel) model).getClusterIDs()));
+		writeData(TEXT_COLOR_KEY, toString(model.getTextColor().getRGB()));
+		writeData(CLUSTER_ID_KEY, "" + model.getClusterIDs());
 
 		if (model.isHighlight())
 		{
-			DataType highlightColorData = newNode.addNewData();
-			highlightColorData.setKey(highlightColorKey.getId());
 			Color highlightColor = model.getHighlightColor();
-			rgb = highlightColor != null ? highlightColor.getRGB() : new RGB(255, 255, 0);
-			highlightColorData.set(XmlString.Factory.
-				newValue(rgb.red + " " + rgb.green + " " + rgb.blue));
+			RGB rgb = highlightColor != null ? highlightColor.getRGB() : new RGB(255, 255, 0);
+			writeData(HIGHLIGHT_COLOR_KEY, toString(rgb));
 		}
 
 		if (model instanceof CompoundModel && !isReducedComplex(model))
@@ -331,9 +200,7 @@ public class GraphMLWriter
 		else
 		{
 			// if node is a simple node, than write shape property
-			DataType shapeData = newNode.addNewData();
-			shapeData.setKey(shapeKey.getId());
-			shapeData.set(XmlString.Factory.newValue(model.getShape()));
+			writeData(SHAPE_KEY, model.getShape());
 		}
 
 		return false;
@@ -345,64 +212,95 @@ public class GraphMLWriter
 			(model instanceof ChbComplex || model instanceof Complex);
 	}
 
-	public void createEdge(EdgeType newEdge, EdgeModel model)
+	public void writeEdge(EdgeModel model) throws XMLStreamException
 	{
 		// write edge's properties into file
-		DataType colorData = newEdge.addNewData();
-		colorData.setKey(colorKey.getId());
-		RGB rgb = model.getColor().getRGB();
-		colorData.set(XmlString.Factory.newValue(rgb.red + " " +
-			rgb.green + " " + rgb.blue));
-
-		DataType textData = newEdge.addNewData();
-		textData.setKey(textKey.getId());
-		textData.set(XmlString.Factory.newValue(model.getText()));
-
-		DataType textFontData = newEdge.addNewData();
-		textFontData.setKey(textFontKey.getId());
-		Font f = model.getTextFont();
-		textFontData.set(XmlString.Factory.newValue(
-			f.getFontData()[0].toString()));
+		writeData(COLOR_KEY, toString(model.getColor().getRGB()));
+		writeData(TEXT_KEY, model.getText());
 
-		DataType textColorData = newEdge.addNewData();
-		textColorData.setKey(textColorKey.getId());
-		rgb = model.getTextColor().getRGB();
-		textColorData.set(XmlString.Factory.newValue(rgb.red + " " +
-			rgb.green + " " + rgb.blue));
+		Font f = model.getTextFont();
+		writeData(TEXT_FONT_KEY, f.getFontData()[0].toString());
 
-		DataType styleData = newEdge.addNewData();
-		styleData.setKey(styleKey.getId());
-		styleData.set(XmlString.Factory.
-			newValue(model.getStyle()));
+		writeData(TEXT_COLOR_KEY, toString(model.getTextColor().getRGB()));
+		writeData(STYLE_KEY, model.getStyle());
+		writeData(ARROW_KEY, model.getArrow());
 
-		DataType arrowData = newEdge.addNewData();
-		arrowData.setKey(arrowKey.getId());
-		arrowData.set(XmlString.Factory.
-			newValue(model.getArrow()));
+		for (Object bendpoint : model.getBendpoints())
+		{
+			writeData(BENDPOINT_KEY, bendpoint.toString());
+		}
 
-		Iterator<EdgeBendpoint> bendpointIter =
-			model.getBendpoints().iterator();
+		writeData(WIDTH_KEY, "" + model.getWidth());
 
-		while (bendpointIter.hasNext())
+		if (model.isHighlight())
 		{
-			DataType bendpointData = newEdge.addNewData();
-			bendpointData.setKey(bendpointKey.getId());
-			bendpointData.set(XmlString.Factory.
-				newValue(bendpointIter.next().toString()));
+			writeData(HIGHLIGHT_COLOR_KEY, toString(model.getHighlightColor().getRGB()));
 		}
+	}
 
-		DataType widthData = newEdge.addNewData();
-		widthData.setKey(widthKey.getId());
-		widthData.set(XmlString.Factory.
-			newValue("" + model.getWidth()));
+	private String toString(RGB rgb)
+	{
+		return rgb.red + " " + rgb.green + " " + rgb.blue;
+	}
 
-		if (model.isHighlight())
+	private void writeKey(String id, String forType, String attrType) throws XMLStreamException
+	{
+		indent();
+		xml.writeEmptyElement("key");
+		xml.writeAttribute("id", id);
+		xml.writeAttribute("for", forType);
+		xml.writeAttribute("attr.name", id);
+		xml.writeAttribute("attr.type", attrType);
+	}
+
+	private void writeData(String key, String value) throws XMLStreamException
+	{
+		indent();
+		xml.writeStartElement("data");
+		xml.writeAttribute("key", key);
+		if (value != null) xml.writeCharacters(value);
+		xml.writeEndElement();
+	}
+
+	private void startElement(String name) throws XMLStreamException
+	{
+		indent();
+		xml.writeStartElement(name);
+		depth++;
+	}
+
+	private void endElement() throws XMLStreamException
+	{
+		depth--;
+		indent();
+		xml.writeEndElement();
+	}
+
+	private void indent() throws XMLStreamException
+	{
+		xml.writeCharacters("\n");
+		for (int i = 0; i < depth; i++)
 		{
-			DataType highlightColorData = newEdge.addNewData();
-			highlightColorData.setKey(highlightColorKey.getId());
-			rgb = model.getHighlightColor().getRGB();
-			highlightColorData.set(XmlString.Factory.
-				newValue(rgb.red + " " + rgb.green + " " + rgb.blue));
+			xml.writeCharacters("  ");
 		}
 	}
+
+	private static final String NAMESPACE = "http://graphml.graphdrawing.org/xmlns";
+
+	private static final String X_KEY = "x";
+	private static final String Y_KEY = "y";
+	private static final String HEIGHT_KEY = "height";
+	private static final String WIDTH_KEY = "width";
+	private static final String SHAPE_KEY = "shape";
+	private static final String CLUSTER_ID_KEY = "clusterID";
+	private static final String MARGIN_KEY = "margin";
+	private static final String STYLE_KEY = "style";
+	private static final String ARROW_KEY = "arrow";
+	private static final String BENDPOINT_KEY = "bendpoint";
+	private static final String COLOR_KEY = "color";
+	private static final String BORDER_COLOR_KEY = "borderColor";
+	private static final String TEXT_KEY = "text";
+	private static final String TEXT_FONT_KEY = "textFont";
+	private static final String TEXT_COLOR_KEY = "textColor";
+	private static final String HIGHLIGHT_COLOR_KEY = "highlightColor";
 }
@@ -0,0 +1,503 @@
+package org.gvt.util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * Read-only view of a SIF network stored in a binary file, which is memory-mapped. Opening the
+ * file only reads its header and section positions, and the pages of the file are shared between
+ * the processes that map it.
+ *
+ * The file has the following sections, all in big-endian ints unless noted.
+ * <pre>
+ * MAGIC, VERSION, source length (long), source last modified (long)
+ * node count n, symbol offsets [n+1], symbol bytes (UTF-8, padded to 4)
+ * type count, then for each type:
+ *   tag length, tag bytes (padded to 4), directed (0 or 1), edge count e,
+ *   sources [e], targets [e] (edges are sorted by source),
+ *   out offsets [n+1], in offsets [n+1], in edges [e],
+ *   mediator offsets [e+1], mediator bytes (UTF-8, padded to 4)
+ * </pre>
+ * Out offsets index the edge ids directly, in offsets index the in edges array.
+ *
+ * @author Ozgun Babur
+ */
+public class MappedSIFNetwork
+{
+	private MappedByteBuffer buffer;
+
+	private long sourceLength;
+	private long sourceModified;
+
+	private int nodeCount;
+	private IntBuffer symbolOffsets;
+	private int symbolStart;
+
+	private String[] tags;
+	private boolean[] directed;
+	private int[] edgeCounts;
+	private IntBuffer[] sources;
+	private IntBuffer[] targets;
+	private IntBuffer[] outOffsets;
+	private IntBuffer[] inOffsets;
+	private IntBuffer[] inEdges;
+	private IntBuffer[] mediatorOffsets;
+	private int[] mediatorStarts;
+
+	/**
+	 * Symbol to id map, created on first lookup.
+	 */
+	private Map<String, Integer> symbolIndex;
+
+	//----------------------------------------------------------------------------------------------
+	// Section: Reading
+	//----------------------------------------------------------------------------------------------
+
+	private MappedSIFNetwork(MappedByteBuffer buffer) throws IOException
+	{
+		this.buffer = buffer;
+
+		if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+		{
+			throw new IOException("Not a SIF cache file of the current version.");
+		}
+
+		sourceLength = buffer.getLong();
+		sourceModified = buffer.getLong();
+
+		nodeCount = buffer.getInt();
+		symbolOffsets = intSection(nodeCount + 1);
+		symbolStart = buffer.position();
+		skipBytes(symbolOffsets.get(nodeCount));
+
+		int typeCount = buffer.getInt();
+		tags = new String[typeCount];
+		directed = new boolean[typeCount];
+		edgeCounts = new int[typeCount];
+		sources = new IntBuffer[typeCount];
+		targets = new IntBuffer[typeCount];
+		outOffsets = new IntBuffer[typeCount];
+		inOffsets = new IntBuffer[typeCount];
+		inEdges = new IntBuffer[typeCount];
+		mediatorOffsets = new IntBuffer[typeCount];
+		mediatorStarts = new int[typeCount];
+
+		for (int t = 0; t < typeCount; t++)
+		{
+			int length = buffer.getInt();
+			tags[t] = decode(buffer.position(), length);
+			skipBytes(length);
+
+			directed[t] = buffer.getInt() != 0;
+			int e = edgeCounts[t] = buffer.getInt();
+
+			sources[t] = intSection(e);
+			targets[t] = intSection(e);
+			outOffsets[t] = intSection(nodeCount + 1);
+			inOffsets[t] = intSection(nodeCount + 1);
+			inEdges[t] = intSection(e);
+			mediatorOffsets[t] = intSection(e + 1);
+			mediatorStarts[t] = buffer.position();
+			skipBytes(mediatorOffsets[t].get(e));
+		}
+	}
+
+	/**
+	 * Maps the given cache file.
+	 */
+	public static MappedSIFNetwork open(File file) throws IOException
+	{
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+
+		try
+		{
+			FileChannel channel = raf.getChannel();
+			return new MappedSIFNetwork(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+		catch (RuntimeException e)
+		{
+			// Buffer underflows of a truncated file end up here
+			throw new IOException("Cannot read SIF cache file " + file, e);
+		}
+		finally
+		{
+			// The mapping stays valid after the channel is closed
+			raf.close();
+		}
+	}
+
+	private IntBuffer intSection(int size)
+	{
+		ByteBuffer b = buffer.duplicate();
+		b.position(buffer.position());
+		b.limit(buffer.position() + size * 4);
+		buffer.position(b.limit());
+		return b.slice().asIntBuffer();
+	}
+
+	private void skipBytes(int length)
+	{
+		buffer.position(buffer.position() + pad(length));
+	}
+
+	private String decode(int position, int length)
+	{
+		byte[] b = new byte[length];
+		ByteBuffer dup = buffer.duplicate();
+		dup.position(position);
+		dup.get(b);
+
+		try
+		{
+			return new String(b, ENCODING);
+		}
+		catch (UnsupportedEncodingException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	//----------------------------------------------------------------------------------------------
+	// Section: Accessors
+	//----------------------------------------------------------------------------------------------
+
+	/**
+	 * Checks if this network is built from the current version of the given text file.
+	 */
+	public boolean isBuiltFrom(File source)
+	{
+		return source.length() == sourceLength && source.lastModified() == sourceModified;
+	}
+
+	public int getNodeCount()
+	{
+		return nodeCount;
+	}
+
+	public String getSymbol(int id)
+	{
+		int start = symbolOffsets.get(id);
+		return decode(symbolStart + start, symbolOffsets.get(id + 1) - start);
+	}
+
+	/**
+	 * Gets the id of the symbol, or -1 if the symbol is not in the network.
+	 */
+	public synchronized int getId(String symbol)
+	{
+		if (symbolIndex == null)
+		{
+			symbolIndex = new HashMap<String, Integer>(nodeCount * 2);
+			for (int i = 0; i < nodeCount; i++)
+			{
+				symbolIndex.put(getSymbol(i), i);
+			}
+		}
+
+		Integer id = symbolIndex.get(symbol);
+		return id == null ? -1 : id;
+	}
+
+	public int getTypeCount()
+	{
+		return tags.length;
+	}
+
+	/**
+	 * Gets the index of the relation type with the given tag, or -1 if the network does not have
+	 * it.
+	 */
+	public int getType(String tag)
+	{
+		for (int t = 0; t < tags.length; t++)
+		{
+			if (tags[t].equals(tag)) return t;
+		}
+		return -1;
+	}
+
+	public String getTag(int type)
+	{
+		return tags[type];
+	}
+
+	public boolean isDirected(int type)
+	{
+		return directed[type];
+	}
+
+	public int getEdgeCount(int type)
+	{
+		return edgeCounts[type];
+	}
+
+	public int getSource(int type, int edge)
+	{
+		return sources[type].get(edge);
+	}
+
+	public int getTarget(int type, int edge)
+	{
+		return targets[type].get(edge);
+	}
+
+	/**
+	 * Outgoing edges of the node are the ones from this offset to the offset of the next node.
+	 */
+	public int getOutOffset(int type, int node)
+	{
+		return outOffsets[type].get(node);
+	}
+
+	/**
+	 * Incoming edges of the node are at getInEdge(type, i) for i from this offset to the offset of
+	 * the next node.
+	 */
+	public int getInOffset(int type, int node)
+	{
+		return inOffsets[type].get(node);
+	}
+
+	public int getInEdge(int type, int i)
+	{
+		return inEdges[type].get(i);
+	}
+
+	/**
+	 * Gets mediators of the edge as written in the text file, or null if there is none.
+	 */
+	public String getMediators(int type, int edge)
+	{
+		int start = mediatorOffsets[type].get(edge);
+		int length = mediatorOffsets[type].get(edge + 1) - start;
+		return length == 0 ? null : decode(mediatorStarts[type] + start, length);
+	}
+
+	//----------------------------------------------------------------------------------------------
+	// Section: Writing
+	//----------------------------------------------------------------------------------------------
+
+	/**
+	 * Parses the SIF text file and writes it in binary form.
+	 * @param source SIF text file
+	 * @param out binary file to write
+	 * @param relations accepted relation types, mapped to their directedness
+	 * @param mediatorColumn index of the column that contains mediators
+	 */
+	public static void write(File source, File out, Map<String, Boolean> relations,
+		int mediatorColumn) throws IOException
+	{
+		long length = source.length();
+		long modified = source.lastModified();
+
+		Builder builder = new Builder(relations, mediatorColumn);
+		builder.parser.parse(source);
+
+		DataOutputStream os = new DataOutputStream(new BufferedOutputStream(
+			new FileOutputStream(out), 1 << 16));
+
+		try
+		{
+			os.writeInt(MAGIC);
+			os.writeInt(VERSION);
+			os.writeLong(length);
+			os.writeLong(modified);
+
+			builder.write(os);
+		}
+		finally
+		{
+			os.close();
+		}
+	}
+
+	/**
+	 * Collects parsed relations per type, in parse order.
+	 */
+	private static class Builder implements SIFParser.Handler
+	{
+		SIFParser parser;
+		int mediatorColumn;
+
+		List<String> symbols = new ArrayList<String>();
+		List<String> typeTags = new ArrayList<String>();
+		Map<String, Integer> typeIndex = new HashMap<String, Integer>();
+		List<Boolean> typeDirected = new ArrayList<Boolean>();
+		List<int[]> typeSources = new ArrayList<int[]>();
+		List<int[]> typeTargets = new ArrayList<int[]>();
+		List<int[]> typeMedOffsets = new ArrayList<int[]>();
+		List<ByteArrayOutputStream> typeMeds = new ArrayList<ByteArrayOutputStream>();
+		List<Integer> typeSizes = new ArrayList<Integer>();
+
+		Builder(Map<String, Boolean> relations, int mediatorColumn)
+		{
+			this.mediatorColumn = mediatorColumn;
+			parser = new SIFParser(this);
+
+			for (String tag : relations.keySet())
+			{
+				parser.addRelation(tag, relations.get(tag));
+			}
+		}
+
+		public void node(int id, String name)
+		{
+			symbols.add(name);
+		}
+
+		public void edge(int source, int target, String relation, String[] tokens)
+		{
+			Integer t = typeIndex.get(relation);
+
+			if (t == null)
+			{
+				t = typeTags.size();
+				typeIndex.put(relation, t);
+				typeTags.add(relation);
+				typeDirected.add(parser.isDirected(relation));
+				typeSources.add(new int[1024]);
+				typeTargets.add(new int[1024]);
+				typeMedOffsets.add(new int[1025]);
+				typeMeds.add(new ByteArrayOutputStream());
+				typeSizes.add(0);
+			}
+
+			int size = typeSizes.get(t);
+
+			if (size == typeSources.get(t).length)
+			{
+				typeSources.set(t, Arrays.copyOf(typeSources.get(t), size << 1));
+				typeTargets.set(t, Arrays.copyOf(typeTargets.get(t), size << 1));
+				typeMedOffsets.set(t, Arrays.copyOf(typeMedOffsets.get(t), (size << 1) + 1));
+			}
+
+			typeSources.get(t)[size] = source;
+			typeTargets.get(t)[size] = target;
+
+			ByteArrayOutputStream meds = typeMeds.get(t);
+
+			if (tokens.length > mediatorColumn)
+			{
+				byte[] b = encode(tokens[mediatorColumn]);
+				meds.write(b, 0, b.length);
+			}
+
+			typeMedOffsets.get(t)[size + 1] = meds.size();
+			typeSizes.set(t, size + 1);
+		}
+
+		public void group(String[] tokens)
+		{
+			// Groups are not part of the network
+		}
+
+		void write(DataOutputStream os) throws IOException
+		{
+			int n = symbols.size();
+			os.writeInt(n);
+
+			ByteArrayOutputStream blob = new ByteArrayOutputStream();
+			os.writeInt(0);
+			for (String symbol : symbols)
+			{
+				byte[] b = encode(symbol);
+				blob.write(b, 0, b.length);
+				os.writeInt(blob.size());
+			}
+			writePadded(os, blob.toByteArray());
+
+			os.writeInt(typeTags.size());
+
+			for (int t = 0; t < typeTags.size(); t++)
+			{
+				writeType(os, t, n);
+			}
+		}
+
+		private void writeType(DataOutputStream os, int t, int n) throws IOException
+		{
+			byte[] tag = encode(typeTags.get(t));
+			os.writeInt(tag.length);
+			writePadded(os, tag);
+			os.writeInt(typeDirected.get(t) ? 1 : 0);
+
+			int e = typeSizes.get(t);
+			int[] src = typeSources.get(t);
+			int[] tgt = typeTargets.get(t);
+			int[] medOff = typeMedOffsets.get(t);
+			byte[] meds = typeMeds.get(t).toByteArray();
+
+			os.writeInt(e);
+
+			// Sort edges by source with a stable counting sort
+
+			int[] outOffsets = new int[n + 1];
+			for (int i = 0; i < e; i++) outOffsets[src[i] + 1]++;
+			for (int i = 0; i < n; i++) outOffsets[i + 1] += outOffsets[i];
+
+			int[] order = new int[e];
+			int[] pos = Arrays.copyOf(outOffsets, n);
+			for (int i = 0; i < e; i++) order[pos[src[i]]++] = i;
+
+			for (int i = 0; i < e; i++) os.writeInt(src[order[i]]);
+			for (int i = 0; i < e; i++) os.writeInt(tgt[order[i]]);
+			for (int i = 0; i <= n; i++) os.writeInt(outOffsets[i]);
+
+			// Incoming edges, by sorted edge ids
+
+			int[] inOffsets = new int[n + 1];
+			for (int i = 0; i < e; i++) inOffsets[tgt[i] + 1]++;
+			for (int i = 0; i < n; i++) inOffsets[i + 1] += inOffsets[i];
+
+			int[] inEdges = new int[e];
+			pos = Arrays.copyOf(inOffsets, n);
+			for (int i = 0; i < e; i++) inEdges[pos[tgt[order[i]]]++] = i;
+
+			for (int i = 0; i <= n; i++) os.writeInt(inOffsets[i]);
+			for (int i = 0; i < e; i++) os.writeInt(inEdges[i]);
+
+			// Mediators in sorted order
+
+			ByteArrayOutputStream sorted = new ByteArrayOutputStream(meds.length);
+			os.writeInt(0);
+			for (int i = 0; i < e; i++)
+			{
+				int k = order[i];
+				sorted.write(meds, medOff[k], medOff[k + 1] - medOff[k]);
+				os.writeInt(sorted.size());
+			}
+			writePadded(os, sorted.toByteArray());
+		}
+	}
+
+	private static void writePadded(DataOutputStream os, byte[] b) throws IOException
+	{
+		os.write(b);
+		for (int i = b.length; i < pad(b.length); i++) os.write(0);
+	}
+
+	private static byte[] encode(String s)
+	{
+		try
+		{
+			return s.getBytes(ENCODING);
+		}
+		catch (UnsupportedEncodingException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static int pad(int length)
+	{
+		return (length + 3) & ~3;
+	}
+
+	private static final int MAGIC = 0x43534946;
+	private static final int VERSION = 1;
+	private static final String ENCODING = "UTF-8";
+}
@@ -0,0 +1,162 @@
+package org.gvt.util;
+
+import org.biopax.paxtools.pattern.miner.SIFEnum;
+import org.biopax.paxtools.pattern.miner.SIFType;
+import org.cbio.causality.analysis.Graph;
+import org.cbio.causality.analysis.GraphList;
+import org.cbio.causality.network.PathwayCommons;
+import org.cbio.causality.util.Download;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the Pathway Commons SIF network in a memory-mapped binary file under the portal cache
+ * directory. The binary file is built from the PC SIF text file at the first use, and is rebuilt
+ * when the text file changes. The text file is downloaded if it does not exist.
+ *
+ * @author Ozgun Babur
+ */
+public class PCSifCache
+{
+	private static final String DEFAULT_PC_SIF_FILE_NAME = "PC.sif";
+	private static final String BINARY_FILE_NAME = "PC.sif.bin";
+	private static final String GRAPH_NAME = "Pathway Commons";
+
+	/**
+	 * Column of the mediators in the PC SIF text file.
+	 */
+	private static final int MEDIATOR_COLUMN = 3;
+
+	private static MappedSIFNetwork network;
+
+	/**
+	 * Download is not tried again in the same session after it fails.
+	 */
+	private static boolean downloadFailed;
+
+	/**
+	 * Gets the mapped network, building or rebuilding the binary file if necessary.
+	 * @return the network, or null if the PC SIF file is not available
+	 */
+	public static synchronized MappedSIFNetwork getNetwork()
+	{
+		File source = new File(getSourceLocation());
+
+		if (!source.exists())
+		{
+			if (downloadFailed) return null;
+
+			if (!downloadSource(source.getPath()))
+			{
+				downloadFailed = true;
+				return null;
+			}
+		}
+
+		if (network != null && network.isBuiltFrom(source)) return network;
+
+		File bin = new File(Conf.getPortalCacheDir() + BINARY_FILE_NAME);
+
+		try
+		{
+			if (bin.exists())
+			{
+				try
+				{
+					MappedSIFNetwork net = MappedSIFNetwork.open(bin);
+					if (net.isBuiltFrom(source)) return network = net;
+				}
+				catch (IOException e)
+				{
+					System.out.println("Rebuilding the PC SIF cache: " + e.getMessage());
+				}
+			}
+
+			// Write to a temporary file first, so that another instance never maps a half written
+			// file
+
+			File temp = File.createTempFile("PC", ".bin.tmp", bin.getParentFile());
+			MappedSIFNetwork.write(source, temp, getRelations(), MEDIATOR_COLUMN);
+
+			if ((bin.exists() && !bin.delete()) || !temp.renameTo(bin))
+			{
+				// Old file is mapped by another instance, and cannot be replaced on some systems
+				temp.deleteOnExit();
+				bin = temp;
+			}
+
+			network = MappedSIFNetwork.open(bin);
+			return network;
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Gets the causality graph of the given relation types. The graph is loaded from the mapped
+	 * network if it is available, otherwise from PathwayCommons.
+	 */
+	public static Graph getGraph(SIFType... types)
+	{
+		MappedSIFNetwork network = getNetwork();
+		if (network == null) return PathwayCommons.getGraph(types);
+
+		// Like PathwayCommons, each relation type is a separate graph in a list
+
+		GraphList list = new GraphList(GRAPH_NAME);
+
+		for (SIFType type : types)
+		{
+			Graph graph = new Graph(GRAPH_NAME, type.getTag());
+			list.addGraph(graph);
+
+			int t = network.getType(type.getTag());
+			if (t < 0) continue;
+
+			for (int e = 0; e < network.getEdgeCount(t); e++)
+			{
+				graph.putRelation(network.getSymbol(network.getSource(t, e)),
+					network.getSymbol(network.getTarget(t, e)), network.getMediators(t, e),
+					type.isDirected());
+			}
+		}
+
+		return types.length == 1 ? list.getGraphs().get(0) : list;
+	}
+
+	private static Map<String, Boolean> getRelations()
+	{
+		Map<String, Boolean> map = new HashMap<String, Boolean>();
+		for (SIFEnum type : SIFEnum.values())
+		{
+			map.put(type.getTag(), type.isDirected());
+		}
+		return map;
+	}
+
+	private static String getSourceLocation()
+	{
+		String s = Conf.get(Conf.PC_SIF_FILE);
+		if (s.equals(Conf.DEFAULT))
+		{
+			return Conf.getPortalCacheDir() + DEFAULT_PC_SIF_FILE_NAME;
+		}
+		else
+		{
+			return s;
+		}
+	}
+
+	private static boolean downloadSource(String saveLoc)
+	{
+		String url = Conf.get(Conf.PC_SIF_FILE_URL);
+		if (url.isEmpty()) return false;
+		return Download.downloadAndUncompress(url, saveLoc);
+	}
+}
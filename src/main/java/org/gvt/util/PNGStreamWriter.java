@@ -0,0 +1,155 @@
+package org.gvt.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes an RGB PNG image row by row, so that the whole image never needs to be in memory. Rows
+ * are compressed as they come, and the compressed data is written out in chunks of bounded size.
+ *
+ * @author Ozgun Babur
+ */
+public class PNGStreamWriter
+{
+	private DataOutputStream out;
+
+	private int width;
+	private int height;
+
+	/**
+	 * Number of rows written so far.
+	 */
+	private int rows;
+
+	/**
+	 * Compressed data that is not written to a chunk yet.
+	 */
+	private ByteArrayOutputStream pending;
+
+	private Deflater deflater;
+	private DeflaterOutputStream compressor;
+
+	/**
+	 * Writes the header of the image.
+	 * @param out stream to write to, closed when the image is complete
+	 * @param width width of the image in pixels
+	 * @param height height of the image in pixels
+	 */
+	public PNGStreamWriter(OutputStream out, int width, int height) throws IOException
+	{
+		if (width <= 0 || height <= 0)
+		{
+			throw new IllegalArgumentException("Invalid image size: " + width + "x" + height);
+		}
+
+		this.out = new DataOutputStream(out);
+		this.width = width;
+		this.height = height;
+
+		this.out.write(SIGNATURE);
+
+		ByteArrayOutputStream header = new ByteArrayOutputStream(13);
+		DataOutputStream dos = new DataOutputStream(header);
+		dos.writeInt(width);
+		dos.writeInt(height);
+		dos.writeByte(8); // bit depth
+		dos.writeByte(2); // color type: RGB
+		dos.writeByte(0); // compression
+		dos.writeByte(0); // filter
+		dos.writeByte(0); // interlace
+		writeChunk("IHDR", header.toByteArray(), header.size());
+
+		pending = new ByteArrayOutputStream(CHUNK_SIZE + CHUNK_SIZE / 4);
+		deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+		compressor = new DeflaterOutputStream(pending, deflater, BUFFER_SIZE);
+	}
+
+	/**
+	 * Writes the next row of the image.
+	 * @param rgb red, green and blue values of the pixels in the row
+	 * @param offset position of the first pixel in the array
+	 */
+	public void writeRow(byte[] rgb, int offset) throws IOException
+	{
+		if (rows == height)
+		{
+			throw new IllegalStateException("All " + height + " rows are already written");
+		}
+
+		compressor.write(FILTER_NONE);
+		compressor.write(rgb, offset, width * 3);
+		rows++;
+
+		if (pending.size() >= CHUNK_SIZE) flushData();
+	}
+
+	/**
+	 * Finishes the image and closes the stream. All rows should be written before.
+	 */
+	public void close() throws IOException
+	{
+		if (rows < height)
+		{
+			throw new IllegalStateException("Only " + rows + " of " + height +
+				" rows are written");
+		}
+
+		compressor.finish();
+		deflater.end();
+		flushData();
+
+		writeChunk("IEND", new byte[0], 0);
+		out.close();
+	}
+
+	public int getWidth()
+	{
+		return width;
+	}
+
+	public int getHeight()
+	{
+		return height;
+	}
+
+	/**
+	 * Writes the pending compressed data in an IDAT chunk.
+	 */
+	private void flushData() throws IOException
+	{
+		if (pending.size() == 0) return;
+
+		writeChunk("IDAT", pending.toByteArray(), pending.size());
+		pending.reset();
+	}
+
+	private void writeChunk(String type, byte[] data, int length) throws IOException
+	{
+		byte[] typeBytes = type.getBytes("US-ASCII");
+
+		CRC32 crc = new CRC32();
+		crc.update(typeBytes);
+		crc.update(data, 0, length);
+
+		out.writeInt(length);
+		out.write(typeBytes);
+		out.write(data, 0, length);
+		out.writeInt((int) crc.getValue());
+	}
+
+	private static final byte[] SIGNATURE = {(byte) 137, 80, 78, 71, 13, 10, 26, 10};
+
+	private static final int FILTER_NONE = 0;
+
+	/**
+	 * Compressed data is written out when it reaches this size.
+	 */
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	private static final int BUFFER_SIZE = 1 << 13;
+}
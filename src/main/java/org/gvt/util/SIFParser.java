@@ -0,0 +1,383 @@
+package org.gvt.util;
+
+import org.patika.mada.util.LongHashSet;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Single pass, streaming parser for SIF files. Lines are tokenized while reading, node names are
+ * interned to int ids, and duplicate relations are detected with a set of packed (node pair,
+ * relation type) keys, so that no string per relation is kept in memory.
+ *
+ * Fields of a file are separated by tabs if the file has any tab, otherwise by spaces, which
+ * supports the SIF files that do not have any tab. The file is scanned for a tab before parsing,
+ * so all lines of a file are split the same way. Fields of a stream are separated by tabs.
+ *
+ * The parser does not create any graph objects. It reports new nodes, distinct relations and
+ * group lines to a Handler.
+ *
+ * @author Ozgun Babur
+ */
+public class SIFParser
+{
+	private Handler handler;
+	private ProgressListener progressListener;
+
+	/**
+	 * Accepted relation types, mapped to their int ids.
+	 */
+	private Map<String, Integer> relationIds;
+	private List<Boolean> relationDirected;
+
+	/**
+	 * Relation types that are read as another type.
+	 */
+	private Map<String, String> aliases;
+
+	/**
+	 * Interned node names.
+	 */
+	private Map<String, Integer> nodeIds;
+
+	private LongHashSet relations;
+	private boolean duplicatesExist;
+
+	/**
+	 * Field delimiter.
+	 */
+	private char delim;
+
+	public SIFParser(Handler handler)
+	{
+		this.handler = handler;
+		relationIds = new HashMap<String, Integer>();
+		relationDirected = new ArrayList<Boolean>();
+		aliases = new HashMap<String, String>();
+		nodeIds = new HashMap<String, Integer>();
+		relations = new LongHashSet();
+	}
+
+	/**
+	 * Adds a relation type to accept. Lines with other relation types are skipped.
+	 */
+	public void addRelation(String tag, boolean directed)
+	{
+		if (relationIds.containsKey(tag)) return;
+
+		if (relationIds.size() > MAX_RELATION_ID)
+		{
+			throw new IllegalStateException("Too many relation types.");
+		}
+
+		relationIds.put(tag, relationIds.size());
+		relationDirected.add(directed);
+	}
+
+	/**
+	 * Tells if the accepted relation type is directed.
+	 */
+	public boolean isDirected(String tag)
+	{
+		return relationDirected.get(relationIds.get(tag));
+	}
+
+	/**
+	 * Makes the relation type to be read as the replacement type.
+	 */
+	public void addAlias(String tag, String replacement)
+	{
+		aliases.put(tag, replacement);
+	}
+
+	public void setProgressListener(ProgressListener progressListener)
+	{
+		this.progressListener = progressListener;
+	}
+
+	/**
+	 * Tells if there were any repeated relations, which are skipped.
+	 */
+	public boolean isDuplicatesExist()
+	{
+		return duplicatesExist;
+	}
+
+	public int getNodeCount()
+	{
+		return nodeIds.size();
+	}
+
+	/**
+	 * Gets the id of the node with the given name. If this is a new name, then the node is reported
+	 * to the handler.
+	 */
+	public int getId(String name)
+	{
+		Integer id = nodeIds.get(name);
+
+		if (id == null)
+		{
+			id = nodeIds.size();
+
+			if (id > MAX_NODE_ID) throw new IllegalStateException("Too many nodes.");
+
+			nodeIds.put(name, id);
+			handler.node(id, name);
+		}
+		return id;
+	}
+
+	public void parse(File file) throws IOException
+	{
+		char delim = containsTab(file) ? '\t' : ' ';
+		InputStream is = new FileInputStream(file);
+
+		try
+		{
+			parse(is, file.length(), delim);
+		}
+		finally
+		{
+			is.close();
+		}
+	}
+
+	/**
+	 * Parses the tab separated stream to the end. The stream is not closed.
+	 * @param is input
+	 * @param totalBytes size of the input for progress reports, or -1 if not known
+	 */
+	public void parse(InputStream is, long totalBytes) throws IOException
+	{
+		parse(is, totalBytes, '\t');
+	}
+
+	private void parse(InputStream is, long totalBytes, char delim) throws IOException
+	{
+		CountingInputStream counter = new CountingInputStream(is);
+		Reader reader = new InputStreamReader(counter);
+
+		char[] buf = new char[BUFFER_SIZE];
+		char[] line = new char[256];
+		int lineLength = 0;
+		this.delim = delim;
+
+		for (int read = reader.read(buf); read >= 0; read = reader.read(buf))
+		{
+			for (int i = 0; i < read; i++)
+			{
+				char c = buf[i];
+
+				if (c == '\n' || c == '\r')
+				{
+					processLine(line, lineLength);
+					lineLength = 0;
+				}
+				else
+				{
+					if (lineLength == line.length) line = Arrays.copyOf(line, lineLength << 1);
+					line[lineLength++] = c;
+				}
+			}
+
+			if (progressListener != null)
+			{
+				progressListener.progress(counter.count, totalBytes);
+			}
+		}
+
+		processLine(line, lineLength);
+	}
+
+	private void processLine(char[] line, int length)
+	{
+		// Skip blank lines
+
+		boolean blank = true;
+		for (int i = 0; i < length && blank; i++)
+		{
+			if (line[i] > ' ') blank = false;
+		}
+		if (blank) return;
+
+		String[] t = tokenize(line, length);
+
+		if (t[0].equals(GROUP_TAG))
+		{
+			handler.group(t);
+		}
+		else if (t.length > 2)
+		{
+			String relation = aliases.containsKey(t[1]) ? aliases.get(t[1]) : t[1];
+
+			Integer type = relationIds.get(relation);
+
+			// Skip unfamiliar relations
+			if (type == null) return;
+
+			int source = getId(t[0]);
+			int target = getId(t[2]);
+
+			if (relations.add(getKey(source, target, type)))
+			{
+				handler.edge(source, target, relation, t);
+			}
+			else
+			{
+				duplicatesExist = true;
+			}
+		}
+		else
+		{
+			getId(t[0]);
+		}
+	}
+
+	/**
+	 * Splits the line at the delimiter. Empty tokens at the end are dropped, like String.split
+	 * does.
+	 */
+	private String[] tokenize(char[] line, int length)
+	{
+		// Drop trailing delimiters
+
+		while (length > 0 && (line[length - 1] == delim || line[length - 1] == '\f')) length--;
+
+		int count = 1;
+		for (int i = 0; i < length; i++)
+		{
+			if (line[i] == delim || line[i] == '\f') count++;
+		}
+
+		String[] t = new String[count];
+		int start = 0;
+		int k = 0;
+
+		for (int i = 0; i <= length; i++)
+		{
+			if (i == length || line[i] == delim || line[i] == '\f')
+			{
+				t[k++] = new String(line, start, i - start);
+				start = i + 1;
+			}
+		}
+		return t;
+	}
+
+	/**
+	 * Reads the file until the first tab.
+	 */
+	private boolean containsTab(File file) throws IOException
+	{
+		InputStream is = new FileInputStream(file);
+
+		try
+		{
+			byte[] buf = new byte[BUFFER_SIZE];
+
+			for (int read = is.read(buf); read >= 0; read = is.read(buf))
+			{
+				for (int i = 0; i < read; i++)
+				{
+					if (buf[i] == '\t') return true;
+				}
+			}
+			return false;
+		}
+		finally
+		{
+			is.close();
+		}
+	}
+
+	/**
+	 * Packs the relation into a long. Undirected relations have the same key in both directions.
+	 */
+	private long getKey(int source, int target, int type)
+	{
+		if (!relationDirected.get(type) && source > target)
+		{
+			int temp = source;
+			source = target;
+			target = temp;
+		}
+
+		return ((long) source << 36) | ((long) target << 8) | type;
+	}
+
+	/**
+	 * Receives the parsed content.
+	 */
+	public interface Handler
+	{
+		/**
+		 * Called when a node name is seen for the first time.
+		 * @param id id of the node, which is the number of nodes seen before
+		 * @param name name of the node
+		 */
+		public void node(int id, String name);
+
+		/**
+		 * Called for each distinct relation, after its nodes are reported.
+		 * @param source id of the first node
+		 * @param target id of the second node
+		 * @param relation relation type, after aliases are applied
+		 * @param tokens all fields of the line, for reading mediators and other columns
+		 */
+		public void edge(int source, int target, String relation, String[] tokens);
+
+		/**
+		 * Called for each group line.
+		 * @param tokens all fields of the line
+		 */
+		public void group(String[] tokens);
+	}
+
+	/**
+	 * Receives progress of the parsing. Called after each read block.
+	 */
+	public interface ProgressListener
+	{
+		/**
+		 * @param bytesRead number of bytes read so far
+		 * @param totalBytes size of the input, or -1 if not known
+		 */
+		public void progress(long bytesRead, long totalBytes);
+	}
+
+	/**
+	 * Counts the bytes that the reader consumes.
+	 */
+	private static class CountingInputStream extends FilterInputStream
+	{
+		long count;
+
+		CountingInputStream(InputStream in)
+		{
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException
+		{
+			int b = super.read();
+			if (b >= 0) count++;
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException
+		{
+			int n = super.read(b, off, len);
+			if (n > 0) count += n;
+			return n;
+		}
+	}
+
+	public static final String GROUP_TAG = "$group$";
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int MAX_NODE_ID = (1 << 28) - 1;
+	private static final int MAX_RELATION_ID = (1 << 8) - 1;
+}
@@ -24,23 +24,20 @@ import java.util.*;
  *
  * @author Ozgun Babur
  */
-public class SIFReader
+public class SIFReader implements SIFParser.Handler
 {
 	private List<? extends SIFType> enumTypes;
-	private Set<String> types;
-	private Map<String, BasicSIFNode> nodeMap;
-	private Set<String> relationsSet;
+	private List<BasicSIFNode> nodes;
+	private SIFParser parser;
 	private BasicSIFGraph root;
-	private String delim;
 	private boolean useGroups;
+	private SIFParser.ProgressListener progressListener;
 
 	private boolean duplicatesExist;
 	private boolean groupsExist;
 
 	public SIFReader()
 	{
-		nodeMap = new HashMap<String, BasicSIFNode>();
-		relationsSet = new HashSet<String>();
 		useGroups = true;
 		groupsExist = false;
 	}
@@ -56,8 +53,15 @@ public class SIFReader
 		this.useGroups = useGroups;
 	}
 
+	public void setProgressListener(SIFParser.ProgressListener progressListener)
+	{
+		this.progressListener = progressListener;
+	}
+
 	public CompoundModel readXMLFile(File sifFile)
 	{
+		Set<String> types = null;
+
 		if (enumTypes != null)
 		{
 			types = new HashSet<String>();
@@ -71,24 +75,29 @@ public class SIFReader
 		{
 			duplicatesExist = false;
 			root = new BasicSIFGraph();
+			nodes = new ArrayList<BasicSIFNode>();
 
 			String filename = sifFile.getName();
 			root.setName(filename.substring(0, filename.indexOf(".sif")));
 			
 			root.setAsRoot();
 
-			delim = fileContainsTab(sifFile) ? "\t|\n|\r|\f" : " |\n|\r|\f";
+			// Relations that are not familiar are skipped
 
-			BufferedReader reader = new BufferedReader(new FileReader(sifFile));
-			for (String line = reader.readLine(); line != null; line = reader.readLine())
+			parser = new SIFParser(this);
+			parser.setProgressListener(progressListener);
+
+			for (String relation : SIFEdge.typeMap.keySet())
 			{
-				if (line.trim().length() > 0)
+				if (types == null || types.contains(relation))
 				{
-					processLine(line);
+					parser.addRelation(relation, SIFEdge.typeMap.get(relation).isDirected());
 				}
 			}
 
-			reader.close();
+			parser.parse(sifFile);
+
+			duplicatesExist = parser.isDuplicatesExist();
 
 			if (duplicatesExist)
 			{
@@ -107,6 +116,11 @@ public class SIFReader
 
 			return null;
 		}
+		finally
+		{
+			parser = null;
+			nodes = null;
+		}
 
 		System.out.println("SIF view contains " + root.getNodes().size() + " nodes and " +
 			root.getEdges().size() + " edges.");
@@ -126,79 +140,30 @@ public class SIFReader
 		return root;
 	}
 
-	private void processLine(String line)
+	public void node(int id, String name)
 	{
-		String[] t = line.split(delim);
-
-		String first = t[0];
-
-		if (t[0].equals("$group$"))
-		{
-			new BasicSIFPathway(root, getNodes(t[2].split(" ")), t[1], t[3]);
-			groupsExist = true;
-		}
-		else if (t.length > 2)
-		{
-			String relation = t[1];
-
-			String second = t[2];
-
-			String meds = t.length > 3 ? t[3] : null;
-
-			// commented out because we want to display non-paxtools sifs
-			if (types == null || types.contains(relation))
-			{
-				BasicSIFEdge edge = createUnit(first, relation, second, meds);
-
-				if (edge != null && t.length > 4)
-				{
-					String phs = t[4];
-					phs = phs.replaceAll(";", "\n");
-//					edge.setText("o");
-					edge.setTooltipText(phs);
-				}
-			}
-		}
-		else
-		{
-			getNode(first);
-		}
+		nodes.add(new BasicSIFNode(root, name, name));
 	}
 
-	private BasicSIFEdge createUnit(String first, String relation, String second, String medIDs)
+	public void edge(int source, int target, String relation, String[] t)
 	{
-		// Stop if relation is unfamiliar
-		if (!SIFEdge.typeMap.containsKey(relation)) return null;
+		String meds = t.length > 3 ? t[3] : null;
 
-		String relStr = first + "\t" + relation + "\t" + second;
-		String revStr = second + "\t" + relation + "\t" + first;
+		BasicSIFEdge edge = new BasicSIFEdge(nodes.get(source), nodes.get(target), relation, meds);
 
-		if (relationsSet.contains(relStr) ||
-			(!SIFEdge.typeMap.get(relation).isDirected() &&
-				relationsSet.contains(revStr)))
+		if (t.length > 4)
 		{
-			duplicatesExist = true;
-			return null;
+			String phs = t[4];
+			phs = phs.replaceAll(";", "\n");
+//			edge.setText("o");
+			edge.setTooltipText(phs);
 		}
-		else
-		{
-			relationsSet.add(relStr);
-		}
-
-		BasicSIFNode node1 = getNode(first);
-		BasicSIFNode node2 = getNode(second);
-		return new BasicSIFEdge(node1, node2, relation, medIDs);
 	}
 
-	private BasicSIFNode getNode(String id)
+	public void group(String[] t)
 	{
-		if (!nodeMap.containsKey(id))
-		{
-			BasicSIFNode node = new BasicSIFNode(root, id, id);
-			nodeMap.put(id, node);
-		}
-
-		return nodeMap.get(id);
+		new BasicSIFPathway(root, getNodes(t[2].split(" ")), t[1], t[3]);
+		groupsExist = true;
 	}
 
 	private Set<BasicSIFNode> getNodes(String[] ids)
@@ -207,30 +172,11 @@ public class SIFReader
 
 		for (String id : ids)
 		{
-			set.add(getNode(id));
+			set.add(nodes.get(parser.getId(id)));
 		}
 		return set;
 	}
 
-
-	private boolean fileContainsTab(File filename) throws IOException
-	{
-		boolean contains = false;
-
-		BufferedReader reader = new BufferedReader(new FileReader(filename));
-
-		int i;
-		while ((i = reader.read()) != -1)
-		{
-			if (i == '\t')
-			{
-				contains = true;
-			}
-		}
-		reader.close();
-		return contains;
-	}
-
 	private boolean formatView(String formatFile)
 	{
 		boolean group = useGroups;
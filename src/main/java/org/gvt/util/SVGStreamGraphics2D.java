@@ -0,0 +1,1041 @@
+package org.gvt.util;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Line2D;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.PathIterator;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.renderable.RenderableImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.AttributedCharacterIterator;
+import java.util.Map;
+
+/**
+ * A Graphics2D that writes what is painted on it to a stream as SVG elements. Nothing is kept in
+ * memory after an element is written, so large figures can be exported in one pass. Shapes are
+ * written as paths, strings as text, and images as embedded PNG data.
+ *
+ * Graphics created from this one write to the same stream. Errors of the stream are reported when
+ * the document is closed.
+ *
+ * @author Ozgun Babur
+ */
+public class SVGStreamGraphics2D extends Graphics2D
+{
+	private Output out;
+
+	private AffineTransform transform;
+
+	/**
+	 * Clip in device space, null if there is no clip.
+	 */
+	private Shape clip;
+
+	private Paint paint;
+	private Color background;
+	private Composite composite;
+	private Stroke stroke;
+	private Font font;
+	private RenderingHints hints;
+
+	/**
+	 * Writes the start of the SVG document.
+	 * @param writer where to write the document
+	 * @param width width of the document
+	 * @param height height of the document
+	 */
+	public SVGStreamGraphics2D(Writer writer, int width, int height) throws IOException
+	{
+		out = new Output(writer);
+
+		transform = new AffineTransform();
+		paint = Color.BLACK;
+		background = Color.WHITE;
+		composite = AlphaComposite.SrcOver;
+		stroke = new BasicStroke();
+		font = new Font("Dialog", Font.PLAIN, 12);
+		hints = new RenderingHints(null);
+
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		writer.write("<svg xmlns=\"http://www.w3.org/2000/svg\" " +
+			"xmlns:xlink=\"http://www.w3.org/1999/xlink\" version=\"1.1\" width=\"" + width +
+			"\" height=\"" + height + "\" viewBox=\"0 0 " + width + " " + height + "\">\n");
+	}
+
+	private SVGStreamGraphics2D(SVGStreamGraphics2D g)
+	{
+		out = g.out;
+		transform = new AffineTransform(g.transform);
+		clip = g.clip;
+		paint = g.paint;
+		background = g.background;
+		composite = g.composite;
+		stroke = g.stroke;
+		font = g.font;
+		hints = (RenderingHints) g.hints.clone();
+	}
+
+	/**
+	 * Writes the end of the document and closes the stream.
+	 * @throws IOException if any writing has failed
+	 */
+	public void close() throws IOException
+	{
+		out.setClip(null);
+		out.write("</svg>\n");
+		out.writer.close();
+
+		if (out.error != null) throw out.error;
+	}
+
+	//----------------------------------------------------------------------------------------------
+	// Section: Drawing
+	//----------------------------------------------------------------------------------------------
+
+	@Override
+	public void draw(Shape s)
+	{
+		if (!(stroke instanceof BasicStroke))
+		{
+			fill(stroke.createStrokedShape(s));
+			return;
+		}
+
+		BasicStroke bs = (BasicStroke) stroke;
+
+		StringBuilder sb = new StringBuilder("<path fill=\"none\"");
+		appendPaint(sb, "stroke");
+
+		sb.append(" stroke-width=\"").append(format(bs.getLineWidth())).append('"');
+		if (bs.getEndCap() != BasicStroke.CAP_BUTT)
+		{
+			sb.append(" stroke-linecap=\"").append(
+				bs.getEndCap() == BasicStroke.CAP_ROUND ? "round" : "square").append('"');
+		}
+		if (bs.getLineJoin() != BasicStroke.JOIN_MITER)
+		{
+			sb.append(" stroke-linejoin=\"").append(
+				bs.getLineJoin() == BasicStroke.JOIN_ROUND ? "round" : "bevel").append('"');
+		}
+		else if (bs.getMiterLimit() != 4)
+		{
+			sb.append(" stroke-miterlimit=\"").append(format(bs.getMiterLimit())).append('"');
+		}
+
+		float[] dash = bs.getDashArray();
+		if (dash != null && dash.length > 0)
+		{
+			sb.append(" stroke-dasharray=\"");
+			for (int i = 0; i < dash.length; i++)
+			{
+				if (i > 0) sb.append(',');
+				sb.append(format(dash[i]));
+			}
+			sb.append('"');
+			if (bs.getDashPhase() != 0)
+			{
+				sb.append(" stroke-dashoffset=\"").append(format(bs.getDashPhase())).append('"');
+			}
+		}
+
+		appendPathData(sb, s);
+		appendTransform(sb, transform);
+		sb.append("/>\n");
+		emit(sb);
+	}
+
+	@Override
+	public void fill(Shape s)
+	{
+		StringBuilder sb = new StringBuilder("<path");
+		appendPaint(sb, "fill");
+
+		if (s.getPathIterator(null).getWindingRule() == PathIterator.WIND_EVEN_ODD)
+		{
+			sb.append(" fill-rule=\"evenodd\"");
+		}
+
+		appendPathData(sb, s);
+		appendTransform(sb, transform);
+		sb.append("/>\n");
+		emit(sb);
+	}
+
+	@Override
+	public void drawString(String str, float x, float y)
+	{
+		if (str == null || str.length() == 0) return;
+
+		StringBuilder sb = new StringBuilder("<text xml:space=\"preserve\"");
+		sb.append(" x=\"").append(format(x)).append("\" y=\"").append(format(y)).append('"');
+		sb.append(" font-family=\"");
+		escape(sb, font.getFamily());
+		sb.append("\" font-size=\"").append(format(font.getSize2D())).append('"');
+		if (font.isBold()) sb.append(" font-weight=\"bold\"");
+		if (font.isItalic()) sb.append(" font-style=\"italic\"");
+		appendPaint(sb, "fill");
+		appendTransform(sb, transform);
+		sb.append('>');
+		escape(sb, str);
+		sb.append("</text>\n");
+		emit(sb);
+	}
+
+	@Override
+	public void drawString(String str, int x, int y)
+	{
+		drawString(str, (float) x, (float) y);
+	}
+
+	@Override
+	public void drawString(AttributedCharacterIterator iterator, float x, float y)
+	{
+		StringBuilder sb = new StringBuilder();
+		for (char c = iterator.first(); c != AttributedCharacterIterator.DONE; c = iterator.next())
+		{
+			sb.append(c);
+		}
+		drawString(sb.toString(), x, y);
+	}
+
+	@Override
+	public void drawString(AttributedCharacterIterator iterator, int x, int y)
+	{
+		drawString(iterator, (float) x, (float) y);
+	}
+
+	@Override
+	public void drawGlyphVector(GlyphVector g, float x, float y)
+	{
+		fill(g.getOutline(x, y));
+	}
+
+	@Override
+	public boolean drawImage(Image img, AffineTransform xform, ImageObserver obs)
+	{
+		BufferedImage image = toBufferedImage(img, obs);
+		if (image == null) return false;
+
+		AffineTransform t = new AffineTransform(transform);
+		if (xform != null) t.concatenate(xform);
+
+		StringBuilder sb = new StringBuilder("<image x=\"0\" y=\"0\"");
+		sb.append(" width=\"").append(image.getWidth()).append("\" height=\"")
+			.append(image.getHeight()).append('"');
+		appendOpacity(sb, "opacity", 255);
+		appendTransform(sb, t);
+		sb.append(" xlink:href=\"data:image/png;base64,");
+
+		try
+		{
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			ImageIO.write(image, "png", bytes);
+			base64(sb, bytes.toByteArray());
+		}
+		catch (IOException e)
+		{
+			out.fail(e);
+			return false;
+		}
+
+		sb.append("\"/>\n");
+		emit(sb);
+		return true;
+	}
+
+	@Override
+	public void drawImage(BufferedImage img, BufferedImageOp op, int x, int y)
+	{
+		if (op != null) img = op.filter(img, null);
+		drawImage(img, AffineTransform.getTranslateInstance(x, y), null);
+	}
+
+	@Override
+	public void drawRenderedImage(RenderedImage img, AffineTransform xform)
+	{
+		BufferedImage image;
+
+		if (img instanceof BufferedImage)
+		{
+			image = (BufferedImage) img;
+		}
+		else
+		{
+			image = new BufferedImage(img.getWidth(), img.getHeight(),
+				BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g = image.createGraphics();
+			g.drawRenderedImage(img, new AffineTransform());
+			g.dispose();
+		}
+
+		drawImage(image, xform, null);
+	}
+
+	@Override
+	public void drawRenderableImage(RenderableImage img, AffineTransform xform)
+	{
+		drawRenderedImage(img.createDefaultRendering(), xform);
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, ImageObserver observer)
+	{
+		return drawImage(img, AffineTransform.getTranslateInstance(x, y), observer);
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, int width, int height,
+		ImageObserver observer)
+	{
+		int w = img.getWidth(observer);
+		int h = img.getHeight(observer);
+		if (w <= 0 || h <= 0) return false;
+
+		AffineTransform t = AffineTransform.getTranslateInstance(x, y);
+		t.scale(width / (double) w, height / (double) h);
+		return drawImage(img, t, observer);
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, Color bgcolor, ImageObserver observer)
+	{
+		return drawImage(img, x, y, img.getWidth(observer), img.getHeight(observer), bgcolor,
+			observer);
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, int width, int height, Color bgcolor,
+		ImageObserver observer)
+	{
+		fillBackground(new Rectangle(x, y, width, height), bgcolor);
+		return drawImage(img, x, y, width, height, observer);
+	}
+
+	@Override
+	public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1,
+		int sx2, int sy2, ImageObserver observer)
+	{
+		BufferedImage image = toBufferedImage(img, observer);
+		if (image == null) return false;
+
+		int x = Math.max(0, Math.min(sx1, sx2));
+		int y = Math.max(0, Math.min(sy1, sy2));
+		int w = Math.min(image.getWidth(), Math.max(sx1, sx2)) - x;
+		int h = Math.min(image.getHeight(), Math.max(sy1, sy2)) - y;
+		if (w <= 0 || h <= 0) return false;
+
+		AffineTransform t = AffineTransform.getTranslateInstance(dx1, dy1);
+		t.scale((dx2 - dx1) / (double) (sx2 - sx1), (dy2 - dy1) / (double) (sy2 - sy1));
+		t.translate(Math.min(sx1, sx2) == sx1 ? 0 : -w, Math.min(sy1, sy2) == sy1 ? 0 : -h);
+
+		return drawImage(image.getSubimage(x, y, w, h), t, observer);
+	}
+
+	@Override
+	public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1,
+		int sx2, int sy2, Color bgcolor, ImageObserver observer)
+	{
+		fillBackground(new Rectangle(Math.min(dx1, dx2), Math.min(dy1, dy2),
+			Math.abs(dx2 - dx1), Math.abs(dy2 - dy1)), bgcolor);
+		return drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, observer);
+	}
+
+	@Override
+	public void drawLine(int x1, int y1, int x2, int y2)
+	{
+		draw(new Line2D.Float(x1, y1, x2, y2));
+	}
+
+	@Override
+	public void fillRect(int x, int y, int width, int height)
+	{
+		fill(new Rectangle(x, y, width, height));
+	}
+
+	@Override
+	public void clearRect(int x, int y, int width, int height)
+	{
+		fillBackground(new Rectangle(x, y, width, height), background);
+	}
+
+	@Override
+	public void drawRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight)
+	{
+		draw(new RoundRectangle2D.Float(x, y, width, height, arcWidth, arcHeight));
+	}
+
+	@Override
+	public void fillRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight)
+	{
+		fill(new RoundRectangle2D.Float(x, y, width, height, arcWidth, arcHeight));
+	}
+
+	@Override
+	public void drawOval(int x, int y, int width, int height)
+	{
+		draw(new Ellipse2D.Float(x, y, width, height));
+	}
+
+	@Override
+	public void fillOval(int x, int y, int width, int height)
+	{
+		fill(new Ellipse2D.Float(x, y, width, height));
+	}
+
+	@Override
+	public void drawArc(int x, int y, int width, int height, int startAngle, int arcAngle)
+	{
+		draw(new Arc2D.Float(x, y, width, height, startAngle, arcAngle, Arc2D.OPEN));
+	}
+
+	@Override
+	public void fillArc(int x, int y, int width, int height, int startAngle, int arcAngle)
+	{
+		fill(new Arc2D.Float(x, y, width, height, startAngle, arcAngle, Arc2D.PIE));
+	}
+
+	@Override
+	public void drawPolyline(int[] xPoints, int[] yPoints, int nPoints)
+	{
+		if (nPoints < 2) return;
+
+		GeneralPath path = new GeneralPath();
+		path.moveTo(xPoints[0], yPoints[0]);
+		for (int i = 1; i < nPoints; i++)
+		{
+			path.lineTo(xPoints[i], yPoints[i]);
+		}
+		draw(path);
+	}
+
+	@Override
+	public void drawPolygon(int[] xPoints, int[] yPoints, int nPoints)
+	{
+		draw(new Polygon(xPoints, yPoints, nPoints));
+	}
+
+	@Override
+	public void fillPolygon(int[] xPoints, int[] yPoints, int nPoints)
+	{
+		fill(new Polygon(xPoints, yPoints, nPoints));
+	}
+
+	/**
+	 * Copying what is already written is not possible, hence this does nothing.
+	 */
+	@Override
+	public void copyArea(int x, int y, int width, int height, int dx, int dy)
+	{
+	}
+
+	@Override
+	public boolean hit(Rectangle rect, Shape s, boolean onStroke)
+	{
+		if (onStroke) s = stroke.createStrokedShape(s);
+		s = transform.createTransformedShape(s);
+		return s.intersects(rect);
+	}
+
+	private void fillBackground(Shape s, Color color)
+	{
+		if (color == null) return;
+
+		Paint p = paint;
+		paint = color;
+		fill(s);
+		paint = p;
+	}
+
+	//----------------------------------------------------------------------------------------------
+	// Section: Writing the elements
+	//----------------------------------------------------------------------------------------------
+
+	/**
+	 * Writes the element inside a group with the current clip.
+	 */
+	private void emit(StringBuilder element)
+	{
+		out.setClip(clip);
+		out.write(element);
+	}
+
+	/**
+	 * Appends the current paint as the given attribute, with its opacity.
+	 */
+	private void appendPaint(StringBuilder sb, String attribute)
+	{
+		if (paint instanceof GradientPaint)
+		{
+			GradientPaint gp = (GradientPaint) paint;
+			String id = out.writeGradient(gp);
+			sb.append(' ').append(attribute).append("=\"url(#").append(id).append(")\"");
+			appendOpacity(sb, attribute + "-opacity", 255);
+		}
+		else
+		{
+			Color c = paint instanceof Color ? (Color) paint : Color.BLACK;
+			sb.append(' ').append(attribute).append("=\"");
+			appendColor(sb, c);
+			sb.append('"');
+			appendOpacity(sb, attribute + "-opacity", c.getAlpha());
+		}
+	}
+
+	/**
+	 * Appends the opacity from the given alpha and the alpha of the composite, unless it is opaque.
+	 */
+	private void appendOpacity(StringBuilder sb, String attribute, int alpha)
+	{
+		double opacity = alpha / 255D;
+		if (composite instanceof AlphaComposite)
+		{
+			opacity *= ((AlphaComposite) composite).getAlpha();
+		}
+
+		if (opacity < 1)
+		{
+			sb.append(' ').append(attribute).append("=\"").append(format(opacity)).append('"');
+		}
+	}
+
+	private static void appendColor(StringBuilder sb, Color c)
+	{
+		sb.append("rgb(").append(c.getRed()).append(',').append(c.getGreen()).append(',')
+			.append(c.getBlue()).append(')');
+	}
+
+	private static void appendTransform(StringBuilder sb, AffineTransform t)
+	{
+		if (t.isIdentity()) return;
+
+		sb.append(" transform=\"");
+
+		if (t.getType() == AffineTransform.TYPE_TRANSLATION)
+		{
+			sb.append("translate(").append(format(t.getTranslateX())).append(',')
+				.append(format(t.getTranslateY())).append(')');
+		}
+		else
+		{
+			sb.append("matrix(").append(format(t.getScaleX())).append(',')
+				.append(format(t.getShearY())).append(',').append(format(t.getShearX()))
+				.append(',').append(format(t.getScaleY())).append(',')
+				.append(format(t.getTranslateX())).append(',')
+				.append(format(t.getTranslateY())).append(')');
+		}
+		sb.append('"');
+	}
+
+	private static void appendPathData(StringBuilder sb, Shape s)
+	{
+		sb.append(" d=\"");
+
+		double[] c = new double[6];
+		for (PathIterator it = s.getPathIterator(null); !it.isDone(); it.next())
+		{
+			switch (it.currentSegment(c))
+			{
+				case PathIterator.SEG_MOVETO:
+					sb.append('M').append(format(c[0])).append(' ').append(format(c[1]));
+					break;
+				case PathIterator.SEG_LINETO:
+					sb.append('L').append(format(c[0])).append(' ').append(format(c[1]));
+					break;
+				case PathIterator.SEG_QUADTO:
+					sb.append('Q').append(format(c[0])).append(' ').append(format(c[1]))
+						.append(' ').append(format(c[2])).append(' ').append(format(c[3]));
+					break;
+				case PathIterator.SEG_CUBICTO:
+					sb.append('C').append(format(c[0])).append(' ').append(format(c[1]))
+						.append(' ').append(format(c[2])).append(' ').append(format(c[3]))
+						.append(' ').append(format(c[4])).append(' ').append(format(c[5]));
+					break;
+				case PathIterator.SEG_CLOSE:
+					sb.append('Z');
+					break;
+			}
+		}
+		sb.append('"');
+	}
+
+	/**
+	 * Formats the number with at most three decimal digits, independent of the locale.
+	 */
+	static String format(double d)
+	{
+		if (Double.isNaN(d) || Double.isInfinite(d)) return "0";
+
+		long v = Math.round(d * 1000);
+		if (v % 1000 == 0) return Long.toString(v / 1000);
+
+		StringBuilder sb = new StringBuilder();
+		if (v < 0)
+		{
+			sb.append('-');
+			v = -v;
+		}
+		sb.append(v / 1000).append('.');
+
+		String frac = Long.toString(1000 + v % 1000).substring(1);
+		int end = frac.length();
+		while (frac.charAt(end - 1) == '0') end--;
+		sb.append(frac, 0, end);
+		return sb.toString();
+	}
+
+	static void escape(StringBuilder sb, String s)
+	{
+		for (int i = 0; i < s.length(); i++)
+		{
+			char c = s.charAt(i);
+			switch (c)
+			{
+				case '<': sb.append("&lt;"); break;
+				case '>': sb.append("&gt;"); break;
+				case '&': sb.append("&amp;"); break;
+				case '"': sb.append("&quot;"); break;
+				default:
+					if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') sb.append(c);
+			}
+		}
+	}
+
+	private static void base64(StringBuilder sb, byte[] b)
+	{
+		for (int i = 0; i < b.length; i += 3)
+		{
+			int n = (b[i] & 0xFF) << 16;
+			if (i + 1 < b.length) n |= (b[i + 1] & 0xFF) << 8;
+			if (i + 2 < b.length) n |= b[i + 2] & 0xFF;
+
+			sb.append(BASE64.charAt((n >>> 18) & 63));
+			sb.append(BASE64.charAt((n >>> 12) & 63));
+			sb.append(i + 1 < b.length ? BASE64.charAt((n >>> 6) & 63) : '=');
+			sb.append(i + 2 < b.length ? BASE64.charAt(n & 63) : '=');
+		}
+	}
+
+	private static BufferedImage toBufferedImage(Image img, ImageObserver obs)
+	{
+		if (img instanceof BufferedImage) return (BufferedImage) img;
+
+		int w = img.getWidth(obs);
+		int h = img.getHeight(obs);
+		if (w <= 0 || h <= 0) return null;
+
+		BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		g.drawImage(img, 0, 0, obs);
+		g.dispose();
+		return image;
+	}
+
+	//----------------------------------------------------------------------------------------------
+	// Section: State
+	//----------------------------------------------------------------------------------------------
+
+	@Override
+	public Graphics create()
+	{
+		return new SVGStreamGraphics2D(this);
+	}
+
+	/**
+	 * Nothing to release. The document is completed by close().
+	 */
+	@Override
+	public void dispose()
+	{
+	}
+
+	@Override
+	public void translate(int x, int y)
+	{
+		transform.translate(x, y);
+	}
+
+	@Override
+	public void translate(double tx, double ty)
+	{
+		transform.translate(tx, ty);
+	}
+
+	@Override
+	public void rotate(double theta)
+	{
+		transform.rotate(theta);
+	}
+
+	@Override
+	public void rotate(double theta, double x, double y)
+	{
+		transform.rotate(theta, x, y);
+	}
+
+	@Override
+	public void scale(double sx, double sy)
+	{
+		transform.scale(sx, sy);
+	}
+
+	@Override
+	public void shear(double shx, double shy)
+	{
+		transform.shear(shx, shy);
+	}
+
+	@Override
+	public void transform(AffineTransform tx)
+	{
+		transform.concatenate(tx);
+	}
+
+	@Override
+	public void setTransform(AffineTransform tx)
+	{
+		transform = new AffineTransform(tx);
+	}
+
+	@Override
+	public AffineTransform getTransform()
+	{
+		return new AffineTransform(transform);
+	}
+
+	@Override
+	public Shape getClip()
+	{
+		if (clip == null) return null;
+
+		try
+		{
+			return transform.createInverse().createTransformedShape(clip);
+		}
+		catch (NoninvertibleTransformException e)
+		{
+			return null;
+		}
+	}
+
+	@Override
+	public Rectangle getClipBounds()
+	{
+		Shape c = getClip();
+		return c == null ? null : c.getBounds();
+	}
+
+	@Override
+	public void setClip(Shape s)
+	{
+		clip = s == null ? null : transform.createTransformedShape(s);
+	}
+
+	@Override
+	public void setClip(int x, int y, int width, int height)
+	{
+		setClip(new Rectangle(x, y, width, height));
+	}
+
+	@Override
+	public void clip(Shape s)
+	{
+		if (s == null)
+		{
+			clip = null;
+			return;
+		}
+
+		Shape c = transform.createTransformedShape(s);
+
+		if (clip == null)
+		{
+			clip = c;
+		}
+		else
+		{
+			Area area = new Area(clip);
+			area.intersect(new Area(c));
+			clip = area;
+		}
+	}
+
+	@Override
+	public void clipRect(int x, int y, int width, int height)
+	{
+		clip(new Rectangle(x, y, width, height));
+	}
+
+	@Override
+	public Color getColor()
+	{
+		return paint instanceof Color ? (Color) paint : Color.BLACK;
+	}
+
+	@Override
+	public void setColor(Color c)
+	{
+		if (c != null) paint = c;
+	}
+
+	@Override
+	public void setPaint(Paint paint)
+	{
+		if (paint != null) this.paint = paint;
+	}
+
+	@Override
+	public Paint getPaint()
+	{
+		return paint;
+	}
+
+	/**
+	 * Only the paint mode is supported.
+	 */
+	@Override
+	public void setPaintMode()
+	{
+	}
+
+	/**
+	 * Only the paint mode is supported, hence this does nothing.
+	 */
+	@Override
+	public void setXORMode(Color c1)
+	{
+	}
+
+	@Override
+	public void setBackground(Color color)
+	{
+		background = color;
+	}
+
+	@Override
+	public Color getBackground()
+	{
+		return background;
+	}
+
+	@Override
+	public void setComposite(Composite comp)
+	{
+		composite = comp;
+	}
+
+	@Override
+	public Composite getComposite()
+	{
+		return composite;
+	}
+
+	@Override
+	public void setStroke(Stroke s)
+	{
+		stroke = s;
+	}
+
+	@Override
+	public Stroke getStroke()
+	{
+		return stroke;
+	}
+
+	@Override
+	public Font getFont()
+	{
+		return font;
+	}
+
+	@Override
+	public void setFont(Font font)
+	{
+		if (font != null) this.font = font;
+	}
+
+	@Override
+	public FontMetrics getFontMetrics(Font f)
+	{
+		return getMeasure().getFontMetrics(f);
+	}
+
+	@Override
+	public FontRenderContext getFontRenderContext()
+	{
+		return new FontRenderContext(new AffineTransform(transform), true, true);
+	}
+
+	@Override
+	public GraphicsConfiguration getDeviceConfiguration()
+	{
+		return getMeasure().getDeviceConfiguration();
+	}
+
+	@Override
+	public void setRenderingHint(RenderingHints.Key hintKey, Object hintValue)
+	{
+		hints.put(hintKey, hintValue);
+	}
+
+	@Override
+	public Object getRenderingHint(RenderingHints.Key hintKey)
+	{
+		return hints.get(hintKey);
+	}
+
+	@Override
+	public void setRenderingHints(Map<?, ?> hints)
+	{
+		this.hints = new RenderingHints(null);
+		this.hints.putAll(hints);
+	}
+
+	@Override
+	public void addRenderingHints(Map<?, ?> hints)
+	{
+		this.hints.putAll(hints);
+	}
+
+	@Override
+	public RenderingHints getRenderingHints()
+	{
+		return (RenderingHints) hints.clone();
+	}
+
+	/**
+	 * Gets a graphics of an image for measuring text, since this graphics has no device.
+	 */
+	private static synchronized Graphics2D getMeasure()
+	{
+		if (measure == null)
+		{
+			measure = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+		}
+		return measure;
+	}
+
+	private static Graphics2D measure;
+
+	/**
+	 * The stream and what is written to it, shared by the graphics that are created from the same
+	 * graphics.
+	 */
+	private static class Output
+	{
+		Writer writer;
+
+		/**
+		 * Clip of the open group, null if no group is open.
+		 */
+		Shape clip;
+
+		int clipCount;
+		int gradientCount;
+
+		/**
+		 * The first error of the stream.
+		 */
+		IOException error;
+
+		Output(Writer writer)
+		{
+			this.writer = writer;
+		}
+
+		/**
+		 * Closes the open group if it has a different clip, and opens a new group with the given
+		 * clip. Clips are in device space, so the groups are not transformed.
+		 */
+		void setClip(Shape c)
+		{
+			if (c == clip) return;
+
+			if (clip != null) write("</g>\n");
+
+			clip = c;
+
+			if (c != null)
+			{
+				String id = "clip" + (++clipCount);
+
+				StringBuilder sb = new StringBuilder("<clipPath id=\"").append(id).append("\">");
+				sb.append("<path");
+				appendPathData(sb, c);
+				sb.append("/></clipPath>\n");
+				sb.append("<g clip-path=\"url(#").append(id).append(")\">\n");
+				write(sb);
+			}
+		}
+
+		/**
+		 * Writes a gradient definition for the paint, and returns its id.
+		 */
+		String writeGradient(GradientPaint gp)
+		{
+			String id = "gradient" + (++gradientCount);
+
+			StringBuilder sb = new StringBuilder("<linearGradient id=\"").append(id)
+				.append("\" gradientUnits=\"userSpaceOnUse\"");
+			sb.append(" x1=\"").append(format(gp.getPoint1().getX())).append('"');
+			sb.append(" y1=\"").append(format(gp.getPoint1().getY())).append('"');
+			sb.append(" x2=\"").append(format(gp.getPoint2().getX())).append('"');
+			sb.append(" y2=\"").append(format(gp.getPoint2().getY())).append('"');
+			if (gp.isCyclic()) sb.append(" spreadMethod=\"reflect\"");
+			sb.append(">");
+			appendStop(sb, "0", gp.getColor1());
+			appendStop(sb, "1", gp.getColor2());
+			sb.append("</linearGradient>\n");
+			write(sb);
+
+			return id;
+		}
+
+		private void appendStop(StringBuilder sb, String offset, Color c)
+		{
+			sb.append("<stop offset=\"").append(offset).append("\" stop-color=\"");
+			appendColor(sb, c);
+			sb.append('"');
+			if (c.getAlpha() < 255)
+			{
+				sb.append(" stop-opacity=\"").append(format(c.getAlpha() / 255D)).append('"');
+			}
+			sb.append("/>");
+		}
+
+		void write(CharSequence s)
+		{
+			if (error != null) return;
+
+			try
+			{
+				writer.append(s);
+			}
+			catch (IOException e)
+			{
+				error = e;
+			}
+		}
+
+		void fail(IOException e)
+		{
+			if (error == null) error = e;
+		}
+	}
+
+	private static final String BASE64 =
+		"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+}
@@ -0,0 +1,197 @@
+package org.gvt.util;
+
+import org.eclipse.draw2d.ColorConstants;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.SWTGraphics;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.widgets.Display;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Exports a figure to a PNG file tile by tile, so that images of very large graphs can be saved
+ * without an image of their whole size. The image is rendered in bands of rows. Each band is
+ * painted in tiles, where only the figures intersecting the tile are painted, and then the rows
+ * of the band are streamed to the PNG encoder. The size of a band is bounded, hence memory use
+ * does not depend on the size of the graph.
+ *
+ * @author Ozgun Babur
+ */
+public class TiledPNGExporter
+{
+	private IFigure figure;
+
+	/**
+	 * Size of the figure area to export, before scaling.
+	 */
+	private int width;
+	private int height;
+
+	private double scale;
+
+	/**
+	 * Text to write at the top left corner, may be null.
+	 */
+	private String title;
+
+	/**
+	 * @param figure figure to export, it is painted starting from (0, 0)
+	 * @param width width of the area to export
+	 * @param height height of the area to export
+	 * @param scale scale factor of the image
+	 */
+	public TiledPNGExporter(IFigure figure, int width, int height, double scale)
+	{
+		if (scale <= 0) throw new IllegalArgumentException("Invalid scale: " + scale);
+
+		this.figure = figure;
+		this.width = width;
+		this.height = height;
+		this.scale = scale;
+	}
+
+	public void setTitle(String title)
+	{
+		this.title = title;
+	}
+
+	/**
+	 * Renders the figure and writes it to the file. Should be called from the UI thread.
+	 */
+	public void export(Display display, String filename) throws IOException
+	{
+		int w = Math.max(1, (int) Math.ceil(width * scale));
+		int h = Math.max(1, (int) Math.ceil(height * scale));
+
+		int bandHeight = Math.max(1, Math.min(h, MAX_BAND_PIXELS / w));
+		int tileWidth = Math.min(w, TILE_SIZE);
+
+		byte[] band = new byte[w * bandHeight * 3];
+		int[] pixels = new int[tileWidth];
+
+		Image image = new Image(display, tileWidth, bandHeight);
+		OutputStream os = new BufferedOutputStream(new FileOutputStream(filename));
+		boolean complete = false;
+
+		try
+		{
+			PNGStreamWriter png = new PNGStreamWriter(os, w, h);
+
+			for (int y = 0; y < h; y += bandHeight)
+			{
+				int bh = Math.min(bandHeight, h - y);
+
+				for (int x = 0; x < w; x += tileWidth)
+				{
+					int tw = Math.min(tileWidth, w - x);
+
+					paintTile(image, x, y, tw, bh);
+					copyTile(image.getImageData(), tw, bh, pixels, band, x, w);
+				}
+
+				for (int r = 0; r < bh; r++)
+				{
+					png.writeRow(band, r * w * 3);
+				}
+			}
+
+			png.close();
+			complete = true;
+		}
+		finally
+		{
+			image.dispose();
+			if (!complete) os.close();
+		}
+	}
+
+	/**
+	 * Paints the part of the figure that falls in the tile at the given location of the image.
+	 */
+	private void paintTile(Image image, int x, int y, int tw, int th)
+	{
+		GC gc = new GC(image);
+		gc.setAntialias(SWT.ON);
+		gc.setTextAntialias(SWT.ON);
+
+		SWTGraphics graphics = new SWTGraphics(gc);
+
+		graphics.setBackgroundColor(ColorConstants.white);
+		graphics.fillRectangle(0, 0, tw, th);
+
+		// Figures check their bounds against the clip, so only the intersecting ones are painted
+
+		graphics.clipRect(new Rectangle(0, 0, tw, th));
+		graphics.translate(-x, -y);
+
+		graphics.pushState();
+		if (scale != 1) graphics.scale(scale);
+		figure.paint(graphics);
+		graphics.popState();
+
+		if (title != null) graphics.drawText(title, 3, 3);
+
+		graphics.dispose();
+		gc.dispose();
+	}
+
+	/**
+	 * Copies the RGB values of the painted tile to its place in the band.
+	 */
+	private void copyTile(ImageData data, int tw, int th, int[] pixels, byte[] band, int x,
+		int bandWidth)
+	{
+		PaletteData palette = data.palette;
+
+		for (int r = 0; r < th; r++)
+		{
+			data.getPixels(0, r, tw, pixels, 0);
+
+			int pos = (r * bandWidth + x) * 3;
+
+			for (int i = 0; i < tw; i++)
+			{
+				int p = pixels[i];
+
+				if (palette.isDirect)
+				{
+					band[pos++] = (byte) component(p, palette.redMask, palette.redShift);
+					band[pos++] = (byte) component(p, palette.greenMask, palette.greenShift);
+					band[pos++] = (byte) component(p, palette.blueMask, palette.blueShift);
+				}
+				else
+				{
+					RGB rgb = palette.colors[p];
+					band[pos++] = (byte) rgb.red;
+					band[pos++] = (byte) rgb.green;
+					band[pos++] = (byte) rgb.blue;
+				}
+			}
+		}
+	}
+
+	private static int component(int pixel, int mask, int shift)
+	{
+		int v = pixel & mask;
+		return shift < 0 ? v >>> -shift : v << shift;
+	}
+
+	/**
+	 * Largest width of a tile.
+	 */
+	private static final int TILE_SIZE = 1024;
+
+	/**
+	 * Largest number of pixels in a band. The height of the bands is decided with this.
+	 */
+	private static final int MAX_BAND_PIXELS = 1 << 22;
+}
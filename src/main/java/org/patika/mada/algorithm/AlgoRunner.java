@@ -1,10 +1,12 @@
 package org.patika.mada.algorithm;
 
 import org.patika.mada.graph.Graph;
+import org.patika.mada.graph.CompactGraph;
 import org.patika.mada.graph.GraphObject;
 import org.patika.mada.graph.Node;
 import org.patika.mada.util.CausativePath;
 import org.patika.mada.util.Path;
+import org.patika.mada.util.ProgressMonitor;
 
 import java.util.Collection;
 import java.util.List;
@@ -21,11 +23,27 @@ public class AlgoRunner
 	public static Map<Node, Map<Integer, List<CausativePath>>> searchCausativePaths(
 		Graph graph, Set<? extends Node> targets, int limit, int t, int k)
 	{
-		MarkDistances md = new MarkDistances(graph, limit);
+		return searchCausativePaths(graph, targets, limit, t, k, null);
+	}
+
+	/**
+	 * Searches causative paths, checking the monitor for cancellation. The search keeps its state
+	 * in its own query context, hence does not modify the graph.
+	 */
+	public static Map<Node, Map<Integer, List<CausativePath>>> searchCausativePaths(
+		Graph graph, Set<? extends Node> targets, int limit, int t, int k, ProgressMonitor monitor)
+	{
+		QueryContext context = new QueryContext(graph);
+
+		MarkDistances md = new MarkDistances(context, limit);
+		md.setMonitor(monitor);
 		md.run();
-		MarkShortestPlusPaths mspp = new MarkShortestPlusPaths(graph, limit, k);
+		MarkShortestPlusPaths mspp = new MarkShortestPlusPaths(context, limit, k);
+		mspp.setMonitor(monitor);
 		mspp.run();
-		SearchCauses sc = new SearchCauses(graph, targets, limit, t, k);
+
+		SearchCauses sc = new SearchCauses(context, targets, limit, t, k);
+		sc.setMonitor(monitor);
 		return sc.run();
 	}
 
@@ -52,6 +70,16 @@ public class AlgoRunner
 	 */
 	public static Collection<GraphObject> searchPathsBetweenSIF(Set<Node> seed, int limit,
 		boolean directed, int k, boolean ignoreLoops)
+	{
+		return searchPathsBetweenSIF(seed, limit, directed, k, ignoreLoops, null);
+	}
+
+	/**
+	 * Gets a merge graph of all paths between seed nodes shorter than a limit, checking the
+	 * monitor for cancellation.
+	 */
+	public static Collection<GraphObject> searchPathsBetweenSIF(Set<Node> seed, int limit,
+		boolean directed, int k, boolean ignoreLoops, ProgressMonitor monitor)
 	{
 		PathsBetweenSIF goi = new PathsBetweenSIF(seed, directed, limit);
 		if (k >= 0)
@@ -60,9 +88,30 @@ public class AlgoRunner
 			goi.setK(k);
 		}
 		goi.setIgnoreSelfLoops(ignoreLoops);
+		goi.setMonitor(monitor);
 		return goi.run();
 	}
 
+	/**
+	 * Runs the paths-between query on a snapshot, with seeds given as node ids. This does not need
+	 * any graph object, so it can run on a headless snapshot. Results are read from the returned
+	 * query with getNodeSelection and getEdgeSelection.
+	 */
+	public static PathsBetweenSIF searchPathsBetweenSIF(CompactGraph graph, int[] seed, int limit,
+		boolean directed, int k, boolean ignoreLoops, ProgressMonitor monitor)
+	{
+		PathsBetweenSIF goi = new PathsBetweenSIF(graph, directed, limit);
+		if (k >= 0)
+		{
+			goi.setUseShortestPlusK(true);
+			goi.setK(k);
+		}
+		goi.setIgnoreSelfLoops(ignoreLoops);
+		goi.setMonitor(monitor);
+		goi.search(seed, seed);
+		return goi;
+	}
+
 	public static Collection<GraphObject> searchPathsBetweenSIFWithLinkers(Set<Node> seed)
 	{
 		PathsBetweenSIFWithLinkers goi = new PathsBetweenSIFWithLinkers(seed);
@@ -84,6 +133,12 @@ public class AlgoRunner
 
 	public static Collection<GraphObject> searchPathsFromTo(Set<Node> source, Set<Node> target,
 		int limit, boolean directedGraph, int k, boolean ignoreLoops)
+	{
+		return searchPathsFromTo(source, target, limit, directedGraph, k, ignoreLoops, null);
+	}
+
+	public static Collection<GraphObject> searchPathsFromTo(Set<Node> source, Set<Node> target,
+		int limit, boolean directedGraph, int k, boolean ignoreLoops, ProgressMonitor monitor)
 	{
 		PathsBetweenSIF goi = new PathsBetweenSIF(source, target, directedGraph, limit);
 		if (k >= 0)
@@ -92,6 +147,7 @@ public class AlgoRunner
 			goi.setK(k);
 		}
 		goi.setIgnoreSelfLoops(ignoreLoops);
+		goi.setMonitor(monitor);
 		return goi.run();
 	}
 
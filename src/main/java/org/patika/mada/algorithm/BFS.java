@@ -1,32 +1,48 @@
 package org.patika.mada.algorithm;
 
+import org.patika.mada.graph.CompactGraph;
 import org.patika.mada.graph.GraphObject;
 import org.patika.mada.graph.Node;
 import org.patika.mada.graph.Edge;
+import org.patika.mada.util.IntDeque;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
 import java.util.HashMap;
-import java.util.LinkedList;
 
 /**
  * Implements breadth-first search. Takes a set of source nodes, distance limit and labels nodes
  * towards one direction, with their breadth distances.
  *
+ * The search runs on a CompactGraph snapshot and keeps distances and colors in int arrays indexed
+ * by node and edge ids. If no snapshot is provided, one is taken from the source nodes. Large
+ * plain snapshots are searched with LevelBFS, which gives the same labels.
+ *
  * @author Ozgun Babur
  * @author Merve Cakir
  */
 public class BFS
 {
 	/**
-	 * Distance labels. Missing label interpreted as infinitive.
+	 * Snapshot of the graph to traverse.
+	 */
+	private CompactGraph graph;
+
+	/**
+	 * Distance labels of nodes. Negative value is interpreted as infinitive.
 	 */
-	private Map<GraphObject, Integer> dist;
+	private int[] nodeDist;
 
 	/**
-	 * Color labels. Missing color interpreted as white.
+	 * Distance labels of edges. Negative value is interpreted as infinitive.
 	 */
-	private Map<GraphObject, Integer> colors;
+	private int[] edgeDist;
+
+	/**
+	 * Color labels. Zero is white.
+	 */
+	private byte[] colors;
 
 	/**
 	 * BFS starts from source nodes. They get the label 0.
@@ -56,79 +72,151 @@ public class BFS
 		this.limit = limit;
 	}
 
+	/**
+	 * Sets the snapshot to run on. Queries that run several searches on the same graph should take
+	 * the snapshot once and set it to each search.
+	 */
+	public void setGraph(CompactGraph graph)
+	{
+		this.graph = graph;
+	}
+
+	public CompactGraph getGraph()
+	{
+		return graph;
+	}
+
 	public Map<GraphObject, Integer> run()
 	{
-		// Initialize label, maps and queue
+		search();
+
+		Map<GraphObject, Integer> dist = new HashMap<GraphObject, Integer>();
+
+		for (int i = 0; i < nodeDist.length; i++)
+		{
+			if (nodeDist[i] >= 0) dist.put(graph.getNode(i), nodeDist[i]);
+		}
+		for (int i = 0; i < edgeDist.length; i++)
+		{
+			if (edgeDist[i] >= 0) dist.put(graph.getEdge(i), edgeDist[i]);
+		}
+		return dist;
+	}
+
+	/**
+	 * Runs the search without converting the result to graph objects. Results can be read with
+	 * getNodeLabel and getEdgeLabel afterwards.
+	 */
+	public void search()
+	{
+		if (graph == null) graph = new CompactGraph(sourceSet);
+
+		int[] sources = graph.getNodeIds(sourceSet);
+		boolean[] stop = null;
+
+		if (stopSet != null)
+		{
+			stop = new boolean[graph.getNodeCount()];
+			for (Node node : stopSet)
+			{
+				int id = graph.getNodeId(node);
+				if (id >= 0) stop[id] = true;
+			}
+		}
+
+		search(sources, stop);
+	}
+
+	/**
+	 * Runs the search from the given source ids.
+	 * @param sources ids of source nodes
+	 * @param stop nodes whose neighbors will not be traversed, may be null
+	 */
+	public void search(int[] sources, boolean[] stop)
+	{
+		// Large plain graphs are searched level by level, in parallel
+
+		if (graph.isPlain() && graph.getEdgeCount() >= LEVEL_SYNC_THRESHOLD)
+		{
+			LevelBFS levelBFS = new LevelBFS(graph, isFwd, limit);
+			levelBFS.search(sources, stop);
+			nodeDist = levelBFS.getNodeDist();
+			edgeDist = levelBFS.getEdgeDist();
+			return;
+		}
+
+		nodeDist = new int[graph.getNodeCount()];
+		edgeDist = new int[graph.getEdgeCount()];
+		colors = new byte[graph.getNodeCount()];
+		Arrays.fill(nodeDist, -1);
+		Arrays.fill(edgeDist, -1);
 
-		dist = new HashMap<GraphObject, Integer>();
-		colors = new HashMap<GraphObject, Integer>();
-		LinkedList<Node> queue = new LinkedList<Node>();
+		int[] offsets = isFwd ? graph.getOutOffsets() : graph.getInOffsets();
+		int[] adjacent = isFwd ? graph.getOutEdges() : graph.getInEdges();
+		int[] ends = isFwd ? graph.getEdgeTargets() : graph.getEdgeSources();
 
+		IntDeque queue = new IntDeque();
 
 		// Initialize dist and color of source set
 
-		for (Node source : sourceSet)
+		for (int source : sources)
 		{
-			setLabel(source, 0);
-			setColor(source, GRAY);
+			nodeDist[source] = 0;
+			colors[source] = GRAY;
 		}
 
 		// Add all source nodes to the queue if traversal is needed
 
 		if (limit > 0)
 		{
-			queue.addAll(sourceSet);
+			for (int source : sources)
+			{
+				queue.addLast(source);
+			}
 		}
 
 		// Process the queue
 
 		while (!queue.isEmpty())
 		{
-			Node current = queue.remove(0);
+			int current = queue.pollFirst();
+			int d = nodeDist[current];
+			boolean currentBreadth = graph.isBreadthNode(current);
 
 			// Process edges towards the direction
 
-			for (Edge edge : isFwd ? current.getDownstream() : current.getUpstream())
+			for (int i = offsets[current]; i < offsets[current + 1]; i++)
 			{
+				int edge = adjacent[i];
+				boolean equivalence = graph.isEquivalenceEdge(edge);
+
 				// Label the edge considering direction of traversal and type of current node
 
-				if (isFwd || !current.isBreadthNode() || edge.isEquivalenceEdge())
-				{
-					setLabel(edge, getLabel(current));
-				}
-				else
-				{
-					setLabel(edge, getLabel(current) + 1);
-				}
+				edgeDist[edge] = isFwd || !currentBreadth || equivalence ? d : d + 1;
 
 				// Get the other end of the edge
-				Node neigh = isFwd ? edge.getTargetNode() : edge.getSourceNode();
+				int neigh = ends[edge];
 
 				// Process the neighbor if not processed or not in queue
 
-				if (getColor(neigh) == WHITE)
+				if (colors[neigh] == WHITE)
 				{
+					boolean neighBreadth = graph.isBreadthNode(neigh);
+
 					// Label the neighbor according to the search direction and node type
 
-					if (!neigh.isBreadthNode() || !isFwd || edge.isEquivalenceEdge())
-					{
-						setLabel(neigh, getLabel(edge));
-					}
-					else
-					{
-						setLabel(neigh, getLabel(current) + 1);
-					}
+					nodeDist[neigh] = !neighBreadth || !isFwd || equivalence ? edgeDist[edge] : d + 1;
 
 					// Check if we need to stop traversing the neighbor, enqueue otherwise
-					
-					if ((stopSet == null || !stopSet.contains(neigh)) &&
-						(!neigh.isBreadthNode() || getLabel(neigh) < limit))
+
+					if ((stop == null || !stop[neigh]) &&
+						(!neighBreadth || nodeDist[neigh] < limit))
 					{
-						setColor(neigh, GRAY);
+						colors[neigh] = GRAY;
 
 						// Enqueue the node according to its type
 
-						if (neigh.isBreadthNode())
+						if (neighBreadth)
 						{
 							queue.addLast(neigh);
 						}
@@ -141,52 +229,66 @@ public class BFS
 					else
 					{
 						// If we do not want to traverse this meighbor, we paint it black
-						setColor(neigh, BLACK);
+						colors[neigh] = BLACK;
 					}
 				}
 			}
 
 			// Current node is processed
-			setColor(current, BLACK);
+			colors[current] = BLACK;
 		}
-
-		return dist;
 	}
 
-	private int getColor(Node node)
+	public int getLabel(GraphObject go)
 	{
-		if (!colors.containsKey(node))
+		int d = -1;
+
+		if (go instanceof Node)
 		{
-			// Absence of color is interpreted as white
-			return WHITE;
+			int id = graph.getNodeId((Node) go);
+			if (id >= 0) d = nodeDist[id];
 		}
-		else
+		else if (go instanceof Edge)
 		{
-			return colors.get(node);
+			int id = graph.getEdgeId((Edge) go);
+			if (id >= 0) d = edgeDist[id];
 		}
+
+		return d < 0 ? getInfinite() : d;
 	}
 
-	private void setColor(Node node, int color)
+	/**
+	 * Gets the distance label of the node with the given id.
+	 */
+	public int getNodeLabel(int id)
 	{
-		colors.put(node, color);
+		return nodeDist[id] < 0 ? getInfinite() : nodeDist[id];
 	}
 
-	public int getLabel(GraphObject go)
+	/**
+	 * Gets the distance label of the edge with the given id.
+	 */
+	public int getEdgeLabel(int id)
 	{
-		if (!dist.containsKey(go))
-		{
-			// Absence of label is interpreted as infinite
-			return Integer.MAX_VALUE-(limit*2);
-		}
-		else
-		{
-			return dist.get(go);
-		}
+		return edgeDist[id] < 0 ? getInfinite() : edgeDist[id];
+	}
+
+	public boolean isReachedNode(int id)
+	{
+		return nodeDist[id] >= 0;
+	}
+
+	public boolean isReachedEdge(int id)
+	{
+		return edgeDist[id] >= 0;
 	}
 
-	private void setLabel(GraphObject go, int label)
+	/**
+	 * Absence of label is interpreted as infinite.
+	 */
+	private int getInfinite()
 	{
-		dist.put(go, label);
+		return Integer.MAX_VALUE-(limit*2);
 	}
 
 	/**
@@ -203,4 +305,9 @@ public class BFS
 	 * Color black indicates that the node was processed.
 	 */
 	public static final int BLACK = 2;
+
+	/**
+	 * Plain graphs with this many edges are searched with LevelBFS.
+	 */
+	private static final int LEVEL_SYNC_THRESHOLD = 50000;
 }
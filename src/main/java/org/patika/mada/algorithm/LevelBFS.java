@@ -0,0 +1,413 @@
+package org.patika.mada.algorithm;
+
+import org.patika.mada.graph.CompactGraph;
+import org.patika.mada.util.SharedPool;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Level synchronous breadth-first search on a CompactGraph. The whole frontier is expanded at
+ * each level, in parallel when it is large. A level is either expanded top-down, by scanning the
+ * edges of the frontier, or bottom-up, by scanning the edges of the unvisited nodes until a parent
+ * in the frontier is found. The search switches to bottom-up when the frontier has more edges than
+ * a fraction of the unvisited part of the graph, and back to top-down when the frontier shrinks.
+ *
+ * Distances are hop counts, so the search is for plain graphs (see CompactGraph.isPlain). On a
+ * plain graph it labels nodes and edges the same way BFS does. Arrays are kept between searches,
+ * so running several searches with the same object does not allocate again.
+ *
+ * @author Ozgun Babur
+ */
+public class LevelBFS
+{
+	private CompactGraph graph;
+
+	/**
+	 * Whether the direction is FORWARD, it is REVERSE otherwise.
+	 */
+	private boolean isFwd;
+
+	/**
+	 * Stop distance. Nodes at this distance are labeled but not expanded.
+	 */
+	private int limit;
+
+	private int n;
+
+	/**
+	 * Distance labels. Negative value is interpreted as infinitive.
+	 */
+	private int[] nodeDist;
+	private int[] edgeDist;
+
+	/**
+	 * Adjacency towards the search direction, and the reverse of it.
+	 */
+	private int[] offsets;
+	private int[] adjacent;
+	private int[] ends;
+	private int[] revOffsets;
+	private int[] revAdjacent;
+	private int[] revEnds;
+
+	/**
+	 * Bitsets of visited nodes, the frontier, and the nodes visited at the current level.
+	 */
+	private AtomicLongArray visited;
+	private long[] frontierBits;
+	private AtomicLongArray nextBits;
+
+	/**
+	 * Expandable nodes of the current level.
+	 */
+	private int[] frontier;
+	private int frontierSize;
+
+	/**
+	 * Nodes whose neighbors are not traversed, may be null.
+	 */
+	private boolean[] stop;
+
+	public LevelBFS(CompactGraph graph, boolean direction, int limit)
+	{
+		this.graph = graph;
+		this.isFwd = direction;
+		this.limit = limit;
+		this.n = graph.getNodeCount();
+
+		offsets = isFwd ? graph.getOutOffsets() : graph.getInOffsets();
+		adjacent = isFwd ? graph.getOutEdges() : graph.getInEdges();
+		ends = isFwd ? graph.getEdgeTargets() : graph.getEdgeSources();
+		revOffsets = isFwd ? graph.getInOffsets() : graph.getOutOffsets();
+		revAdjacent = isFwd ? graph.getInEdges() : graph.getOutEdges();
+		revEnds = isFwd ? graph.getEdgeSources() : graph.getEdgeTargets();
+
+		nodeDist = new int[n];
+		edgeDist = new int[graph.getEdgeCount()];
+		frontier = new int[n];
+
+		int words = (n + 63) >>> 6;
+		visited = new AtomicLongArray(words);
+		frontierBits = new long[words];
+		nextBits = new AtomicLongArray(words);
+	}
+
+	/**
+	 * Runs the search. Previous labels are discarded.
+	 * @param sources ids of source nodes
+	 * @param stop nodes whose neighbors will not be traversed, may be null
+	 */
+	public void search(int[] sources, boolean[] stop)
+	{
+		this.stop = stop;
+
+		Arrays.fill(nodeDist, -1);
+		Arrays.fill(edgeDist, -1);
+		for (int i = 0; i < visited.length(); i++)
+		{
+			visited.set(i, 0);
+			nextBits.set(i, 0);
+		}
+
+		// Sources are expanded even if they are in the stop set
+
+		frontierSize = 0;
+		for (int source : sources)
+		{
+			if (nodeDist[source] < 0)
+			{
+				nodeDist[source] = 0;
+				setBit(visited, source);
+				frontier[frontierSize++] = source;
+			}
+		}
+
+		long unvisitedEdges = graph.getEdgeCount();
+		long frontierEdges = 0;
+		for (int i = 0; i < frontierSize; i++)
+		{
+			frontierEdges += degree(frontier[i]);
+		}
+		unvisitedEdges -= frontierEdges;
+
+		boolean bottomUp = false;
+
+		for (int level = 0; level < limit && frontierSize > 0; level++)
+		{
+			// Decide on the direction of the level
+
+			if (!bottomUp && frontierEdges > unvisitedEdges / ALPHA) bottomUp = true;
+			else if (bottomUp && frontierSize < n / BETA) bottomUp = false;
+
+			if (bottomUp) expandBottomUp(level);
+			else expandTopDown(level);
+
+			// Collect the next frontier from the nodes visited at this level
+
+			frontierSize = 0;
+			frontierEdges = 0;
+			boolean expand = level + 1 < limit;
+
+			for (int w = 0; w < frontierBits.length; w++)
+			{
+				long word = nextBits.get(w);
+				long front = 0;
+
+				while (word != 0)
+				{
+					int bit = Long.numberOfTrailingZeros(word);
+					word &= word - 1;
+					int node = (w << 6) + bit;
+
+					int deg = degree(node);
+					unvisitedEdges -= deg;
+
+					if (expand && (stop == null || !stop[node]))
+					{
+						frontier[frontierSize++] = node;
+						frontierEdges += deg;
+						front |= 1L << bit;
+					}
+				}
+				frontierBits[w] = front;
+				nextBits.set(w, 0);
+			}
+		}
+
+		labelEdges();
+	}
+
+	/**
+	 * Visits the unvisited neighbors of the frontier.
+	 */
+	private void expandTopDown(int level)
+	{
+		long work = 0;
+		for (int i = 0; i < frontierSize; i++)
+		{
+			work += degree(frontier[i]);
+		}
+
+		if (work < PARALLEL_THRESHOLD) topDown(0, frontierSize, level);
+		else SharedPool.get().invoke(new LevelTask(level, false, 0, frontierSize));
+	}
+
+	/**
+	 * Visits the unvisited nodes that have a neighbor in the frontier. The frontier bitset should
+	 * be ready.
+	 */
+	private void expandBottomUp(int level)
+	{
+		// The first level starts top-down, so the frontier bitset is filled when it is needed
+
+		if (level == 0)
+		{
+			Arrays.fill(frontierBits, 0);
+			for (int i = 0; i < frontierSize; i++)
+			{
+				frontierBits[frontier[i] >>> 6] |= 1L << frontier[i];
+			}
+		}
+
+		int words = frontierBits.length;
+
+		if (n < PARALLEL_THRESHOLD) bottomUp(0, words, level);
+		else SharedPool.get().invoke(new LevelTask(level, true, 0, words));
+	}
+
+	/**
+	 * Expands the frontier nodes in the given range.
+	 */
+	private void topDown(int from, int to, int level)
+	{
+		for (int i = from; i < to; i++)
+		{
+			int node = frontier[i];
+
+			for (int j = offsets[node]; j < offsets[node + 1]; j++)
+			{
+				int neigh = ends[adjacent[j]];
+
+				if (claim(neigh))
+				{
+					nodeDist[neigh] = level + 1;
+					setBit(nextBits, neigh);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Searches a parent in the frontier for the unvisited nodes in the given range of bitset words.
+	 * Each word belongs to only one range, so the words are updated without contention.
+	 */
+	private void bottomUp(int fromWord, int toWord, int level)
+	{
+		for (int w = fromWord; w < toWord; w++)
+		{
+			long unvisited = ~visited.get(w);
+			if (unvisited == 0) continue;
+
+			long found = 0;
+
+			while (unvisited != 0)
+			{
+				int bit = Long.numberOfTrailingZeros(unvisited);
+				unvisited &= unvisited - 1;
+				int node = (w << 6) + bit;
+				if (node >= n) break;
+
+				for (int j = revOffsets[node]; j < revOffsets[node + 1]; j++)
+				{
+					int parent = revEnds[revAdjacent[j]];
+
+					if ((frontierBits[parent >>> 6] & (1L << parent)) != 0)
+					{
+						nodeDist[node] = level + 1;
+						found |= 1L << bit;
+						break;
+					}
+				}
+			}
+
+			if (found != 0)
+			{
+				visited.set(w, visited.get(w) | found);
+				nextBits.set(w, found);
+			}
+		}
+	}
+
+	/**
+	 * Labels the edges of the expanded nodes, as BFS labels them while expanding.
+	 */
+	private void labelEdges()
+	{
+		int shift = isFwd ? 0 : 1;
+
+		for (int node = 0; node < n; node++)
+		{
+			int d = nodeDist[node];
+
+			if (d >= 0 && d < limit && (d == 0 || stop == null || !stop[node]))
+			{
+				for (int j = offsets[node]; j < offsets[node + 1]; j++)
+				{
+					edgeDist[adjacent[j]] = d + shift;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Marks the node as visited. Returns false if it was already visited.
+	 */
+	private boolean claim(int node)
+	{
+		int w = node >>> 6;
+		long mask = 1L << node;
+
+		while (true)
+		{
+			long word = visited.get(w);
+			if ((word & mask) != 0) return false;
+			if (visited.compareAndSet(w, word, word | mask)) return true;
+		}
+	}
+
+	private static void setBit(AtomicLongArray bits, int node)
+	{
+		int w = node >>> 6;
+		long mask = 1L << node;
+
+		while (true)
+		{
+			long word = bits.get(w);
+			if ((word & mask) != 0 || bits.compareAndSet(w, word, word | mask)) return;
+		}
+	}
+
+	private int degree(int node)
+	{
+		return offsets[node + 1] - offsets[node];
+	}
+
+	/**
+	 * Gets the distance label array of nodes. Negative values are unreached nodes. The array is
+	 * overwritten by the next search.
+	 */
+	public int[] getNodeDist()
+	{
+		return nodeDist;
+	}
+
+	/**
+	 * Gets the distance label array of edges. Negative values are unreached edges. The array is
+	 * overwritten by the next search.
+	 */
+	public int[] getEdgeDist()
+	{
+		return edgeDist;
+	}
+
+	public boolean isReachedNode(int id)
+	{
+		return nodeDist[id] >= 0;
+	}
+
+	/**
+	 * Expands a range of the frontier (top-down) or of the bitset words (bottom-up). Ranges are
+	 * split in half until they are small enough.
+	 */
+	private class LevelTask extends RecursiveAction
+	{
+		private int level;
+		private boolean bottomUp;
+		private int from;
+		private int to;
+
+		LevelTask(int level, boolean bottomUp, int from, int to)
+		{
+			this.level = level;
+			this.bottomUp = bottomUp;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (to - from <= (bottomUp ? WORD_GRAIN : NODE_GRAIN))
+			{
+				if (bottomUp) bottomUp(from, to, level);
+				else topDown(from, to, level);
+			}
+			else
+			{
+				int mid = (from + to) >>> 1;
+				invokeAll(new LevelTask(level, bottomUp, from, mid),
+					new LevelTask(level, bottomUp, mid, to));
+			}
+		}
+	}
+
+	/**
+	 * Switch to bottom-up when the frontier has more edges than 1/ALPHA of the unvisited edges.
+	 */
+	private static final int ALPHA = 14;
+
+	/**
+	 * Switch back to top-down when the frontier has less nodes than 1/BETA of all nodes.
+	 */
+	private static final int BETA = 24;
+
+	/**
+	 * Levels with less work than this are expanded in the calling thread.
+	 */
+	private static final int PARALLEL_THRESHOLD = 10000;
+
+	private static final int NODE_GRAIN = 256;
+	private static final int WORD_GRAIN = 64;
+}
@@ -1,13 +1,11 @@
 package org.patika.mada.algorithm;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
-import java.util.Map;
 import java.util.Set;
 
-import org.patika.mada.graph.GraphObject;
+import org.patika.mada.graph.CompactGraph;
 import org.patika.mada.graph.Node;
 
 /**
@@ -41,11 +39,15 @@ public class LocalCommonStreamQuery
     private int limit;
 
     /**
-     * The map to hold the reached counts of graph objects. Reached count
-     * represents whether the particular graph object is in the boundaries
-     * of BFS.
+     * Reached counts of nodes, indexed by node id. Reached count represents
+     * whether the particular node is in the boundaries of BFS.
      */
-    Map<GraphObject, Integer> reachedCount = new HashMap<GraphObject, Integer>();
+    private int[] reachedCount;
+
+    /**
+     * Snapshot of the graph that all searches run on.
+     */
+    private CompactGraph graph;
     
     /**
      * Result Set of Stream Query
@@ -81,91 +83,75 @@ public class LocalCommonStreamQuery
         this.limit = limit;
     }
     
+    public void setGraph(CompactGraph graph)
+    {
+        this.graph = graph;
+    }
+
     /**
      * Method to run query
      */
     public Set<Node> run()
     {
-        /**
-         * Candidate contains all the graph objects that are the results of BFS.
-         * Eliminating nodes from candidate according to the reached counts
-         * will yield result.
-         */
-        Map<GraphObject, Integer> candidate = new HashMap<GraphObject, Integer>();
-        Set<GraphObject> result = new HashSet<GraphObject>();
-        
+        if (graph == null)
+        {
+            Set<Node> all = new HashSet<Node>();
+            for (Set<Node> source : sourceSet)
+            {
+                all.addAll(source);
+            }
+            graph = new CompactGraph(all);
+        }
+
+        reachedCount = new int[graph.getNodeCount()];
+
+        // On a plain graph one level synchronous search is reused for all source sets
+        LevelBFS levelBFS = graph.isPlain() ? new LevelBFS(graph, isFwd, limit) : null;
+
    		//for each set of states of entity, run BFS separately
         for (Set<Node> source : sourceSet)
         {
+            if (levelBFS != null)
+            {
+                levelBFS.search(graph.getNodeIds(source), null);
+
+                for (int i = 0; i < reachedCount.length; i++)
+                {
+                    if (levelBFS.isReachedNode(i)) reachedCount[i]++;
+                }
+                continue;
+            }
+
             //run BFS for set of states of each entity
           	BFS bfs = new BFS (source, null, isFwd, limit);
-            Map<GraphObject, Integer> BFSResult = 
-            	new HashMap<GraphObject, Integer>();
-            BFSResult.putAll(bfs.run());
+            bfs.setGraph(graph);
+            bfs.search();
 
             /**
-             * Reached counts of the graph objects that are in BFSResult will
-             * be incremented by 1.
+             * Reached counts of the nodes that are in BFS result will be
+             * incremented by 1.
              */
-            for (GraphObject go : BFSResult.keySet())
+            for (int i = 0; i < reachedCount.length; i++)
             {
-            	setLabel(go, (getLabel(go) + 1));
+                if (bfs.isReachedNode(i)) reachedCount[i]++;
             }
-                
-            //put BFS Result into candidate set
-            candidate.putAll(BFSResult);
         }
-            
+
+        this.queryResult = new HashSet<Node>();
+
         /**
          * Having a reached count equal to number of nodes in the source set
-         * indicates being in common stream. 
+         * indicates being in common stream.
          */
-        for(GraphObject go : candidate.keySet())
-        {
-        	if (getLabel(go) == sourceSet.size())
-        	{
-        		result.add(go);
-        	}
-        }
-
-        this.queryResult = new HashSet<Node>();
-        
-        //Take out Nodes and store it to result
-        for (GraphObject go : result)
+        for (int i = 0; i < reachedCount.length; i++)
         {
-            if (go instanceof Node)
+            if (reachedCount[i] > 0 && reachedCount[i] == sourceSet.size())
             {
-                this.queryResult.add((Node)go);
+                this.queryResult.add(graph.getNode(i));
             }
         }
-    	
+
         //Return the result of query
     	return this.queryResult;
     }
-    
-    /**
-     * Method for getting Label of GraphObject.
-     * If Label is absent, then it returns 0.
-     */
-    private int getLabel(GraphObject go)
-	{
-		if (!reachedCount.containsKey(go))
-		{
-			// Absence of label is interpreted as zero
-		    return 0;
-		}
-		else
-		{
-			return reachedCount.get(go);
-		}
-	}
-
-    /**
-     * Method for setting the Label of GraphObject
-     */
-	private void setLabel(GraphObject go, int label)
-	{
-		reachedCount.put(go, label);
-	}
-
 }
@@ -4,6 +4,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import org.patika.mada.graph.CompactGraph;
 import org.patika.mada.graph.GraphObject;
 import org.patika.mada.graph.Node;
 
@@ -40,6 +41,11 @@ public class LocalNeighborhoodQuery
      * Result Set of Neighborhood Query
      */
     private Set<GraphObject> queryResult = new HashSet<GraphObject>();
+
+    /**
+     * Snapshot of the graph that both searches run on.
+     */
+    private CompactGraph graph;
     
     /**
      * Constructor for Neighborhood Query.
@@ -51,6 +57,11 @@ public class LocalNeighborhoodQuery
         this.isDownstream = isDownstream;
         this.limit = limit;
     }  
+
+    public void setGraph(CompactGraph graph)
+    {
+        this.graph = graph;
+    }
     
     /**
      * Method to run query
@@ -59,6 +70,8 @@ public class LocalNeighborhoodQuery
     {
     	BFS bfsBackward = null;
 		BFS bfsForward = null;
+
+		if (graph == null) graph = new CompactGraph(sourceNodes);
 		
     	//if upstream is selected
 		if (isUpstream)
@@ -66,6 +79,7 @@ public class LocalNeighborhoodQuery
 			//run BFS in upstream direction
 			bfsBackward = 
 				new BFS(sourceNodes, null, false, this.limit);
+			bfsBackward.setGraph(graph);
 
 			mapBackward = bfsBackward.run();
 
@@ -78,6 +92,7 @@ public class LocalNeighborhoodQuery
 			//run BFS in downstream direction
 			bfsForward = 
 				new BFS(sourceNodes, null, true, this.limit);
+			bfsForward.setGraph(graph);
 
 			mapForward = bfsForward.run();
 
@@ -1,10 +1,9 @@
 package org.patika.mada.algorithm;
 
+import org.patika.mada.graph.CompactGraph;
 import org.patika.mada.graph.Node;
 import org.patika.mada.graph.GraphObject;
 import java.util.Set;
-import java.util.Map;
-import java.util.HashMap;
 import java.util.HashSet;
 
 /**
@@ -48,6 +47,11 @@ public class LocalPoIQuery
      */
     private boolean strict;
 
+    /**
+     * Snapshot of the graph that both searches run on.
+     */
+    private CompactGraph graph;
+
     /**
      * Constructor
      */
@@ -64,15 +68,20 @@ public class LocalPoIQuery
         this.strict = strict;
     }
 
+    public void setGraph(CompactGraph graph)
+    {
+        this.graph = graph;
+    }
+
     public Set<GraphObject> run()
     {
-        /**
-         * Candidate contains all the graph objects that are the results of BFS.
-         * Eliminating nodes from candidate according to their labels will
-         * yield result.
-         */
-        Map<GraphObject, Integer> candidate =
-                new HashMap<GraphObject, Integer>();
+        if (graph == null)
+        {
+            Set<Node> all = new HashSet<Node>(sourceSet);
+            all.addAll(targetSet);
+            graph = new CompactGraph(all);
+        }
+
         Set<GraphObject> result = new HashSet<GraphObject>();
 
         BFS bfsFwd = null;
@@ -99,8 +108,35 @@ public class LocalPoIQuery
             bfsRev = new BFS(targetSet, sourceSet, false, 25);
         }
 
-        candidate.putAll(bfsFwd.run());
-        candidate.putAll(bfsRev.run());
+        bfsFwd.setGraph(graph);
+        bfsRev.setGraph(graph);
+        bfsFwd.search();
+        bfsRev.search();
+
+        /**
+         * Candidates are all the graph objects that are reached by either BFS.
+         * Summing up the labels of two search will give the length of the path
+         * that passes through that particular graph object.
+         */
+        int nodeCount = graph.getNodeCount();
+        int edgeCount = graph.getEdgeCount();
+        int[] nodeSum = new int[nodeCount];
+        int[] edgeSum = new int[edgeCount];
+        boolean[] nodeCand = new boolean[nodeCount];
+        boolean[] edgeCand = new boolean[edgeCount];
+
+        for (int i = 0; i < nodeCount; i++)
+        {
+            nodeCand[i] = bfsFwd.isReachedNode(i) || bfsRev.isReachedNode(i);
+            if (nodeCand[i]) nodeSum[i] = bfsFwd.getNodeLabel(i) + bfsRev.getNodeLabel(i);
+        }
+        for (int i = 0; i < edgeCount; i++)
+        {
+            edgeCand[i] = bfsFwd.isReachedEdge(i) || bfsRev.isReachedEdge(i);
+            if (edgeCand[i]) edgeSum[i] = bfsFwd.getEdgeLabel(i) + bfsRev.getEdgeLabel(i);
+        }
+
+        int bound;
 
         if(limitType)
         {
@@ -108,51 +144,46 @@ public class LocalPoIQuery
              * Only the graph objects whose sum of two search labels being
              * smaller than or equal to the distance limit will be in the result.
              */
-            for (GraphObject go : candidate.keySet())
-            {
-                if ((bfsFwd.getLabel(go) + bfsRev.getLabel(go)) <= stopDistance)
-                {
-                    result.add(go);
-                }
-            }
+            bound = stopDistance;
         }
         else
         {
             int shortestPath = Integer.MAX_VALUE;
 
             /**
-             * Summing up the labels of two search will give the length of the
-             * path that passes through that particular graph object and the
-             * minimum of those lengths will be the length of the shortest path.
+             * The minimum of path lengths will be the length of the shortest
+             * path.
              */
-            for (GraphObject go : candidate.keySet())
+            for (int i = 0; i < nodeCount; i++)
+            {
+                if (nodeCand[i] && nodeSum[i] <= shortestPath) shortestPath = nodeSum[i];
+            }
+            for (int i = 0; i < edgeCount; i++)
             {
-                if ((bfsFwd.getLabel(go) + bfsRev.getLabel(go)) <= shortestPath)
-                {
-                    shortestPath = (bfsFwd.getLabel(go) + bfsRev.getLabel(go));
-                }
+                if (edgeCand[i] && edgeSum[i] <= shortestPath) shortestPath = edgeSum[i];
             }
 
 	        // Proceed only if there is a shortest path found
 
-	        if (shortestPath < Integer.MAX_VALUE / 2)
-	        {
-				/**
-				 * Only the graph objects whose sum of two search labels being
-				 * smaller than or equal to the "shortest + limit" will be in the
-				 * result.
-				 */
-				for (GraphObject go : candidate.keySet())
-				{
-					if ((bfsFwd.getLabel(go) + bfsRev.getLabel(go)) <=
-						(shortestPath + stopDistance))
-					{
-						result.add(go);
-					}
-				}
-	        }
+	        if (shortestPath >= Integer.MAX_VALUE / 2) return result;
+
+			/**
+			 * Only the graph objects whose sum of two search labels being
+			 * smaller than or equal to the "shortest + limit" will be in the
+			 * result.
+			 */
+			bound = shortestPath + stopDistance;
+        }
+
+        for (int i = 0; i < nodeCount; i++)
+        {
+            if (nodeCand[i] && nodeSum[i] <= bound) result.add(graph.getNode(i));
         }
-        
+        for (int i = 0; i < edgeCount; i++)
+        {
+            if (edgeCand[i] && edgeSum[i] <= bound) result.add(graph.getEdge(i));
+        }
+
         return result;
     }
 
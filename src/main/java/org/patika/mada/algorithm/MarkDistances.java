@@ -1,15 +1,17 @@
 package org.patika.mada.algorithm;
 
-import org.patika.mada.graph.Edge;
-import org.patika.mada.graph.Graph;
+import org.patika.mada.graph.CompactGraph;
 import org.patika.mada.graph.Node;
+import org.patika.mada.util.CancelledException;
 import org.patika.mada.util.ExperimentData;
+import org.patika.mada.util.IntDeque;
+import org.patika.mada.util.ProgressMonitor;
 
-import java.util.*;
+import java.util.Arrays;
 
-@SuppressWarnings("unchecked")
 /**
- * Marks bfs distances between significant nodes.
+ * Marks bfs distances between significant nodes. Distances are recorded in the query context,
+ * where the significant nodes are the roots.
  *
  * @author Ozgun Babur
  *
@@ -18,33 +20,92 @@ import java.util.*;
 public class MarkDistances
 {
 	/**
-	 * Graph to work on
+	 * Context of the search, which receives the distances
 	 */
-	private Graph graph;
+	private QueryContext context;
 
 	/**
 	 * Labeling radius
 	 */
 	private int limit;
 
-	public MarkDistances(Graph graph, int limit)
+	/**
+	 * Snapshot of the graph that the searches run on.
+	 */
+	private CompactGraph compact;
+
+	/**
+	 * Distances of nodes from/to the root of the current run.
+	 */
+	private int[] dist;
+
+	/**
+	 * Temporary distances of visited nodes, used while revisiting equivalent nodes.
+	 */
+	private int[] tempDist;
+
+	/**
+	 * Visit and lock flags of nodes in the current run.
+	 */
+	private byte[] state;
+
+	/**
+	 * Queue entries. A node may have stale entries in the queue after it is moved to front, only
+	 * the entry recorded in liveEntry is valid.
+	 */
+	private int[] entryNode;
+	private int entryCount;
+	private int[] liveEntry;
+
+	/**
+	 * Nodes that have their state changed in the current run.
+	 */
+	private int[] touched = new int[16];
+	private int touchedSize;
+
+	/**
+	 * Checked before each search for cancellation. May be null.
+	 */
+	private ProgressMonitor monitor;
+
+	public MarkDistances(QueryContext context, int limit)
 	{
-		this.graph = graph;
+		this.context = context;
 		this.limit = limit;
 	}
 
+	public void setMonitor(ProgressMonitor monitor)
+	{
+		this.monitor = monitor;
+	}
+
 	/**
 	 * Algorithm runs on the graphs and labels in the radius specified with the limit.
 	 */
 	public void run()
 	{
-		for (Node node : graph.getNodes())
+		compact = context.getCompactGraph();
+		int n = compact.getNodeCount();
+
+		dist = new int[n];
+		tempDist = new int[n];
+		state = new byte[n];
+		liveEntry = new int[n];
+		entryNode = new int[Math.max(16, n)];
+		Arrays.fill(dist, Integer.MAX_VALUE);
+		Arrays.fill(liveEntry, -1);
+
+		for (Node node : context.getGraph().getNodes())
 		{
 			if (node.hasSignificantExperimentalChange(ExperimentData.EXPRESSION_DATA))
 			{
-				labelBFS(node, FORWARD);
+				CancelledException.check(monitor);
+
+				int root = compact.getNodeId(node);
+				int index = context.addRoot(root);
+				labelBFS(root, index, FORWARD);
 				clearStepLabels();
-				labelBFS(node, BACKWARD);
+				labelBFS(root, index, BACKWARD);
 				clearStepLabels();
 			}
 		}
@@ -54,58 +115,73 @@ public class MarkDistances
 	 * This method is called for each significant node. It runs a forward bfs search
 	 * that will label the neighborhood with the distance from this node.
 	 */
-	private void labelBFS(Node root, boolean direction)
+	private void labelBFS(int root, int index, boolean direction)
 	{
 		// Label node to be distance 0 from or to itself
-		putDistance(root, root, direction, 0);
+		putDistance(root, 0);
 		
-		LinkedList<Node> queue = new LinkedList<Node>();
-		queue.add(root);
+		IntDeque queue = new IntDeque();
+		enqueue(queue, root, true);
 		
 		while(!queue.isEmpty())
 		{
-			bfsStep(queue, root, direction);
+			int entry = queue.pollFirst();
+			int node = entryNode[entry];
+
+			// Skip entries of nodes that are moved to the front of the queue after this entry
+			if (liveEntry[node] != entry) continue;
+
+			liveEntry[node] = -1;
+			bfsStep(queue, node, direction);
+		}
+
+		// Record the distances of this run in the context
+
+		for (int i = 0; i < touchedSize; i++)
+		{
+			int node = touched[i];
+			if (dist[node] != Integer.MAX_VALUE)
+			{
+				context.putDistance(node, index, dist[node], direction);
+			}
 		}
 	}
 	
 	/**
 	 * Assigns distances to and enqueues downstream or upstream according to direction.
 	 */
-	private void bfsStep(LinkedList<Node> queue, Node root, boolean direction)
+	private void bfsStep(IntDeque queue, int node, boolean direction)
 	{
-		// Next node in queue
-		Node node = queue.poll();
-
 		// Get previously assigned distance. This will not change, but will be used for labeling
 		// neighbors.
 
-		assert !isVisited(node) || node.hasLabel(VISITED_WO_CH) || node.hasLabel(VISITED_WO_PR);
+		assert !isVisited(node) || has(node, VISITED_WO_CH_FLAG) || has(node, VISITED_WO_PR_FLAG);
 		
-		int d = !isVisited(node) ? getDistance(node, root, direction) : 
-			(Integer) node.getLabel(TEMP_DIST);
+		int d = !isVisited(node) ? dist[node] : tempDist[node];
 
 		// Put parents in front of the queue if not already coming from a parent.
 		
-		if (!node.hasLabel(PARENT_LOCK) && (!isVisited(node) || node.hasLabel(VISITED_WO_PR)))
+		if (!has(node, PARENT_LOCK_FLAG) && (!isVisited(node) || has(node, VISITED_WO_PR_FLAG)))
 		{
-			for (Node parent : node.getParents())
+			int[] offsets = compact.getParentOffsets();
+			int[] parents = compact.getParents();
+
+			for (int i = offsets[node]; i < offsets[node + 1]; i++)
 			{
-				if (!isVisited(parent) || parent.hasLabel(VISITED_WO_PR))
+				int parent = parents[i];
+
+				if (!isVisited(parent) || has(parent, VISITED_WO_PR_FLAG))
 				{
-					if (queue.contains(parent))
-					{
-						queue.remove(parent);
-					}
-					queue.addFirst(parent);
+					enqueue(queue, parent, false);
 					
 					if (!isVisited(parent))
 					{
-						parent.putLabel(CHILD_LOCK);
-						putDistance(parent, root, direction, d);
+						set(parent, CHILD_LOCK_FLAG);
+						putDistance(parent, d);
 					}
 					else
 					{
-						parent.putLabel(TEMP_DIST, d);
+						tempDist[parent] = d;
 					}
 				}
 			}
@@ -113,26 +189,27 @@ public class MarkDistances
 		
 		// Put children in front of the queue if not already coming from a child.
 		
-		if (!node.hasLabel(CHILD_LOCK) && (!isVisited(node) || node.hasLabel(VISITED_WO_CH)))
+		if (!has(node, CHILD_LOCK_FLAG) && (!isVisited(node) || has(node, VISITED_WO_CH_FLAG)))
 		{
-			for (Node child : node.getChildren())
+			int[] offsets = compact.getChildOffsets();
+			int[] children = compact.getChildren();
+
+			for (int i = offsets[node]; i < offsets[node + 1]; i++)
 			{
-				if (!isVisited(child) || child.hasLabel(VISITED_WO_CH))
+				int child = children[i];
+
+				if (!isVisited(child) || has(child, VISITED_WO_CH_FLAG))
 				{
-					if (queue.contains(child))
-					{
-						queue.remove(child);
-					}
-					queue.addFirst(child);
+					enqueue(queue, child, false);
 					
 					if (!isVisited(child))
 					{
-						putDistance(child, root, direction, d);
-						child.putLabel(PARENT_LOCK);						
+						putDistance(child, d);
+						set(child, PARENT_LOCK_FLAG);
 					}
 					else
 					{
-						child.putLabel(TEMP_DIST, d);
+						tempDist[child] = d;
 					}
 				}
 			}
@@ -142,197 +219,160 @@ public class MarkDistances
 		
 		if (d < limit && !isVisited(node))
 		{
+			int[] offsets = direction == FORWARD ? compact.getOutOffsets() : compact.getInOffsets();
+			int[] edges = direction == FORWARD ? compact.getOutEdges() : compact.getInEdges();
+			int[] ends = direction == FORWARD ? compact.getEdgeTargets() : compact.getEdgeSources();
+
 			// Iterate neighbors
 	
-			for (Edge edge : getEdges(node, direction))
+			for (int i = offsets[node]; i < offsets[node + 1]; i++)
 			{
+				int edge = edges[i];
+
 				// Do not consider non-causative edges
-				if (!edge.isCausative()) continue;
+				if (!compact.isCausative(edge)) continue;
 
-				Node neigh = getEdgeEnd(edge, direction);
+				int neigh = ends[edge];
 
-				boolean step = neigh.isBreadthNode() && edge.isBreadthEdge();
+				boolean step = compact.isBreadthNode(neigh) && compact.isBreadthEdge(edge);
 				
 				// Process only if neighbor is not already in the queue.
 				
-				if (!queue.contains(neigh))
+				if (liveEntry[neigh] < 0)
 				{
 					if (!isVisited(neigh))
 					{
-						putDistance(neigh, root, direction, step ? d+1 : d);
-		
-						// Enqueue neighbor
-
-						if (step)
-						{
-							queue.addLast(neigh);
-						}
-						else
-						{
-							if (queue.contains(neigh))
-							{
-								queue.remove(neigh);
-							}
-							queue.addFirst(neigh);
-						}
+						putDistance(neigh, step ? d+1 : d);
+						enqueue(queue, neigh, step);
 					}
-					else if (neigh.hasLabel(VISITED_WO_CH) || neigh.hasLabel(VISITED_WO_PR))
+					else if (has(neigh, VISITED_WO_CH_FLAG) || has(neigh, VISITED_WO_PR_FLAG))
 					{
-						neigh.putLabel(TEMP_DIST, step ? d+1 : d);
-
-						if (step)
-						{
-							queue.addLast(neigh);
-						}
-						else
-						{
-							if (queue.contains(neigh))
-							{
-								queue.remove(neigh);
-							}
-							queue.addFirst(neigh);
-						}
+						tempDist[neigh] = step ? d+1 : d;
+						enqueue(queue, neigh, step);
 					}
 				}
 			}
 		}
 		
 		// Mark the node as visited.
-		markVisited(node);
+		set(node, VISITED_FLAG);
 		
-		if (node.hasLabel(PARENT_LOCK))
+		if (has(node, PARENT_LOCK_FLAG))
 		{
-			node.removeLabel(PARENT_LOCK);
-			node.putLabel(VISITED_WO_PR);
+			unset(node, PARENT_LOCK_FLAG);
+			set(node, VISITED_WO_PR_FLAG);
 		}
-		else if (node.hasLabel(CHILD_LOCK))
+		else if (has(node, CHILD_LOCK_FLAG))
 		{
-			node.removeLabel(CHILD_LOCK);
-			node.putLabel(VISITED_WO_CH);
+			unset(node, CHILD_LOCK_FLAG);
+			set(node, VISITED_WO_CH_FLAG);
 		}
-		else if (node.hasLabel(VISITED_WO_CH))
+		else if (has(node, VISITED_WO_CH_FLAG))
 		{
-			node.removeLabel(VISITED_WO_CH);
+			unset(node, VISITED_WO_CH_FLAG);
 		}
-		else if (node.hasLabel(VISITED_WO_PR))
+		else if (has(node, VISITED_WO_PR_FLAG))
 		{
-			node.removeLabel(VISITED_WO_PR);
+			unset(node, VISITED_WO_PR_FLAG);
 		}
 	}
 
 	/**
-	 * Gets the related distance map of the node. Creates one if not exists.
+	 * Adds the node to the end or to the front of the queue. If the node is already in the queue,
+	 * its older entry becomes stale, which is equivalent to moving the node.
 	 */
-	private Map<Node, Integer> getDistMap(Node node, boolean direction)
+	private void enqueue(IntDeque queue, int node, boolean last)
 	{
-		if (!node.hasLabel((direction == FORWARD) ? DIST_FROM : DIST_TO))
-		{
-			node.putLabel((direction == FORWARD) ? DIST_FROM : DIST_TO, new HashMap<Node, Integer>());
-		}
-		
-		return (Map<Node, Integer>) node.getLabel((direction == FORWARD) ? DIST_FROM : DIST_TO);
+		if (entryCount == entryNode.length) entryNode = Arrays.copyOf(entryNode, entryCount << 1);
+		int entry = entryCount++;
+		entryNode[entry] = node;
+		liveEntry[node] = entry;
+		touch(node);
+
+		if (last) queue.addLast(entry);
+		else queue.addFirst(entry);
 	}
 
 	/**
-	 * Gets the latest calculated distance of the node from/to the reference according to the 
-	 * direction.
+	 * Sets the distance of the node from/to the root of the current run.
 	 */
-	private int getDistance(Node node, Node ref, boolean direction)
+	private void putDistance(int node, int d)
 	{
-		Map<Node, Integer> distmap = getDistMap(node, direction);
-		int d = Integer.MAX_VALUE;
-		if (distmap.containsKey(ref))
-		{
-			d = distmap.get(ref);
-		}
-		return d;
+		dist[node] = d;
+		touch(node);
 	}
 
-	/**
-	 * Sets the distance of the node from/to the reference node according to the direction to the 
-	 * specified value.
-	 */
-	private void putDistance(Node node, Node ref, boolean direction, int d)
+	private void touch(int node)
 	{
-		Map<Node, Integer> distmap = getDistMap(node, direction);
-		distmap.put(ref, d);
+		if (!has(node, TOUCHED))
+		{
+			set(node, TOUCHED);
+			if (touchedSize == touched.length) touched = Arrays.copyOf(touched, touchedSize << 1);
+			touched[touchedSize++] = node;
+		}
 	}
 
 	/**
-	 * Gets the next end of the edge according to direction.
+	 * Checks if the node is visited. This will return true only if
+	 * the node is processed and removed from queue.
 	 */
-	private Node getEdgeEnd(Edge edge, boolean direction)
+	private boolean isVisited(int node)
 	{
-		return (direction == FORWARD) ? edge.getTargetNode() : edge.getSourceNode();
+		return has(node, VISITED_FLAG);
 	}
-	
-	/**
-	 * Get edges of the node according to the direction.
-	 */
-	private Collection<? extends Edge> getEdges(Node node, boolean direction)
+
+	private boolean has(int node, byte flag)
 	{
-		return (direction == FORWARD) ? node.getDownstream() : node.getUpstream();
+		return (state[node] & flag) != 0;
 	}
-	
-	/**
-	 * Checks if the node was processed before.
-	 */
-	private void markVisited(Node node)
+
+	private void set(int node, byte flag)
 	{
-		node.putLabel(VISITED, true);
+		state[node] |= flag;
 	}
 
-	/**
-	 * Checks if the node is visited. This will return true only if
-	 * the node is processed and removed from queue.
-	 */
-	private boolean isVisited(Node node)
+	private void unset(int node, byte flag)
 	{
-		// We do not check the value here because nodes are labeled with this
-		// key only if they are visited, and this is irreversible.
-		return node.hasLabel(VISITED);
+		state[node] &= ~flag;
 	}
 	
 	/**
-	 * Clears distance labels that are attached during run of this algorithm.
-	 * This method is public because we need these labels stay for somewhile
-	 * and another class will call this when it finishes.
+	 * Clears visited tags and distances of the last run. Locks are not cleared, as before.
 	 */
-	public void clearDistLabels()
+	private void clearStepLabels()
 	{
-		for (Node node : graph.getNodes())
+		for (int i = 0; i < touchedSize; i++)
 		{
-			node.removeLabel(DIST_FROM);
-			node.removeLabel(DIST_TO);
+			int node = touched[i];
+			state[node] &= PARENT_LOCK_FLAG | CHILD_LOCK_FLAG;
+			dist[node] = Integer.MAX_VALUE;
+			liveEntry[node] = -1;
 		}
-	}
-	
-	/**
-	 * Clears visited tags that are attached during run of this algorithm.
-	 */
-	private void clearStepLabels()
-	{
-		graph.removeLabels(Arrays.asList(VISITED, VISITED_WO_CH, VISITED_WO_PR, TEMP_DIST));
+		touchedSize = 0;
+		entryCount = 0;
 	}
 
-	public static final String DIST_TO = "DIST_TO";
-	public static final String DIST_FROM = "DIST_FROM";
 	public static final boolean FORWARD = true;
 	public static final boolean BACKWARD = false;
-	public static final String VISITED = "VISITED";
-	public static final String VISITED_WO_CH = "VISITED_WO_CH";
-	public static final String VISITED_WO_PR = "VISITED_WO_PR";
-	public static final String TEMP_DIST = "TEMP_DIST";
-	
+
+	//----------------------------------------------------------------------------------------------
+	// Section: Node state flags of a single run
+	//----------------------------------------------------------------------------------------------
+
+	private static final byte VISITED_FLAG = 1;
+	private static final byte VISITED_WO_CH_FLAG = 1 << 1;
+	private static final byte VISITED_WO_PR_FLAG = 1 << 2;
+
 	/**
 	 * If this lock is present, then search cannot proceed to equivalent parents.
 	 */
-	public static final Integer PARENT_LOCK = 13;
+	private static final byte PARENT_LOCK_FLAG = 1 << 3;
 
 	/**
 	 * If this lock is present, then search cannot proceed to equivalent children.
 	 */
-	public static final Integer CHILD_LOCK = 14;
+	private static final byte CHILD_LOCK_FLAG = 1 << 4;
+	private static final byte TOUCHED = 1 << 5;
 	
 	
 }
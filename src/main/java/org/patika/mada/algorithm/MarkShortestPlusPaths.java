@@ -1,16 +1,13 @@
 package org.patika.mada.algorithm;
 
-import org.patika.mada.graph.Graph;
+import org.patika.mada.graph.CompactGraph;
 import org.patika.mada.graph.Node;
-import org.patika.mada.util.ExperimentData;
-
-import java.util.*;
-
-@SuppressWarnings("unchecked")
+import org.patika.mada.util.CancelledException;
+import org.patika.mada.util.ProgressMonitor;
 
 /**
  * This class marks nodes indicating whether they are on a shortest and plus something) path of two
- * other nodes.
+ * other nodes. The marks are recorded in the query context.
  * 
  * @author Ozgun Babur
  *
@@ -23,9 +20,9 @@ public class MarkShortestPlusPaths
 	//==============================================================================================
 
 	/**
-	 * Graph to work on
+	 * Context of the search, which has the distances and receives the marks
 	 */
-	private Graph graph;
+	private QueryContext context;
 
 	/**
 	 * Labeling radius
@@ -37,57 +34,66 @@ public class MarkShortestPlusPaths
 	 */
 	private int k;
 
-	public MarkShortestPlusPaths(Graph graph, int limit, int k)
+	/**
+	 * Checked for each node for cancellation. May be null.
+	 */
+	private ProgressMonitor monitor;
+
+	public MarkShortestPlusPaths(QueryContext context, int limit, int k)
 	{
-		this.graph = graph;
+		this.context = context;
 		this.limit = limit;
 		this.k = k;
 	}
 
+	public void setMonitor(ProgressMonitor monitor)
+	{
+		this.monitor = monitor;
+	}
+
 	//==============================================================================================
 	// Section: Methods
 	//==============================================================================================
 	
 	/**
-	 * Make sure that distances are marked on the graph before running this.
+	 * Make sure that distances are marked in the context before running this.
 	 * 
 	 * For each node, this code checks any combination of from-to distance pairs. If the node is on 
-	 * a shortest+k path between from-to, then the to_from_path_map is used to mark this.
+	 * a shortest+k path between from-to, then this is marked in the context.
 	 */
 	public void run()
 	{
-		for (Node node : graph.getNodes())
+		CompactGraph compact = context.getCompactGraph();
+
+		for (Node n : context.getGraph().getNodes())
 		{
-			Map<Node, Integer> distFrom = (Map<Node, Integer>) node.getLabel(MarkDistances.DIST_FROM);
-			Map<Node, Integer> distTo = (Map<Node, Integer>) node.getLabel(MarkDistances.DIST_TO);
+			CancelledException.check(monitor);
+
+			int node = compact.getNodeId(n);
 
 			// Ignore nodes that are not in the middle of something
 
-			if (distFrom == null || distTo == null)
+			int fromCount = context.getDistanceCount(node, MarkDistances.FORWARD);
+			int toCount = context.getDistanceCount(node, MarkDistances.BACKWARD);
+
+			if (fromCount == 0 || toCount == 0)
 			{
 				continue;
 			}
 
-			// for each from-to pairs  check if this node is on a shortest+k path
-			
-			for (Node from : distFrom.keySet())
-			{
-				assert from.hasSignificantExperimentalChange(ExperimentData.EXPRESSION_DATA);
+			// for each from-to pairs  check if this node is on a shortest+k path. Targets are
+			// iterated first, so that marks are recorded in the order the context keeps them.
 
-				// We do not want to mark this node as on its shortest path
-//				if (from == node)
-//				{
-//					continue;
-//				}
+			for (int i = 0; i < toCount; i++)
+			{
+				int to = context.getDistanceRoot(node, i, MarkDistances.BACKWARD);
 
-				for (Node to : distTo.keySet())
+				for (int j = 0; j < fromCount; j++)
 				{
+					int from = context.getDistanceRoot(node, j, MarkDistances.FORWARD);
+
 					// We do not want to mark this node as on its shortest path
-//					if (to == node)
-//					{
-//						continue;
-//					}
-					if (from == node)
+					if (context.getRoot(from) == node)
 					{
 						continue;
 					}
@@ -102,27 +108,21 @@ public class MarkShortestPlusPaths
 						// If the length of the path from-to that contains this node
 						// is within limits, mark it.
 
-						int foundDistance = distFrom.get(from) + distTo.get(to);
+						int foundDistance =
+							context.getDistanceValue(node, j, MarkDistances.FORWARD) +
+							context.getDistanceValue(node, i, MarkDistances.BACKWARD);
 
-						if (!node.isBreadthNode())
+						if (!compact.isBreadthNode(node))
 						{
 							foundDistance++;
 						}
 
 						if (foundDistance <= d)
 						{
-							Map<Node, Set<Node>> tofromPathMap = getToFromPathMap(node);
-							
-							if (!tofromPathMap.containsKey(to))
-							{
-								tofromPathMap.put(to, new HashSet<Node>());
-							}
-							
-							Set<Node> fromSet = tofromPathMap.get(to);
-							fromSet.add(from);
-							
 							// So, during a backwards traversing, starting at "to", when we visit 
 							// this node, then we will know where to go.
+
+							context.addPathSource(node, to, from);
 						}
 					}
 				}
@@ -131,47 +131,12 @@ public class MarkShortestPlusPaths
 	}
 	
 	/**
-	 * Finds the length of the shortest path between nodes from-to. This uses the labels on nodes
-	 * which was previously introduced in MarkDistances algorithm.
-	 */
-	private int getShortestDistance(Node from, Node to)
-	{
-		Map<Node, Integer> distTo = (Map<Node, Integer>) from.getLabel(MarkDistances.DIST_TO);
-		
-		int s = Integer.MAX_VALUE;
-		
-		if (distTo.containsKey(to))
-		{
-			s = distTo.get(to);
-		}
-		return s;
-	}
-	
-	/**
-	 * Creates or gets to_from_path_map.
+	 * Finds the length of the shortest path between roots from-to. This uses the distances which
+	 * were previously recorded by the MarkDistances algorithm.
 	 */
-	private Map<Node, Set<Node>> getToFromPathMap(Node node)
-	{
-		if (!node.hasLabel(TO_FROM_PATH_MAP))
-		{
-			node.putLabel(TO_FROM_PATH_MAP, new HashMap<Node, Set<Node>>());
-		}
-		
-		return (Map<Node, Set<Node>>) node.getLabel(TO_FROM_PATH_MAP);
-	}
-	
-	public void clearLabels()
+	private int getShortestDistance(int from, int to)
 	{
-		graph.removeLabels(Arrays.asList(TO_FROM_PATH_MAP,
-			MarkDistances.DIST_FROM, MarkDistances.DIST_TO));
+		return context.getDistance(context.getRoot(from), to, MarkDistances.BACKWARD);
 	}
 	
-	//==============================================================================================
-	// Section: Class constants
-	//==============================================================================================
-	
-	/**
-	 * Used to mark nodes on interesting paths.
-	 */
-	public static final String TO_FROM_PATH_MAP = "TO_FROM_PATH_MAP";
 }
@@ -0,0 +1,433 @@
+package org.patika.mada.algorithm;
+
+import org.cbio.causality.model.Change;
+import org.cbio.causality.util.Overlap;
+import org.cbio.causality.util.Summary;
+import org.patika.mada.util.SharedPool;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Searches for groups of genes with mutually exclusive alterations. Each gene is used as a seed,
+ * and the group is grown greedily by adding the gene that gives the best mean mutex p-value. Then
+ * the last added genes are removed until all members are significantly mutex with the rest.
+ *
+ * Alteration profiles are packed into bitsets of altered and absent samples, so that unions and
+ * counts are word operations. A mutex p-value only depends on the sizes of the altered sets and
+ * their overlap in the samples that have data for both, hence the p-values are cached by these
+ * counts. Seeds are evaluated in parallel.
+ *
+ * @author Ozgun Babur
+ */
+public class MutexSearcher
+{
+	/**
+	 * Number of samples.
+	 */
+	private int size;
+
+	/**
+	 * Number of longs in a bitset.
+	 */
+	private int words;
+
+	/**
+	 * Bits of the valid sample positions.
+	 */
+	private long[] valid;
+
+	private long[][] genomicAltered;
+	private long[][] genomicAbsent;
+	private long[][] mutationAltered;
+	private long[][] mutationAbsent;
+
+	/**
+	 * Ids of the genomic regions, such as GISTIC regions, that each gene is in. Genes in the same
+	 * region are represented with their mutations instead of genomic alterations, because a copy
+	 * number change of the region alters all of them together.
+	 */
+	private int[][] regions;
+
+	/**
+	 * Maximum number of genes to add to a seed.
+	 */
+	private int maxGrowth;
+
+	private boolean parallel;
+
+	/**
+	 * Mutex p-values, keyed by the packed counts.
+	 */
+	private Map<Long, Double> pvalCache;
+
+	/**
+	 * @param genomic genomic alterations of each gene
+	 * @param mutation mutations of each gene
+	 * @param regions ids of the genomic regions that each gene is in
+	 */
+	public MutexSearcher(Change[][] genomic, Change[][] mutation, int[][] regions)
+	{
+		this.size = genomic.length == 0 ? 0 : genomic[0].length;
+		this.words = (size + 63) >>> 6;
+		this.regions = regions;
+
+		valid = new long[words];
+		for (int i = 0; i < size; i++)
+		{
+			valid[i >>> 6] |= 1L << i;
+		}
+
+		genomicAltered = new long[genomic.length][];
+		genomicAbsent = new long[genomic.length][];
+		mutationAltered = new long[genomic.length][];
+		mutationAbsent = new long[genomic.length][];
+
+		for (int g = 0; g < genomic.length; g++)
+		{
+			genomicAltered[g] = new long[words];
+			genomicAbsent[g] = new long[words];
+			pack(genomic[g], genomicAltered[g], genomicAbsent[g]);
+
+			mutationAltered[g] = new long[words];
+			mutationAbsent[g] = new long[words];
+			pack(mutation[g], mutationAltered[g], mutationAbsent[g]);
+		}
+
+		maxGrowth = 5;
+		parallel = true;
+		pvalCache = new ConcurrentHashMap<Long, Double>();
+	}
+
+	private void pack(Change[] changes, long[] altered, long[] absent)
+	{
+		for (int i = 0; i < changes.length; i++)
+		{
+			if (changes[i].isAltered()) altered[i >>> 6] |= 1L << i;
+			else if (changes[i].isAbsent()) absent[i >>> 6] |= 1L << i;
+		}
+	}
+
+	public void setMaxGrowth(int maxGrowth)
+	{
+		this.maxGrowth = maxGrowth;
+	}
+
+	public void setParallel(boolean parallel)
+	{
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Grows a group from each seed, and returns the distinct groups with more than one member.
+	 * @param seeds genes to use as seeds, also the candidates for growing groups, in the order of
+	 * preference
+	 * @param pvalThr threshold for the mutex p-value of each member
+	 * @return groups in the order of their seeds
+	 */
+	public List<Group> search(final int[] seeds, final double pvalThr)
+	{
+		final Group[] results = new Group[seeds.length];
+
+		if (parallel && seeds.length >= PARALLEL_THRESHOLD)
+		{
+			SharedPool.get().invoke(new SeedTask(seeds, pvalThr, results, 0, seeds.length));
+		}
+		else growAll(seeds, pvalThr, results, 0, seeds.length);
+
+		List<Group> groups = new ArrayList<Group>();
+		Set<List<Integer>> memberSets = new HashSet<List<Integer>>();
+
+		for (Group group : results)
+		{
+			if (group.size() > 1 && memberSets.add(group.getMemberSet())) groups.add(group);
+		}
+		return groups;
+	}
+
+	/**
+	 * Grows the groups of the seeds in the given range.
+	 */
+	private void growAll(int[] seeds, double pvalThr, Group[] results, int from, int to)
+	{
+		for (int i = from; i < to; i++)
+		{
+			results[i] = grow(seeds[i], seeds, pvalThr);
+		}
+	}
+
+	private Group grow(int seed, int[] candidates, double pvalThr)
+	{
+		Group group = new Group(seed);
+
+		for (int i = 0; i < maxGrowth; i++)
+		{
+			int best = -1;
+			double bestPval = 1;
+
+			for (int cand : candidates)
+			{
+				if (group.contains(cand)) continue;
+
+				group.add(cand);
+				double pval = group.getMeanPval();
+
+				if (pval < bestPval)
+				{
+					bestPval = pval;
+					best = cand;
+				}
+
+				group.removeLast();
+			}
+
+			if (best < 0) break;
+			group.add(best);
+		}
+
+		while (group.size() > 1 && group.getWorstPval() > pvalThr)
+		{
+			group.removeLast();
+		}
+
+		return group;
+	}
+
+	/**
+	 * Gets the mutex p-value of the altered samples against the other altered samples.
+	 */
+	private double getPval(long[] altered, long[] absent, long[] othersAltered, long[] othersAbsent)
+	{
+		int n = 0;
+		int a = 0;
+		int b = 0;
+		int o = 0;
+
+		for (int w = 0; w < words; w++)
+		{
+			long present = valid[w] & ~absent[w];
+			if (othersAbsent != null) present &= ~othersAbsent[w];
+
+			n += Long.bitCount(present);
+			a += Long.bitCount(altered[w] & present);
+			b += Long.bitCount(othersAltered[w] & present);
+			o += Long.bitCount(altered[w] & othersAltered[w] & present);
+		}
+
+		if (size >= 1 << 16) return calcPval(n, a, b, o);
+
+		long key = ((long) n << 48) | ((long) a << 32) | ((long) b << 16) | o;
+
+		Double pval = pvalCache.get(key);
+		if (pval == null)
+		{
+			pval = calcPval(n, a, b, o);
+			pvalCache.put(key, pval);
+		}
+		return pval;
+	}
+
+	/**
+	 * Calculates the mutex p-value on alteration arrays that have the given counts.
+	 */
+	private static double calcPval(int n, int altered, int othersAltered, int overlap)
+	{
+		Change[] ch1 = new Change[n];
+		Change[] ch2 = new Change[n];
+
+		// The overlap is at the beginning, followed by the rest of the first and second sets
+
+		for (int i = 0; i < n; i++)
+		{
+			ch1[i] = i < altered ? Change.UNKNOWN_CHANGE : Change.NO_CHANGE;
+			ch2[i] = i < overlap || (i >= altered && i < altered + othersAltered - overlap) ?
+				Change.UNKNOWN_CHANGE : Change.NO_CHANGE;
+		}
+		return Overlap.calcMutexPval(ch1, ch2);
+	}
+
+	/**
+	 * A group that is grown from a seed.
+	 */
+	public class Group
+	{
+		private int[] members;
+		private long[][] altered;
+		private long[][] absent;
+		private int size;
+
+		/**
+		 * Buffers for the unions of the members before and after each member.
+		 */
+		private long[][] prefix;
+		private long[][] suffix;
+		private long[] others;
+
+		Group(int seed)
+		{
+			members = new int[maxGrowth + 1];
+			altered = new long[maxGrowth + 1][];
+			absent = new long[maxGrowth + 1][];
+			prefix = new long[maxGrowth + 2][words];
+			suffix = new long[maxGrowth + 2][words];
+			others = new long[words];
+
+			members[0] = seed;
+			altered[0] = genomicAltered[seed];
+			absent[0] = genomicAbsent[seed];
+			size = 1;
+		}
+
+		void add(int gene)
+		{
+			assert !contains(gene);
+
+			members[size] = gene;
+
+			if (hasDNAProximity(gene))
+			{
+				altered[size] = mutationAltered[gene];
+				absent[size] = mutationAbsent[gene];
+			}
+			else
+			{
+				altered[size] = genomicAltered[gene];
+				absent[size] = genomicAbsent[gene];
+			}
+			size++;
+		}
+
+		private boolean hasDNAProximity(int gene)
+		{
+			for (int region : regions[gene])
+			{
+				for (int i = 0; i < size; i++)
+				{
+					for (int r : regions[members[i]])
+					{
+						if (r == region) return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		void removeLast()
+		{
+			size--;
+		}
+
+		boolean contains(int gene)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				if (members[i] == gene) return true;
+			}
+			return false;
+		}
+
+		public int size()
+		{
+			return size;
+		}
+
+		/**
+		 * Gets the members in the order they are added.
+		 */
+		public int[] getMembers()
+		{
+			return Arrays.copyOf(members, size);
+		}
+
+		List<Integer> getMemberSet()
+		{
+			List<Integer> list = new ArrayList<Integer>(size);
+			for (int i = 0; i < size; i++) list.add(members[i]);
+			Collections.sort(list);
+			return list;
+		}
+
+		/**
+		 * Gets the mutex p-value of each member against the union of the others.
+		 */
+		public double[] getPvals()
+		{
+			double[] pval = new double[size];
+
+			if (size == 2)
+			{
+				pval[0] = getPval(altered[0], absent[0], altered[1], absent[1]);
+				pval[1] = getPval(altered[1], absent[1], altered[0], absent[0]);
+				return pval;
+			}
+
+			Arrays.fill(suffix[size], 0);
+
+			for (int i = 0; i < size; i++)
+			{
+				for (int w = 0; w < words; w++)
+				{
+					prefix[i + 1][w] = prefix[i][w] | altered[i][w];
+					suffix[size - i - 1][w] = suffix[size - i][w] | altered[size - i - 1][w];
+				}
+			}
+
+			for (int i = 0; i < size; i++)
+			{
+				for (int w = 0; w < words; w++)
+				{
+					others[w] = prefix[i][w] | suffix[i + 1][w];
+				}
+				pval[i] = getPval(altered[i], absent[i], others, null);
+			}
+			return pval;
+		}
+
+		public double getMeanPval()
+		{
+			return Summary.geometricMean(getPvals());
+		}
+
+		public double getWorstPval()
+		{
+			return Summary.max(getPvals());
+		}
+	}
+
+	private class SeedTask extends RecursiveAction
+	{
+		private int[] seeds;
+		private double pvalThr;
+		private Group[] results;
+		private int from;
+		private int to;
+
+		SeedTask(int[] seeds, double pvalThr, Group[] results, int from, int to)
+		{
+			this.seeds = seeds;
+			this.pvalThr = pvalThr;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (to - from <= SEED_GRAIN)
+			{
+				growAll(seeds, pvalThr, results, from, to);
+			}
+			else
+			{
+				int mid = (from + to) >>> 1;
+				invokeAll(new SeedTask(seeds, pvalThr, results, from, mid),
+					new SeedTask(seeds, pvalThr, results, mid, to));
+			}
+		}
+	}
+
+	private static final int PARALLEL_THRESHOLD = 4;
+	private static final int SEED_GRAIN = 4;
+}
@@ -1,14 +1,25 @@
 package org.patika.mada.algorithm;
 
-import org.patika.mada.graph.Edge;
+import org.patika.mada.graph.CompactGraph;
 import org.patika.mada.graph.GraphObject;
 import org.patika.mada.graph.Node;
+import org.patika.mada.util.CancelledException;
+import org.patika.mada.util.IntDeque;
+import org.patika.mada.util.ProgressMonitor;
+import org.patika.mada.util.SharedPool;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Does not handle compound nodes. For binary netowrks only.
  *
+ * Runs on a CompactGraph snapshot. Each seed is traversed separately and distances of the reached
+ * elements are recorded as (element, seed, distance) triplets in primitive arrays. Nodes and edges
+ * share one id space in these records, where edge ids are shifted by the node count.
+ *
  * @author Ozgun Babur
  *
  * Copyright: Bilkent Center for Bioinformatics, 2007 - present
@@ -41,17 +52,53 @@ public class PathsBetweenSIF
 	 */
 	private boolean shortestAnyDir = true;
 	private Map<Node, Map<Node, Integer>> shortestPairLengths;
-	private Map<Node, Integer> shortestSingleLengths;
 	private int k = 0;
 
 	Set<GraphObject> goi;
 
-	private Map<GraphObject, Map<Integer, Set<Node>>> fwdLabel;
-	private Map<GraphObject, Map<Integer, Set<Node>>> bkwLabel;
-	private Map<GraphObject, Map<Integer, Set<Node>>> labelMap;
+	private CompactGraph graph;
+	private int n;
+	private int m;
+
+	/**
+	 * Seeds are indexed in 0..seedCount-1. Non-seed nodes have index -1.
+	 */
+	private int[] seedIndex;
+	private int seedCount;
+	private boolean[] isSourceSeed;
+	private boolean[] isTargetSeed;
+
+	/**
+	 * Distances from source seeds and to target seeds. These are the same object for undirected
+	 * graphs.
+	 */
+	private Records fwdRecords;
+	private Records bkwRecords;
+
+	private Map<Long, Integer> shortestPairs;
+	private int[] shortestSingle;
+
+	private boolean[] nodeSelected;
+	private boolean[] edgeSelected;
 
-	private Set<GraphObject> visitedGlobal;
-	private Set<GraphObject> visitedStep;
+	private boolean parallel = true;
+
+	/**
+	 * Checked between the seed traversals for cancellation. May be null.
+	 */
+	private ProgressMonitor monitor;
+
+	/**
+	 * Number of completed seed traversals, for reporting progress.
+	 */
+	private AtomicInteger traversed;
+
+	/**
+	 * Traversal buffers that are not in use, which are of the size of the graph. A range of runs
+	 * takes one and gives it back when done, so there are at most as many as the threads. Set
+	 * only during the traversals, so that the pool threads do not keep them afterwards.
+	 */
+	private Queue<Traversal> freeTraversals;
 
 	public PathsBetweenSIF(Set<Node> seed, boolean directed, int limit)
 	{
@@ -69,6 +116,17 @@ public class PathsBetweenSIF
 		this.limit = limit;
 	}
 
+	/**
+	 * Constructor for searching on a snapshot with node ids. The search is run with
+	 * search(int[], int[]).
+	 */
+	public PathsBetweenSIF(CompactGraph graph, boolean directed, int limit)
+	{
+		this.graph = graph;
+		this.directed = directed;
+		this.limit = limit;
+	}
+
 	public void setUseShortestPlusK(boolean useShortestPlusK)
 	{
 		this.useShortestPlusK = useShortestPlusK;
@@ -101,69 +159,92 @@ public class PathsBetweenSIF
 
 	public Set<GraphObject> run()
 	{
-		goi = new HashSet<GraphObject>();
-		visitedGlobal = new HashSet<GraphObject>();
-		visitedStep = new HashSet<GraphObject>();
-
-		if (directed)
+		if (graph == null)
 		{
-			this.fwdLabel = new HashMap<GraphObject, Map<Integer, Set<Node>>>();
-			this.bkwLabel = new HashMap<GraphObject, Map<Integer, Set<Node>>>();
+			Set<Node> seed = new HashSet<Node>(sourceSeed);
+			seed.addAll(targetSeed);
+			graph = new CompactGraph(seed);
 		}
-		else this.labelMap = new HashMap<GraphObject, Map<Integer, Set<Node>>>();
 
-		for (Node node : sourceSeed)
-		{
-			initSeed(node);
+		search(graph.getNodeIds(sourceSeed), graph.getNodeIds(targetSeed));
 
-			if (directed)
-			{
-				runBFS_directed(node, FORWARD);
-			}
-			else
-			{
-				runBFS_undirected(node);
-			}
+		goi = graph.toGraphObjects(nodeSelected, edgeSelected);
+
+		assert checkEdgeSanity();
+
+		return goi;
+	}
+
+	/**
+	 * Runs the query between the given node ids of the snapshot. Results can be read with
+	 * getNodeSelection and getEdgeSelection afterwards.
+	 */
+	public void search(int[] sources, int[] targets)
+	{
+		n = graph.getNodeCount();
+		m = graph.getEdgeCount();
+
+		indexSeeds(sources, targets);
+
+		// Each seed is traversed by itself. Undirected graphs need only one traversal per seed.
+
+		int[] runSeeds = new int[sources.length + targets.length];
+		boolean[] runDirs = new boolean[runSeeds.length];
+		int runs = 0;
 
-			// Record distances for that seed node
-			recordDistances(node);
+		for (int source : sources)
+		{
+			runSeeds[runs] = source;
+			runDirs[runs++] = FORWARD;
+		}
+		for (int target : targets)
+		{
+			if (!directed && isSourceSeed[seedIndex[target]]) continue;
 
-			// Remove all algorithm specific labels
-			clearLabels();
+			runSeeds[runs] = target;
+			runDirs[runs++] = BACKWARD;
 		}
 
-		for (Node node : targetSeed)
+		Records[] results = new Records[runs];
+		traversed = new AtomicInteger();
+		freeTraversals = new ConcurrentLinkedQueue<Traversal>();
+
+		if (parallel && runs >= PARALLEL_THRESHOLD)
 		{
-			if (!directed && sourceSeed.contains(node)) continue;
+			SharedPool.get().invoke(new TraversalTask(runSeeds, runDirs, results, 0, runs));
+		}
+		else traverse(runSeeds, runDirs, results, 0, runs);
 
-			initSeed(node);
+		freeTraversals = null;
 
-			if (directed)
+		CancelledException.check(monitor);
+
+		// Merge in seed order, so that the records are the same with a sequential run
+
+		fwdRecords = new Records();
+		bkwRecords = directed ? new Records() : fwdRecords;
+
+		for (int i = 0; i < runs; i++)
+		{
+			int seed = runSeeds[i];
+
+			if (runDirs[i] == FORWARD)
 			{
-				runBFS_directed(node, BACKWARD);
+				fwdRecords.addAll(results[i]);
+				if (directed) bkwRecords.add(seed, seedIndex[seed], 0);
 			}
 			else
 			{
-				runBFS_undirected(node);
+				bkwRecords.addAll(results[i]);
+				if (directed) fwdRecords.add(seed, seedIndex[seed], 0);
 			}
-
-			// Record distances for that seed node
-			recordDistances(node);
-
-			// Remove all algorithm specific labels
-			clearLabels();
+			results[i] = null;
 		}
 
-		if (useShortestPlusK) findShortestPaths();
-
-		// Reformat the label maps
+		fwdRecords.index(n + m);
+		if (directed) bkwRecords.index(n + m);
 
-		if (directed)
-		{
-			mergeLabels(fwdLabel);
-			mergeLabels(bkwLabel);
-		}
-		else mergeLabels(labelMap);
+		if (useShortestPlusK) findShortestPaths();
 
 		// Select graph objects that are traversed with the BFS. It is important to process nodes
 		// before edges.
@@ -171,457 +252,639 @@ public class PathsBetweenSIF
 
 		// Prune so that no non-seed degree-1 nodes remain
 		pruneResult();
+	}
 
-		assert checkEdgeSanity();
+	/**
+	 * Sets the snapshot to run on. If not set, a snapshot is taken from the seed nodes.
+	 */
+	public void setGraph(CompactGraph graph)
+	{
+		this.graph = graph;
+	}
 
-		return goi;
+	/**
+	 * Seeds are traversed in parallel by default. Result does not depend on this setting.
+	 */
+	public void setParallel(boolean parallel)
+	{
+		this.parallel = parallel;
 	}
 
-	private void runBFS_directed(Node seed, boolean direction)
+	/**
+	 * Sets the monitor that receives the progress of the traversals and can cancel the search.
+	 */
+	public void setMonitor(ProgressMonitor monitor)
 	{
-		assert directed;
+		this.monitor = monitor;
+	}
 
-		// Initialize queue to contain all seed nodes
+	public boolean[] getNodeSelection()
+	{
+		return nodeSelected;
+	}
+
+	public boolean[] getEdgeSelection()
+	{
+		return edgeSelected;
+	}
 
-		LinkedList<Node> queue = new LinkedList<Node>();
-		queue.add(seed);
-		visitedStep.add(seed);
+	private void indexSeeds(int[] sources, int[] targets)
+	{
+		seedIndex = new int[n];
+		Arrays.fill(seedIndex, -1);
 
-		// Run BFS forward or backward till queue is not empty
+		int[] list = new int[sources.length + targets.length];
+		int size = 0;
 
-		while (!queue.isEmpty())
+		for (int[] ids : new int[][]{sources, targets})
 		{
-			Node node = queue.poll();
-			BFS_directed(node, direction, queue);
+			for (int id : ids)
+			{
+				if (seedIndex[id] < 0)
+				{
+					seedIndex[id] = size;
+					list[size++] = id;
+				}
+			}
 		}
-	}
 
-	private void runBFS_undirected(Node seed)
-	{
-		assert !directed;
+		seedCount = size;
+		isSourceSeed = new boolean[size];
+		isTargetSeed = new boolean[size];
 
-		// Initialize queue to contain all seed nodes
+		for (int id : sources) isSourceSeed[seedIndex[id]] = true;
+		for (int id : targets) isTargetSeed[seedIndex[id]] = true;
+	}
 
-		LinkedList<Node> queue = new LinkedList<Node>();
-		queue.add(seed);
-		visitedStep.add(seed);
+	private void selectSatisfyingElements()
+	{
+		nodeSelected = new boolean[n];
+		edgeSelected = new boolean[m];
 
-		// Run BFS till queue is not empty
+		// Edges whose node is not in the result are not selected, so nodes go first
 
-		while (!queue.isEmpty())
+		if (parallel && n + m >= PARALLEL_THRESHOLD * SELECTION_GRAIN)
 		{
-			Node node = queue.poll();
-			BFS_undirected(node, queue);
+			SharedPool.get().invoke(new SelectionTask(0, n));
+			SharedPool.get().invoke(new SelectionTask(n, n + m));
+		}
+		else
+		{
+			for (int i = 0; i < n + m; i++)
+			{
+				select(i);
+			}
 		}
 	}
 
-	private void BFS_directed(Node node, boolean forward, LinkedList<Node> queue)
+	private void select(int elem)
 	{
-		assert directed;
-
-		if (forward)
+		if (elem < n)
 		{
-			BFStep(node, DOWNSTREAM, DIST_FORWARD, queue);
+			nodeSelected[elem] = distanceSatisfies(elem);
 		}
 		else
 		{
-			BFStep(node, UPSTREAM, DIST_BACKWARD, queue);
+			int edge = elem - n;
+			edgeSelected[edge] = nodeSelected[graph.getSource(edge)] &&
+				nodeSelected[graph.getTarget(edge)] && distanceSatisfies(elem);
 		}
 	}
 
-	private void BFStep(Node node, boolean upstr, String label, LinkedList<Node> queue)
+	/**
+	 * Checks if the element is on a path from a source seed to a target seed that is not longer
+	 * than the limit. In shortest+k mode, the path length is also bounded by the shortest distance
+	 * between its seeds plus k.
+	 */
+	private boolean distanceSatisfies(int elem)
 	{
-		int d = getLabel(node, label);
+		int fFrom = fwdRecords.offsets[elem];
+		int fTo = fwdRecords.offsets[elem + 1];
+		int bFrom = bkwRecords.offsets[elem];
+		int bTo = bkwRecords.offsets[elem + 1];
+
+		if (fFrom == fTo || bFrom == bTo) return false;
+
+		int extra = !directed && elem >= n ? 1 : 0;
 
-		if (d < limit)
+		if (useShortestPlusK)
 		{
-			for (Edge edge : upstr? node.getUpstream() : node.getDownstream())
+			for (int i = fFrom; i < fTo; i++)
 			{
-				if (visitedStep.contains(edge)) continue;
+				int source = fwdRecords.seed[i];
+				if (!isSourceSeed[source]) continue;
+
+				for (int j = bFrom; j < bTo; j++)
+				{
+					int target = bkwRecords.seed[j];
+					if (!isTargetSeed[target]) continue;
+					if (ignoreSelfLoops && source == target) continue;
 
-				setLabel(edge, label, !upstr && label.equals(DIST_FORWARD) ? d + 1 : d);
+					int length = fwdRecords.dist[i] + bkwRecords.dist[j] + extra;
+					if (length > limit) continue;
 
-				Node n = upstr ? edge.getSourceNode() : edge.getTargetNode();
+					int bound = getShortestLength(source, target);
+					if (bound >= 0 && Math.min(bound + k, limit) >= length) return true;
+				}
+			}
+			return false;
+		}
+		else
+		{
+			// The shortest path through the element is enough to decide. When self loops are
+			// ignored, the second best seed on each side is kept in case the best ones coincide.
 
-				int d_n = getLabel(n, label);
+			int f1 = INF, f2 = INF, fs = -1;
+			for (int i = fFrom; i < fTo; i++)
+			{
+				int source = fwdRecords.seed[i];
+				if (!isSourceSeed[source]) continue;
+				int d = fwdRecords.dist[i];
 
-				if (d_n > d + 1)
+				if (d < f1)
 				{
-					if (d + 1 < limit && !visitedStep.contains(n) && !queue.contains(n)
-						&& (!ignoreSelfLoops || !(sourceSeed.contains(n) || targetSeed.contains(n))))
-						queue.add(n);
+					if (source != fs) f2 = f1;
+					f1 = d;
+					fs = source;
+				}
+				else if (d < f2 && source != fs) f2 = d;
+			}
+
+			int b1 = INF, b2 = INF, bs = -1;
+			for (int j = bFrom; j < bTo; j++)
+			{
+				int target = bkwRecords.seed[j];
+				if (!isTargetSeed[target]) continue;
+				int d = bkwRecords.dist[j];
 
-					setLabel(n, label, d + 1);
+				if (d < b1)
+				{
+					if (target != bs) b2 = b1;
+					b1 = d;
+					bs = target;
 				}
+				else if (d < b2 && target != bs) b2 = d;
 			}
-		}
-	}
 
-	private void BFS_undirected(Node node, LinkedList<Node> queue)
-	{
-		assert !directed;
+			if (fs < 0 || bs < 0) return false;
 
-		BFStep(node, UPSTREAM, DIST, queue);
-		BFStep(node, DOWNSTREAM, DIST, queue);
-	}
+			int length;
+			if (!ignoreSelfLoops || fs != bs) length = f1 + b1;
+			else length = Math.min(f1 + b2, f2 + b1);
 
-	private void initSeed(GraphObject obj)
-	{
-		if (directed)
-		{
-			setLabel(obj, DIST_FORWARD, 0);
-			setLabel(obj, DIST_BACKWARD, 0);
-		}
-		else
-		{
-			setLabel(obj, DIST, 0);
+			return length + extra <= limit;
 		}
 	}
-	
-	private void selectSatisfyingElements()
+
+	/**
+	 * Gets the shortest+k reference length for the seed pair, or -1 if it is not known.
+	 */
+	private int getShortestLength(int source, int target)
 	{
-		for (GraphObject go : visitedGlobal)
+		if (considerAllPairs)
 		{
-			if (distanceSatisfies(go))
+			Integer len = shortestPairs.get(pairKey(source, target));
+			if (len == null) return -1;
+
+			if (shortestAnyDir)
 			{
-				goi.add(go);
+				Integer rev = shortestPairs.get(pairKey(target, source));
+				if (rev != null) return Math.min(len, rev);
 			}
+			return len;
 		}
-
-		// Remove edges in the result whose node is not in the result
-
-		Set<Edge> extra = new HashSet<Edge>();
-		for (GraphObject go : goi)
+		else
 		{
-			if (go instanceof Edge)
-			{
-				Edge edge = (Edge) go;
-				if (!goi.contains(edge.getSourceNode()) || !goi.contains(edge.getTargetNode()))
-				{
-					extra.add(edge);
-				}
-			}
+			if (shortestSingle[source] == INF || shortestSingle[target] == INF) return -1;
+			return Math.max(shortestSingle[source], shortestSingle[target]);
 		}
-		goi.removeAll(extra);
 	}
 
-	private boolean distanceSatisfies(GraphObject go)
+	private long pairKey(int source, int target)
+	{
+		return (long) source * seedCount + target;
+	}
+
+	/**
+	 * Iteratively removes non-seed nodes that have at most one neighbor in the result, together
+	 * with their edges, until no such node remains.
+	 */
+	private void pruneResult()
 	{
-		if (directed)
+		int[] srcs = graph.getEdgeSources();
+		int[] tgts = graph.getEdgeTargets();
+
+		IntDeque queue = new IntDeque();
+		for (int i = 0; i < n; i++)
 		{
-			return this.distanceSatisfies(go, fwdLabel, bkwLabel);
+			if (nodeSelected[i]) queue.addLast(i);
 		}
-		else
+
+		while (!queue.isEmpty())
 		{
-			return this.distanceSatisfies(go, labelMap, labelMap);
+			int node = queue.pollFirst();
+
+			if (!nodeSelected[node] || seedIndex[node] >= 0 || hasTwoNeighborsInResult(node))
+				continue;
+
+			nodeSelected[node] = false;
 
-			// just to remember old
+			for (boolean upstr : DIRECTIONS)
+			{
+				int[] offsets = upstr ? graph.getInOffsets() : graph.getOutOffsets();
+				int[] edges = upstr ? graph.getInEdges() : graph.getOutEdges();
+
+				for (int i = offsets[node]; i < offsets[node + 1]; i++)
+				{
+					int edge = edges[i];
+					if (!edgeSelected[edge]) continue;
 
-//			if (!labelMap.containsKey(go)) return false;
-//
-//			for (Integer i : labelMap.get(go).keySet())
-//			{
-//				if (i <= limit && labelMap.get(go).get(i).size() > 1) return true;
-//			}
-//			return false;
+					edgeSelected[edge] = false;
+					int other = srcs[edge] == node ? tgts[edge] : srcs[edge];
+					if (other != node) queue.addLast(other);
+				}
+			}
 		}
 	}
 
-	private boolean distanceSatisfies(GraphObject go,
-		Map<GraphObject, Map<Integer, Set<Node>>> fwdLabel,
-		Map<GraphObject, Map<Integer, Set<Node>>> bkwLabel)
+	private boolean hasTwoNeighborsInResult(int node)
 	{
-		if (!fwdLabel.containsKey(go) || !bkwLabel.containsKey(go)) return false;
+		int first = -1;
 
-		for (Integer i : fwdLabel.get(go).keySet())
+		for (boolean upstr : DIRECTIONS)
 		{
-			for (Integer j : bkwLabel.get(go).keySet())
-			{
-				int dist = i + j;
+			int[] offsets = upstr ? graph.getInOffsets() : graph.getOutOffsets();
+			int[] edges = upstr ? graph.getInEdges() : graph.getOutEdges();
+			int[] ends = upstr ? graph.getEdgeSources() : graph.getEdgeTargets();
 
-				if (!directed && go instanceof Edge) dist++;
+			for (int i = offsets[node]; i < offsets[node + 1]; i++)
+			{
+				int edge = edges[i];
+				if (!edgeSelected[edge]) continue;
 
-				if (dist <= limit)
-				{
-					if (setsSatisfy(fwdLabel.get(go).get(i), bkwLabel.get(go).get(j), dist))
-						return true;
-				}
+				int neigh = ends[edge];
+				if (neigh == node || neigh == first) continue;
+				if (first >= 0) return true;
+				first = neigh;
 			}
 		}
 		return false;
 	}
 
-	private void pruneResult()
+	private boolean checkEdgeSanity()
 	{
-		for (GraphObject go : new HashSet<GraphObject>(goi))
+		for (int i = 0; i < m; i++)
 		{
-			if (go instanceof Node)
+			if (edgeSelected[i])
 			{
-				prune((Node) go);
+				assert nodeSelected[graph.getSource(i)];
+				assert nodeSelected[graph.getTarget(i)];
 			}
 		}
+		return true;
 	}
 
-	private void prune(Node node)
+	/**
+	 * Finds the shortest distances between seeds. Forward distances from source seeds meet
+	 * backward distances to target seeds at the nodes, so the length of the shortest path between
+	 * two seeds is the minimum sum of their distances at a common node.
+	 */
+	private void findShortestPaths()
 	{
-		if (goi.contains(node) && !(sourceSeed.contains(node) || targetSeed.contains(node)))
+		if (considerAllPairs)
 		{
-			if (getNeighborsInResult(node).size() <= 1)
-			{
-				goi.remove(node);
-				goi.removeAll(node.getUpstream());
-				goi.removeAll(node.getDownstream());
+			shortestPairs = new HashMap<Long, Integer>();
 
-				for (Node n : getNeighborsOverResultEdges(node))
+			for (int elem = 0; elem < n; elem++)
+			{
+				for (int i = fwdRecords.offsets[elem]; i < fwdRecords.offsets[elem + 1]; i++)
 				{
-					prune(n);
-				}
-			}
-		}
-	}
+					int source = fwdRecords.seed[i];
+					int d1 = fwdRecords.dist[i];
 
+					for (int j = bkwRecords.offsets[elem]; j < bkwRecords.offsets[elem + 1]; j++)
+					{
+						int target = bkwRecords.seed[j];
+						int d = d1 + bkwRecords.dist[j];
 
-	private Set<Node> getNeighborsOverResultEdges(Node node)
-	{
-		Set<Node> set = new HashSet<Node>();
+						if (d > limit) continue;
+						if (ignoreSelfLoops && source == target) continue;
 
-		for (Edge edge : node.getUpstream())
-		{
-			if (goi.contains(edge))
-			{
-				set.add(edge.getSourceNode());
+						Long key = pairKey(source, target);
+						Integer len = shortestPairs.get(key);
+						if (len == null || len > d) shortestPairs.put(key, d);
+					}
+				}
 			}
 		}
-		for (Edge edge : node.getDownstream())
+		else
 		{
-			if (goi.contains(edge))
+			// Per seed lengths need only the closest seed on the other side. The second closest is
+			// kept in case the closest is the seed itself.
+
+			shortestSingle = new int[seedCount];
+			Arrays.fill(shortestSingle, INF);
+
+			for (int elem = 0; elem < n; elem++)
 			{
-				set.add(edge.getTargetNode());
+				meet(elem, fwdRecords, bkwRecords);
+				meet(elem, bkwRecords, fwdRecords);
 			}
 		}
-		set.remove(node);
-		return set;
 	}
 
-	private Set<Node> getNeighborsInResult(Node node)
+	/**
+	 * Updates shortest lengths of the seeds in the first records of the node, with the closest
+	 * seeds in the other records.
+	 */
+	private void meet(int node, Records recs, Records other)
 	{
-		Set<Node> set = getNeighborsOverResultEdges(node);
-		set.retainAll(goi);
-		return set;
-	}
+		int from = other.offsets[node];
+		int to = other.offsets[node + 1];
+		if (from == to) return;
 
-	private void clearLabels()
-	{
-		for (GraphObject go : visitedStep)
+		int best = INF, second = INF, bestSeed = -1;
+		for (int j = from; j < to; j++)
 		{
-			if (directed)
-			{
-				go.removeLabel(DIST_FORWARD);
-				go.removeLabel(DIST_BACKWARD);
-			}
-			else
+			int seed = other.seed[j];
+			int d = other.dist[j];
+
+			if (d < best)
 			{
-				go.removeLabel(DIST);
+				if (seed != bestSeed) second = best;
+				best = d;
+				bestSeed = seed;
 			}
+			else if (d < second && seed != bestSeed) second = d;
+		}
+
+		for (int i = recs.offsets[node]; i < recs.offsets[node + 1]; i++)
+		{
+			int seed = recs.seed[i];
+			int d = recs.dist[i] + (ignoreSelfLoops && seed == bestSeed ? second : best);
+
+			if (d <= limit && shortestSingle[seed] > d) shortestSingle[seed] = d;
 		}
-		visitedStep.clear();
 	}
 
-	private boolean checkEdgeSanity()
+	/**
+	 * Traverses from the seeds of the runs in the given range, reusing a free traversal buffer if
+	 * there is one.
+	 */
+	private void traverse(int[] runSeeds, boolean[] runDirs, Records[] results, int from, int to)
 	{
-		for (GraphObject go : goi)
+		Traversal trav = freeTraversals.poll();
+		if (trav == null) trav = new Traversal();
+
+		try
 		{
-			if (go instanceof Edge)
+			for (int i = from; i < to; i++)
 			{
-				Edge edge = (Edge) go;
+				CancelledException.check(monitor);
+
+				results[i] = new Records();
+				trav.run(runSeeds[i], runDirs[i], results[i]);
 
-				assert goi.contains(edge.getSourceNode());
-				assert goi.contains(edge.getTargetNode());
+				if (monitor != null)
+				{
+					monitor.setProgress("Traversing from seeds", traversed.incrementAndGet(),
+						results.length);
+				}
 			}
 		}
-		return true;
+		finally
+		{
+			freeTraversals.add(trav);
+		}
 	}
 
-	private int getLabel(GraphObject go, String label)
-	{
-		if (go.hasLabel(label)) return (Integer) go.getLabel(label);
-		else return Integer.MAX_VALUE / 2;
-	}
-	private void setLabel(GraphObject go, String label, Integer value)
+	/**
+	 * Traverses a range of the seed runs in the pool. Ranges are split in half until they are
+	 * small enough.
+	 */
+	private class TraversalTask extends RecursiveAction
 	{
-		go.putLabel(label, value);
-		visitedStep.add(go);
-		visitedGlobal.add(go);
-	}
+		private int[] runSeeds;
+		private boolean[] runDirs;
+		private Records[] results;
+		private int from;
+		private int to;
 
-	private void recordDistances(Node seed)
-	{
-		for (GraphObject go : visitedGlobal)
+		TraversalTask(int[] runSeeds, boolean[] runDirs, Records[] results, int from, int to)
+		{
+			this.runSeeds = runSeeds;
+			this.runDirs = runDirs;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute()
 		{
-			if (directed)
+			if (to - from <= TRAVERSAL_GRAIN)
 			{
-				recordDistance(go, seed, DIST_FORWARD, fwdLabel);
-				recordDistance(go, seed, DIST_BACKWARD, bkwLabel);
+				traverse(runSeeds, runDirs, results, from, to);
+			}
+			else
+			{
+				int mid = (from + to) >>> 1;
+				invokeAll(new TraversalTask(runSeeds, runDirs, results, from, mid),
+					new TraversalTask(runSeeds, runDirs, results, mid, to));
 			}
-			else recordDistance(go, seed, DIST, labelMap);
 		}
 	}
 
-	private void recordDistance(GraphObject go, Node seed, String label,
-		Map<GraphObject, Map<Integer, Set<Node>>> map)
+	/**
+	 * Selects elements in a range of ids.
+	 */
+	private class SelectionTask extends RecursiveAction
 	{
-		int d = getLabel(go, label);
-		if (d > limit) return;
-		if (!map.containsKey(go)) map.put(go, new HashMap<Integer, Set<Node>>());
-		if (!map.get(go).containsKey(d)) map.get(go).put(d, new HashSet<Node>());
-		map.get(go).get(d).add(seed);
-	}
+		private int from;
+		private int to;
 
-	private void mergeLabels(Map<GraphObject, Map<Integer, Set<Node>>> map)
-	{
-		for (GraphObject go : map.keySet())
+		SelectionTask(int from, int to)
+		{
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute()
 		{
-			for (int i = 0; i < limit; i++)
+			if (to - from <= SELECTION_GRAIN)
 			{
-				if (map.get(go).containsKey(i))
+				for (int i = from; i < to; i++)
 				{
-					for (int j = i+1; j <= limit; j++)
-					{
-						if (map.get(go).containsKey(j))
-						{
-							map.get(go).get(j).addAll(map.get(go).get(i));
-						}
-					}
+					select(i);
 				}
 			}
+			else
+			{
+				int mid = (from + to) >>> 1;
+				invokeAll(new SelectionTask(from, mid), new SelectionTask(mid, to));
+			}
 		}
 	}
 
-	private boolean setsSatisfy(Set<Node> set1, Set<Node> set2, int length)
+	/**
+	 * Reusable buffers for traversing from one seed at a time.
+	 */
+	private class Traversal
 	{
-		assert !set1.isEmpty();
-		assert !set2.isEmpty();
+		private int[] dist;
+		private int[] touched;
+		private int touchedCount;
+		private IntDeque queue;
 
-		if (useShortestPlusK)
+		Traversal()
 		{
-			for (Node source : set1)
+			dist = new int[n + m];
+			Arrays.fill(dist, INF);
+			touched = new int[n + m];
+			queue = new IntDeque();
+		}
+
+		/**
+		 * Runs BFS from the seed and records distances of the reached elements.
+		 */
+		void run(int seed, boolean direction, Records records)
+		{
+			label(seed, 0);
+			queue.addLast(seed);
+
+			while (!queue.isEmpty())
 			{
-				for (Node target : set2)
-				{
-					if (ignoreSelfLoops && source.equals(target)) continue;
-					if (!sourceSeed.contains(source) || !targetSeed.contains(target)) continue;
+				int node = queue.pollFirst();
 
-					if ((considerAllPairs && shortestPairLengths.containsKey(source) &&
-						shortestPairLengths.get(source).containsKey(target)) ||
-						(!considerAllPairs && shortestSingleLengths.containsKey(source) &&
-						shortestSingleLengths.containsKey(target)))
-					{
-						// decide limit
-						int limit;
-
-						if (considerAllPairs)
-						{
-							limit = shortestPairLengths.get(source).get(target);
-							if (shortestAnyDir && shortestPairLengths.containsKey(target) &&
-								shortestPairLengths.get(target).containsKey(source))
-							{
-								limit = Math.min(limit, shortestPairLengths.get(target).get(source));
-							}
-						}
-						else
-						{
-							limit = Math.max(shortestSingleLengths.get(source),
-								shortestSingleLengths.get(target));
-						}
-
-						limit = Math.min(limit + k, this.limit);
-
-						if (limit >= length) return true;
-					}
+				if (directed)
+				{
+					step(node, direction == FORWARD ? DOWNSTREAM : UPSTREAM);
+				}
+				else
+				{
+					step(node, UPSTREAM);
+					step(node, DOWNSTREAM);
 				}
 			}
-			return false;
+
+			int s = seedIndex[seed];
+
+			for (int i = 0; i < touchedCount; i++)
+			{
+				int elem = touched[i];
+				if (dist[elem] <= limit) records.add(elem, s, dist[elem]);
+				dist[elem] = INF;
+			}
+			touchedCount = 0;
 		}
-		else
+
+		private void step(int node, boolean upstr)
 		{
-			for (Node source : set1)
+			int d = dist[node];
+
+			if (d >= limit) return;
+
+			int[] offsets = upstr ? graph.getInOffsets() : graph.getOutOffsets();
+			int[] edges = upstr ? graph.getInEdges() : graph.getOutEdges();
+			int[] ends = upstr ? graph.getEdgeSources() : graph.getEdgeTargets();
+
+			for (int i = offsets[node]; i < offsets[node + 1]; i++)
 			{
-				for (Node target : set2)
+				int edge = edges[i];
+
+				// Each edge is labeled once in a traversal
+				if (dist[n + edge] != INF) continue;
+
+				label(n + edge, directed && !upstr ? d + 1 : d);
+
+				int neigh = ends[edge];
+				int dn = dist[neigh];
+
+				if (dn > d + 1)
 				{
-					if (ignoreSelfLoops && source.equals(target)) continue;
-					if (sourceSeed.contains(source) && targetSeed.contains(target)) return true;
+					if (d + 1 < limit && dn == INF && (!ignoreSelfLoops || seedIndex[neigh] < 0))
+						queue.addLast(neigh);
+
+					label(neigh, d + 1);
 				}
 			}
-			return false;
 		}
-	}
 
-	private void findShortestPaths()
-	{
-		if (directed) this.findShortestPaths(fwdLabel, bkwLabel);
-		else this.findShortestPaths(labelMap, labelMap);
+		private void label(int elem, int d)
+		{
+			if (dist[elem] == INF) touched[touchedCount++] = elem;
+			dist[elem] = d;
+		}
 	}
 
-	private void findShortestPaths(Map<GraphObject, Map<Integer, Set<Node>>> fwdLabel,
-		Map<GraphObject, Map<Integer, Set<Node>>> bkwLabel)
+	/**
+	 * Growing list of (element, seed, distance) records. After the traversals, the records are
+	 * grouped by element with index(), so that records of element e are between offsets[e] and
+	 * offsets[e+1].
+	 */
+	static class Records
 	{
-		if (considerAllPairs) shortestPairLengths = new HashMap<Node, Map<Node, Integer>>();
-		else shortestSingleLengths = new HashMap<Node, Integer>();
+		int size;
+		int[] elem = new int[16];
+		int[] seed = new int[16];
+		int[] dist = new int[16];
+		int[] offsets;
 
-		for (GraphObject go : fwdLabel.keySet())
+		void add(int e, int s, int d)
 		{
-			if (go instanceof Edge) continue;
+			if (size == elem.length)
+			{
+				elem = Arrays.copyOf(elem, size << 1);
+				seed = Arrays.copyOf(seed, size << 1);
+				dist = Arrays.copyOf(dist, size << 1);
+			}
+			elem[size] = e;
+			seed[size] = s;
+			dist[size] = d;
+			size++;
+		}
 
-			Map<Integer, Set<Node>> fwMap = fwdLabel.get(go);
-			Map<Integer, Set<Node>> bwMap = bkwLabel.get(go);
+		void addAll(Records other)
+		{
+			for (int i = 0; i < other.size; i++)
+			{
+				add(other.elem[i], other.seed[i], other.dist[i]);
+			}
+		}
 
-			if (fwMap == null || bwMap == null) continue;
+		void index(int elemCount)
+		{
+			offsets = new int[elemCount + 1];
+			for (int i = 0; i < size; i++) offsets[elem[i] + 1]++;
+			for (int i = 0; i < elemCount; i++) offsets[i + 1] += offsets[i];
+
+			int[] pos = Arrays.copyOf(offsets, elemCount);
+			int[] s = new int[size];
+			int[] d = new int[size];
 
-			for (Integer d1 : fwMap.keySet())
+			for (int i = 0; i < size; i++)
 			{
-				for (Node source : fwMap.get(d1))
-				{
-					for (Integer d2 : bwMap.keySet())
-					{
-						if (d1 + d2 > limit) continue;
-
-						for (Node target : bwMap.get(d2))
-						{
-							if (ignoreSelfLoops && source.equals(target)) continue;
-
-							if (considerAllPairs)
-							{
-								if (!shortestPairLengths.containsKey(source))
-								{
-									shortestPairLengths.put(source, new HashMap<Node, Integer>());
-								}
-
-								if (!shortestPairLengths.get(source).containsKey(target) ||
-									shortestPairLengths.get(source).get(target) > d1 + d2)
-								{
-									shortestPairLengths.get(source).put(target, d1 + d2);
-								}
-							}
-							else
-							{
-								if (!shortestSingleLengths.containsKey(source) ||
-									shortestSingleLengths.get(source) > d1 + d2)
-								{
-									shortestSingleLengths.put(source, d1 + d2);
-								}
-								if (!shortestSingleLengths.containsKey(target) ||
-									shortestSingleLengths.get(target) > d1 + d2)
-								{
-									shortestSingleLengths.put(target, d1 + d2);
-								}
-							}
-						}
-					}
-				}
+				int p = pos[elem[i]]++;
+				s[p] = seed[i];
+				d[p] = dist[i];
 			}
+			seed = s;
+			dist = d;
+			elem = null;
 		}
 	}
 
+	private static final int INF = Integer.MAX_VALUE / 2;
+
+	/**
+	 * Parallel execution is used only if there are at least this many seed traversals.
+	 */
+	private static final int PARALLEL_THRESHOLD = 4;
+
+	private static final int TRAVERSAL_GRAIN = 2;
+	private static final int SELECTION_GRAIN = 4096;
+
 	public static final String DIST = "DIST";
 	public static final String DIST_FORWARD = "DIST_FORWARD";
 	public static final String DIST_BACKWARD = "DIST_BACKWARD";
@@ -630,4 +893,6 @@ public class PathsBetweenSIF
 	public static final boolean BACKWARD = false;
 	public static final boolean UPSTREAM = true;
 	public static final boolean DOWNSTREAM = false;
+
+	private static final boolean[] DIRECTIONS = new boolean[]{UPSTREAM, DOWNSTREAM};
 }
@@ -0,0 +1,305 @@
+package org.patika.mada.algorithm;
+
+import org.patika.mada.graph.CompactGraph;
+import org.patika.mada.graph.Graph;
+
+import java.util.Arrays;
+
+/**
+ * State of a causative path search that MarkDistances, MarkShortestPlusPaths and SearchCauses
+ * pass to each other. The state is kept in arrays indexed by the node ids of a CompactGraph
+ * snapshot instead of labels on the graph objects, so more than one search can run on the same
+ * graph at the same time, each with its own context.
+ *
+ * Distances are recorded from and to the roots, which are the significant nodes that the
+ * searches start from. Roots are numbered in the order they are added, and each node keeps its
+ * distances in a list of (root, distance) pairs sorted by the root numbers.
+ *
+ * @author Ozgun Babur
+ *
+ * Copyright: Bilkent Center for Bioinformatics, 2007 - present
+ */
+public class QueryContext
+{
+	/**
+	 * Graph that is searched.
+	 */
+	private Graph graph;
+
+	/**
+	 * Snapshot of the graph.
+	 */
+	private CompactGraph compact;
+
+	/**
+	 * Root number of each node, -1 if the node is not a root.
+	 */
+	private int[] rootIndex;
+
+	/**
+	 * Node ids of the roots.
+	 */
+	private int[] roots;
+	private int rootCount;
+
+	/**
+	 * (root, distance) pairs of each node, for distances from the roots to the node.
+	 */
+	private int[][] distFrom;
+	private int[] distFromSize;
+
+	/**
+	 * (root, distance) pairs of each node, for distances from the node to the roots.
+	 */
+	private int[][] distTo;
+	private int[] distToSize;
+
+	/**
+	 * (target, source) pairs of each node, for the node being on a short enough path from the
+	 * source to the target. Both are root numbers.
+	 */
+	private int[][] pathSources;
+	private int[] pathSourcesSize;
+
+	public QueryContext(Graph graph)
+	{
+		this(graph, new CompactGraph(graph));
+	}
+
+	public QueryContext(Graph graph, CompactGraph compact)
+	{
+		this.graph = graph;
+		this.compact = compact;
+
+		int n = compact.getNodeCount();
+		rootIndex = new int[n];
+		Arrays.fill(rootIndex, -1);
+		roots = new int[16];
+
+		distFrom = new int[n][];
+		distFromSize = new int[n];
+		distTo = new int[n][];
+		distToSize = new int[n];
+		pathSources = new int[n][];
+		pathSourcesSize = new int[n];
+	}
+
+	public Graph getGraph()
+	{
+		return graph;
+	}
+
+	public CompactGraph getCompactGraph()
+	{
+		return compact;
+	}
+
+	//----------------------------------------------------------------------------------------------
+	// Section: Roots
+	//----------------------------------------------------------------------------------------------
+
+	/**
+	 * Adds the node as a root if it is not already.
+	 * @return root number of the node
+	 */
+	public int addRoot(int node)
+	{
+		if (rootIndex[node] < 0)
+		{
+			if (rootCount == roots.length) roots = Arrays.copyOf(roots, rootCount << 1);
+			roots[rootCount] = node;
+			rootIndex[node] = rootCount++;
+		}
+		return rootIndex[node];
+	}
+
+	/**
+	 * Gets the root number of the node, or -1 if it is not a root.
+	 */
+	public int getRootIndex(int node)
+	{
+		return rootIndex[node];
+	}
+
+	/**
+	 * Gets the node id of the root with the given number.
+	 */
+	public int getRoot(int index)
+	{
+		return roots[index];
+	}
+
+	public int getRootCount()
+	{
+		return rootCount;
+	}
+
+	//----------------------------------------------------------------------------------------------
+	// Section: Distances
+	//----------------------------------------------------------------------------------------------
+
+	/**
+	 * Records the distance of the node from the root (forward) or to the root (backward). The
+	 * distances of a node have to be recorded in the increasing order of the root numbers.
+	 */
+	public void putDistance(int node, int root, int distance, boolean direction)
+	{
+		if (direction == MarkDistances.FORWARD)
+		{
+			distFrom[node] = append(distFrom[node], distFromSize[node], root, distance);
+			distFromSize[node] += 2;
+		}
+		else
+		{
+			distTo[node] = append(distTo[node], distToSize[node], root, distance);
+			distToSize[node] += 2;
+		}
+	}
+
+	/**
+	 * Gets the distance of the node from the root (forward) or to the root (backward), or
+	 * Integer.MAX_VALUE if the root is not in the distance limit.
+	 */
+	public int getDistance(int node, int root, boolean direction)
+	{
+		int[] pairs = direction == MarkDistances.FORWARD ? distFrom[node] : distTo[node];
+		int size = direction == MarkDistances.FORWARD ? distFromSize[node] : distToSize[node];
+
+		int i = find(pairs, 0, size, root);
+		return i < 0 ? Integer.MAX_VALUE : pairs[i + 1];
+	}
+
+	/**
+	 * Gets the number of roots that the node has a distance from (forward) or to (backward).
+	 */
+	public int getDistanceCount(int node, boolean direction)
+	{
+		return (direction == MarkDistances.FORWARD ? distFromSize[node] : distToSize[node]) >> 1;
+	}
+
+	/**
+	 * Gets the root of the i-th distance of the node, in the increasing order of root numbers.
+	 */
+	public int getDistanceRoot(int node, int i, boolean direction)
+	{
+		return (direction == MarkDistances.FORWARD ? distFrom[node] : distTo[node])[i << 1];
+	}
+
+	/**
+	 * Gets the i-th distance of the node, in the increasing order of root numbers.
+	 */
+	public int getDistanceValue(int node, int i, boolean direction)
+	{
+		return (direction == MarkDistances.FORWARD ? distFrom[node] : distTo[node])[(i << 1) + 1];
+	}
+
+	//----------------------------------------------------------------------------------------------
+	// Section: Path marks
+	//----------------------------------------------------------------------------------------------
+
+	/**
+	 * Records that the node is on a path from the source root to the target root. Marks of a
+	 * node have to be recorded in the increasing order of targets, then of sources.
+	 */
+	public void addPathSource(int node, int target, int source)
+	{
+		pathSources[node] = append(pathSources[node], pathSourcesSize[node], target, source);
+		pathSourcesSize[node] += 2;
+	}
+
+	/**
+	 * Gets the sources that have a marked path to the target through the node, in increasing
+	 * order, or null if there is none.
+	 */
+	public int[] getPathSources(int node, int target)
+	{
+		int[] pairs = pathSources[node];
+		int start = find(pairs, 0, pathSourcesSize[node], target);
+		if (start < 0) return null;
+
+		int end = start;
+		while (end < pathSourcesSize[node] && pairs[end] == target) end += 2;
+
+		int[] sources = new int[(end - start) >> 1];
+		for (int i = 0; i < sources.length; i++)
+		{
+			sources[i] = pairs[start + (i << 1) + 1];
+		}
+		return sources;
+	}
+
+	/**
+	 * Keeps the given sources that also have a marked path to the target through the node.
+	 * @param sources sorted source roots
+	 * @return sorted subset of the sources, which may be empty
+	 */
+	public int[] filterPathSources(int node, int target, int[] sources)
+	{
+		int[] pairs = pathSources[node];
+		int i = find(pairs, 0, pathSourcesSize[node], target);
+		if (i < 0) return EMPTY;
+
+		int[] kept = new int[sources.length];
+		int count = 0;
+		int j = 0;
+
+		// Both lists are sorted, walk them together
+		while (i < pathSourcesSize[node] && pairs[i] == target && j < sources.length)
+		{
+			int source = pairs[i + 1];
+
+			if (source < sources[j]) i += 2;
+			else if (source > sources[j]) j++;
+			else
+			{
+				kept[count++] = source;
+				i += 2;
+				j++;
+			}
+		}
+		return count == kept.length ? kept : Arrays.copyOf(kept, count);
+	}
+
+	//----------------------------------------------------------------------------------------------
+	// Section: Pair lists
+	//----------------------------------------------------------------------------------------------
+
+	private static int[] append(int[] pairs, int size, int key, int value)
+	{
+		if (pairs == null) pairs = new int[4];
+		else if (size == pairs.length) pairs = Arrays.copyOf(pairs, size << 1);
+
+		assert size == 0 || pairs[size - 2] <= key : "Pairs are not added in key order";
+
+		pairs[size] = key;
+		pairs[size + 1] = value;
+		return pairs;
+	}
+
+	/**
+	 * Finds the position of the first pair with the key, using binary search on the sorted keys.
+	 * @return position of the key of the pair, or -1 if not found
+	 */
+	private static int find(int[] pairs, int from, int to, int key)
+	{
+		int lo = from >> 1;
+		int hi = (to >> 1) - 1;
+		int found = -1;
+
+		while (lo <= hi)
+		{
+			int mid = (lo + hi) >>> 1;
+			int k = pairs[mid << 1];
+
+			if (k < key) lo = mid + 1;
+			else
+			{
+				if (k == key) found = mid << 1;
+				hi = mid - 1;
+			}
+		}
+		return found;
+	}
+
+	private static final int[] EMPTY = new int[0];
+}
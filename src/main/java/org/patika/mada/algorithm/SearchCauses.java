@@ -2,17 +2,22 @@ package org.patika.mada.algorithm;
 
 import org.gvt.model.biopaxl2.Complex;
 import org.gvt.model.biopaxl2.ComplexMember;
-import org.patika.mada.graph.Edge;
-import org.patika.mada.graph.Graph;
+import org.patika.mada.graph.CompactGraph;
 import org.patika.mada.graph.Node;
+import org.patika.mada.util.CancelledException;
 import org.patika.mada.util.CausativePath;
 import org.patika.mada.util.ExperimentData;
+import org.patika.mada.util.ProgressMonitor;
 
 import java.util.*;
 
 @SuppressWarnings({"JavaDoc"})
 
 /**
+ * Searches compatible paths to the targets, using the distances and path marks in the query
+ * context. State of the current path is kept in arrays indexed by the node ids of the snapshot
+ * in the context.
+ *
  * @author Ozgun Babur
  *
  * Copyright: Bilkent Center for Bioinformatics, 2007 - present
@@ -24,44 +29,76 @@ public class SearchCauses
 	//==============================================================================================
 
 	/**
-	 * Graph to work on
+	 * Context of the search, prepared by MarkDistances and MarkShortestPlusPaths
+	 */
+	private QueryContext context;
+
+	/**
+	 * Snapshot of the graph to work on
 	 */
-	private Graph graph;
+	private CompactGraph graph;
 
 	/**
 	 * Target node to search for causes of its experiment data
 	 */
 	private Set<? extends Node> targets;
-	
+
 	/**
-	 * plus t argument for getting compatible paths of length shortest plus t (from any source to 
+	 * plus t argument for getting compatible paths of length shortest plus t (from any source to
 	 * the specific target).
 	 */
 	private int t;
-	
+
 	/**
-	 * plus k argument for forcing compatible paths to be among of length shortest + k (from a 
+	 * plus k argument for forcing compatible paths to be among of length shortest + k (from a
 	 * specific source to a specific target).
 	 */
 	private int k;
-	
+
 	/**
 	 * The maximum length of a compatible path
 	 */
 	private int limit;
-	
+
 	/**
 	 * This complex structure holds the resulting paths we found.
 	 */
 	private Map<Node, Map<Integer, List<CausativePath>>> result;
 
+	/**
+	 * Nodes on the current path are marked with this.
+	 */
+	private boolean[] onPath;
+
+	/**
+	 * Used for remembering the edge that was traversed during search of the current path. -1 if
+	 * there is no such edge.
+	 */
+	private int[] pathEdge;
+
+	/**
+	 * Tabu nodes of the nodes on the current path.
+	 */
+	private boolean[] forbidden;
+
+	/**
+	 * This is max length of allowed causative path for each target, indexed by root number.
+	 */
+	private int[] maxPathLength;
+
+	/**
+	 * Checked before each target for cancellation, and receives the progress. May be null.
+	 */
+	private ProgressMonitor monitor;
+
 	//==============================================================================================
 	// Section: Constructors
 	//==============================================================================================
-	
-	public SearchCauses(Graph graph, Set<? extends Node> targets, int limit, int t, int k)
+
+	public SearchCauses(QueryContext context, Set<? extends Node> targets, int limit, int t, int k)
 	{
-		this.graph = graph;
+		this.context = context;
+		this.graph = context.getCompactGraph();
 		this.targets = targets;
 		this.limit = limit;
 		this.t = t;
@@ -71,7 +108,7 @@ public class SearchCauses
 	//==============================================================================================
 	// Section: Methods
 	//==============================================================================================
-	
+
 	/**
 	 * Runs the algorithm for necessary targets.
 	 */
@@ -79,36 +116,63 @@ public class SearchCauses
 	{
 		result = new HashMap<Node, Map<Integer, List<CausativePath>>>();
 
-		for (Node target : targets != null ? targets : graph.getNodes())
+		int n = graph.getNodeCount();
+		onPath = new boolean[n];
+		pathEdge = new int[n];
+		forbidden = new boolean[n];
+		maxPathLength = new int[context.getRootCount()];
+		Arrays.fill(pathEdge, -1);
+
+		Collection<? extends Node> nodes = targets != null ? targets :
+			context.getGraph().getNodes();
+
+		int done = 0;
+
+		for (Node target : nodes)
 		{
+			CancelledException.check(monitor);
+
 			if (target.hasSignificantExperimentalChange(ExperimentData.EXPRESSION_DATA))
 			{
-				searchForTarget(target);
+				int id = graph.getNodeId(target);
+				if (id >= 0) searchForTarget(id);
+			}
+
+			if (monitor != null)
+			{
+				monitor.setProgress("Searching causative paths", ++done, nodes.size());
 			}
 		}
 
 		pruneResult();
-		clearLabels();
 		return result;
 	}
-	
+
+	public void setMonitor(ProgressMonitor monitor)
+	{
+		this.monitor = monitor;
+	}
+
 	/**
-	 * This method can be called for each target independently. 
+	 * This method can be called for each target independently.
 	 */
-	private void searchForTarget(Node target)
+	private void searchForTarget(int target)
 	{
+		int targetIndex = context.getRootIndex(target);
+
+		// Targets that distances are not marked for cannot have a path
+		if (targetIndex < 0) return;
+
 		// Current path
-		CurrentPath<Node> path = new CurrentPath<Node>();
+		CurrentPath path = new CurrentPath();
+
+		maxPathLength[targetIndex] = limit;
+
+		int[] destSet = context.getPathSources(target, targetIndex);
 
-		target.putLabel(MAX_PATH_LENGTH, limit);
-		
-		Set<Node> destSet = getDestinationSet(target, target);
-		
-		if (destSet != null && !destSet.isEmpty())
+		if (destSet != null && destSet.length > 0)
 		{
-			traverseUpstream(target, target, path, 1, destSet, new HashSet<Node>());
-//			traverseRelatives(target, target, path, 1, destSet, new HashSet<Node>(), TOWARDS_CHILDREN);
-//			traverseRelatives(target, target, path, 1, destSet, new HashSet<Node>(), TOWARDS_PARENTS);
+			traverseUpstream(target, target, targetIndex, path, 1, destSet);
 		}
 	}
 
@@ -116,64 +180,63 @@ public class SearchCauses
 	 * Proceeds to the upstream of the current node.
 	 * @param node current node
 	 * @param target node that we start from
+	 * @param targetIndex root number of the target
 	 * @param path nodes on current path
 	 * @param sign the sign of the current path
 	 */
-	private void traverseUpstream(Node node, Node target, CurrentPath<Node> path, int sign,
-			Set<Node> destSet, Set<Node> forbidden)
+	private void traverseUpstream(int node, int target, int targetIndex, CurrentPath path,
+		int sign, int[] destSet)
 	{
 		// Stop if the maximum length of compatible path for this target is hit.
 
-		int maxLength = (Integer) target.getLabel(MAX_PATH_LENGTH);
-		
+		int maxLength = maxPathLength[targetIndex];
+
 		assert path.getSize() <= maxLength :
 			"Length limit is violated. path size: " + path.getSize() + " maxlength: " + maxLength;
-		
+
 		if (path.getSize() == maxLength)
 		{
 			return;
 		}
 
 		// Iterate upstream
-		
-		for (Edge edge : node.getUpstream())
+
+		int[] offsets = graph.getInOffsets();
+		int[] edges = graph.getInEdges();
+
+		for (int i = offsets[node]; i < offsets[node + 1]; i++)
 		{
+			int edge = edges[i];
+
 			// Do not consider non-causative edges
-			if (!edge.isCausative()) continue;
+			if (!graph.isCausative(edge)) continue;
 
-			int edgeSign = edge.getSign();
-			Node neigh = edge.getSourceNode();
+			int edgeSign = graph.getSign(edge);
+			int neigh = graph.getSource(edge);
 
 			// Do it if will not cause a cycle
-			
-			if (neigh != target && !neigh.hasLabel(ON_PATH) && !forbidden.contains(neigh))
+
+			if (neigh != target && !onPath[neigh] && !forbidden[neigh])
 			{
-				// If this is the last reaction, then it should be a transcriptional relation
-				if (false)//node == target && neigh.isEvent())
-				{
-					if (!neigh.isTranscriptionEvent()) continue;
-				}
-				
-				Set<Node> newDestSet = filterDestinationSources(neigh, target, destSet);
+				int[] newDestSet = context.filterPathSources(neigh, targetIndex, destSet);
 
 				// Proceed only if there is some source to go.
-				if (!newDestSet.isEmpty() || destSet.contains(neigh))
+				if (newDestSet.length > 0 || contains(destSet, neigh))
 				{
-					boolean distIncr = neigh.isBreadthNode() && edge.isBreadthEdge();
+					boolean distIncr = graph.isBreadthNode(neigh) && graph.isBreadthEdge(edge);
 
-					Set<Node> tabu = keepDifference(forbidden, neigh.getTabuNodes());
-					forbidden.addAll(tabu);
-					neigh.putLabel(EDGE, edge);
-					neigh.putLabel(ON_PATH, true);
+					int[] tabu = forbid(graph.getNode(neigh).getTabuNodes());
+					pathEdge[neigh] = edge;
+					onPath[neigh] = true;
 					path.addFirst(neigh, distIncr);
-					
-					checkAndProceed(neigh, target, path, sign * edgeSign, newDestSet, forbidden,
+
+					checkAndProceed(neigh, target, targetIndex, path, sign * edgeSign, newDestSet,
 						TOWARDS_BOTHWAYS);
-					
+
 					path.removeFirst(distIncr);
-					neigh.removeLabel(ON_PATH);
-					neigh.removeLabel(EDGE);
-					forbidden.removeAll(tabu);
+					onPath[neigh] = false;
+					pathEdge[neigh] = -1;
+					permit(tabu);
 				}
 			}
 		}
@@ -182,71 +245,81 @@ public class SearchCauses
 	/**
 	 * Proceeds towards children or parents according to the direction parameter.
 	 */
-	private void traverseRelatives(Node node, Node target, CurrentPath<Node> path, int sign,
-			Set<Node> destSet, Set<Node> forbidden, int direction)
+	private void traverseRelatives(int node, int target, int targetIndex, CurrentPath path,
+		int sign, int[] destSet, int direction)
 	{
-		for (Node relative : direction == TOWARDS_CHILDREN ? node.getChildren() : node.getParents())
+		int[] offsets = direction == TOWARDS_CHILDREN ?
+			graph.getChildOffsets() : graph.getParentOffsets();
+		int[] relatives = direction == TOWARDS_CHILDREN ? graph.getChildren() : graph.getParents();
+
+		for (int i = offsets[node]; i < offsets[node + 1]; i++)
 		{
-			if (relative != target && !relative.hasLabel(ON_PATH))
+			int relative = relatives[i];
+
+			if (relative != target && !onPath[relative])
 			{
-				Set<Node> newDestSet = filterDestinationSources(relative, target, destSet);
+				int[] newDestSet = context.filterPathSources(relative, targetIndex, destSet);
 
 				// Proceed only if there is some source to go.
-				if (!newDestSet.isEmpty())
+				if (newDestSet.length > 0)
 				{
-					relative.putLabel(ON_PATH, true);
+					onPath[relative] = true;
 					path.addFirst(relative, false);
-					
-					checkAndProceed(relative, target, path, sign, newDestSet, forbidden, direction);
-					
+
+					checkAndProceed(relative, target, targetIndex, path, sign, newDestSet,
+						direction);
+
 					path.removeFirst(false);
-					relative.removeLabel(ON_PATH);
+					onPath[relative] = false;
 				}
 			}
 		}
 	}
-	
+
 	/**
-	 * Checks the compatibility, records if a compatible path is found, otherwise proceeds to 
+	 * Checks the compatibility, records if a compatible path is found, otherwise proceeds to
 	 * upstream.
 	 * @param node current node
 	 * @param target node that we start from
+	 * @param targetIndex root number of the target
 	 * @param path nodes on current path
 	 * @param sign the sign of the current path
 	 */
-	private void checkAndProceed(Node node, Node target, CurrentPath<Node> path, int sign,
-			Set<Node> destSet, Set<Node> forbidden, int relativeDirection)
+	private void checkAndProceed(int node, int target, int targetIndex, CurrentPath path,
+		int sign, int[] destSet, int relativeDirection)
 	{
 		// Check compatibility
-		
-		if (node.hasSignificantExperimentalChange(ExperimentData.EXPRESSION_DATA))
+
+		if (graph.getNode(node).hasSignificantExperimentalChange(ExperimentData.EXPRESSION_DATA))
 		{
-			if (isCompatible(node, target, sign))
+			if (isCompatible(graph.getNode(node), graph.getNode(target), sign))
 			{
-				recordPath(node, target, path);
+				recordPath(node, target, targetIndex, path);
 			}
 
 			return;
 		}
-		
+
 		// A compatible path won't have a significant node in the middle. That's why we have "else"
 		// here
-		
+
 		else
 		{
-			traverseUpstream(node, target, path, sign, destSet, forbidden);
-			
+			traverseUpstream(node, target, targetIndex, path, sign, destSet);
+
 			if (relativeDirection == TOWARDS_CHILDREN || relativeDirection == TOWARDS_BOTHWAYS)
 			{
-				traverseRelatives(node, target, path, sign, destSet, forbidden, TOWARDS_CHILDREN);
+				traverseRelatives(node, target, targetIndex, path, sign, destSet,
+					TOWARDS_CHILDREN);
 			}
 			if (relativeDirection == TOWARDS_PARENTS || relativeDirection == TOWARDS_BOTHWAYS)
 			{
-				traverseRelatives(node, target, path, sign, destSet, forbidden, TOWARDS_PARENTS);
+				traverseRelatives(node, target, targetIndex, path, sign, destSet,
+					TOWARDS_PARENTS);
 			}
 		}
 	}
-	
+
 	/**
 	 * Checks if regulation on two nodes is compatible with the sign, i.e. if "from" is up and "to"
 	 * is down, then sign=-1 is compatible.
@@ -295,53 +368,56 @@ public class SearchCauses
 	}
 
 	/**
-	 * Records the compatible path found and updates the max length of the compatible path for the 
+	 * Records the compatible path found and updates the max length of the compatible path for the
 	 * target if necessary.
 	 */
-	private void recordPath(Node source, Node target, CurrentPath<Node> path)
+	private void recordPath(int source, int target, int targetIndex, CurrentPath path)
 	{
 		int length = path.getSize();
 
-		if (length > getShortestDistance(source, target) + k)
+		if (length > getShortestDistance(source, targetIndex) + k)
 		{
 			System.out.println("Found and ignored a non-(shortest+k) " +
 				"path this should happen rarely.");
-			
+
 			return;
 		}
-		
-		int max = (Integer) target.getLabel(MAX_PATH_LENGTH);
+
+		int max = maxPathLength[targetIndex];
 
 		assert length + t <= max : "Found a path longer than restricted lengh.";
-		
+
 		if (length + t < max)
-		{		
-			target.putLabel(MAX_PATH_LENGTH, length + t);
+		{
+			maxPathLength[targetIndex] = length + t;
 		}
 
 		// Create the path and add to the result
-		
+
 		CausativePath compPath = new CausativePath();
-		
-		for (Node node : path)
+
+		for (int i = 0; i < path.getCount(); i++)
 		{
-			compPath.addNode(node);
+			int node = path.get(i);
+			compPath.addNode(graph.getNode(node));
 
-			if (node.hasLabel(EDGE))
+			if (pathEdge[node] >= 0)
 			{
-				compPath.addEdge((Edge) node.getLabel(EDGE));
+				compPath.addEdge(graph.getEdge(pathEdge[node]));
 			}
 		}
-		compPath.addNode(target);
-		
+		compPath.addNode(graph.getNode(target));
+
 		assert compPath.getLength() == length;
 
-		if (!result.containsKey(target))
+		Node targetNode = graph.getNode(target);
+
+		if (!result.containsKey(targetNode))
 		{
-			result.put(target, new HashMap<Integer, List<CausativePath>>());
+			result.put(targetNode, new HashMap<Integer, List<CausativePath>>());
 		}
-		Map<Integer, List<CausativePath>> pathMap = result.get(target);
-		
+		Map<Integer, List<CausativePath>> pathMap = result.get(targetNode);
+
 		if (!pathMap.containsKey(length))
 		{
 			pathMap.put(length, new ArrayList<CausativePath>());
@@ -349,98 +425,60 @@ public class SearchCauses
 		List<CausativePath> paths = pathMap.get(length);
 		paths.add(compPath);
 	}
-	
+
 	/**
-	 * Finds the length of the shortest path between nodes from-to. This uses the labels on nodes
-	 * which was previously introduced in MarkDistances algorithm.
+	 * Finds the length of the shortest path between nodes from-to. This uses the distances which
+	 * were previously recorded by the MarkDistances algorithm.
 	 */
-	private int getShortestDistance(Node from, Node to)
+	private int getShortestDistance(int from, int to)
 	{
-		Map<Node, Integer> distTo = (Map<Node, Integer>) from.getLabel(MarkDistances.DIST_TO);
-
-		int s = Integer.MAX_VALUE;
-		
-		if (distTo.containsKey(to))
-		{
-			s = distTo.get(to);
-		}
-		return s;
+		return context.getDistance(from, to, MarkDistances.BACKWARD);
 	}
 
 	/**
-	 * Each node knows where to go if you are coming from a target. this destination set is 
-	 * retrieved from a node using this method.
+	 * Checks if the node is one of the sources in the destination set.
 	 */
-	private Set<Node> getDestinationSet(Node node, Node target)
+	private boolean contains(int[] destSet, int node)
 	{
-		// invalid assertion. remove when certain
-//		assert node.hasLabel(MarkShortestPlusPaths.TO_FROM_PATH_MAP);
-		
-		Map<Node, Set<Node>> destMap = (Map<Node, Set<Node>>) node.getLabel(
-			MarkShortestPlusPaths.TO_FROM_PATH_MAP);
-
-		if (destMap == null)
-		{
-			return null;
-		}
-		else
-		{
-			return destMap.get(target);
-		}
+		int index = context.getRootIndex(node);
+		return index >= 0 && Arrays.binarySearch(destSet, index) >= 0;
 	}
 
 	/**
-	 * Scenario is: We started backwards search from "target" and now visiting "node". We also have 
-	 * a list of destination sources that we are supposed to be searching. This list is inherited 
-	 * from the previous step. Now we need to remove items from this list if "node" does not support 
-	 * them. When we have no items in this list, this will the time to stop.
-	 * 
-	 * @param node current node
-	 * @param target where we start from
-	 * @param destSet destination set while coming from to the current node
-	 * @return new filtered destination to traverse upstream of node
+	 * Forbids the tabu nodes that are not already forbidden.
+	 * @return ids of the newly forbidden nodes, to be permitted later, or null
 	 */
-	private Set<Node> filterDestinationSources(Node node, Node target, Set<Node> destSet)
+	private int[] forbid(Set<Node> tabuNodes)
 	{
-		Set<Node> nodeDest = getDestinationSet(node, target);
-		Set<Node> newSet = new HashSet<Node>();
+		if (tabuNodes.isEmpty()) return null;
+
+		int[] tabu = new int[tabuNodes.size()];
+		int count = 0;
 
-		if (nodeDest != null)
+		for (Node node : tabuNodes)
 		{
-			for (Node n : destSet)
+			int id = graph.getNodeId(node);
+
+			if (id >= 0 && !forbidden[id])
 			{
-				if (nodeDest.contains(n))
-				{
-					newSet.add(n);
-				}
+				forbidden[id] = true;
+				tabu[count++] = id;
 			}
 		}
-		return newSet;
+		return Arrays.copyOf(tabu, count);
 	}
 
 	/**
-	 * Ensures that the set "diff" contains only elements which is not already in the first set.
-	 * This method removed common elements from diff.
-	 * @param set
-	 * @param diff
+	 * Removes the restriction that is put by forbid.
 	 */
-	private Set<Node> keepDifference(Set<Node> set, Set<Node> diff)
+	private void permit(int[] tabu)
 	{
-		if (!diff.isEmpty())
-		{
-			Iterator<Node> iter = diff.iterator();
+		if (tabu == null) return;
 
-			while (iter.hasNext())
-			{
-				Node node = iter.next();
-
-				if (set.contains(node))
-				{
-					iter.remove();
-				}
-			}
+		for (int id : tabu)
+		{
+			forbidden[id] = false;
 		}
-		return diff;
 	}
 
 	/**
@@ -451,71 +489,68 @@ public class SearchCauses
 		for (Node target : result.keySet())
 		{
 			Map<Integer, List<CausativePath>> pathMap = result.get(target);
+			int index = context.getRootIndex(graph.getNodeId(target));
 
-			for (int i = (Integer) target.getLabel(MAX_PATH_LENGTH) + 1 ; i <= limit; i++ )
+			for (int i = maxPathLength[index] + 1 ; i <= limit; i++ )
 			{
 				pathMap.remove(i);
 			}
 		}
 	}
-	
+
 	/**
-	 * Cleanup.
+	 * Nodes on the current path, starting from the last added node. Nodes are added to and
+	 * removed from the front.
 	 */
-	private void clearLabels()
+	private class CurrentPath
 	{
-		graph.removeLabels(Arrays.asList(EDGE, ON_PATH, MAX_PATH_LENGTH,
-			MarkDistances.DIST_FROM, MarkDistances.DIST_TO,
-			MarkShortestPlusPaths.TO_FROM_PATH_MAP));
-	}
+		private int[] nodes;
+		private int count;
 
-	private class CurrentPath<E> extends LinkedList<E>
-	{
+		/**
+		 * Length of the path, which only counts the nodes that increase the distance.
+		 */
 		private int size;
 
 		private CurrentPath()
 		{
+			nodes = new int[16];
+			count = 0;
 			size = 0;
 		}
 
-		public boolean add(E e, boolean increaseSize)
+		public void addFirst(int node, boolean increaseSize)
 		{
 			if (increaseSize)
 			{
 				size++;
 			}
 
-			return super.add(e);
+			if (count == nodes.length) nodes = Arrays.copyOf(nodes, count << 1);
+			nodes[count++] = node;
 		}
 
-		public boolean remove(E e, boolean decreaseSize)
+		public void removeFirst(boolean decreaseSize)
 		{
 			if (decreaseSize)
 			{
 				size--;
 			}
 
-			return super.remove(e);
+			count--;
 		}
 
-		public void addFirst(E e, boolean increaseSize)
+		/**
+		 * Gets the i-th node from the front.
+		 */
+		public int get(int i)
 		{
-			if (increaseSize)
-			{
-				size++;
-			}
-
-			super.addFirst(e);
+			return nodes[count - 1 - i];
 		}
 
-		public E removeFirst(boolean decreaseSize)
+		public int getCount()
 		{
-			if (decreaseSize)
-			{
-				size--;
-			}
-
-			return super.removeFirst();
+			return count;
 		}
 
 		public int getSize()
@@ -528,21 +563,6 @@ public class SearchCauses
 	// Section: Class constants
 	//==============================================================================================
 
-	/**
-	 * Used for remembering the edge that was traversed during search of the current path.
-	 */
-	private static final String EDGE = "EDGE";
-
-	/**
-	 * Nodes on the current path are marked with this.
-	 */
-	private static final String ON_PATH = "ON_PATH";
-
-	/**
-	 * This is max length of allowed causative path
-	 */
-	private static final String MAX_PATH_LENGTH = "MAX_PATH_LENGTH";
-
 	// Direction constants
 
 	private static final int TOWARDS_CHILDREN = 0;
@@ -0,0 +1,521 @@
+package org.patika.mada.graph;
+
+import java.util.*;
+
+/**
+ * Immutable, integer indexed snapshot of a graph in compressed sparse row (CSR) form. Nodes and
+ * edges are given dense ids starting from 0. Forward and reverse adjacencies are kept as offset and
+ * edge-id arrays, and node and edge properties that the query algorithms ask for are packed into
+ * per-element flags. Query algorithms can then keep their state in primitive arrays indexed by
+ * these ids, instead of hash maps keyed by graph objects.
+ *
+ * The adjacency order of each node is the iteration order of its getDownstream(), getUpstream(),
+ * getChildren() and getParents() at the time of the snapshot, so that algorithms running on the
+ * snapshot visit elements in the same order as the ones running on the graph objects.
+ *
+ * A snapshot can also be built headless, from symbols and edge arrays, without any Node or Edge
+ * object behind it. In that case getNode and getEdge return null.
+ *
+ * @author Ozgun Babur
+ */
+public class CompactGraph
+{
+	//----------------------------------------------------------------------------------------------
+	// Section: Instance variables
+	//----------------------------------------------------------------------------------------------
+
+	private int nodeCount;
+	private int edgeCount;
+
+	/**
+	 * outEdges[outOffsets[v] .. outOffsets[v+1]-1] are the ids of downstream edges of node v.
+	 */
+	private int[] outOffsets;
+	private int[] outEdges;
+
+	/**
+	 * inEdges[inOffsets[v] .. inOffsets[v+1]-1] are the ids of upstream edges of node v.
+	 */
+	private int[] inOffsets;
+	private int[] inEdges;
+
+	/**
+	 * Compound membership, same layout with the adjacency arrays.
+	 */
+	private int[] childOffsets;
+	private int[] children;
+	private int[] parentOffsets;
+	private int[] parents;
+
+	private int[] edgeSources;
+	private int[] edgeTargets;
+
+	private byte[] nodeFlags;
+	private byte[] edgeFlags;
+
+	/**
+	 * Original objects. These are null for a headless snapshot.
+	 */
+	private Node[] nodes;
+	private Edge[] edges;
+	private Map<Node, Integer> nodeIndex;
+	private Map<Edge, Integer> edgeIndex;
+
+	/**
+	 * Node names, used for mapping symbols to ids.
+	 */
+	private String[] names;
+	private Map<String, Integer> nameIndex;
+
+	/**
+	 * True if all nodes are breadth nodes and there is no equivalence edge.
+	 */
+	private boolean plain;
+
+	//----------------------------------------------------------------------------------------------
+	// Section: Constructors
+	//----------------------------------------------------------------------------------------------
+
+	/**
+	 * Takes a snapshot of the given graph.
+	 */
+	public CompactGraph(Graph graph)
+	{
+		this(graph.getNodes());
+	}
+
+	/**
+	 * Takes a snapshot of the given nodes, and any node that can be reached from them through
+	 * edges or compound membership.
+	 */
+	public CompactGraph(Collection<? extends Node> roots)
+	{
+		nodeIndex = new HashMap<Node, Integer>();
+		edgeIndex = new HashMap<Edge, Integer>();
+		List<Node> nodeList = new ArrayList<Node>();
+		List<Edge> edgeList = new ArrayList<Edge>();
+
+		for (Node node : roots)
+		{
+			indexNode(node, nodeList);
+		}
+
+		// Discover the closure. The node list grows while we iterate it.
+
+		for (int i = 0; i < nodeList.size(); i++)
+		{
+			Node node = nodeList.get(i);
+
+			for (Edge edge : node.getDownstream())
+			{
+				indexEdge(edge, edgeList);
+				indexNode(edge.getTargetNode(), nodeList);
+			}
+			for (Edge edge : node.getUpstream())
+			{
+				indexEdge(edge, edgeList);
+				indexNode(edge.getSourceNode(), nodeList);
+			}
+			for (Node child : node.getChildren())
+			{
+				indexNode(child, nodeList);
+			}
+			for (Node parent : node.getParents())
+			{
+				indexNode(parent, nodeList);
+			}
+		}
+
+		nodeCount = nodeList.size();
+		edgeCount = edgeList.size();
+		nodes = nodeList.toArray(new Node[nodeCount]);
+		edges = edgeList.toArray(new Edge[edgeCount]);
+		names = new String[nodeCount];
+
+		nodeFlags = new byte[nodeCount];
+		edgeFlags = new byte[edgeCount];
+		edgeSources = new int[edgeCount];
+		edgeTargets = new int[edgeCount];
+
+		for (int i = 0; i < nodeCount; i++)
+		{
+			names[i] = nodes[i].getName();
+			if (nodes[i].isBreadthNode()) nodeFlags[i] |= BREADTH;
+		}
+
+		for (int i = 0; i < edgeCount; i++)
+		{
+			Edge edge = edges[i];
+			edgeSources[i] = nodeIndex.get(edge.getSourceNode());
+			edgeTargets[i] = nodeIndex.get(edge.getTargetNode());
+			edgeFlags[i] = flagsOf(edge);
+		}
+
+		// Fill adjacency in the order nodes report them
+
+		outOffsets = new int[nodeCount + 1];
+		inOffsets = new int[nodeCount + 1];
+		childOffsets = new int[nodeCount + 1];
+		parentOffsets = new int[nodeCount + 1];
+
+		for (int i = 0; i < nodeCount; i++)
+		{
+			outOffsets[i + 1] = outOffsets[i] + nodes[i].getDownstream().size();
+			inOffsets[i + 1] = inOffsets[i] + nodes[i].getUpstream().size();
+			childOffsets[i + 1] = childOffsets[i] + nodes[i].getChildren().size();
+			parentOffsets[i + 1] = parentOffsets[i] + nodes[i].getParents().size();
+		}
+
+		outEdges = new int[outOffsets[nodeCount]];
+		inEdges = new int[inOffsets[nodeCount]];
+		children = new int[childOffsets[nodeCount]];
+		parents = new int[parentOffsets[nodeCount]];
+
+		for (int i = 0; i < nodeCount; i++)
+		{
+			int k = outOffsets[i];
+			for (Edge edge : nodes[i].getDownstream()) outEdges[k++] = edgeIndex.get(edge);
+			k = inOffsets[i];
+			for (Edge edge : nodes[i].getUpstream()) inEdges[k++] = edgeIndex.get(edge);
+			k = childOffsets[i];
+			for (Node child : nodes[i].getChildren()) children[k++] = nodeIndex.get(child);
+			k = parentOffsets[i];
+			for (Node parent : nodes[i].getParents()) parents[k++] = nodeIndex.get(parent);
+		}
+
+		plain = checkPlain();
+	}
+
+	/**
+	 * Creates a headless snapshot from edge arrays. Node ids are the indices in the names array.
+	 * Adjacency of a node follows the order of edges in the arrays. All nodes are considered as
+	 * breadth nodes and there is no compound structure.
+	 *
+	 * @param names names of nodes
+	 * @param sources source node id of each edge
+	 * @param targets target node id of each edge
+	 * @param flags flags of each edge
+	 */
+	public CompactGraph(String[] names, int[] sources, int[] targets, byte[] flags)
+	{
+		this.nodeCount = names.length;
+		this.edgeCount = sources.length;
+		this.names = names;
+		this.edgeSources = sources;
+		this.edgeTargets = targets;
+		this.edgeFlags = flags;
+
+		nodeFlags = new byte[nodeCount];
+		Arrays.fill(nodeFlags, BREADTH);
+
+		outOffsets = new int[nodeCount + 1];
+		inOffsets = new int[nodeCount + 1];
+
+		for (int e = 0; e < edgeCount; e++)
+		{
+			outOffsets[sources[e] + 1]++;
+			inOffsets[targets[e] + 1]++;
+		}
+		for (int i = 0; i < nodeCount; i++)
+		{
+			outOffsets[i + 1] += outOffsets[i];
+			inOffsets[i + 1] += inOffsets[i];
+		}
+
+		outEdges = new int[edgeCount];
+		inEdges = new int[edgeCount];
+		int[] outPos = Arrays.copyOf(outOffsets, nodeCount);
+		int[] inPos = Arrays.copyOf(inOffsets, nodeCount);
+
+		for (int e = 0; e < edgeCount; e++)
+		{
+			outEdges[outPos[sources[e]]++] = e;
+			inEdges[inPos[targets[e]]++] = e;
+		}
+
+		childOffsets = new int[nodeCount + 1];
+		parentOffsets = new int[nodeCount + 1];
+		children = new int[0];
+		parents = new int[0];
+
+		plain = checkPlain();
+	}
+
+	private boolean checkPlain()
+	{
+		for (int i = 0; i < nodeCount; i++)
+		{
+			if ((nodeFlags[i] & BREADTH) == 0) return false;
+		}
+		for (int i = 0; i < edgeCount; i++)
+		{
+			if ((edgeFlags[i] & EQUIVALENCE) != 0) return false;
+		}
+		return true;
+	}
+
+	private void indexNode(Node node, List<Node> nodeList)
+	{
+		if (!nodeIndex.containsKey(node))
+		{
+			nodeIndex.put(node, nodeList.size());
+			nodeList.add(node);
+		}
+	}
+
+	private void indexEdge(Edge edge, List<Edge> edgeList)
+	{
+		if (!edgeIndex.containsKey(edge))
+		{
+			edgeIndex.put(edge, edgeList.size());
+			edgeList.add(edge);
+		}
+	}
+
+	/**
+	 * Packs the edge properties into flags.
+	 */
+	public static byte flagsOf(Edge edge)
+	{
+		byte f = 0;
+		int sign = edge.getSign();
+		if (sign == Edge.POSITIVE) f |= POSITIVE;
+		else if (sign == Edge.NEGATIVE) f |= NEGATIVE;
+		if (edge.isDirected()) f |= DIRECTED;
+		if (edge.isBreadthEdge()) f |= BREADTH;
+		if (edge.isEquivalenceEdge()) f |= EQUIVALENCE;
+		if (edge.isCausative()) f |= CAUSATIVE;
+		return f;
+	}
+
+	//----------------------------------------------------------------------------------------------
+	// Section: Size and identification
+	//----------------------------------------------------------------------------------------------
+
+	public int getNodeCount()
+	{
+		return nodeCount;
+	}
+
+	public int getEdgeCount()
+	{
+		return edgeCount;
+	}
+
+	/**
+	 * Gets the id of the node, or -1 if the node is not in the snapshot.
+	 */
+	public int getNodeId(Node node)
+	{
+		if (nodeIndex == null) return -1;
+		Integer id = nodeIndex.get(node);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Gets the id of the edge, or -1 if the edge is not in the snapshot.
+	 */
+	public int getEdgeId(Edge edge)
+	{
+		if (edgeIndex == null) return -1;
+		Integer id = edgeIndex.get(edge);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Gets the id of the node with the given name, or -1 if there is no such node. If more than one
+	 * node has the name, the first one is returned.
+	 */
+	public int getNodeId(String name)
+	{
+		if (nameIndex == null)
+		{
+			Map<String, Integer> map = new HashMap<String, Integer>();
+			for (int i = nodeCount - 1; i >= 0; i--)
+			{
+				if (names[i] != null) map.put(names[i], i);
+			}
+			nameIndex = map;
+		}
+		Integer id = nameIndex.get(name);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Gets ids of the given nodes, in the iteration order of the collection. Nodes that are not in
+	 * the snapshot are skipped.
+	 */
+	public int[] getNodeIds(Collection<? extends Node> nodes)
+	{
+		int[] ids = new int[nodes.size()];
+		int k = 0;
+		for (Node node : nodes)
+		{
+			int id = getNodeId(node);
+			if (id >= 0) ids[k++] = id;
+		}
+		return k == ids.length ? ids : Arrays.copyOf(ids, k);
+	}
+
+	public Node getNode(int id)
+	{
+		return nodes == null ? null : nodes[id];
+	}
+
+	public Edge getEdge(int id)
+	{
+		return edges == null ? null : edges[id];
+	}
+
+	public String getName(int id)
+	{
+		return names[id];
+	}
+
+	public boolean isHeadless()
+	{
+		return nodes == null;
+	}
+
+	/**
+	 * Converts selected ids back to graph objects.
+	 */
+	public Set<GraphObject> toGraphObjects(boolean[] nodeSelected, boolean[] edgeSelected)
+	{
+		Set<GraphObject> set = new HashSet<GraphObject>();
+		for (int i = 0; i < nodeCount; i++)
+		{
+			if (nodeSelected[i]) set.add(nodes[i]);
+		}
+		for (int i = 0; i < edgeCount; i++)
+		{
+			if (edgeSelected[i]) set.add(edges[i]);
+		}
+		return set;
+	}
+
+	//----------------------------------------------------------------------------------------------
+	// Section: Adjacency. Returned arrays are shared, callers must not modify them.
+	//----------------------------------------------------------------------------------------------
+
+	public int[] getOutOffsets()
+	{
+		return outOffsets;
+	}
+
+	public int[] getOutEdges()
+	{
+		return outEdges;
+	}
+
+	public int[] getInOffsets()
+	{
+		return inOffsets;
+	}
+
+	public int[] getInEdges()
+	{
+		return inEdges;
+	}
+
+	public int[] getChildOffsets()
+	{
+		return childOffsets;
+	}
+
+	public int[] getChildren()
+	{
+		return children;
+	}
+
+	public int[] getParentOffsets()
+	{
+		return parentOffsets;
+	}
+
+	public int[] getParents()
+	{
+		return parents;
+	}
+
+	public int[] getEdgeSources()
+	{
+		return edgeSources;
+	}
+
+	public int[] getEdgeTargets()
+	{
+		return edgeTargets;
+	}
+
+	public int getSource(int edge)
+	{
+		return edgeSources[edge];
+	}
+
+	public int getTarget(int edge)
+	{
+		return edgeTargets[edge];
+	}
+
+	//----------------------------------------------------------------------------------------------
+	// Section: Properties
+	//----------------------------------------------------------------------------------------------
+
+	public boolean isBreadthNode(int node)
+	{
+		return (nodeFlags[node] & BREADTH) != 0;
+	}
+
+	public boolean isBreadthEdge(int edge)
+	{
+		return (edgeFlags[edge] & BREADTH) != 0;
+	}
+
+	public boolean isEquivalenceEdge(int edge)
+	{
+		return (edgeFlags[edge] & EQUIVALENCE) != 0;
+	}
+
+	public boolean isDirected(int edge)
+	{
+		return (edgeFlags[edge] & DIRECTED) != 0;
+	}
+
+	public boolean isCausative(int edge)
+	{
+		return (edgeFlags[edge] & CAUSATIVE) != 0;
+	}
+
+	public int getSign(int edge)
+	{
+		if ((edgeFlags[edge] & POSITIVE) != 0) return Edge.POSITIVE;
+		if ((edgeFlags[edge] & NEGATIVE) != 0) return Edge.NEGATIVE;
+		return Edge.NO_SIGN;
+	}
+
+	public byte getEdgeFlags(int edge)
+	{
+		return edgeFlags[edge];
+	}
+
+	/**
+	 * Tells if all nodes are breadth nodes and there is no equivalence edge. Breadth distances on
+	 * a plain graph are simple hop counts.
+	 */
+	public boolean isPlain()
+	{
+		return plain;
+	}
+
+	//----------------------------------------------------------------------------------------------
+	// Section: Class constants
+	//----------------------------------------------------------------------------------------------
+
+	public static final byte POSITIVE = 1;
+	public static final byte NEGATIVE = 1 << 1;
+	public static final byte DIRECTED = 1 << 2;
+	public static final byte BREADTH = 1 << 3;
+	public static final byte EQUIVALENCE = 1 << 4;
+	public static final byte CAUSATIVE = 1 << 5;
+}
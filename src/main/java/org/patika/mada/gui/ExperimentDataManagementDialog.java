@@ -280,7 +280,12 @@ public class ExperimentDataManagementDialog extends Dialog implements SelectionL
 				for (BioPAXGraph graph : graphs)
 				{
 					this.dataManager.clearExperimentData(graph);
-					this.dataManager.associateExperimentData(graph);
+				}
+
+				this.dataManager.associateExperimentData(graphs);
+
+				for (BioPAXGraph graph : graphs)
+				{
 					if (graph.getLastAppliedColoring() != null)
 					{
 						graph.setLastAppliedColoring(null);
@@ -0,0 +1,22 @@
+package org.patika.mada.util;
+
+/**
+ * Thrown by an algorithm when its ProgressMonitor is cancelled. The partial results are discarded.
+ *
+ * @author Ozgun Babur
+ */
+public class CancelledException extends RuntimeException
+{
+	public CancelledException()
+	{
+		super("Operation is cancelled.");
+	}
+
+	/**
+	 * Throws a CancelledException if the monitor is cancelled. The monitor may be null.
+	 */
+	public static void check(ProgressMonitor monitor)
+	{
+		if (monitor != null && monitor.isCancelled()) throw new CancelledException();
+	}
+}
@@ -10,6 +10,8 @@ import javax.xml.bind.Marshaller;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * This class manages the loaded microarray data to the client. A manager per
@@ -38,9 +40,26 @@ public class ExperimentDataManager
 	private String fileLocation;
 
 	/**
-	 * Holds hash maps that maps genes to array data.
+	 * Values of each experiment, indexed by row. Rows without any reference are not kept. A
+	 * missing value is NaN.
 	 */
-	private List<Map<XRef, List<Double>>> experimentMapsList;
+	private double[][] columns;
+
+	/**
+	 * Maps references to their ids.
+	 */
+	private Map<XRef, Integer> refIndex;
+
+	/**
+	 * References by their ids.
+	 */
+	private XRef[] refs;
+
+	/**
+	 * Rows of the reference with id r are refRows[refRowOffsets[r] .. refRowOffsets[r+1]-1].
+	 */
+	private int[] refRowOffsets;
+	private int[] refRows;
 
 	/**
 	 * Information for each experiment.
@@ -55,12 +74,29 @@ public class ExperimentDataManager
 	/**
 	 * Maximum values that is present in each experiment.
 	 */
-	private List<Double> maxValueList;
+	private double[] maxValues;
 
 	/**
 	 * Minimum values that is present in each experiment.
 	 */
-	private List<Double> minValueList;
+	private double[] minValues;
+
+	/**
+	 * Largest number of rows that a reference has.
+	 */
+	private int maxRefRows;
+
+	/**
+	 * Ids of the references of the rows that match the references of the nodes, -1 if there is no
+	 * match. Filled as nodes are associated, and kept until the data is changed, so that selecting
+	 * other experiments does not resolve the references again.
+	 */
+	private Map<XRef, Integer> resolvedRefs;
+
+	/**
+	 * Buffers of the calls from the UI thread. Parallel association uses its own buffers.
+	 */
+	private Buffers buffers;
 
 	/**
 	 * Info for all experiments.
@@ -135,14 +171,10 @@ public class ExperimentDataManager
 
 		Map<Integer, Integer> expNoToIndex = new HashMap<Integer, Integer>();
 
-		this.maxValueList = new ArrayList<Double>(expSize);
-		this.minValueList = new ArrayList<Double>(expSize);
-
-		for (int i = 0; i < expSize; i++)
-		{
-			maxValueList.add(-Double.MAX_VALUE);
-			minValueList.add( Double.MAX_VALUE);
-		}
+		this.maxValues = new double[expSize];
+		this.minValues = new double[expSize];
+		Arrays.fill(maxValues, -Double.MAX_VALUE);
+		Arrays.fill(minValues, Double.MAX_VALUE);
 
 		Iterator expIter = data.getExperiment().iterator();
 
@@ -171,17 +203,68 @@ public class ExperimentDataManager
 
 		this.datasetInfo = data.getExperimentSetInfo();
 
-		this.experimentMapsList = new ArrayList<Map<XRef, List<Double>>>(expSize);
+		loadColumns(data, expNoToIndex);
 
-		for (int i = 0; i < expSize; i++)
+		Grouping g = ced.getGrouping();
+
+		List<Integer> firstInd = new ArrayList<Integer>();
+		List<Integer> seconInd = new ArrayList<Integer>();
+
+		if (g != null)
+		{
+			for (int n : new ArrayList<Integer>(g.getGroup1()))
+			{
+				firstInd.add(expNoToIndex.get(n));
+			}
+			for (int n : new ArrayList<Integer>(g.getGroup2()))
+			{
+				seconInd.add(expNoToIndex.get(n));
+			}
+		}
+
+		if (columns.length > 0 && firstInd.isEmpty())
 		{
-			this.experimentMapsList.add(new HashMap<XRef, List<Double>>());
+			firstInd.add(0);
+			
+			if (columns.length > 1) seconInd.add(1);
 		}
 
+		setDataToBeUsed(firstInd, seconInd);
+	}
+
+	/**
+	 * Reads the values of the rows into columns, and indexes the rows of each reference.
+	 */
+	private void loadColumns(ChisioExperimentData data, Map<Integer, Integer> expNoToIndex)
+	{
+		int rowCount = 0;
+		for (Object o : data.getRow())
+		{
+			if (!((Row) o).getRef().isEmpty()) rowCount++;
+		}
+
+		columns = new double[expNoToIndex.size()][rowCount];
+		for (double[] column : columns)
+		{
+			Arrays.fill(column, Double.NaN);
+		}
+
+		refIndex = new HashMap<XRef, Integer>();
+		List<XRef> refList = new ArrayList<XRef>();
+
+		// (reference, row) pairs, in the order of rows
+
+		int[] pairRef = new int[rowCount];
+		int[] pairRow = new int[rowCount];
+		int pairs = 0;
+
+		int r = 0;
 		for (Object o1 : data.getRow())
 		{
 			Row row = (Row) o1;
 
+			if (row.getRef().isEmpty()) continue;
+
 			for (Object o2 : row.getValue())
 			{
 				ValueTuple val = (ValueTuple) o2;
@@ -190,56 +273,60 @@ public class ExperimentDataManager
 
 				int expIndex = expNoToIndex.get(val.getNo());
 
-				Map<XRef, List<Double>> map = this.experimentMapsList.get(expIndex);
+				columns[expIndex][r] = value;
+
+				if (maxValues[expIndex] < value) maxValues[expIndex] = value;
+				if (minValues[expIndex] > value) minValues[expIndex] = value;
+			}
+
+			for (Object o3 : row.getRef())
+			{
+				XRef ref = new XRef((Reference) o3);
+
+				Integer id = refIndex.get(ref);
+				if (id == null)
+				{
+					id = refList.size();
+					refIndex.put(ref, id);
+					refList.add(ref);
+				}
 
-				for (Object o3 : row.getRef())
+				if (pairs == pairRef.length)
 				{
-					XRef ref = new XRef((Reference) o3);
-
-					if (!map.containsKey(ref))
-					{
-						map.put(ref, new ArrayList<Double>());
-					}
-
-					map.get(ref).add(value);
-
-					if (maxValueList.get(expIndex) < value)
-					{
-						maxValueList.set(expIndex, value);
-					}
-					if (minValueList.get(expIndex) > value)
-					{
-						minValueList.set(expIndex, value);
-					}
+					pairRef = Arrays.copyOf(pairRef, pairs * 2);
+					pairRow = Arrays.copyOf(pairRow, pairs * 2);
 				}
+				pairRef[pairs] = id;
+				pairRow[pairs++] = r;
 			}
+			r++;
 		}
 
-		Grouping g = ced.getGrouping();
+		refs = refList.toArray(new XRef[refList.size()]);
 
-		List<Integer> firstInd = new ArrayList<Integer>();
-		List<Integer> seconInd = new ArrayList<Integer>();
+		refRowOffsets = new int[refs.length + 1];
+		for (int i = 0; i < pairs; i++)
+		{
+			refRowOffsets[pairRef[i] + 1]++;
+		}
 
-		if (g != null)
+		int maxRows = 0;
+		for (int i = 0; i < refs.length; i++)
 		{
-			for (int n : new ArrayList<Integer>(g.getGroup1()))
-			{
-				firstInd.add(expNoToIndex.get(n));
-			}
-			for (int n : new ArrayList<Integer>(g.getGroup2()))
-			{
-				seconInd.add(expNoToIndex.get(n));
-			}
+			maxRows = Math.max(maxRows, refRowOffsets[i + 1]);
+			refRowOffsets[i + 1] += refRowOffsets[i];
 		}
 
-		if (!experimentMapsList.isEmpty() && firstInd.isEmpty())
+		refRows = new int[pairs];
+		int[] pos = Arrays.copyOf(refRowOffsets, refs.length);
+		for (int i = 0; i < pairs; i++)
 		{
-			firstInd.add(0);
-			
-			if (experimentMapsList.size() > 1) seconInd.add(1);
+			refRows[pos[pairRef[i]]++] = pairRow[i];
 		}
 
-		setDataToBeUsed(firstInd, seconInd);
+		maxRefRows = maxRows;
+		resolvedRefs = new ConcurrentHashMap<XRef, Integer>();
+		buffers = new Buffers();
 	}
 
 	/**
@@ -248,7 +335,7 @@ public class ExperimentDataManager
 	 */
 	public boolean isDataAvailable()
 	{
-		return this.experimentMapsList != null;
+		return this.columns != null;
 	}
 
 	/**
@@ -265,7 +352,13 @@ public class ExperimentDataManager
 	public void discardMicroarrayData()
 	{
 		this.ced = null;
-		this.experimentMapsList = null;
+		this.columns = null;
+		this.refIndex = null;
+		this.refs = null;
+		this.refRowOffsets = null;
+		this.refRows = null;
+		this.resolvedRefs = null;
+		this.buffers = null;
 		this.experimentInfoList = null;
 		this.experimentNameList = null;
 		this.firstExpIndices.clear();
@@ -365,7 +458,7 @@ public class ExperimentDataManager
 	 */
 	public boolean isExpInfoAvailable()
 	{
-		return this.experimentMapsList != null;
+		return this.columns != null;
 	}
 
 	/**
@@ -432,7 +525,7 @@ public class ExperimentDataManager
 
 			for (int i : firstExpIndices)
 			{
-				double first = maxValueList.get(i);
+				double first = maxValues[i];
 				if (first > firstMax) firstMax = first;
 			}
 
@@ -446,7 +539,7 @@ public class ExperimentDataManager
 
 				for (int i : secondExpIndices)
 				{
-					double second = maxValueList.get(i);
+					double second = maxValues[i];
 					if (second > secondMax) secondMax = second;
 				}
 
@@ -471,7 +564,7 @@ public class ExperimentDataManager
 
 			for (int i : firstExpIndices)
 			{
-				double first = minValueList.get(i);
+				double first = minValues[i];
 				if (first < firstMin) firstMin = first;
 			}
 
@@ -485,7 +578,7 @@ public class ExperimentDataManager
 
 				for (int i : secondExpIndices)
 				{
-					double second = minValueList.get(i);
+					double second = minValues[i];
 					if (second < secondMin) secondMin = second;
 				}
 
@@ -506,7 +599,7 @@ public class ExperimentDataManager
 	{
 		if (this.isDataAvailable())
 		{
-			return this.experimentMapsList.size();
+			return this.columns.length;
 		}
 		else
 		{
@@ -526,18 +619,22 @@ public class ExperimentDataManager
 			return null;
 		}
 
-		Double v1 = getValue(firstExpIndices, ref);
+		int id = resolveReference(ref);
+
+		if (id < 0) return null;
 
-		if (v1 != null)
+		double v1 = getValue(firstExpIndices, id, buffers);
+
+		if (!Double.isNaN(v1))
 		{
 			if (secondExpIndices.isEmpty())
 			{
 				return createExperimentData(v1);
 			}
 
-			Double v2 = getValue(secondExpIndices, ref);
+			double v2 = getValue(secondExpIndices, id, buffers);
 
-			if (v2 != null)
+			if (!Double.isNaN(v2))
 			{
 				return createExperimentData(v1, v2);
 			}
@@ -551,10 +648,14 @@ public class ExperimentDataManager
 	 */
 	public void associateExperimentData(Collection<? extends Graph> graphs)
 	{
+		List<Node> nodes = new ArrayList<Node>();
+
 		for (Graph graph : graphs)
 		{
-			associateExperimentData(graph);
+			nodes.addAll(graph.getNodes());
 		}
+
+		associateExperimentData(nodes);
 	}
 
 	/**
@@ -563,21 +664,31 @@ public class ExperimentDataManager
 	 */
 	public void associateExperimentData(Graph graph)
 	{
-		for (Node node : graph.getNodes())
-		{
-			associateExperimentData(node);
-		}
+		associateExperimentData(new ArrayList<Node>(graph.getNodes()));
 	}
 
 	/**
-	 * Associates experiment data to the related nodes in the given list.
+	 * Associates experiment data to the related nodes in the given list. Large lists are processed
+	 * in parallel.
 	 * @param nodes list of nodes to associate experiment data
 	 */
 	public void associateExperimentData(List<Node> nodes)
 	{
-		for (Node node : nodes)
+		if (firstExpIndices.isEmpty()) return;
+
+		if (nodes.size() < PARALLEL_THRESHOLD)
 		{
-			associateExperimentData(node);
+			for (Node node : nodes)
+			{
+				associateExperimentData(node, buffers);
+			}
+		}
+		else
+		{
+			// The reference map is loaded lazily, make sure it is not loaded by the workers
+			ExperimentDataConvertionWizard.getKnownReferenceSetsMap();
+
+			SharedPool.get().invoke(new AssociationTask(nodes, 0, nodes.size()));
 		}
 	}
 
@@ -587,57 +698,68 @@ public class ExperimentDataManager
 	 */
 	public void associateExperimentData(Node node)
 	{
-		Set<ExperimentData> datas = new HashSet<ExperimentData>();
-
-		addMappedData(datas, node.getReferences());
-		addMappedData(datas, node.getSecondaryReferences());
+		if (firstExpIndices.isEmpty()) return;
 
-		if (!datas.isEmpty())
-		{
-			ExperimentData data = averageData(datas);
-			node.setExperimentData(data);
-		}
+		associateExperimentData(node, buffers);
 	}
 
-	private void addMappedData(Set<ExperimentData> datas, List<XRef> refs)
+	/**
+	 * Averages the values of the references of the node, and sets the result as the experiment
+	 * data of the node.
+	 */
+	private void associateExperimentData(Node node, Buffers buf)
 	{
-		for (XRef ref : refs)
-		{
-			ExperimentData data = this.getExperimentData(ref);
+		int k = collectValues(node.getReferences(), buf, 0);
+		k = collectValues(node.getSecondaryReferences(), buf, k);
 
-			if (data != null)
+		if (k > 0)
+		{
+			if (secondExpIndices.isEmpty())
+			{
+				node.setExperimentData(createExperimentData(average(buf.v1s, k)));
+			}
+			else
 			{
-				datas.add(data);
+				node.setExperimentData(createExperimentData(
+					average(buf.v1s, k), average(buf.v2s, k)));
 			}
 		}
 	}
 
-	private ExperimentData averageData(Set<ExperimentData> dataList)
+	/**
+	 * Puts the values of the given references to the buffers, starting from the given position.
+	 * @return new number of values in the buffers
+	 */
+	private int collectValues(List<XRef> refs, Buffers buf, int k)
 	{
-		List<Double> v1s = new ArrayList<Double>();
-		List<Double> v2s = new ArrayList<Double>();
-
-		for (ExperimentData data : dataList)
+		for (XRef ref : refs)
 		{
-			v1s.add(data.getValue1());
+			int id = resolveReference(ref);
+
+			if (id < 0) continue;
+
+			double v1 = getValue(firstExpIndices, id, buf);
 
-			if (data.isDouble())
+			if (Double.isNaN(v1)) continue;
+
+			double v2 = 0;
+
+			if (!secondExpIndices.isEmpty())
 			{
-				v2s.add(data.getValue2());
-			}
-		}
+				v2 = getValue(secondExpIndices, id, buf);
 
-		assert v2s.isEmpty() || v2s.size() == v1s.size() :
-			"Disaster! Mixed single and double experiments";
+				if (Double.isNaN(v2)) continue;
+			}
 
-		if (v2s.isEmpty())
-		{
-			return createExperimentData(average(v1s));
-		}
-		else
-		{
-			return createExperimentData(average(v1s), average(v2s));
+			if (k == buf.v1s.length)
+			{
+				buf.v1s = Arrays.copyOf(buf.v1s, k * 2);
+				buf.v2s = Arrays.copyOf(buf.v2s, k * 2);
+			}
+			buf.v1s[k] = v1;
+			buf.v2s[k++] = v2;
 		}
+		return k;
 	}
 
 	/**
@@ -660,105 +782,125 @@ public class ExperimentDataManager
 	}
 
 	/**
-	 * Gets the corresponding average of values mapped to the parameter PID in
-	 * the specified experiment indices.
-	 * @param expIndices experiments to use in calculating the value
+	 * Finds the id of the row reference that matches the given reference. The database name of
+	 * the reference is mapped to the name that is used in references.txt, so that it is comparable
+	 * with the references obtained from the .ced file.
 	 * @param ref reference of the node to match with rows
-	 * @return value calculated microarray value
+	 * @return id of the reference, or -1 if there is no match
 	 */
-	private Double getValue(List<Integer> expIndices, XRef ref)
+	private int findReference(XRef ref)
 	{
-        Map<List<String>,String> referenceList = ExperimentDataConvertionWizard.getKnownReferenceSetsMap();
+		Map<List<String>,String> referenceList = ExperimentDataConvertionWizard.getKnownReferenceSetsMap();
+
+		String newDb = null;
+		for (List<String> strings : referenceList.keySet())
+		{
+			if (strings.contains(ref.getDb()))
+			{
+				newDb = referenceList.get(strings);
+			}
+		}
+
+		if (newDb == null) return -1;
 
-		if (expIndices.size() == 1) return getValue(expIndices.get(0), ref, referenceList);
+		Integer id = refIndex.get(new XRef(newDb, ref.getRef()));
+		return id == null ? -1 : id;
+	}
 
-		List<Double> vals = new ArrayList<Double>();
+	/**
+	 * Gets the id of the row reference that matches the given reference, resolving it only at the
+	 * first time.
+	 * @param ref reference of the node to match with rows
+	 * @return id of the reference, or -1 if there is no match
+	 */
+	private int resolveReference(XRef ref)
+	{
+		Integer id = resolvedRefs.get(ref);
+
+		if (id == null)
+		{
+			id = findReference(ref);
+			resolvedRefs.put(ref, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Gets the corresponding average of values mapped to the reference in
+	 * the specified experiment indices.
+	 * @param expIndices experiments to use in calculating the value
+	 * @param id id of the reference
+	 * @param buf buffers to use
+	 * @return value calculated microarray value, or NaN if there is no value
+	 */
+	private double getValue(List<Integer> expIndices, int id, Buffers buf)
+	{
+		if (expIndices.size() == 1) return getValue(expIndices.get(0), id, buf);
+
+		int k = 0;
 
 		for (int i : expIndices)
 		{
-			Double v = getValue(i, ref, referenceList);
-			if (v != null) vals.add(v);
+			double v = getValue(i, id, buf);
+			if (!Double.isNaN(v)) buf.group[k++] = v;
 		}
 
-		if (vals.isEmpty())
+		if (k == 0)
 		{
-			return null;
+			return Double.NaN;
 		}
 
-		return average(vals);
+		return average(buf.group, k);
 	}
 
-	private double average(Collection<Double> vals)
+	/**
+	 * Gets the corresponding average of values mapped to the reference in
+	 * the specified experiment index.
+	 * @param expIndex index of experiment to use
+	 * @param id id of the reference
+	 * @param buf buffers to use
+	 * @return value value associated with the reference in the experiment, or NaN if there is no
+	 * value
+	 */
+	private double getValue(int expIndex, int id, Buffers buf)
+	{
+		double[] column = columns[expIndex];
+		int k = 0;
+
+		for (int i = refRowOffsets[id]; i < refRowOffsets[id + 1]; i++)
+		{
+			double v = column[refRows[i]];
+			if (!Double.isNaN(v)) buf.values[k++] = v;
+		}
+
+		if (k == 0)
+		{
+			return Double.NaN;
+		}
+
+		return average(buf.values, k);
+	}
+
+	/**
+	 * Averages the first k values in the array with the current averaging method. The array may be
+	 * reordered.
+	 */
+	private double average(double[] vals, int k)
 	{
 		switch(this.averaging)
 		{
 			case MAX:
-				return max(vals);
+				return max(vals, k);
 			case MEAN:
-				return mean(vals);
+				return mean(vals, k);
 			case MEDIAN:
-				return median(vals);
+				return median(vals, k);
 			default:
 				throw new RuntimeException(
 					"Invalid averaging method: " + averaging);
 		}
 	}
 
-	/**
-	 * Gets the corresponding average of values mapped to the parameter PID in
-	 * the specified experiment index.
-	 * @param expIndex index of experiment to use
-	 * @param ref reference to look for
-	 * @return value value associated with ref in the experiment
-	 */
-	private Double getValue(int expIndex, XRef ref, Map<List<String>,String> referenceList)
-	{
-		Map<XRef, List<Double>> map = this.experimentMapsList.get(expIndex);
-
-        // XRef object's reference names are mapped to names in references.txt in order to make them comparable with
-        // values obtained from .ced file.
-
-        String newDb = null;
-        for (List<String> strings : referenceList.keySet())
-        {
-            if (strings.contains(ref.getDb()))
-            {
-                newDb = referenceList.get(strings);
-            }
-        }
-
-        if (newDb != null)
-        {
-            // If there is a reference matching, a new XRef object - which will be used for comparison - is created
-            // with the particular reference name.
-            XRef newRef = new XRef(newDb, ref.getRef());
-
-            if (map.containsKey(newRef))
-            {
-                switch(this.averaging)
-                {
-                    case MAX:
-                        return max(map.get(newRef));
-                    case MEAN:
-                        return mean(map.get(newRef));
-                    case MEDIAN:
-                        return median(map.get(newRef));
-                    default:
-                        throw new RuntimeException(
-                                "Invalid averaging method: " + averaging);
-                }
-            }
-            else
-            {
-                return null;
-            }
-        }
-        else
-        {
-            return null;
-        }
-	}
-
 	public Set<XRef> getReferenceSet()
 	{
 		if (firstExpIndices.isEmpty())
@@ -768,52 +910,61 @@ public class ExperimentDataManager
 
 		Set<XRef> set = new HashSet<XRef>();
 
-		for (int i : firstExpIndices)
+		for (int id = 0; id < refs.length; id++)
 		{
-			set.addAll(experimentMapsList.get(i).keySet());
+			for (int i : firstExpIndices)
+			{
+				if (!Double.isNaN(getValue(i, id, buffers)))
+				{
+					set.add(refs[id]);
+					break;
+				}
+			}
 		}
 
 		return set;
 	}
 
-	private double max(Collection<Double> col)
+	/**
+	 * Gets the value with the greatest magnitude.
+	 */
+	private double max(double[] vals, int k)
 	{
 		double m = 0;
 
-		for (double d : col)
+		for (int i = 0; i < k; i++)
 		{
-			if (Math.abs(d) > Math.abs(m))
+			if (Math.abs(vals[i]) > Math.abs(m))
 			{
-				m = d;
+				m = vals[i];
 			}
 		}
 		return m;
 	}
 
-	private double mean(Collection<Double> col)
+	private double mean(double[] vals, int k)
 	{
 		double sum = 0;
-		for (double d : col)
+		for (int i = 0; i < k; i++)
 		{
-			sum += d;
+			sum += vals[i];
 		}
-		return sum / col.size();
+		return sum / k;
 	}
 
-	private double median(Collection<Double> col)
+	private double median(double[] vals, int k)
 	{
-		assert !col.isEmpty();
+		assert k > 0;
+
+		Arrays.sort(vals, 0, k);
 
-		Set set = new TreeSet<Double>(col);
-		Object[] arr = set.toArray();
-		if (col.size() % 2 == 0)
+		if (k % 2 == 0)
 		{
-			return ((Double)arr[col.size() / 2] +
-				(Double)arr[(col.size() / 2) - 1]) / 2;
+			return (vals[k / 2] + vals[(k / 2) - 1]) / 2;
 		}
 		else
 		{
-			return (Double)arr[col.size() / 2];
+			return vals[k / 2];
 		}
 	}
 
@@ -904,6 +1055,57 @@ public class ExperimentDataManager
 		}
 	}
 
+	/**
+	 * Buffers for averaging the values of a reference in an experiment, the values of the
+	 * experiments in a group, and the values of the references of a node, so that averaging does
+	 * not allocate. Each thread needs its own buffers.
+	 */
+	private class Buffers
+	{
+		double[] values = new double[maxRefRows];
+		double[] group = new double[columns.length];
+		double[] v1s = new double[4];
+		double[] v2s = new double[4];
+	}
+
+	/**
+	 * Associates experiment data to a range of nodes. Ranges are split in half until they are
+	 * small enough.
+	 */
+	private class AssociationTask extends RecursiveAction
+	{
+		private List<Node> nodes;
+		private int from;
+		private int to;
+
+		AssociationTask(List<Node> nodes, int from, int to)
+		{
+			this.nodes = nodes;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (to - from <= GRAIN)
+			{
+				Buffers buf = new Buffers();
+
+				for (int i = from; i < to; i++)
+				{
+					associateExperimentData(nodes.get(i), buf);
+				}
+			}
+			else
+			{
+				int mid = (from + to) >>> 1;
+				invokeAll(new AssociationTask(nodes, from, mid),
+					new AssociationTask(nodes, mid, to));
+			}
+		}
+	}
+
 	//--------------------------------------------------------------------------
 	// Section: Class constants
 	//--------------------------------------------------------------------------
@@ -914,4 +1116,11 @@ public class ExperimentDataManager
 	public static final int MEDIAN = 1;
 	public static final int MAX = 2;
 
+	/**
+	 * Node lists smaller than this are associated in the calling thread.
+	 */
+	private static final int PARALLEL_THRESHOLD = 2000;
+
+	private static final int GRAIN = 256;
+
 }
@@ -0,0 +1,89 @@
+package org.patika.mada.util;
+
+import java.util.Arrays;
+
+/**
+ * Double ended queue of primitive ints on a growing ring buffer. Used by the graph algorithms in
+ * place of LinkedList&lt;Node&gt; queues.
+ *
+ * @author Ozgun Babur
+ */
+public class IntDeque
+{
+	private int[] buffer;
+	private int head;
+	private int size;
+
+	public IntDeque()
+	{
+		this(16);
+	}
+
+	public IntDeque(int capacity)
+	{
+		buffer = new int[Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1];
+	}
+
+	public void addFirst(int value)
+	{
+		if (size == buffer.length) grow();
+		head = (head - 1) & (buffer.length - 1);
+		buffer[head] = value;
+		size++;
+	}
+
+	public void addLast(int value)
+	{
+		if (size == buffer.length) grow();
+		buffer[(head + size) & (buffer.length - 1)] = value;
+		size++;
+	}
+
+	/**
+	 * Removes and returns the first element. The deque must not be empty.
+	 */
+	public int pollFirst()
+	{
+		assert size > 0;
+		int value = buffer[head];
+		head = (head + 1) & (buffer.length - 1);
+		size--;
+		return value;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public void clear()
+	{
+		head = 0;
+		size = 0;
+	}
+
+	private void grow()
+	{
+		int[] b = new int[buffer.length << 1];
+		int firstPart = Math.min(size, buffer.length - head);
+		System.arraycopy(buffer, head, b, 0, firstPart);
+		System.arraycopy(buffer, 0, b, firstPart, size - firstPart);
+		buffer = b;
+		head = 0;
+	}
+
+	public String toString()
+	{
+		int[] a = new int[size];
+		for (int i = 0; i < size; i++)
+		{
+			a[i] = buffer[(head + i) & (buffer.length - 1)];
+		}
+		return Arrays.toString(a);
+	}
+}
@@ -0,0 +1,102 @@
+package org.patika.mada.util;
+
+import java.util.Arrays;
+
+/**
+ * Set of primitive longs on an open addressing hash table with linear probing. Used in place of
+ * sets of composite string keys, where the key can be packed into 64 bits.
+ *
+ * @author Ozgun Babur
+ */
+public class LongHashSet
+{
+	/**
+	 * Slots of the table. Zero marks an empty slot, so the zero key is kept aside.
+	 */
+	private long[] table;
+	private boolean containsZero;
+	private int size;
+
+	public LongHashSet()
+	{
+		this(16);
+	}
+
+	public LongHashSet(int capacity)
+	{
+		table = new long[Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1) << 1];
+	}
+
+	/**
+	 * Adds the key to the set.
+	 * @return true if the key was not in the set
+	 */
+	public boolean add(long key)
+	{
+		if (key == 0)
+		{
+			if (containsZero) return false;
+			containsZero = true;
+			size++;
+			return true;
+		}
+
+		int i = indexOf(key, table);
+		if (table[i] == key) return false;
+
+		table[i] = key;
+		size++;
+
+		if (size * 2 > table.length) rehash();
+		return true;
+	}
+
+	public boolean contains(long key)
+	{
+		if (key == 0) return containsZero;
+		return table[indexOf(key, table)] == key;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public void clear()
+	{
+		Arrays.fill(table, 0);
+		containsZero = false;
+		size = 0;
+	}
+
+	/**
+	 * Finds the slot of the key, or the empty slot where it should go.
+	 */
+	private static int indexOf(long key, long[] table)
+	{
+		int mask = table.length - 1;
+		int i = mix(key) & mask;
+
+		while (table[i] != 0 && table[i] != key)
+		{
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	private void rehash()
+	{
+		long[] t = new long[table.length << 1];
+		for (long key : table)
+		{
+			if (key != 0) t[indexOf(key, t)] = key;
+		}
+		table = t;
+	}
+
+	private static int mix(long key)
+	{
+		key *= 0x9E3779B97F4A7C15L;
+		return (int) (key ^ (key >>> 32));
+	}
+}
@@ -0,0 +1,24 @@
+package org.patika.mada.util;
+
+/**
+ * Receives the progress of a long running operation, and tells the operation whether it should
+ * stop. Algorithms check isCancelled in their main loops, and throw a CancelledException when it
+ * returns true.
+ *
+ * @author Ozgun Babur
+ */
+public interface ProgressMonitor
+{
+	/**
+	 * Tells if the user requested to stop the operation.
+	 */
+	boolean isCancelled();
+
+	/**
+	 * Reports the current step of the operation.
+	 * @param message description of the current step
+	 * @param worked number of completed units
+	 * @param total number of all units, or a non-positive value if not known
+	 */
+	void setProgress(String message, int worked, int total);
+}
@@ -0,0 +1,23 @@
+package org.patika.mada.util;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The fork/join pool that the parallel algorithms run their tasks in. There is one pool for the
+ * application, so that the algorithms do not start more worker threads than there are processors.
+ *
+ * @author Ozgun Babur
+ */
+public class SharedPool
+{
+	private static ForkJoinPool pool;
+
+	/**
+	 * Gets the pool, creating it at the first call.
+	 */
+	public static synchronized ForkJoinPool get()
+	{
+		if (pool == null) pool = new ForkJoinPool();
+		return pool;
+	}
+}
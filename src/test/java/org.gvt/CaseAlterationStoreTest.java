@@ -0,0 +1,126 @@
+package org.gvt;
+
+import org.gvt.util.CaseAlterationStore;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Prefetches case alterations from a stand-in fetcher, and reads them back from the file.
+ *
+ * @author Ozgun Babur
+ */
+public class CaseAlterationStoreTest
+{
+	@Test
+	public void prefetchAndReadBack() throws IOException
+	{
+		final Map<String, Set<String>> data = new HashMap<String, Set<String>>();
+		data.put("TCGA-01", new HashSet<String>(Arrays.asList("TP53", "PTEN")));
+		data.put("TCGA-02", new HashSet<String>());
+		data.put("TCGA-03", new HashSet<String>(Arrays.asList("EGFR")));
+
+		CaseAlterationStore.Fetcher fetcher = new CaseAlterationStore.Fetcher()
+		{
+			public Set<String> fetch(String caseID) throws IOException
+			{
+				if (caseID.equals("TCGA-04")) throw new IOException("Not reachable");
+				return data.get(caseID);
+			}
+		};
+
+		File file = File.createTempFile("store", ".txt");
+		file.delete();
+
+		try
+		{
+			CaseAlterationStore store = new CaseAlterationStore(file);
+			Assert.assertFalse(store.isPrefetched());
+
+			int failed = store.prefetch(
+				Arrays.asList("TCGA-01", "TCGA-02", "TCGA-03", "TCGA-04"), fetcher, null);
+
+			Assert.assertEquals(1, failed);
+			Assert.assertTrue(store.isPrefetched());
+
+			// Another store reads the same file, as in a later session
+
+			store = new CaseAlterationStore(file);
+			Assert.assertEquals(Arrays.asList("TCGA-01", "TCGA-02", "TCGA-03"),
+				store.getCaseIDs());
+
+			for (String caseID : data.keySet())
+			{
+				Assert.assertEquals(data.get(caseID), store.getAlteredGenes(caseID));
+			}
+			Assert.assertNull(store.getAlteredGenes("TCGA-04"));
+
+			store.add("TCGA-04", new HashSet<String>(Arrays.asList("KRAS")));
+			store = new CaseAlterationStore(file);
+			Assert.assertEquals(Collections.singleton("KRAS"), store.getAlteredGenes("TCGA-04"));
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+	@Test
+	public void failedPrefetchIsNotKept() throws IOException
+	{
+		CaseAlterationStore.Fetcher fetcher = new CaseAlterationStore.Fetcher()
+		{
+			public Set<String> fetch(String caseID) throws IOException
+			{
+				throw new IOException("Not reachable");
+			}
+		};
+
+		File file = File.createTempFile("store", ".txt");
+		file.delete();
+
+		try
+		{
+			CaseAlterationStore store = new CaseAlterationStore(file);
+
+			try
+			{
+				store.prefetch(Arrays.asList("TCGA-01", "TCGA-02"), fetcher, null);
+				Assert.fail("Prefetch should fail when no case can be fetched");
+			}
+			catch (IOException e)
+			{
+				Assert.assertTrue(e.getMessage().startsWith(
+					"Cannot fetch alterations of 2 of 2 cases"));
+			}
+
+			Assert.assertFalse(file.exists());
+			Assert.assertFalse(store.isPrefetched());
+
+			// A case that is added alone does not make the study prefetched
+
+			store.add("TCGA-01", new HashSet<String>(Arrays.asList("KRAS")));
+			Assert.assertFalse(new CaseAlterationStore(file).isPrefetched());
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+	@Test
+	public void parseGeneList()
+	{
+		Assert.assertEquals(new HashSet<String>(Arrays.asList("TP53", "PTEN")),
+			CaseAlterationStore.parseGeneList(
+				"{\"gene\":[\"TP53\",\"PTEN\"],\"type\":[\"m\",\"m\"]}"));
+
+		Assert.assertTrue(CaseAlterationStore.parseGeneList(
+			"{\"gene\":[],\"type\":[\"x\"]}").isEmpty());
+
+		Assert.assertTrue(CaseAlterationStore.parseGeneList("{}").isEmpty());
+	}
+}
@@ -0,0 +1,160 @@
+package org.gvt;
+
+import org.gvt.model.basicsif.BasicSIFEdge;
+import org.gvt.model.basicsif.BasicSIFGraph;
+import org.gvt.model.basicsif.BasicSIFNode;
+import org.gvt.model.sifl3.SIFEdge;
+import org.junit.Assert;
+import org.junit.Test;
+import org.patika.mada.algorithm.AlgoRunner;
+import org.patika.mada.graph.Graph;
+import org.patika.mada.graph.Node;
+import org.patika.mada.util.CausativePath;
+import org.patika.mada.util.ExpressionData;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Searches causative paths on a small fixed graph, and checks the found paths, and that searches
+ * running at the same time on the same graph find the same paths.
+ *
+ * @author Ozgun Babur
+ */
+public class CausativePathSearchTest
+{
+	@Test
+	public void findExpectedPaths()
+	{
+		Assert.assertEquals(EXPECTED, search(createGraph()));
+	}
+
+	@Test
+	public void searchConcurrently() throws Exception
+	{
+		final BasicSIFGraph graph = createGraph();
+
+		Callable<String> task = new Callable<String>()
+		{
+			public String call()
+			{
+				return search(graph);
+			}
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		try
+		{
+			for (int i = 0; i < 20; i++)
+			{
+				Future<String> first = executor.submit(task);
+				Future<String> second = executor.submit(task);
+
+				String result = first.get();
+				Assert.assertEquals(result, second.get());
+				Assert.assertEquals(EXPECTED, result);
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Creates a graph where A, D and F are upregulated and C is downregulated. C has compatible
+	 * paths from D, from A through B, and from A through E and D, which is longer than allowed by
+	 * T. D has a compatible path from A, and an incompatible one from F. The undirected edge
+	 * between C and E is not causative.
+	 */
+	private BasicSIFGraph createGraph()
+	{
+		BasicSIFGraph graph = new BasicSIFGraph();
+
+		BasicSIFNode a = addNode(graph, "A", UP);
+		BasicSIFNode b = addNode(graph, "B", null);
+		BasicSIFNode c = addNode(graph, "C", DOWN);
+		BasicSIFNode d = addNode(graph, "D", UP);
+		BasicSIFNode e = addNode(graph, "E", null);
+		BasicSIFNode f = addNode(graph, "F", UP);
+
+		new SIFEdge(a, b, ACTIVATES, null);
+		new SIFEdge(b, c, INHIBITS, null);
+		new SIFEdge(d, c, INHIBITS, null);
+		new SIFEdge(a, e, ACTIVATES, null);
+		new SIFEdge(e, d, ACTIVATES, null);
+		new SIFEdge(f, d, INHIBITS, null);
+		new BasicSIFEdge(c, e, "in-complex-with", null);
+
+		return graph;
+	}
+
+	private BasicSIFNode addNode(BasicSIFGraph graph, String name, double[] expression)
+	{
+		BasicSIFNode node = new BasicSIFNode(graph, name, name);
+		if (expression != null)
+		{
+			node.setExperimentData(new ExpressionData(expression[0], expression[1]));
+		}
+		return node;
+	}
+
+	/**
+	 * Searches the paths, and lists them in a fixed order, as the names of their nodes.
+	 */
+	private String search(Graph graph)
+	{
+		Map<Node, Map<Integer, List<CausativePath>>> result =
+			AlgoRunner.searchCausativePaths(graph, null, LIMIT, T, K);
+
+		List<String> list = new ArrayList<String>();
+
+		for (Map<Integer, List<CausativePath>> map : result.values())
+		{
+			for (List<CausativePath> paths : map.values())
+			{
+				for (CausativePath path : paths)
+				{
+					StringBuilder sb = new StringBuilder();
+					for (Node node : path.getNodes())
+					{
+						sb.append(node.getName());
+					}
+					list.add(sb.toString());
+				}
+			}
+		}
+		Collections.sort(list);
+		return list.toString();
+	}
+
+	/**
+	 * Paths of the graph, from the source to the target.
+	 */
+	private static final String EXPECTED = "[ABC, AED, DC]";
+
+	private static final String ACTIVATES = "activates";
+	private static final String INHIBITS = "inhibits";
+
+	private static final int LIMIT = 3;
+
+	/**
+	 * Paths can be this much longer than the shortest compatible path of their target.
+	 */
+	private static final int T = 1;
+
+	/**
+	 * Paths can be this much longer than the shortest path between their ends.
+	 */
+	private static final int K = 1;
+
+	/**
+	 * Expression of an upregulated and a downregulated node, as before and after values.
+	 */
+	private static final double[] UP = {1, 2};
+	private static final double[] DOWN = {2, 1};
+}
@@ -0,0 +1,77 @@
+package org.gvt;
+
+import org.cbio.causality.util.FDR;
+import org.cbio.causality.util.FishersExactTest;
+import org.gvt.util.GeneSetEnrichment;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Compares the p-values and q-values of GeneSetEnrichment with the ones of FishersExactTest and
+ * FDR, which the enrichment actions used earlier, on a small fixed set collection.
+ *
+ * @author Ozgun Babur
+ */
+public class GeneSetEnrichmentTest
+{
+	@Test
+	public void compareWithFishersExactTest()
+	{
+		GeneSetEnrichment enrichment = new GeneSetEnrichment();
+		Set<String> background = new HashSet<String>();
+
+		for (int i = 0; i < SETS.length; i++)
+		{
+			List<String> members = Arrays.asList(SETS[i].split(" "));
+			Assert.assertEquals(i, enrichment.addSet("S" + i, "Set " + i, members));
+			background.addAll(members);
+		}
+
+		List<String> query = Arrays.asList(QUERY.split(" "));
+		GeneSetEnrichment.Result result = enrichment.query(query);
+
+		// The earlier computation, with the background as the union of the sets
+		Map<String, Double> pvals = new HashMap<String, Double>();
+		for (int i = 0; i < SETS.length; i++)
+		{
+			List<String> hit = new ArrayList<String>(Arrays.asList(SETS[i].split(" ")));
+			hit.retainAll(query);
+			Assert.assertEquals(hit.size(), result.getHitCount(i));
+
+			Collections.sort(hit);
+			Assert.assertEquals(hit, result.getHitGenes(i));
+
+			pvals.put("S" + i, FishersExactTest.calcEnrichmentPval(background.size(), query.size(),
+				SETS[i].split(" ").length, hit.size()));
+		}
+		Map<String, Double> qvals = FDR.getQVals(pvals, null);
+
+		Assert.assertEquals("[0, 1, 2, 3, 5]", Arrays.toString(result.getHitSets()));
+
+		for (int i = 0; i < SETS.length; i++)
+		{
+			Assert.assertEquals(pvals.get("S" + i), result.getPval(i), 1E-9);
+			Assert.assertEquals(qvals.get("S" + i), result.getQval(i), 1E-9);
+		}
+	}
+
+	/**
+	 * Members of the sets. Set 0 contains most of the query, set 1 a part of it, sets 2 and 3 share
+	 * one query gene each, and sets 4 and 6 have none.
+	 */
+	private static final String[] SETS = {
+		"A B C D E F G",
+		"E F G H I J K L M N",
+		"A O P Q R S",
+		"B T U V W X Y Z",
+		"O P Q R",
+		"G H I J K L M N O P Q R S T",
+		"U V W X"};
+
+	/**
+	 * Query genes, the last one is not in any set.
+	 */
+	private static final String QUERY = "A B C D E G H NONE";
+}
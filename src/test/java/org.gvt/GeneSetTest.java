@@ -0,0 +1,42 @@
+package org.gvt;
+
+import org.gvt.util.CancerGenes;
+import org.gvt.util.GeneSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Checks the set operations on gene bitsets, and the cancer genes read from the resource.
+ *
+ * @author Ozgun Babur
+ */
+public class GeneSetTest
+{
+	@Test
+	public void setOperations()
+	{
+		GeneSet a = new GeneSet(Arrays.asList("TP53", "PTEN", "EGFR"));
+		GeneSet b = new GeneSet(Arrays.asList("EGFR", "KRAS"));
+
+		Assert.assertEquals(3, a.size());
+		Assert.assertTrue(a.contains("PTEN"));
+		Assert.assertFalse(a.contains("KRAS"));
+		Assert.assertFalse(a.contains("NOT-A-GENE-SYMBOL"));
+
+		Assert.assertEquals(new HashSet<String>(Arrays.asList("EGFR")), a.and(b).getSymbols());
+		Assert.assertTrue(a.intersects(b));
+		Assert.assertFalse(a.and(b).intersects(new GeneSet(Arrays.asList("TP53", "KRAS"))));
+	}
+
+	@Test
+	public void readCancerGenes()
+	{
+		Assert.assertEquals(1085, CancerGenes.getGenes().size());
+		Assert.assertTrue(CancerGenes.isCancerGene("TP53"));
+		Assert.assertTrue(CancerGenes.isCancerGene("MEF2B"));
+		Assert.assertFalse(CancerGenes.isCancerGene("GAPDH"));
+	}
+}
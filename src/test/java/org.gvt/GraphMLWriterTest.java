@@ -0,0 +1,183 @@
+package org.gvt;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.gvt.command.CreateCommand;
+import org.gvt.command.CreateConnectionCommand;
+import org.gvt.model.CompoundModel;
+import org.gvt.model.EdgeModel;
+import org.gvt.model.NodeModel;
+import org.gvt.util.GraphMLWriter;
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes a small compound graph with GraphMLWriter, and checks that the output has the keys,
+ * nodes, edges and data of the earlier document based writer, in the same order.
+ *
+ * @author Ozgun Babur
+ */
+public class GraphMLWriterTest
+{
+	@Test
+	public void writeSameStructure() throws Exception
+	{
+		CompoundModel root = new CompoundModel();
+		root.setAsRoot();
+
+		NodeModel a = new NodeModel(new Rectangle(10, 20, 40, 30));
+		a.setText(TEXT);
+		a.setHighlight(true);
+		new CreateCommand(root, a).execute();
+
+		CompoundModel compound = new CompoundModel(new Rectangle(100, 100, 80, 80));
+		new CreateCommand(root, compound).execute();
+
+		NodeModel b = new NodeModel(new Rectangle(110, 110, 40, 30));
+		new CreateCommand(compound, b).execute();
+
+		CreateConnectionCommand ccc = new CreateConnectionCommand();
+		ccc.setSource(a);
+		ccc.setTarget(b);
+		ccc.setConnection(new EdgeModel());
+		ccc.execute();
+
+		StringWriter writer = new StringWriter();
+		new GraphMLWriter().write(root, writer);
+
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		Document doc = factory.newDocumentBuilder().parse(
+			new InputSource(new StringReader(writer.toString())));
+
+		Element graphml = doc.getDocumentElement();
+		Assert.assertEquals("graphml", graphml.getLocalName());
+		Assert.assertEquals(NAMESPACE, graphml.getNamespaceURI());
+
+		List<String> keys = new ArrayList<String>();
+		for (Element key : getChildren(graphml, "key"))
+		{
+			Assert.assertEquals(key.getAttribute("id"), key.getAttribute("attr.name"));
+			keys.add(key.getAttribute("id") + " " + key.getAttribute("for") + " " +
+				key.getAttribute("attr.type"));
+		}
+		Assert.assertEquals(join(KEYS), join(keys));
+
+		List<Element> graphs = getChildren(graphml, "graph");
+		Assert.assertEquals(1, graphs.size());
+
+		Element graph = graphs.get(0);
+		Assert.assertEquals("", graph.getAttribute("id"));
+		Assert.assertEquals("undirected", graph.getAttribute("edgedefault"));
+
+		// The margin of a compound node is written to the graph after the node, and the margin of
+		// the graph at its end
+		Assert.assertEquals("node:n0 node:n1 data:margin edge:e0 data:margin", describe(graph));
+
+		Element nodeA = getChildren(graph, "node").get(0);
+		Assert.assertEquals(NODE_DATA + " highlightColor shape", describe(nodeA));
+		Assert.assertEquals(TEXT, getData(nodeA, "text"));
+		Assert.assertEquals("10", getData(nodeA, "x"));
+		Assert.assertEquals("20", getData(nodeA, "y"));
+
+		Element nodeC = getChildren(graph, "node").get(1);
+		Assert.assertEquals(NODE_DATA + " graph:n1:", describe(nodeC));
+
+		Element subgraph = getChildren(nodeC, "graph").get(0);
+		Assert.assertEquals("node:n1:n0 data:margin", describe(subgraph));
+		Assert.assertEquals(NODE_DATA + " shape",
+			describe(getChildren(subgraph, "node").get(0)));
+
+		Element edge = getChildren(graph, "edge").get(0);
+		Assert.assertEquals("n0", edge.getAttribute("source"));
+		Assert.assertEquals("n1:n0", edge.getAttribute("target"));
+		Assert.assertEquals("color text textFont textColor style arrow width", describe(edge));
+	}
+
+	/**
+	 * Lists the child elements with the ids of nodes, edges and graphs, and the keys of data. Data
+	 * of nodes and edges are listed by their keys only.
+	 */
+	private String describe(Element element)
+	{
+		boolean isGraph = element.getLocalName().equals("graph");
+		List<String> list = new ArrayList<String>();
+
+		for (Element child : getChildren(element, null))
+		{
+			String name = child.getLocalName();
+
+			if (!name.equals("data")) list.add(name + ":" + child.getAttribute("id"));
+			else if (isGraph) list.add("data:" + child.getAttribute("key"));
+			else list.add(child.getAttribute("key"));
+		}
+		return join(list);
+	}
+
+	private String getData(Element element, String key)
+	{
+		for (Element data : getChildren(element, "data"))
+		{
+			if (data.getAttribute("key").equals(key)) return data.getTextContent();
+		}
+		return null;
+	}
+
+	private List<Element> getChildren(Element element, String name)
+	{
+		List<Element> list = new ArrayList<Element>();
+
+		for (Node n = element.getFirstChild(); n != null; n = n.getNextSibling())
+		{
+			if (n instanceof Element && (name == null || name.equals(n.getLocalName())))
+			{
+				Assert.assertEquals(NAMESPACE, n.getNamespaceURI());
+				list.add((Element) n);
+			}
+		}
+		return list;
+	}
+
+	private String join(List<String> list)
+	{
+		StringBuilder sb = new StringBuilder();
+		for (String s : list)
+		{
+			if (sb.length() > 0) sb.append(' ');
+			sb.append(s);
+		}
+		return sb.toString();
+	}
+
+	private static final String NAMESPACE = "http://graphml.graphdrawing.org/xmlns";
+
+	/**
+	 * Keys of the earlier writer, as id, domain and type, in their order.
+	 */
+	private static final List<String> KEYS = Arrays.asList("x node int", "y node int",
+		"height node int", "width node int", "shape node string", "clusterID node string",
+		"margin graph int", "style edge string", "arrow edge string", "bendpoint edge string",
+		"color all string", "borderColor all string", "text all string", "textFont all string",
+		"textColor all string", "highlightColor all string");
+
+	/**
+	 * Data that every node has, in their order.
+	 */
+	private static final String NODE_DATA =
+		"x y height width color borderColor text textFont textColor clusterID";
+
+	/**
+	 * Node text with characters that have to be escaped.
+	 */
+	private static final String TEXT = "A<B & \"C\"";
+}
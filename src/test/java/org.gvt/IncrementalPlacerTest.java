@@ -0,0 +1,98 @@
+package org.gvt;
+
+import org.gvt.layout.IncrementalPlacer;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Adds new nodes to a laid out grid graph, and checks that the existing drawing is kept and the
+ * new nodes are placed near their neighbors without overlaps.
+ *
+ * @author Ozgun Babur
+ */
+public class IncrementalPlacerTest
+{
+	@Test
+	public void placeNewNodes()
+	{
+		int n = SIDE * SIDE;
+		int total = n + ADDED + SEPARATE;
+
+		IncrementalPlacer placer = new IncrementalPlacer(total, 1);
+
+		for (int v = 0; v < n; v++)
+		{
+			placer.setNode(v, x(v), y(v), NODE_SIZE, NODE_SIZE, false);
+
+			if (v % SIDE + 1 < SIDE) placer.addEdge(v, v + 1);
+			if (v + SIDE < n) placer.addEdge(v, v + SIDE);
+		}
+
+		// New nodes attached to the existing ones, and a new part that is not connected to them
+
+		for (int v = n; v < total; v++)
+		{
+			placer.setNode(v, 0, 0, NODE_SIZE, NODE_SIZE, true);
+		}
+		for (int i = 0; i < ADDED; i++)
+		{
+			placer.addEdge(n + i, (i * 37) % n);
+		}
+		for (int v = n + ADDED + 1; v < total; v++)
+		{
+			placer.addEdge(v - 1, v);
+		}
+
+		placer.place();
+
+		for (int v = 0; v < n; v++)
+		{
+			double moved = Math.hypot(placer.getX(v) - x(v), placer.getY(v) - y(v));
+
+			// Only the neighbors of the new nodes move, and not far
+			if (v % 37 != 0 || v / 37 >= ADDED) Assert.assertEquals(0, moved, 0);
+			else Assert.assertTrue(moved <= SPACING);
+		}
+
+		for (int i = 0; i < ADDED; i++)
+		{
+			int u = n + i;
+			int v = (i * 37) % n;
+			double d = Math.hypot(placer.getX(u) - placer.getX(v), placer.getY(u) - placer.getY(v));
+			Assert.assertTrue(d < 3 * SPACING);
+		}
+
+		// The new part is at the right side of the existing drawing
+		for (int v = n + ADDED; v < total; v++)
+		{
+			Assert.assertTrue(placer.getX(v) > x(SIDE - 1));
+		}
+
+		for (int u = n; u < total; u++)
+		{
+			for (int v = 0; v < total; v++)
+			{
+				if (u == v) continue;
+				double d = Math.hypot(placer.getX(u) - placer.getX(v),
+					placer.getY(u) - placer.getY(v));
+				Assert.assertTrue(d >= NODE_SIZE);
+			}
+		}
+	}
+
+	private double x(int v)
+	{
+		return (v % SIDE) * SPACING;
+	}
+
+	private double y(int v)
+	{
+		return (v / SIDE) * SPACING;
+	}
+
+	private static final int SIDE = 20;
+	private static final int ADDED = 10;
+	private static final int SEPARATE = 5;
+	private static final double NODE_SIZE = 40;
+	private static final double SPACING = 80;
+}
@@ -0,0 +1,129 @@
+package org.gvt;
+
+import org.gvt.layout.MultilevelEmbedder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Checks the multilevel placement on a grid graph, and on graphs with isolated nodes, loops and
+ * multiple edges.
+ *
+ * @author Ozgun Babur
+ */
+public class MultilevelEmbedderTest
+{
+	@Test
+	public void gridLayout()
+	{
+		MultilevelEmbedder embedder = createGrid(1);
+		embedder.embed();
+
+		int n = SIDE * SIDE;
+
+		for (int v = 0; v < n; v++)
+		{
+			Assert.assertFalse(Double.isNaN(embedder.getX(v)) || Double.isNaN(embedder.getY(v)));
+		}
+
+		// Neighbors are closer than random pairs
+
+		double edgeLength = 0;
+		int edges = 0;
+
+		for (int i = 0; i < SIDE; i++)
+		{
+			for (int j = 0; j + 1 < SIDE; j++)
+			{
+				edgeLength += distance(embedder, i * SIDE + j, i * SIDE + j + 1);
+				edgeLength += distance(embedder, j * SIDE + i, (j + 1) * SIDE + i);
+				edges += 2;
+			}
+		}
+		edgeLength /= edges;
+
+		Random r = new Random(2);
+		double pairDistance = 0;
+
+		for (int i = 0; i < 1000; i++)
+		{
+			pairDistance += distance(embedder, r.nextInt(n), r.nextInt(n)) / 1000;
+		}
+
+		Assert.assertTrue(edgeLength * 4 < pairDistance);
+
+		// Nodes do not overlap
+
+		for (int u = 0; u < n; u++)
+		{
+			for (int v = u + 1; v < n; v++)
+			{
+				Assert.assertTrue(distance(embedder, u, v) > NODE_SIZE);
+			}
+		}
+	}
+
+	@Test
+	public void sameSeedSameLayout()
+	{
+		MultilevelEmbedder e1 = createGrid(5);
+		MultilevelEmbedder e2 = createGrid(5);
+		e1.embed();
+		e2.embed();
+
+		for (int v = 0; v < SIDE * SIDE; v++)
+		{
+			Assert.assertEquals(e1.getX(v), e2.getX(v), 0);
+			Assert.assertEquals(e1.getY(v), e2.getY(v), 0);
+		}
+	}
+
+	@Test
+	public void irregularGraphs()
+	{
+		new MultilevelEmbedder(0, 1).embed();
+
+		MultilevelEmbedder embedder = new MultilevelEmbedder(100, 1);
+
+		// A star with loops, multiple edges and isolated nodes
+		for (int v = 1; v < 60; v++)
+		{
+			embedder.addEdge(0, v);
+			embedder.addEdge(v, 0);
+			embedder.addEdge(v, v);
+		}
+		embedder.embed();
+
+		for (int v = 0; v < 100; v++)
+		{
+			Assert.assertFalse(Double.isNaN(embedder.getX(v)) || Double.isNaN(embedder.getY(v)));
+		}
+	}
+
+	private MultilevelEmbedder createGrid(long seed)
+	{
+		MultilevelEmbedder embedder = new MultilevelEmbedder(SIDE * SIDE, seed);
+
+		for (int i = 0; i < SIDE; i++)
+		{
+			for (int j = 0; j < SIDE; j++)
+			{
+				int v = i * SIDE + j;
+				embedder.setSize(v, NODE_SIZE, NODE_SIZE);
+				if (j + 1 < SIDE) embedder.addEdge(v, v + 1);
+				if (i + 1 < SIDE) embedder.addEdge(v, v + SIDE);
+			}
+		}
+		return embedder;
+	}
+
+	private double distance(MultilevelEmbedder embedder, int u, int v)
+	{
+		return Math.hypot(embedder.getX(u) - embedder.getX(v), embedder.getY(u) - embedder.getY(v));
+	}
+
+	private static final int SIDE = 20;
+
+	private static final double NODE_SIZE = 40;
+}
@@ -0,0 +1,256 @@
+package org.gvt;
+
+import org.cbio.causality.model.Change;
+import org.cbio.causality.util.Overlap;
+import org.cbio.causality.util.Summary;
+import org.junit.Assert;
+import org.junit.Test;
+import org.patika.mada.algorithm.MutexSearcher;
+
+import java.util.*;
+
+/**
+ * Compares the mutex groups and p-values of MutexSearcher with the earlier search on Change
+ * arrays, on a small fixed alteration matrix.
+ *
+ * @author Ozgun Babur
+ */
+public class MutexSearcherTest
+{
+	@Test
+	public void compareWithChangeArraySearch()
+	{
+		Change[][] genomic = parse(GENOMIC);
+		Change[][] mutation = parse(MUTATION);
+
+		// Seeds in the decreasing order of genomic alterations, like the action orders them
+		int[] seeds = {0, 1, 5, 4, 2, 3, 6, 7};
+
+		List<Group> expected = searchOnChanges(genomic, mutation, seeds);
+
+		// Gene 5 joins the group of gene 1 with its mutations, gene 6 is mutex where it has data
+		Assert.assertEquals("[0, 1, 2, 3, 5, 6]", expected.get(0).members.toString());
+
+		for (boolean parallel : new boolean[]{false, true})
+		{
+			MutexSearcher searcher = new MutexSearcher(genomic, mutation, REGIONS);
+			searcher.setParallel(parallel);
+
+			List<MutexSearcher.Group> groups = searcher.search(seeds, PVAL_THR);
+			Assert.assertEquals(expected.size(), groups.size());
+
+			for (int i = 0; i < groups.size(); i++)
+			{
+				Group exp = expected.get(i);
+				MutexSearcher.Group group = groups.get(i);
+
+				Assert.assertEquals(exp.members.toString(),
+					Arrays.toString(group.getMembers()));
+
+				double[] pvals = group.getPvals();
+				double[] expPvals = exp.getPvals();
+
+				for (int j = 0; j < pvals.length; j++)
+				{
+					Assert.assertEquals(expPvals[j], pvals[j], 1E-12);
+				}
+				Assert.assertEquals(exp.getMeanPval(), group.getMeanPval(), 1E-12);
+			}
+		}
+	}
+
+	private Change[][] parse(String[] rows)
+	{
+		Change[][] changes = new Change[rows.length][];
+
+		for (int i = 0; i < rows.length; i++)
+		{
+			changes[i] = new Change[rows[i].length()];
+
+			for (int j = 0; j < changes[i].length; j++)
+			{
+				char c = rows[i].charAt(j);
+				changes[i][j] = c == 'x' ? Change.UNKNOWN_CHANGE :
+					c == '-' ? Change.NO_DATA : Change.NO_CHANGE;
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * The earlier search, which grows each seed on the Change arrays of the members.
+	 */
+	private List<Group> searchOnChanges(Change[][] genomic, Change[][] mutation, int[] seeds)
+	{
+		List<Group> groups = new ArrayList<Group>();
+
+		for (int seed : seeds)
+		{
+			Group group = new Group(seed, genomic);
+
+			for (int i = 0; i < MAX_GROWTH; i++)
+			{
+				int best = -1;
+				double bestPval = 1;
+
+				for (int cand : seeds)
+				{
+					if (group.members.contains(cand)) continue;
+
+					group.add(cand, genomic, mutation);
+					double pval = group.getMeanPval();
+
+					if (pval < bestPval)
+					{
+						bestPval = pval;
+						best = cand;
+					}
+					group.removeLast();
+				}
+
+				if (best < 0) break;
+				group.add(best, genomic, mutation);
+			}
+
+			while (group.members.size() > 1 && Summary.max(group.getPvals()) > PVAL_THR)
+			{
+				group.removeLast();
+			}
+
+			if (group.members.size() > 1 && !groups.contains(group)) groups.add(group);
+		}
+		return groups;
+	}
+
+	private static class Group
+	{
+		LinkedList<Integer> members = new LinkedList<Integer>();
+		LinkedList<Change[]> alts = new LinkedList<Change[]>();
+
+		Group(int seed, Change[][] genomic)
+		{
+			members.add(seed);
+			alts.add(genomic[seed]);
+		}
+
+		void add(int gene, Change[][] genomic, Change[][] mutation)
+		{
+			alts.add(hasDNAProximity(gene) ? mutation[gene] : genomic[gene]);
+			members.add(gene);
+		}
+
+		private boolean hasDNAProximity(int gene)
+		{
+			for (int region : REGIONS[gene])
+			{
+				for (int member : members)
+				{
+					for (int r : REGIONS[member])
+					{
+						if (r == region) return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		void removeLast()
+		{
+			members.removeLast();
+			alts.removeLast();
+		}
+
+		double[] getPvals()
+		{
+			double[] pval = new double[members.size()];
+
+			for (int i = 0; i < pval.length; i++)
+			{
+				pval[i] = Overlap.calcMutexPval(alts.get(i), uniteOthers(i));
+			}
+			return pval;
+		}
+
+		double getMeanPval()
+		{
+			return Summary.geometricMean(getPvals());
+		}
+
+		/**
+		 * Unites the alterations of the members other than the i-th one. Absent data is kept only
+		 * if there is a single other member.
+		 */
+		Change[] uniteOthers(int index)
+		{
+			if (alts.size() == 2) return alts.get(1 - index);
+
+			Change[] ch = new Change[alts.getFirst().length];
+
+			for (int i = 0; i < ch.length; i++)
+			{
+				ch[i] = Change.NO_CHANGE;
+
+				for (int j = 0; j < alts.size(); j++)
+				{
+					if (j != index && alts.get(j)[i].isAltered())
+					{
+						ch[i] = Change.UNKNOWN_CHANGE;
+						break;
+					}
+				}
+			}
+			return ch;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return new HashSet<Integer>(members).hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			return obj instanceof Group &&
+				new HashSet<Integer>(((Group) obj).members).equals(new HashSet<Integer>(members));
+		}
+	}
+
+	private static final double PVAL_THR = 0.05;
+
+	private static final int MAX_GROWTH = 5;
+
+	/**
+	 * Genomic alterations of the genes, x for altered, - for no data. Genes 0 to 3 are mutually
+	 * exclusive. Gene 5 is in the same amplicon with gene 1, so they have the same genomic
+	 * alterations.
+	 */
+	private static final String[] GENOMIC = {
+		"xxxxxxxx........................",
+		"........xxxxxxx.................",
+		"...............xxxxxx...........",
+		".....................xxxxx......",
+		"x..x....xx.....x.....x....xx....",
+		"........xxxxxxx.................",
+		"----------...................xxx",
+		"................................"};
+
+	/**
+	 * Mutations of the genes, which are used for the genes that are in the same region with a
+	 * member of the group.
+	 */
+	private static final String[] MUTATION = {
+		"xx..............................",
+		"........xx......................",
+		"................................",
+		"................................",
+		"................................",
+		"..........................xxx...",
+		"................................",
+		"................................"};
+
+	/**
+	 * Genomic regions of the genes. Genes 1 and 5 are in the same region.
+	 */
+	private static final int[][] REGIONS = {{}, {0}, {}, {}, {}, {0}, {}, {}};
+}
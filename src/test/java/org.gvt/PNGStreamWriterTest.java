@@ -0,0 +1,72 @@
+package org.gvt;
+
+import org.gvt.util.PNGStreamWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Writes images row by row with PNGStreamWriter, and checks that they are read back the same.
+ *
+ * @author Ozgun Babur
+ */
+public class PNGStreamWriterTest
+{
+	@Test
+	public void readBackWrittenImages() throws IOException
+	{
+		Random r = new Random(1);
+
+		// The large image is spread over several data chunks
+
+		check(1, 1, r);
+		check(7, 3, r);
+		check(300, 400, r);
+	}
+
+	private void check(int width, int height, Random r) throws IOException
+	{
+		byte[] rgb = new byte[width * height * 3];
+		r.nextBytes(rgb);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PNGStreamWriter writer = new PNGStreamWriter(out, width, height);
+
+		for (int y = 0; y < height; y++)
+		{
+			writer.writeRow(rgb, y * width * 3);
+		}
+		writer.close();
+
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+
+		Assert.assertEquals(width, image.getWidth());
+		Assert.assertEquals(height, image.getHeight());
+
+		for (int y = 0; y < height; y++)
+		{
+			for (int x = 0; x < width; x++)
+			{
+				int i = (y * width + x) * 3;
+				int expected = ((rgb[i] & 0xFF) << 16) | ((rgb[i + 1] & 0xFF) << 8) |
+					(rgb[i + 2] & 0xFF);
+
+				Assert.assertEquals(expected, image.getRGB(x, y) & 0xFFFFFF);
+			}
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectMissingRows() throws IOException
+	{
+		PNGStreamWriter writer = new PNGStreamWriter(new ByteArrayOutputStream(), 2, 2);
+		writer.writeRow(new byte[6], 0);
+		writer.close();
+	}
+}
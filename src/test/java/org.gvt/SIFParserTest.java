@@ -0,0 +1,86 @@
+package org.gvt;
+
+import org.gvt.util.SIFParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses small SIF files, and checks that the fields are split at tabs if the file has any tab,
+ * otherwise at spaces.
+ *
+ * @author Ozgun Babur
+ */
+public class SIFParserTest
+{
+	@Test
+	public void splitAtTabsAfterLoneNode() throws IOException
+	{
+		Result result = parse("LONE NODE\nGENE A\t" + TYPE + "\tGENE B\nGENE C\n");
+
+		Assert.assertEquals("[LONE NODE, GENE A, GENE B, GENE C]", result.nodes.toString());
+		Assert.assertEquals("[GENE A > GENE B]", result.edges.toString());
+	}
+
+	@Test
+	public void splitAtSpacesWithoutTab() throws IOException
+	{
+		Result result = parse("A\nA " + TYPE + " B\nC " + TYPE + " A\n");
+
+		Assert.assertEquals("[A, B, C]", result.nodes.toString());
+		Assert.assertEquals("[A > B, C > A]", result.edges.toString());
+	}
+
+	private Result parse(String content) throws IOException
+	{
+		File file = File.createTempFile("parser", ".sif");
+
+		try
+		{
+			Writer writer = new FileWriter(file);
+			writer.write(content);
+			writer.close();
+
+			Result result = new Result();
+			SIFParser parser = new SIFParser(result);
+			parser.addRelation(TYPE, true);
+			parser.parse(file);
+			return result;
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+	/**
+	 * Names of the parsed nodes and relations.
+	 */
+	private static class Result implements SIFParser.Handler
+	{
+		List<String> nodes = new ArrayList<String>();
+		List<String> edges = new ArrayList<String>();
+
+		public void node(int id, String name)
+		{
+			nodes.add(name);
+		}
+
+		public void edge(int source, int target, String relation, String[] tokens)
+		{
+			edges.add(nodes.get(source) + " > " + nodes.get(target));
+		}
+
+		public void group(String[] tokens)
+		{
+		}
+	}
+
+	private static final String TYPE = "controls-state-change-of";
+}
@@ -0,0 +1,86 @@
+package org.gvt;
+
+import org.gvt.util.SVGStreamGraphics2D;
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+/**
+ * Paints on SVGStreamGraphics2D, and checks that the written document is well-formed SVG with the
+ * painted elements.
+ *
+ * @author Ozgun Babur
+ */
+public class SVGStreamGraphics2DTest
+{
+	@Test
+	public void writeWellFormedDocument() throws Exception
+	{
+		StringWriter writer = new StringWriter();
+		SVGStreamGraphics2D svg = new SVGStreamGraphics2D(writer, 200, 100);
+
+		svg.setColor(new Color(10, 20, 30, 128));
+		svg.fillRect(5, 5, 50, 30);
+		svg.setStroke(new BasicStroke(2, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+		svg.drawRoundRect(60, 5, 50, 30, 10, 10);
+
+		// Graphics created from this one write to the same document, with their own clip
+
+		Graphics2D g = (Graphics2D) svg.create();
+		g.translate(100, 50);
+		g.rotate(0.5);
+		g.clipRect(0, 0, 40, 40);
+		g.setPaint(new GradientPaint(0, 0, Color.RED, 40, 40, Color.BLUE));
+		g.fill(new Ellipse2D.Double(0, 0, 40, 40));
+		g.dispose();
+
+		svg.setColor(Color.BLACK);
+		svg.drawString(TEXT, 10, 80);
+		svg.drawImage(new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB), 150, 60, null);
+		svg.close();
+
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		Document doc = factory.newDocumentBuilder().parse(
+			new InputSource(new StringReader(writer.toString())));
+
+		Element root = doc.getDocumentElement();
+		Assert.assertEquals("svg", root.getLocalName());
+		Assert.assertEquals(SVG_NS, root.getNamespaceURI());
+		Assert.assertEquals("200", root.getAttribute("width"));
+		Assert.assertEquals("100", root.getAttribute("height"));
+
+		Assert.assertEquals(1, count(doc, "linearGradient"));
+		Assert.assertEquals(1, count(doc, "image"));
+		Assert.assertTrue(count(doc, "clipPath") >= 1);
+
+		// Two rectangles, the ellipse, and the path of each clip
+		Assert.assertEquals(3 + count(doc, "clipPath"), count(doc, "path"));
+
+		NodeList texts = doc.getElementsByTagNameNS(SVG_NS, "text");
+		Assert.assertEquals(1, texts.getLength());
+		Assert.assertEquals(TEXT, texts.item(0).getTextContent());
+	}
+
+	private int count(Document doc, String name)
+	{
+		return doc.getElementsByTagNameNS(SVG_NS, name).getLength();
+	}
+
+	private static final String SVG_NS = "http://www.w3.org/2000/svg";
+
+	/**
+	 * Text with characters that have to be escaped.
+	 */
+	private static final String TEXT = "A<B & \"C\" > 'D'";
+}
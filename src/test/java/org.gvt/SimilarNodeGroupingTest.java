@@ -0,0 +1,279 @@
+package org.gvt;
+
+import org.gvt.model.basicsif.SimilarNodeGrouper;
+import org.gvt.util.SIFParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Compares the grouping of similar SIF nodes with the earlier pairwise comparison, on generated
+ * SIF graphs.
+ *
+ * @author Ozgun Babur
+ */
+public class SimilarNodeGroupingTest
+{
+	private static final String[] TYPES =
+		{"controls-state-change-of", "controls-expression-of", "in-complex-with", "interacts-with"};
+
+	private static final boolean[] DIRECTED = {true, true, false, false};
+
+	@Test
+	public void compareWithPairwiseGrouping() throws IOException
+	{
+		Random r = new Random(1);
+
+		for (int i = 0; i < 300; i++)
+		{
+			Network net = new Network(generateSIF(r, 10 + r.nextInt(60)));
+			Assert.assertEquals(net.groupPairwise(), net.groupWithSignatures());
+		}
+	}
+
+	/**
+	 * Generates a SIF text with families of nodes that have the same relations, pairs of nodes
+	 * that differ only by their relations to each other, and random relations.
+	 */
+	private String generateSIF(Random r, int size)
+	{
+		StringBuilder sb = new StringBuilder();
+		int node = 0;
+
+		while (node < size)
+		{
+			int kind = r.nextInt(3);
+			int members = 2 + r.nextInt(4);
+			int neighbors = 1 + r.nextInt(4);
+
+			// Relations of the family to random nodes
+			List<String> relations = new ArrayList<String>();
+			for (int i = 0; i < neighbors; i++)
+			{
+				int type = r.nextInt(TYPES.length);
+				String neighbor = "G" + r.nextInt(size);
+				relations.add(r.nextBoolean() ? ">" + type + "\t" + neighbor : "<" + type + "\t" + neighbor);
+			}
+
+			int first = node;
+			for (int m = 0; m < members && node < size; m++, node++)
+			{
+				if (kind == 0) continue;
+
+				for (String rel : relations)
+				{
+					String[] t = rel.split("\t");
+					String type = TYPES[Integer.parseInt(t[0].substring(1))];
+					if (t[0].startsWith(">")) sb.append("G").append(node).append("\t").append(type)
+						.append("\t").append(t[1]).append("\n");
+					else sb.append(t[1]).append("\t").append(type).append("\t")
+						.append("G").append(node).append("\n");
+				}
+
+				// Members of some families are also related to each other
+				if (kind == 2 && m > 0)
+				{
+					int type = r.nextInt(TYPES.length);
+					sb.append("G").append(first).append("\t").append(TYPES[type]).append("\t")
+						.append("G").append(node).append("\n");
+					if (DIRECTED[type])
+					{
+						sb.append("G").append(node).append("\t").append(TYPES[type]).append("\t")
+							.append("G").append(first).append("\n");
+					}
+				}
+			}
+
+			// Noise
+			if (r.nextInt(4) == 0)
+			{
+				sb.append("G").append(r.nextInt(size)).append("\t")
+					.append(TYPES[r.nextInt(TYPES.length)]).append("\t")
+					.append("G").append(r.nextInt(size)).append("\n");
+			}
+		}
+
+		for (int i = 0; i < size; i++)
+		{
+			sb.append("G").append(i).append("\n");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * A parsed SIF graph.
+	 */
+	private static class Network implements SIFParser.Handler
+	{
+		List<String> names = new ArrayList<String>();
+		List<int[]> edges = new ArrayList<int[]>();
+		Map<String, Integer> typeIds = new HashMap<String, Integer>();
+
+		Network(String sif) throws IOException
+		{
+			for (int i = 0; i < TYPES.length; i++) typeIds.put(TYPES[i], i);
+
+			SIFParser parser = new SIFParser(this);
+			for (int i = 0; i < TYPES.length; i++) parser.addRelation(TYPES[i], DIRECTED[i]);
+			parser.parse(new ByteArrayInputStream(sif.getBytes()), -1);
+		}
+
+		public void node(int id, String name)
+		{
+			names.add(name);
+		}
+
+		public void edge(int source, int target, String relation, String[] tokens)
+		{
+			edges.add(new int[]{source, target, typeIds.get(relation)});
+		}
+
+		public void group(String[] tokens)
+		{
+		}
+
+		Set<Set<String>> groupWithSignatures()
+		{
+			SimilarNodeGrouper grouper = new SimilarNodeGrouper(names.toArray(new String[names.size()]));
+			for (int[] e : edges)
+			{
+				grouper.addRelation(e[0], e[1], TYPES[e[2]], DIRECTED[e[2]]);
+			}
+
+			Set<Set<String>> groups = new HashSet<Set<String>>();
+			for (int[] group : grouper.findGroups())
+			{
+				Set<String> members = new HashSet<String>();
+				for (int member : group) members.add(names.get(member));
+				Assert.assertTrue(groups.add(members));
+			}
+			return groups;
+		}
+
+		/**
+		 * The earlier grouping, which compares the relation strings of each node pair.
+		 */
+		Set<Set<String>> groupPairwise()
+		{
+			Map<String, Set<String>> incomingMap = new HashMap<String, Set<String>>();
+			Map<String, Set<String>> outgoingMap = new HashMap<String, Set<String>>();
+
+			for (String name : names)
+			{
+				incomingMap.put(name, new HashSet<String>());
+				outgoingMap.put(name, new HashSet<String>());
+			}
+
+			for (int[] e : edges)
+			{
+				String source = names.get(e[0]);
+				String target = names.get(e[1]);
+
+				incomingMap.get(target).add(TYPES[e[2]] + " " + source);
+				outgoingMap.get(source).add(TYPES[e[2]] + " " + target);
+
+				if (!DIRECTED[e[2]])
+				{
+					outgoingMap.get(target).add(TYPES[e[2]] + " " + source);
+					incomingMap.get(source).add(TYPES[e[2]] + " " + target);
+				}
+			}
+
+			Set<Set<String>> groups = new HashSet<Set<String>>();
+
+			for (String node : names)
+			{
+				Set<String> group = new HashSet<String>();
+				for (String n : names)
+				{
+					if (similar(n, node, incomingMap, outgoingMap)) group.add(n);
+				}
+
+				if (group.size() > 1 && !betterToSkipGrouping(group, incomingMap, outgoingMap))
+				{
+					groups.add(group);
+				}
+			}
+			return groups;
+		}
+
+		private boolean betterToSkipGrouping(Set<String> group, Map<String, Set<String>> incomingMap,
+			Map<String, Set<String>> outgoingMap)
+		{
+			if (group.size() > 3) return false;
+
+			String node = group.iterator().next();
+			Set<String> conn = new HashSet<String>();
+			for (String s : incomingMap.get(node)) conn.add(s.substring(s.indexOf(" ") + 1));
+			for (String s : outgoingMap.get(node)) conn.add(s.substring(s.indexOf(" ") + 1));
+			conn.removeAll(group);
+			return conn.isEmpty();
+		}
+
+		private boolean similar(String n1, String n2, Map<String, Set<String>> incomingMap,
+			Map<String, Set<String>> outgoingMap)
+		{
+			if (incomingMap.get(n1).size() != incomingMap.get(n2).size() ||
+				outgoingMap.get(n1).size() != outgoingMap.get(n2).size())
+			{
+				return false;
+			}
+			if (incomingMap.get(n1).containsAll(incomingMap.get(n2)) &&
+				outgoingMap.get(n1).containsAll(outgoingMap.get(n2)))
+			{
+				return true;
+			}
+
+			Set<String> n1_in = new HashSet<String>(incomingMap.get(n1));
+			Set<String> n2_in = new HashSet<String>(incomingMap.get(n2));
+			Set<String> n1_out = new HashSet<String>(outgoingMap.get(n1));
+			Set<String> n2_out = new HashSet<String>(outgoingMap.get(n2));
+
+			removeCommon(n1_in, n2_in);
+			removeCommon(n1_out, n2_out);
+
+			return containsOnlyInterEdges(n1, n2, getParsed(n1_in), getParsed(n2_in)) &&
+				containsOnlyInterEdges(n1, n2, getParsed(n1_out), getParsed(n2_out));
+		}
+
+		private void removeCommon(Set<String> set1, Set<String> set2)
+		{
+			Set<String> temp = new HashSet<String>(set1);
+			set1.removeAll(set2);
+			set2.removeAll(temp);
+		}
+
+		private boolean containsOnlyInterEdges(String name1, String name2,
+			Map<String, Set<String>> edges1, Map<String, Set<String>> edges2)
+		{
+			for (String type : edges1.keySet())
+			{
+				if (!edges2.containsKey(type)) return false;
+				if (edges1.get(type).size() != 1 || !edges1.get(type).iterator().next().equals(name2))
+					return false;
+			}
+			for (String type : edges2.keySet())
+			{
+				if (!edges1.containsKey(type)) return false;
+				if (edges2.get(type).size() != 1 || !edges2.get(type).iterator().next().equals(name1))
+					return false;
+			}
+			return true;
+		}
+
+		private Map<String, Set<String>> getParsed(Set<String> edges)
+		{
+			Map<String, Set<String>> parsed = new HashMap<String, Set<String>>();
+			for (String edge : edges)
+			{
+				String[] tok = edge.split(" ");
+				if (!parsed.containsKey(tok[0])) parsed.put(tok[0], new HashSet<String>());
+				parsed.get(tok[0]).add(tok[1]);
+			}
+			return parsed;
+		}
+	}
+}